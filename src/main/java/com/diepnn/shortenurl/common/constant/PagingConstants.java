@@ -5,4 +5,5 @@ public class PagingConstants {
     public static final String DEFAULT_PAGE_SIZE = "10";
     public static final String DEFAULT_SORT_FIELD = "createdDatetime";
     public static final String DEFAULT_SORT_DIRECTION = "DESC";
+    public static final int MAX_PAGE_SIZE = 100;
 }
@@ -0,0 +1,56 @@
+package com.diepnn.shortenurl.common.enums;
+
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Size of a click counter bucket in {@code url_click_rollup}.
+ */
+@RequiredArgsConstructor
+public enum ClickGranularity implements PersistableEnum {
+    MINUTE("MI", ChronoUnit.MINUTES),
+    HOUR("HO", ChronoUnit.HOURS),
+    DAY("DA", ChronoUnit.DAYS);
+
+    private final String value;
+    private final ChronoUnit unit;
+
+    @Override
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Start of the bucket the given time falls into.
+     *
+     * @param datetime a UTC timestamp
+     * @return the timestamp truncated to this granularity
+     */
+    public LocalDateTime bucketStart(LocalDateTime datetime) {
+        return datetime.truncatedTo(unit);
+    }
+
+    /**
+     * Start of the bucket the given number of buckets before the one the given time falls into.
+     *
+     * @param datetime a UTC timestamp
+     * @param buckets number of buckets to go back
+     * @return the start of that bucket
+     */
+    public LocalDateTime bucketStartBefore(LocalDateTime datetime, long buckets) {
+        return bucketStart(datetime).minus(buckets, unit);
+    }
+
+    /**
+     * Number of buckets of this granularity overlapping {@code [from, to)}.
+     *
+     * @param from inclusive start, UTC
+     * @param to exclusive end, UTC, after {@code from}
+     * @return the bucket count, partial buckets included
+     */
+    public long bucketsBetween(LocalDateTime from, LocalDateTime to) {
+        return unit.between(bucketStart(from), bucketStart(to.minusNanos(1))) + 1;
+    }
+}
@@ -0,0 +1,28 @@
+package com.diepnn.shortenurl.common.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Sliding window over which trending links are ranked.
+ */
+@RequiredArgsConstructor
+@Getter
+public enum TrendingWindow {
+    MINUTE(Duration.ofMinutes(1), 6),
+    HOUR(Duration.ofHours(1), 12),
+    DAY(Duration.ofDays(1), 24);
+
+    private final Duration length;
+
+    /**
+     * Number of sub-windows the window slides by, a click leaves the window at most one slot late
+     */
+    private final int slots;
+
+    public long getSlotMillis() {
+        return length.toMillis() / slots;
+    }
+}
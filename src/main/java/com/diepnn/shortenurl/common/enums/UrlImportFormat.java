@@ -0,0 +1,30 @@
+package com.diepnn.shortenurl.common.enums;
+
+import com.diepnn.shortenurl.utils.EnumUtils;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public enum UrlImportFormat implements PersistableEnum {
+    /** {@code code,url,owner} rows, an optional header line starting with {@code code} is skipped */
+    CSV("CSV"),
+
+    /** One JSON object per line with {@code code}, {@code url} and optional {@code owner} */
+    NDJSON("NDJSON");
+
+    private final String value;
+
+    @Override
+    public String getValue() {
+        return value;
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static UrlImportFormat fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        value = value.toUpperCase();
+        return EnumUtils.fromValue(UrlImportFormat.class, value);
+    }
+}
@@ -0,0 +1,25 @@
+package com.diepnn.shortenurl.common.enums;
+
+import com.diepnn.shortenurl.utils.EnumUtils;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public enum UrlImportStatus implements PersistableEnum {
+    PENDING("P"),
+    RUNNING("R"),
+    COMPLETED("C"),
+    FAILED("F");
+
+    private final String value;
+
+    @Override
+    public String getValue() {
+        return this.value;
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static UrlImportStatus fromValue(String value) {
+        return EnumUtils.fromValue(UrlImportStatus.class, value);
+    }
+}
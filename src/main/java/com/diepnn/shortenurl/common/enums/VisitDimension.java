@@ -0,0 +1,19 @@
+package com.diepnn.shortenurl.common.enums;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Visit attribute counted per day in {@code url_dimension_rollup}.
+ */
+@RequiredArgsConstructor
+public enum VisitDimension implements PersistableEnum {
+    COUNTRY("CO"),
+    USER_AGENT_FAMILY("UA");
+
+    private final String value;
+
+    @Override
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,20 @@
+package com.diepnn.shortenurl.common.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * File format of a visit export.
+ */
+@RequiredArgsConstructor
+@Getter
+public enum VisitExportFormat {
+    /** Comma-separated values with a header line, fields quoted when needed (RFC 4180) */
+    CSV("text/csv", "csv"),
+
+    /** One JSON object per line */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+}
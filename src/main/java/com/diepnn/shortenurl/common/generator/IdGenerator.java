@@ -29,4 +29,28 @@ public interface IdGenerator {
      *         space exhausted for the current time unit or lock acquisition policy failed)
      */
     long generate() throws TooManyRequestException;
+
+    /**
+     * Generates {@code count} unique identifiers at once.
+     *
+     * <p>The default implementation calls {@link #generate()} repeatedly. Implementations that
+     * serialize access should override it to amortize synchronization across the whole batch.</p>
+     *
+     * @param count number of identifiers to generate, must not be negative
+     * @return the generated identifiers
+     * @throws com.diepnn.shortenurl.exception.TooManyRequestException
+     *         if the implementation chooses to signal backpressure
+     */
+    default long[] generate(int count) throws TooManyRequestException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid count: " + count);
+        }
+
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = generate();
+        }
+
+        return ids;
+    }
 }
@@ -7,6 +7,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -73,6 +74,12 @@ public class SnowflakeGenerator implements IdGenerator {
      */
     private final ReentrantLock lock = new ReentrantLock(true);
 
+    /**
+     * Number of times the sequence space of a single timestamp was exhausted and the generator
+     * had to wait for the next timestamp. Diagnostic only; used to size {@code sequenceBits}.
+     */
+    private final LongAdder sequenceOverflows = new LongAdder();
+
     // Retry policy for interrupted lock acquisition
     private static final int MAX_LOCK_RETRIES = 3;
     private static final long INITIAL_RETRY_BACKOFF_MS = 1L;
@@ -118,6 +125,53 @@ public class SnowflakeGenerator implements IdGenerator {
      */
     @Override
     public long generate() throws TooManyRequestException {
+        acquireLock();
+        try {
+            return nextId();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves {@code count} consecutive Snowflake IDs while holding the lock once.
+     *
+     * <p>Batch callers avoid one lock handoff per ID; the IDs are strictly increasing and may span
+     * several milliseconds when {@code count} exceeds the per-millisecond sequence space.</p>
+     *
+     * @param count number of IDs to reserve
+     * @return the reserved IDs in ascending order
+     * @throws TooManyRequestException if the lock cannot be acquired within the retry budget
+     */
+    @Override
+    public long[] generate(int count) throws TooManyRequestException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid count: " + count);
+        }
+
+        long[] ids = new long[count];
+        if (count == 0) {
+            return ids;
+        }
+
+        acquireLock();
+        try {
+            for (int i = 0; i < count; i++) {
+                ids[i] = nextId();
+            }
+
+            return ids;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquires the lock interruptibly, retrying with a small exponential backoff when interrupted.
+     *
+     * @throws TooManyRequestException if interrupted more than {@code MAX_LOCK_RETRIES} times
+     */
+    private void acquireLock() throws TooManyRequestException {
         int attempts = 0;
         long backoff = INITIAL_RETRY_BACKOFF_MS;
         boolean acquired = false;
@@ -146,32 +200,43 @@ public class SnowflakeGenerator implements IdGenerator {
                 backoff = Math.min(backoff << 1, 16L); // cap small backoff
             }
         }
+    }
 
-        try {
-            long now = System.currentTimeMillis();
-            long timestamp = now - snowflakeProps.getEpoch();
+    /**
+     * Advances {@code (lastTimestamp, sequence)} and packs the next ID. Caller must hold {@link #lock}.
+     */
+    private long nextId() {
+        long now = System.currentTimeMillis();
+        long timestamp = now - snowflakeProps.getEpoch();
 
-            if (timestamp < lastTimestamp) {
-                timestamp = waitNextMillis(lastTimestamp);
-            }
+        if (timestamp < lastTimestamp) {
+            timestamp = waitNextMillis(lastTimestamp);
+        }
 
-            if (timestamp == lastTimestamp) {
-                if (sequence > maxSeq) {
-                    timestamp = waitNextMillis(lastTimestamp);
-                    sequence = 0;
-                    lastTimestamp = timestamp;
-                } else {
-                    ++sequence;
-                }
-            } else {
+        if (timestamp == lastTimestamp) {
+            if (sequence > maxSeq) {
+                sequenceOverflows.increment();
+                timestamp = waitNextMillis(lastTimestamp);
                 sequence = 0;
                 lastTimestamp = timestamp;
+            } else {
+                ++sequence;
             }
-
-            return getId(timestamp);
-        } finally {
-            lock.unlock();
+        } else {
+            sequence = 0;
+            lastTimestamp = timestamp;
         }
+
+        return getId(timestamp);
+    }
+
+    /**
+     * Returns how many times the sequence overflowed within a single timestamp since startup.
+     *
+     * @return the cumulative sequence overflow count
+     */
+    public long getSequenceOverflowCount() {
+        return sequenceOverflows.sum();
     }
 
     private long getId(long timestamp) {
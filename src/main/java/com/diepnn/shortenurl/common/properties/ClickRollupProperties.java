@@ -0,0 +1,43 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for pre-aggregated click counters {@systemProperty app.url-visit.click-rollup.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.click-rollup")
+@RequiredArgsConstructor
+@Getter
+public class ClickRollupProperties {
+    /**
+     * Whether visits are counted into minute, hour and day buckets
+     */
+    private final boolean enabled;
+
+    /**
+     * Delay between two flushes of the in-memory counters in milliseconds
+     */
+    private final long flushIntervalMs;
+
+    /**
+     * Number of rows sent to the database per JDBC batch
+     */
+    private final int batchSize;
+
+    /**
+     * Maximum number of buckets a single stats query may return
+     */
+    private final int maxBuckets;
+
+    /**
+     * Maximum number of days a single top values query may span
+     */
+    private final int maxDays;
+
+    /**
+     * Whether visits from crawlers and link previews are left out of the click counters
+     */
+    private final boolean excludeBots;
+}
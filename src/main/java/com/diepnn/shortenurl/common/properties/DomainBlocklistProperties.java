@@ -0,0 +1,24 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for create-time domain screening {@systemProperty app.domain-blocklist.*}.
+ */
+@ConfigurationProperties(prefix = "app.domain-blocklist")
+@RequiredArgsConstructor
+@Getter
+public class DomainBlocklistProperties {
+    /**
+     * Local rules file, one domain per line, {@code .domain} or {@code *.domain} to include subdomains.
+     * Blank disables the blocklist
+     */
+    private final String file;
+
+    /**
+     * Delay in milliseconds between two checks of the rules file for changes
+     */
+    private final long reloadIntervalMs;
+}
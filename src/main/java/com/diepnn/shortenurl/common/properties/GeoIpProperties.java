@@ -0,0 +1,23 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for offline visit geolocation {@systemProperty app.url-visit.geo-ip.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.geo-ip")
+@RequiredArgsConstructor
+@Getter
+public class GeoIpProperties {
+    /**
+     * Local CSV file of IP ranges and their country codes, IPv4 and IPv6. Blank disables geolocation
+     */
+    private final String file;
+
+    /**
+     * Delay in milliseconds between two checks of the ranges file for changes
+     */
+    private final long reloadIntervalMs;
+}
@@ -0,0 +1,43 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the live click streams of links {@systemProperty app.url-visit.live-clicks.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.live-clicks")
+@RequiredArgsConstructor
+@Getter
+public class LiveClicksProperties {
+    /**
+     * Delay between two updates of a subscriber in milliseconds, clicks in between are coalesced into one update
+     */
+    private final long intervalMs;
+
+    /**
+     * Time without clicks in milliseconds after which a subscriber is sent a keep-alive comment
+     */
+    private final long heartbeatIntervalMs;
+
+    /**
+     * Delay between two exchanges of the links watched by the instances through Redis in milliseconds
+     */
+    private final long watchRefreshMs;
+
+    /**
+     * Time in milliseconds after which a stream is closed, the client reconnects to keep following the link
+     */
+    private final long timeoutMs;
+
+    /**
+     * Maximum number of streams open at a time on an instance
+     */
+    private final int maxSubscribers;
+
+    /**
+     * Number of threads writing updates to the subscribers
+     */
+    private final int senderThreads;
+}
@@ -7,7 +7,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import java.util.Map;
 
 /**
- * Configuration properties for cache TTLs {@systemProperty app.cache-ttl.*} and types {@systemProperty app.cache-type.*}.
+ * Configuration properties for cache TTLs {@systemProperty app.cache-ttl.*}, types {@systemProperty app.cache-type.*}
+ * and write-through population {@systemProperty app.cache-write-through.*}.
  */
 @ConfigurationProperties(prefix = "app")
 @Getter
@@ -15,4 +16,15 @@ import java.util.Map;
 public class RedisCacheProperties {
     private final Map<String, Long> cacheTtl;
     private final Map<String, String> cacheType;
+    private final Map<String, Boolean> cacheWriteThrough;
+
+    /**
+     * Whether the given cache is populated on write instead of only being evicted.
+     *
+     * @param cacheName the cache name
+     * @return true if write-through is enabled for the cache, false if unset
+     */
+    public boolean isWriteThrough(String cacheName) {
+        return cacheWriteThrough != null && Boolean.TRUE.equals(cacheWriteThrough.get(cacheName));
+    }
 }
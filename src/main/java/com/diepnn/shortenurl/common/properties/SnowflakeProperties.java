@@ -27,6 +27,8 @@ import java.time.Instant;
  *   <li>Choose an {@code epochDate} in UTC that is fixed and consistent across all deployments.
  *       The usable time range is approximately {@code 2^{epochBits}} time units from that epoch
  *       (commonly milliseconds).</li>
+ *   <li>{@code sequenceBits} bounds the IDs a node can issue per millisecond ({@code 2^{sequenceBits}});
+ *       use {@code SnowflakeGeneratorBenchmark} to check the overflow rate before shrinking it.</li>
  * </ul>
  * </p>
  */
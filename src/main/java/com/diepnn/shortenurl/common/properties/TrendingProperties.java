@@ -0,0 +1,33 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the trending links leaderboard {@systemProperty app.url-visit.trending.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.trending")
+@RequiredArgsConstructor
+@Getter
+public class TrendingProperties {
+    /**
+     * Whether resolved links are counted for the leaderboard
+     */
+    private final boolean enabled;
+
+    /**
+     * Number of links tracked per window slot, also the largest leaderboard that can be requested
+     */
+    private final int capacity;
+
+    /**
+     * Delay between two publications of this instance's leaderboards to Redis in milliseconds
+     */
+    private final long publishIntervalMs;
+
+    /**
+     * Identifier of this instance, names the Redis keys its leaderboards are published to
+     */
+    private final String nodeId;
+}
@@ -0,0 +1,28 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for approximate unique visitor counts {@systemProperty app.url-visit.unique-visitors.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.unique-visitors")
+@RequiredArgsConstructor
+@Getter
+public class UniqueVisitorProperties {
+    /**
+     * Whether visitors are added to the per-URL, per-day HyperLogLog sketches
+     */
+    private final boolean enabled;
+
+    /**
+     * Number of days a daily sketch is kept in Redis
+     */
+    private final int retentionDays;
+
+    /**
+     * Maximum number of days a single query may span
+     */
+    private final int maxDays;
+}
@@ -0,0 +1,28 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for bulk URL imports {@systemProperty app.url-import.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-import")
+@RequiredArgsConstructor
+@Getter
+public class UrlImportProperties {
+    /**
+     * Number of rows inserted and committed together, also the resume granularity
+     */
+    private final int chunkSize;
+
+    /**
+     * Directory where uploaded files are stored while their import job runs
+     */
+    private final String stagingDir;
+
+    /**
+     * Directory that server-side imports may read from, local imports are disabled when blank
+     */
+    private final String localDir;
+}
@@ -0,0 +1,33 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for URL info creation {@systemProperty app.url-info.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-info")
+@RequiredArgsConstructor
+@Getter
+public class UrlInfoProperties {
+    /**
+     * Maximum number of URLs accepted by a single batch create request
+     */
+    private final int batchMaxSize;
+
+    /**
+     * Number of rows sent to the database per JDBC batch
+     */
+    private final int jdbcBatchSize;
+
+    /**
+     * Whether requests may opt in to original URL deduplication, acts as a kill switch for the dedup lookup
+     */
+    private final boolean dedupEnabled;
+
+    /**
+     * Whether the serialized JSON of a user's URL list is cached and written to the response as is
+     */
+    private final boolean listBodyCacheEnabled;
+}
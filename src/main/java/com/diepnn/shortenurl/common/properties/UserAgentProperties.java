@@ -0,0 +1,18 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for user agent classification at visit ingestion {@systemProperty app.url-visit.user-agent.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.user-agent")
+@RequiredArgsConstructor
+@Getter
+public class UserAgentProperties {
+    /**
+     * Maximum number of distinct user agents whose classification is kept in memory
+     */
+    private final int cacheSize;
+}
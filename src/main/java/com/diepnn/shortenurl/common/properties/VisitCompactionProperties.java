@@ -0,0 +1,49 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the compaction of old raw visits into the day click buckets
+ * {@systemProperty app.url-visit.compaction.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.compaction")
+@RequiredArgsConstructor
+@Getter
+public class VisitCompactionProperties {
+    /**
+     * Whether old visits are compacted, otherwise they are kept until the retention
+     */
+    private final boolean enabled;
+
+    /**
+     * Number of days a raw visit is kept before it is compacted, at most the unique visitors retention so its sketch still exists
+     */
+    private final int compactAfterDays;
+
+    /**
+     * Maximum number of visits compacted per transaction
+     */
+    private final int chunkSize;
+
+    /**
+     * Maximum number of compacted visits deleted per statement
+     */
+    private final int deleteBatchSize;
+
+    /**
+     * Maximum number of chunks per run, the rest is left for the next run
+     */
+    private final int maxChunksPerRun;
+
+    /**
+     * Pause between two statements of a run in milliseconds, leaves the database to the redirect traffic
+     */
+    private final long pauseMs;
+
+    /**
+     * Delay between two compaction runs in milliseconds
+     */
+    private final long compactIntervalMs;
+}
@@ -0,0 +1,34 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for collapsing repeat visits of a link by the same visitor
+ * {@systemProperty app.url-visit.dedup.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.dedup")
+@RequiredArgsConstructor
+@Getter
+public class VisitDedupProperties {
+    /**
+     * Whether repeat visits are collapsed, otherwise every visit is recorded
+     */
+    private final boolean enabled;
+
+    /**
+     * Seconds after a recorded visit during which visits of the same link from the same IP and user agent are collapsed
+     */
+    private final int windowSeconds;
+
+    /**
+     * Number of distinct visits an instance records per window, the filter memory is sized for it
+     */
+    private final long expectedVisits;
+
+    /**
+     * Probability that a first visit is mistaken for a repeat while the load stays within {@code expected-visits}
+     */
+    private final double falsePositiveRate;
+}
@@ -0,0 +1,23 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for raw visit exports {@systemProperty app.url-visit.export.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.export")
+@RequiredArgsConstructor
+@Getter
+public class VisitExportProperties {
+    /**
+     * Maximum number of exports a user can run at the same time on an instance
+     */
+    private final int maxConcurrentPerUser;
+
+    /**
+     * Maximum number of days a single export may span
+     */
+    private final int maxDays;
+}
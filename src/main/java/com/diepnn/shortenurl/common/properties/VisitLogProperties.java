@@ -0,0 +1,54 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the local segmented visit log {@systemProperty app.url-visit.log.*},
+ * used when {@code app.url-visit.backend=segment-log}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.log")
+@RequiredArgsConstructor
+@Getter
+public class VisitLogProperties {
+    /**
+     * Local directory holding the segment files of this instance
+     */
+    private final String directory;
+
+    /**
+     * Size of a segment file in bytes, a segment is sealed when the next record does not fit
+     */
+    private final int segmentSizeBytes;
+
+    /**
+     * Age in milliseconds after which a non-empty segment is sealed even if not full, bounds the compaction delay
+     */
+    private final long rollIntervalMs;
+
+    /**
+     * Delay between two group commits in milliseconds, every record appended in between is made durable by one fsync
+     */
+    private final long syncIntervalMs;
+
+    /**
+     * Delay between two compaction runs in milliseconds
+     */
+    private final long compactIntervalMs;
+
+    /**
+     * Whether compaction also copies the visits into {@code url_visit}
+     */
+    private final boolean bulkLoad;
+
+    /**
+     * Number of records processed and rows sent to the database per batch during compaction
+     */
+    private final int batchSize;
+
+    /**
+     * Time in milliseconds compacted segments are kept on disk for replay
+     */
+    private final long retentionMs;
+}
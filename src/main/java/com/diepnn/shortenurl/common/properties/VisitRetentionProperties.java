@@ -0,0 +1,44 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the retention of raw visits in {@code url_visit}
+ * {@systemProperty app.url-visit.retention.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.retention")
+@RequiredArgsConstructor
+@Getter
+public class VisitRetentionProperties {
+    /**
+     * Whether visits older than the retention are purged
+     */
+    private final boolean enabled;
+
+    /**
+     * Number of days a visit is kept. A monthly partition is dropped once its whole month is past the retention
+     */
+    private final int retentionDays;
+
+    /**
+     * Number of monthly partitions created ahead of the current month, when {@code url_visit} is partitioned
+     */
+    private final int futureMonths;
+
+    /**
+     * Maximum number of visits deleted per transaction, when {@code url_visit} is not partitioned
+     */
+    private final int deleteBatchSize;
+
+    /**
+     * Maximum number of delete transactions per run, the rest is left for the next run
+     */
+    private final int maxDeleteBatches;
+
+    /**
+     * Delay between two purge runs in milliseconds
+     */
+    private final long purgeIntervalMs;
+}
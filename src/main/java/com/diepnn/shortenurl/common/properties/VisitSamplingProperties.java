@@ -0,0 +1,39 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the adaptive sampling of visits recorded to {@code url_visit}
+ * {@systemProperty app.url-visit.sampling.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-visit.sampling")
+@RequiredArgsConstructor
+@Getter
+public class VisitSamplingProperties {
+    /**
+     * Whether visits are sampled under overload, otherwise every visit is recorded
+     */
+    private final boolean enabled;
+
+    /**
+     * Number of visits waiting to be recorded above which the sampling rate is halved
+     */
+    private final int maxBacklog;
+
+    /**
+     * Average time in milliseconds from a visit to its record above which the sampling rate is halved
+     */
+    private final long maxLatencyMs;
+
+    /**
+     * Largest number of visits a recorded visit stands for, a power of two
+     */
+    private final int maxWeight;
+
+    /**
+     * Delay between two adjustments of the sampling rate in milliseconds
+     */
+    private final long adjustIntervalMs;
+}
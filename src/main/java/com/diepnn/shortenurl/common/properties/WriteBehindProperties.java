@@ -0,0 +1,38 @@
+package com.diepnn.shortenurl.common.properties;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for write-behind URL creation {@systemProperty app.url-info.write-behind.*}.
+ */
+@ConfigurationProperties(prefix = "app.url-info.write-behind")
+@RequiredArgsConstructor
+@Getter
+public class WriteBehindProperties {
+    /**
+     * Whether anonymous, non-alias creations are acknowledged from Redis and persisted asynchronously
+     */
+    private final boolean enabled;
+
+    /**
+     * Maximum number of queued URLs persisted per flush
+     */
+    private final int batchSize;
+
+    /**
+     * Delay between two flushes in milliseconds
+     */
+    private final long flushIntervalMs;
+
+    /**
+     * Identifier of this instance, names the processing list that holds the batch being persisted
+     */
+    private final String nodeId;
+
+    /**
+     * Time in milliseconds without a heartbeat after which a node is considered gone and its processing list is requeued
+     */
+    private final long nodeTimeoutMs;
+}
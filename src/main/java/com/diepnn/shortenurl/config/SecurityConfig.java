@@ -7,6 +7,7 @@ import com.diepnn.shortenurl.security.JwtCacheService;
 import com.diepnn.shortenurl.security.JwtService;
 import com.diepnn.shortenurl.security.OAuth2AuthenticationSuccessHandler;
 import com.diepnn.shortenurl.security.filter.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
@@ -90,8 +91,12 @@ public class SecurityConfig {
     @Order(3)
     public SecurityFilterChain apiSecurity(HttpSecurity http, JwtAuthenticationFilter jwtFilter) throws Exception {
         http.authorizeHttpRequests(request ->
-                                           // --- Public endpoints ---
-                                           request.requestMatchers(HttpMethod.GET,
+                                           // --- Async dispatches of streamed responses, authorized by their initial request ---
+                                           request.dispatcherTypeMatchers(DispatcherType.ASYNC)
+                                                  .permitAll()
+
+                                                  // --- Public endpoints ---
+                                                  .requestMatchers(HttpMethod.GET,
                                                                    "/*")
                                                   .permitAll()
                                                   .requestMatchers(HttpMethod.POST,
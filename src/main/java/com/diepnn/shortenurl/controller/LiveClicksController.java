@@ -0,0 +1,56 @@
+package com.diepnn.shortenurl.controller;
+
+import com.diepnn.shortenurl.dto.response.ErrorResponseWrapper;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.live.LiveClicksService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * The controller for the live clicks of a short URL, restricted to its owner.
+ */
+@RestController
+@RequestMapping("/api/v1/url-infos")
+@RequiredArgsConstructor
+@Tag(name = "URL Live Clicks", description = "URL Live Clicks API")
+@SecurityRequirement(name = "Bearer Authentication")
+public class LiveClicksController {
+    private final LiveClicksService liveClicksService;
+
+    /**
+     * Follow the clicks of the given short URL as server-sent {@code clicks} events: the first carries the stored
+     * total clicks, the next ones the clicks since the previous event, at most one per interval. Keep-alive
+     * comments are sent while there is no click.
+     *
+     * @param id url info id
+     * @param userDetails an authenticated user
+     * @return the event stream, closed after a timeout; reconnect to keep following the link
+     */
+    @Operation(summary = "Stream the clicks of the given short URL as server-sent events")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming"),
+            @ApiResponse(responseCode = "404", description = "Url not found",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            ),
+            @ApiResponse(responseCode = "429", description = "Too many streams open",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            )
+    })
+    @GetMapping(value = "/{id}/clicks/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamClicks(@PathVariable Long id, @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return liveClicksService.subscribe(id, userDetails);
+    }
+}
@@ -0,0 +1,177 @@
+package com.diepnn.shortenurl.controller;
+
+import com.diepnn.shortenurl.common.enums.ClickGranularity;
+import com.diepnn.shortenurl.common.enums.VisitDimension;
+import com.diepnn.shortenurl.dto.response.BaseResponseWrapper;
+import com.diepnn.shortenurl.dto.response.ClickStatsResponse;
+import com.diepnn.shortenurl.dto.response.ErrorResponseWrapper;
+import com.diepnn.shortenurl.dto.response.TopValuesResponse;
+import com.diepnn.shortenurl.dto.response.UniqueVisitorsResponse;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.UrlAnalyticsService;
+import com.diepnn.shortenurl.utils.ResponseWrapperBuilder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The controller for the analytics of a short URL, restricted to its owner.
+ * Every endpoint reads pre-aggregated data, so its cost depends on the requested range, not on the traffic.
+ */
+@RestController
+@RequestMapping("/api/v1/url-infos")
+@RequiredArgsConstructor
+@Tag(name = "URL Analytics", description = "URL Analytics API")
+@SecurityRequirement(name = "Bearer Authentication")
+public class UrlAnalyticsController {
+    private static final String DEFAULT_TOP_LIMIT = "10";
+
+    private final UrlAnalyticsService urlAnalyticsService;
+
+    /**
+     * Get the click counts of the given short URL per time bucket.
+     * Served from the pre-aggregated rollup, so the cost depends on the number of buckets, not of clicks.
+     *
+     * @param id url info id
+     * @param granularity bucket size
+     * @param from inclusive start
+     * @param to exclusive end
+     * @param userDetails an authenticated user
+     * @return total clicks and the non-empty buckets of the range
+     */
+    @Operation(summary = "Get click statistics of the given short URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "400", description = "Invalid or too large range",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Url not found",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            )
+    })
+    @GetMapping("/{id}/clicks")
+    @ResponseStatus(HttpStatus.OK)
+    public BaseResponseWrapper<ClickStatsResponse> getClickStats(@PathVariable Long id,
+                                                                 @RequestParam ClickGranularity granularity,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                 @AuthenticationPrincipal CustomUserDetails userDetails) {
+        ClickStatsResponse stats = urlAnalyticsService.findClickStats(id, granularity,
+                                                                      LocalDateTime.ofInstant(from, ZoneOffset.UTC),
+                                                                      LocalDateTime.ofInstant(to, ZoneOffset.UTC),
+                                                                      userDetails);
+        return ResponseWrapperBuilder.withData(HttpStatus.OK, "Found", stats);
+    }
+
+    /**
+     * Get the approximate unique visitors of the given short URL per day and over the whole range.
+     * Estimated from daily HyperLogLog sketches, so the cost does not depend on the number of visits.
+     *
+     * @param id url info id
+     * @param from first day, inclusive (UTC)
+     * @param to last day, inclusive (UTC)
+     * @param userDetails an authenticated user
+     * @return unique visitors of the whole range and of each day
+     */
+    @Operation(summary = "Get approximate unique visitors of the given short URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "400", description = "Invalid or too large range",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Url not found",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            )
+    })
+    @GetMapping("/{id}/unique-visitors")
+    @ResponseStatus(HttpStatus.OK)
+    public BaseResponseWrapper<UniqueVisitorsResponse> getUniqueVisitors(@PathVariable Long id,
+                                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                         @AuthenticationPrincipal CustomUserDetails userDetails) {
+        UniqueVisitorsResponse visitors = urlAnalyticsService.findUniqueVisitors(id, from, to, userDetails);
+        return ResponseWrapperBuilder.withData(HttpStatus.OK, "Found", visitors);
+    }
+
+    /**
+     * Get the countries the given short URL was most clicked from.
+     *
+     * @param id url info id
+     * @param from first day, inclusive (UTC)
+     * @param to last day, inclusive (UTC)
+     * @param limit maximum number of countries
+     * @param userDetails an authenticated user
+     * @return countries with their clicks, most clicked first
+     */
+    @Operation(summary = "Get top countries of the given short URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "400", description = "Invalid or too large range",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Url not found",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            )
+    })
+    @GetMapping("/{id}/top-countries")
+    @ResponseStatus(HttpStatus.OK)
+    public BaseResponseWrapper<TopValuesResponse> getTopCountries(@PathVariable Long id,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                  @RequestParam(defaultValue = DEFAULT_TOP_LIMIT) int limit,
+                                                                  @AuthenticationPrincipal CustomUserDetails userDetails) {
+        TopValuesResponse countries = urlAnalyticsService.findTopValues(id, VisitDimension.COUNTRY, from, to, limit, userDetails);
+        return ResponseWrapperBuilder.withData(HttpStatus.OK, "Found", countries);
+    }
+
+    /**
+     * Get the browser families the given short URL was most clicked from.
+     *
+     * @param id url info id
+     * @param from first day, inclusive (UTC)
+     * @param to last day, inclusive (UTC)
+     * @param limit maximum number of families
+     * @param userDetails an authenticated user
+     * @return user agent families with their clicks, most clicked first
+     */
+    @Operation(summary = "Get top user agent families of the given short URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "400", description = "Invalid or too large range",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Url not found",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            )
+    })
+    @GetMapping("/{id}/top-user-agents")
+    @ResponseStatus(HttpStatus.OK)
+    public BaseResponseWrapper<TopValuesResponse> getTopUserAgents(@PathVariable Long id,
+                                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                   @RequestParam(defaultValue = DEFAULT_TOP_LIMIT) int limit,
+                                                                   @AuthenticationPrincipal CustomUserDetails userDetails) {
+        TopValuesResponse families = urlAnalyticsService.findTopValues(id, VisitDimension.USER_AGENT_FAMILY, from, to, limit,
+                                                                       userDetails);
+        return ResponseWrapperBuilder.withData(HttpStatus.OK, "Found", families);
+    }
+}
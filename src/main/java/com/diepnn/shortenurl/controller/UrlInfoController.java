@@ -1,10 +1,14 @@
 package com.diepnn.shortenurl.controller;
 
+import com.diepnn.shortenurl.common.constant.PagingConstants;
 import com.diepnn.shortenurl.dto.UrlInfoDTO;
 import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.dto.request.BatchUrlInfoRequest;
 import com.diepnn.shortenurl.dto.request.UpdateOriginalUrl;
 import com.diepnn.shortenurl.dto.request.UrlInfoRequest;
 import com.diepnn.shortenurl.dto.response.BaseResponseWrapper;
+import com.diepnn.shortenurl.dto.response.BatchItemResponse;
+import com.diepnn.shortenurl.dto.response.CursorPageResponse;
 import com.diepnn.shortenurl.dto.response.ErrorResponseWrapper;
 import com.diepnn.shortenurl.dto.response.InvalidResponseWrapper;
 import com.diepnn.shortenurl.exception.TooManyRequestException;
@@ -12,7 +16,9 @@ import com.diepnn.shortenurl.mapper.translator.ShortUrlMappings;
 import com.diepnn.shortenurl.security.CustomUserDetails;
 import com.diepnn.shortenurl.service.UrlInfoService;
 import com.diepnn.shortenurl.utils.ResponseWrapperBuilder;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer.CanonicalUrl;
 import com.diepnn.shortenurl.utils.UserInfoRequestExtractor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -21,9 +27,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -32,9 +40,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -49,6 +60,7 @@ public class UrlInfoController {
     private final UrlInfoService urlInfoService;
     private final UserInfoRequestExtractor userInfoRequestExtractor;
     private final ShortUrlMappings shortUrlMappings;
+    private final ObjectMapper objectMapper;
 
     /**
      * Creates a short URL for the given original URL.
@@ -71,8 +83,7 @@ public class UrlInfoController {
     @ResponseStatus(HttpStatus.CREATED)
     public BaseResponseWrapper<UrlInfoDTO> create(@Valid @RequestBody UrlInfoRequest userRequest, HttpServletRequest request,
                                                   @AuthenticationPrincipal CustomUserDetails userDetails) {
-        shortUrlMappings.validateOriginalUrl(userRequest.getOriginalUrl());
-        userRequest.setOriginalUrl(shortUrlMappings.normalizeUrl(userRequest.getOriginalUrl()));
+        CanonicalUrl originalUrl = shortUrlMappings.canonicalizeOriginalUrl(userRequest.getOriginalUrl());
         UserInfo userInfo = userInfoRequestExtractor.getUserInfo(request);
 
         Long userId = null;
@@ -80,37 +91,114 @@ public class UrlInfoController {
             userId = userDetails.getId();
         }
 
-        UrlInfoDTO dto = urlInfoService.create(userRequest, userInfo, userId);
+        UrlInfoDTO dto = urlInfoService.create(userRequest, originalUrl, userInfo, userId);
         return ResponseWrapperBuilder.withData(HttpStatus.CREATED, "Shorten URL created successfully", dto);
     }
 
+    /**
+     * Creates short URLs for a batch of original URLs.
+     *
+     * @param userRequest the items to shorten
+     * @param userDetails an authenticated user
+     * @return one result per item, in request order
+     * @throws TooManyRequestException if the IDs for the batch cannot be reserved
+     */
+    @Operation(summary = "Create shorten URLs in batch")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see each item status", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch",
+                         content = @Content(schema = @Schema(implementation = InvalidResponseWrapper.class))
+            ),
+            @ApiResponse(responseCode = "429", description = "Too many request",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            )
+    })
+    @PostMapping(path = "/create-batch")
+    @ResponseStatus(HttpStatus.OK)
+    public BaseResponseWrapper<List<BatchItemResponse<UrlInfoDTO>>> createBatch(@Valid @RequestBody BatchUrlInfoRequest userRequest,
+                                                                                HttpServletRequest request,
+                                                                                @AuthenticationPrincipal CustomUserDetails userDetails) {
+        UserInfo userInfo = userInfoRequestExtractor.getUserInfo(request);
+        List<BatchItemResponse<UrlInfoDTO>> results = urlInfoService.createBatch(userRequest.getItems(), userInfo,
+                                                                                 userDetails.getId());
+        return ResponseWrapperBuilder.withData(HttpStatus.OK, "Batch processed", results);
+    }
+
     /**
      * Get all URL information for the given user.
+     * The list is written as pre-serialized JSON, so a cached list is copied to the response without being parsed.
+     * The list version is sent as a weak ETag, a matching {@code If-None-Match} gets 304 without loading the list.
      *
      * @param userDetails an authenticated user
-     * @return a list of URL information
+     * @param webRequest the current request, used for the conditional GET check
+     * @param response the response to write the wrapped list of URL information to
+     * @throws IOException if writing the response fails
      */
     @Operation(summary = "Get shorten URLs by user")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Found", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "200", description = "Found, data is the list of URL info",
+                         content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
             @ApiResponse(responseCode = "204", description = "Not found",
                          content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
             ),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match",
+                         content = @Content
+            ),
             @ApiResponse(responseCode = "400", description = "Inappropriate privilege",
                          content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
             )
     })
-    @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public BaseResponseWrapper<List<UrlInfoDTO>> getByUser(@AuthenticationPrincipal CustomUserDetails userDetails) {
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getByUser(@AuthenticationPrincipal CustomUserDetails userDetails, WebRequest webRequest,
+                          HttpServletResponse response) throws IOException {
         Long userId = userDetails.getId();
-        List<UrlInfoDTO> urlInfos = urlInfoService.findAllByUserId(userId);
-        return ResponseWrapperBuilder.withData(HttpStatus.OK, "Found", urlInfos);
+        long version = urlInfoService.getUserUrlsVersion(userId);
+        if (webRequest.checkNotModified(userUrlsETag(userId, version))) {
+            return;
+        }
+
+        byte[] urlInfos = urlInfoService.findAllByUserIdJson(userId, version);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ResponseWrapperBuilder.writeWithRawData(objectMapper, ResponseWrapperBuilder.withNoData(HttpStatus.OK, "Found"),
+                                                urlInfos, response.getOutputStream());
+    }
+
+    /**
+     * Get a page of URL information for the given user, newest first.
+     * Prefer this over {@link #getByUser(CustomUserDetails, WebRequest, HttpServletResponse)} for accounts with many URLs.
+     *
+     * @param cursor the {@code next_cursor} of the previous page, omitted for the first page
+     * @param size page size, at most {@value PagingConstants#MAX_PAGE_SIZE}
+     * @param userDetails an authenticated user
+     * @return a page of URL information and the cursor of the next page
+     */
+    @Operation(summary = "Get shorten URLs by user, keyset-paginated")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Not found",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            )
+    })
+    @GetMapping("/page")
+    @ResponseStatus(HttpStatus.OK)
+    public BaseResponseWrapper<CursorPageResponse<UrlInfoDTO>> getPageByUser(@RequestParam(required = false) String cursor,
+                                                                             @RequestParam(defaultValue = PagingConstants.DEFAULT_PAGE_SIZE) int size,
+                                                                             @AuthenticationPrincipal CustomUserDetails userDetails) {
+        CursorPageResponse<UrlInfoDTO> page = urlInfoService.findPageByUserId(userDetails.getId(), cursor, size);
+        return ResponseWrapperBuilder.withData(HttpStatus.OK, "Found", page);
     }
 
     @Operation(summary = "Update original URL for the given short URL")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Updated successfully", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "400", description = "Invalid URL",
+                         content = @Content(schema = @Schema(implementation = InvalidResponseWrapper.class))
+            ),
             @ApiResponse(responseCode = "201", description = "Not found",
                          content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
             )
@@ -144,4 +232,11 @@ public class UrlInfoController {
         urlInfoService.deactivateUrlInfo(id, userDetails);
         return ResponseWrapperBuilder.withNoData(HttpStatus.OK, "Deactivated successfully");
     }
+
+    /**
+     * Weak because the wrapper timestamp differs between responses of the same list version.
+     */
+    private static String userUrlsETag(Long userId, long version) {
+        return "W/\"" + userId + "-" + version + "\"";
+    }
 }
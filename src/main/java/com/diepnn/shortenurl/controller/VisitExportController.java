@@ -0,0 +1,77 @@
+package com.diepnn.shortenurl.controller;
+
+import com.diepnn.shortenurl.common.enums.VisitExportFormat;
+import com.diepnn.shortenurl.dto.response.ErrorResponseWrapper;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.VisitExportService;
+import com.diepnn.shortenurl.utils.ExportResponseBuilder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * The controller for the raw visit exports of a short URL, restricted to its owner.
+ */
+@RestController
+@RequestMapping("/api/v1/url-infos")
+@RequiredArgsConstructor
+@Tag(name = "URL Visit Export", description = "URL Visit Export API")
+@SecurityRequirement(name = "Bearer Authentication")
+public class VisitExportController {
+    private final VisitExportService visitExportService;
+
+    /**
+     * Download the visits of the given short URL, streamed as they are read and gzip-encoded when the client
+     * accepts it.
+     *
+     * @param id url info id
+     * @param from first day, inclusive (UTC)
+     * @param to last day, inclusive (UTC)
+     * @param format file format
+     * @param acceptEncoding accepted content encodings
+     * @param userDetails an authenticated user
+     * @return the visits, oldest first
+     */
+    @Operation(summary = "Export the visits of the given short URL as CSV or NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exported"),
+            @ApiResponse(responseCode = "400", description = "Invalid or too large range",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Url not found",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            ),
+            @ApiResponse(responseCode = "429", description = "Too many exports running",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            )
+    })
+    @GetMapping("/{id}/visits/export")
+    public ResponseEntity<StreamingResponseBody> exportVisits(@PathVariable Long id,
+                                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                              @RequestParam(defaultValue = "CSV") VisitExportFormat format,
+                                                              @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                              @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return ExportResponseBuilder.attachment(visitExportService.exportUrlVisits(id, from, to, format,
+                                                                                   ExportResponseBuilder.acceptsGzip(acceptEncoding),
+                                                                                   userDetails));
+    }
+}
@@ -0,0 +1,45 @@
+package com.diepnn.shortenurl.controller.admin;
+
+import com.diepnn.shortenurl.common.enums.TrendingWindow;
+import com.diepnn.shortenurl.dto.response.BaseResponseWrapper;
+import com.diepnn.shortenurl.dto.response.InvalidResponseWrapper;
+import com.diepnn.shortenurl.dto.response.TrendingLinksResponse;
+import com.diepnn.shortenurl.service.trending.TrendingLinksService;
+import com.diepnn.shortenurl.utils.ResponseWrapperBuilder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/trending-links")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "Bearer Authentication")
+@Tag(name = "Trending Links Admin", description = "Trending links leaderboard API")
+public class TrendingLinksAdminController {
+    private final TrendingLinksService trendingLinksService;
+
+    @Operation(summary = "Get the most clicked links of the last minute, hour or day across all instances")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "400", description = "Invalid window or limit",
+                         content = @Content(schema = @Schema(implementation = InvalidResponseWrapper.class))
+            )
+    })
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public BaseResponseWrapper<TrendingLinksResponse> getTrendingLinks(@RequestParam(defaultValue = "HOUR") TrendingWindow window,
+                                                                       @RequestParam(defaultValue = "10") int limit) {
+        return ResponseWrapperBuilder.withData(HttpStatus.OK, "Found", trendingLinksService.findTrending(window, limit));
+    }
+}
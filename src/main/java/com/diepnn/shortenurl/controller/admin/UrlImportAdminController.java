@@ -0,0 +1,102 @@
+package com.diepnn.shortenurl.controller.admin;
+
+import com.diepnn.shortenurl.common.enums.UrlImportFormat;
+import com.diepnn.shortenurl.dto.UrlImportJobDTO;
+import com.diepnn.shortenurl.dto.request.LocalUrlImportRequest;
+import com.diepnn.shortenurl.dto.response.BaseResponseWrapper;
+import com.diepnn.shortenurl.dto.response.ErrorResponseWrapper;
+import com.diepnn.shortenurl.dto.response.InvalidResponseWrapper;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.UrlImportService;
+import com.diepnn.shortenurl.utils.ResponseWrapperBuilder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+@RestController
+@RequestMapping("/api/v1/admin/url-imports")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "Bearer Authentication")
+@Tag(name = "URL Import Admin", description = "Bulk URL import API")
+public class UrlImportAdminController {
+    private final UrlImportService urlImportService;
+
+    @Operation(summary = "Import URLs from an uploaded CSV or NDJSON file")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import started", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "400", description = "Empty file",
+                         content = @Content(schema = @Schema(implementation = InvalidResponseWrapper.class))
+            )
+    })
+    @PostMapping(path = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BaseResponseWrapper<UrlImportJobDTO> importUpload(@RequestPart("file") MultipartFile file,
+                                                             @RequestParam UrlImportFormat format,
+                                                             @AuthenticationPrincipal CustomUserDetails userDetails) {
+        UrlImportJobDTO dto = urlImportService.importUpload(file, format, userDetails.getId());
+        return ResponseWrapperBuilder.withData(HttpStatus.ACCEPTED, "Import started", dto);
+    }
+
+    @Operation(summary = "Import URLs from a file in the server import directory")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import started", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "400", description = "File not found or local imports disabled",
+                         content = @Content(schema = @Schema(implementation = InvalidResponseWrapper.class))
+            )
+    })
+    @PostMapping("/local")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BaseResponseWrapper<UrlImportJobDTO> importLocalFile(@Valid @RequestBody LocalUrlImportRequest userRequest,
+                                                                @AuthenticationPrincipal CustomUserDetails userDetails) {
+        UrlImportJobDTO dto = urlImportService.importLocalFile(userRequest.getPath(), userRequest.getFormat(), userDetails.getId());
+        return ResponseWrapperBuilder.withData(HttpStatus.ACCEPTED, "Import started", dto);
+    }
+
+    @Operation(summary = "Get the progress of an import job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "404", description = "Import job not found",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            )
+    })
+    @GetMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public BaseResponseWrapper<UrlImportJobDTO> getImportJob(@PathVariable Long id) {
+        return ResponseWrapperBuilder.withData(HttpStatus.OK, "Found", urlImportService.findById(id));
+    }
+
+    @Operation(summary = "Resume an import job from its last committed chunk")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import resumed", useReturnTypeSchema = true),
+            @ApiResponse(responseCode = "400", description = "Job already completed or running",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Import job not found",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            )
+    })
+    @PostMapping("/{id}/resume")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BaseResponseWrapper<UrlImportJobDTO> resume(@PathVariable Long id) {
+        return ResponseWrapperBuilder.withData(HttpStatus.ACCEPTED, "Import resumed", urlImportService.resume(id));
+    }
+}
@@ -0,0 +1,58 @@
+package com.diepnn.shortenurl.controller.admin;
+
+import com.diepnn.shortenurl.common.enums.VisitExportFormat;
+import com.diepnn.shortenurl.dto.response.ErrorResponseWrapper;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.VisitExportService;
+import com.diepnn.shortenurl.utils.ExportResponseBuilder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/admin/url-visits")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "Bearer Authentication")
+@Tag(name = "URL Visit Admin", description = "URL Visit Admin API")
+public class UrlVisitAdminController {
+    private final VisitExportService visitExportService;
+
+    @Operation(summary = "Export the visits of a date range as CSV or NDJSON, optionally of one URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exported"),
+            @ApiResponse(responseCode = "400", description = "Invalid or too large range",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            ),
+            @ApiResponse(responseCode = "429", description = "Too many exports running",
+                         content = @Content(schema = @Schema(implementation = ErrorResponseWrapper.class))
+            )
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportVisits(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                              @RequestParam(required = false) Long urlId,
+                                                              @RequestParam(defaultValue = "CSV") VisitExportFormat format,
+                                                              @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                              @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return ExportResponseBuilder.attachment(visitExportService.exportVisits(urlId, from, to, format,
+                                                                                ExportResponseBuilder.acceptsGzip(acceptEncoding),
+                                                                                userDetails));
+    }
+}
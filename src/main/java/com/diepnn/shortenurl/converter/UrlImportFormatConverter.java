@@ -0,0 +1,14 @@
+package com.diepnn.shortenurl.converter;
+
+import com.diepnn.shortenurl.common.enums.UrlImportFormat;
+import jakarta.persistence.Converter;
+
+/**
+ * JPA converter for {@link UrlImportFormat} enum.
+ */
+@Converter(autoApply = true)
+public class UrlImportFormatConverter extends EnumAttributeConverter<UrlImportFormat>{
+    public UrlImportFormatConverter() {
+        super(UrlImportFormat.class);
+    }
+}
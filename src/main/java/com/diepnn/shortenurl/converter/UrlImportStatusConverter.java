@@ -0,0 +1,14 @@
+package com.diepnn.shortenurl.converter;
+
+import com.diepnn.shortenurl.common.enums.UrlImportStatus;
+import jakarta.persistence.Converter;
+
+/**
+ * JPA converter for {@link UrlImportStatus} enum.
+ */
+@Converter(autoApply = true)
+public class UrlImportStatusConverter extends EnumAttributeConverter<UrlImportStatus>{
+    public UrlImportStatusConverter() {
+        super(UrlImportStatus.class);
+    }
+}
@@ -0,0 +1,12 @@
+package com.diepnn.shortenurl.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Clicks counted in one time bucket.
+ *
+ * @param bucketStart start of the bucket (UTC)
+ * @param clicks clicks in the bucket
+ */
+public record ClickBucketDTO(LocalDateTime bucketStart, long clicks) {
+}
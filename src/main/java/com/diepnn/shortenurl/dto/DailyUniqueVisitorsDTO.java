@@ -0,0 +1,12 @@
+package com.diepnn.shortenurl.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Approximate unique visitors of one day.
+ *
+ * @param date the day (UTC)
+ * @param uniqueVisitors estimated distinct visitors that day
+ */
+public record DailyUniqueVisitorsDTO(LocalDate date, long uniqueVisitors) {
+}
@@ -0,0 +1,10 @@
+package com.diepnn.shortenurl.dto;
+
+/**
+ * Clicks counted for one value of a visit dimension, e.g. a country.
+ *
+ * @param value the dimension value
+ * @param clicks clicks with this value in the requested range
+ */
+public record DimensionCountDTO(String value, long clicks) {
+}
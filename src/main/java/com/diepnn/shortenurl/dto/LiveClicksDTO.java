@@ -0,0 +1,11 @@
+package com.diepnn.shortenurl.dto;
+
+/**
+ * A live click update of a link.
+ *
+ * @param urlId the link id
+ * @param clicks clicks since the previous update
+ * @param totalClicks the total clicks when the stream was opened plus the clicks of every update since
+ */
+public record LiveClicksDTO(Long urlId, long clicks, long totalClicks) {
+}
@@ -0,0 +1,12 @@
+package com.diepnn.shortenurl.dto;
+
+/**
+ * A link of the trending leaderboard.
+ *
+ * @param id the URL id
+ * @param shortCode the short code
+ * @param originalUrl the original URL
+ * @param clicks estimated clicks in the window, summed over all instances
+ */
+public record TrendingLinkDTO(Long id, String shortCode, String originalUrl, long clicks) {
+}
@@ -0,0 +1,26 @@
+package com.diepnn.shortenurl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UrlImportJobDTO {
+    private Long id;
+    private String status;
+    private String format;
+    private String sourceName;
+    private long committedLines;
+    private long importedCount;
+    private long skippedCount;
+    private String errorMessage;
+    private LocalDateTime createdDatetime;
+    private LocalDateTime updatedDatetime;
+    private LocalDateTime finishedDatetime;
+}
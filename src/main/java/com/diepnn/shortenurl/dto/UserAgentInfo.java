@@ -0,0 +1,12 @@
+package com.diepnn.shortenurl.dto;
+
+/**
+ * Classification of a {@code User-Agent} header, see {@link com.diepnn.shortenurl.utils.UserAgentUtils#classify}.
+ *
+ * @param family browser family, e.g. {@code Chrome}
+ * @param os operating system, e.g. {@code Android}
+ * @param device device type: {@code Desktop}, {@code Mobile}, {@code Tablet} or {@code Other}
+ * @param bot whether the user agent is a crawler or link preview
+ */
+public record UserAgentInfo(String family, String os, String device, boolean bot) {
+}
@@ -0,0 +1,13 @@
+package com.diepnn.shortenurl.dto.cache;
+
+import java.time.LocalDateTime;
+
+/**
+ * URL info acknowledged to the client but not yet persisted, queued in Redis by the write-behind mode.
+ *
+ * @param enqueuedAt epoch millis when the entry was queued, used to report the queue lag
+ */
+public record PendingUrlInfo(Long id, String shortCode, String originalUrl, Long originalUrlHash,
+                             String createdByIp, String createdByUserAgent, LocalDateTime createdDatetime,
+                             long enqueuedAt) {
+}
@@ -0,0 +1,49 @@
+package com.diepnn.shortenurl.dto.filter;
+
+import com.diepnn.shortenurl.entity.UrlInfo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Keyset position in a user's URL list ordered by {@code (createdDatetime, id)} descending.
+ * The next page starts right after this position.
+ *
+ * @param createdDatetime created datetime of the last returned URL
+ * @param id id of the last returned URL, breaks ties within the same second
+ */
+public record UrlInfoCursor(LocalDateTime createdDatetime, long id) {
+    public static UrlInfoCursor of(UrlInfo urlInfo) {
+        return new UrlInfoCursor(urlInfo.getCreatedDatetime(), urlInfo.getId());
+    }
+
+    /**
+     * Decode a cursor token returned by {@link #encode()}.
+     *
+     * @param token the opaque cursor token
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static UrlInfoCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            long epochMilli = Long.parseLong(value.substring(0, separator));
+            long id = Long.parseLong(value.substring(separator + 1));
+            return new UrlInfoCursor(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * @return an opaque, URL-safe cursor token
+     */
+    public String encode() {
+        String value = createdDatetime.toInstant(ZoneOffset.UTC).toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
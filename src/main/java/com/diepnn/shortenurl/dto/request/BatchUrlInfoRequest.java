@@ -0,0 +1,22 @@
+package com.diepnn.shortenurl.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Batch of URLs to shorten. Items are validated one by one by the service, so an invalid item
+ * is reported in its own result instead of rejecting the whole batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUrlInfoRequest {
+    @NotEmpty(message = "Items must not be empty")
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<UrlInfoRequest> items;
+}
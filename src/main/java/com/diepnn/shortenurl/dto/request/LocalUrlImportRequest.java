@@ -0,0 +1,23 @@
+package com.diepnn.shortenurl.dto.request;
+
+import com.diepnn.shortenurl.common.enums.UrlImportFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocalUrlImportRequest {
+    @NotBlank(message = "Path is required")
+    @Schema(example = "legacy/links-2024.csv", description = "Path relative to app.url-import.local-dir",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private String path;
+
+    @NotNull(message = "Format is required")
+    @Schema(example = "CSV", requiredMode = Schema.RequiredMode.REQUIRED)
+    private UrlImportFormat format;
+}
@@ -18,4 +18,16 @@ public class UrlInfoRequest {
     @Pattern(regexp = "^(?!-)([A-Za-z0-9-]{5,30})(?<!-)$", message = "Alias must be 5-30 chars, letters, digits or hyphens")
     @Schema(example = "github", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
     private String alias;
+
+    /**
+     * Return the existing short URL if the authenticated user already shortened the same original URL.
+     * Ignored for anonymous requests and custom aliases. Best effort: concurrent requests for the same URL
+     * may still create one short URL each.
+     */
+    @Schema(example = "false", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    private Boolean dedup;
+
+    public UrlInfoRequest(String originalUrl, String alias) {
+        this(originalUrl, alias, null);
+    }
 }
@@ -0,0 +1,14 @@
+package com.diepnn.shortenurl.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of a single item of a batch request.
+ *
+ * @param index position of the item in the request
+ * @param status HTTP status code describing the item outcome
+ * @param message outcome message
+ * @param data the created resource, only present on success
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResponse<T>(int index, int status, String message, T data) {}
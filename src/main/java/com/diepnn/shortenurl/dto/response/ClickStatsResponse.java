@@ -0,0 +1,14 @@
+package com.diepnn.shortenurl.dto.response;
+
+import com.diepnn.shortenurl.dto.ClickBucketDTO;
+
+import java.util.List;
+
+/**
+ * Click statistics of a short URL.
+ *
+ * @param totalClicks clicks since creation
+ * @param duplicateClicks repeat visits collapsed since creation, not part of {@code totalClicks} nor of the buckets
+ * @param buckets non-empty buckets of the requested range, oldest first
+ */
+public record ClickStatsResponse(long totalClicks, long duplicateClicks, List<ClickBucketDTO> buckets) {}
@@ -0,0 +1,12 @@
+package com.diepnn.shortenurl.dto.response;
+
+import java.util.List;
+
+/**
+ * A page of a keyset-paginated listing.
+ *
+ * @param items the page items
+ * @param nextCursor cursor of the next page, {@code null} on the last page
+ * @param pageSize the requested page size
+ */
+public record CursorPageResponse<T>(List<T> items, String nextCursor, int pageSize) {}
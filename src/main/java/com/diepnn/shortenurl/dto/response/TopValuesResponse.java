@@ -0,0 +1,14 @@
+package com.diepnn.shortenurl.dto.response;
+
+import com.diepnn.shortenurl.common.enums.VisitDimension;
+import com.diepnn.shortenurl.dto.DimensionCountDTO;
+
+import java.util.List;
+
+/**
+ * Most clicked values of a visit dimension for a short URL.
+ *
+ * @param dimension the ranked dimension
+ * @param values values with their clicks, most clicked first
+ */
+public record TopValuesResponse(VisitDimension dimension, List<DimensionCountDTO> values) {}
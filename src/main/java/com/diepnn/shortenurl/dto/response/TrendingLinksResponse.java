@@ -0,0 +1,14 @@
+package com.diepnn.shortenurl.dto.response;
+
+import com.diepnn.shortenurl.common.enums.TrendingWindow;
+import com.diepnn.shortenurl.dto.TrendingLinkDTO;
+
+import java.util.List;
+
+/**
+ * Most clicked links of a sliding window.
+ *
+ * @param window the ranked window
+ * @param links links with their clicks, most clicked first
+ */
+public record TrendingLinksResponse(TrendingWindow window, List<TrendingLinkDTO> links) {}
@@ -0,0 +1,13 @@
+package com.diepnn.shortenurl.dto.response;
+
+import com.diepnn.shortenurl.dto.DailyUniqueVisitorsDTO;
+
+import java.util.List;
+
+/**
+ * Approximate unique visitors of a short URL, estimated from HyperLogLog sketches (about 0.81% standard error).
+ *
+ * @param uniqueVisitors estimated distinct visitors over the whole range, a visitor seen on several days counts once
+ * @param days estimate per day, oldest first
+ */
+public record UniqueVisitorsResponse(long uniqueVisitors, List<DailyUniqueVisitorsDTO> days) {}
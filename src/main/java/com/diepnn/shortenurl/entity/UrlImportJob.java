@@ -0,0 +1,84 @@
+package com.diepnn.shortenurl.entity;
+
+import com.diepnn.shortenurl.common.enums.UrlImportFormat;
+import com.diepnn.shortenurl.common.enums.UrlImportStatus;
+import com.diepnn.shortenurl.converter.UrlImportFormatConverter;
+import com.diepnn.shortenurl.converter.UrlImportStatusConverter;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * <p>Represents a bulk import of legacy short URLs from a CSV or NDJSON file.</p>
+ *
+ * <p>Rows are inserted in chunks; each chunk commits together with {@code committedLines}, so a failed
+ * or interrupted job resumes right after the last committed chunk.</p>
+ */
+@Entity
+@Table(name = "url_import_job")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UrlImportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column
+    @Convert(converter = UrlImportStatusConverter.class)
+    private UrlImportStatus status;
+
+    @Column
+    @Convert(converter = UrlImportFormatConverter.class)
+    private UrlImportFormat format;
+
+    /** Display name of the source, the uploaded file name or the requested local path. */
+    @Column
+    private String sourceName;
+
+    /** Path of the file read by the job on the server. */
+    @Column
+    private String sourcePath;
+
+    /** Number of source lines covered by committed chunks, including skipped and blank lines. */
+    @Column
+    private long committedLines;
+
+    /** Number of rows inserted into {@code url_info}. */
+    @Column
+    private long importedCount;
+
+    /** Number of rows rejected by validation or ignored because the short code already exists. */
+    @Column
+    private long skippedCount;
+
+    /** Error which stopped the job, if any. */
+    @Column
+    private String errorMessage;
+
+    /** The user's id who started the import. */
+    @Column
+    private Long createdBy;
+
+    @Column
+    private LocalDateTime createdDatetime;
+
+    @Column
+    private LocalDateTime updatedDatetime;
+
+    @Column
+    private LocalDateTime finishedDatetime;
+}
@@ -34,7 +34,10 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "url_info",
        indexes = {
-               @Index(name = "uidx_url_info_original_url", columnList = "original_url", unique = true)
+               @Index(name = "uidx_url_info_original_url", columnList = "original_url", unique = true),
+               @Index(name = "idx_url_info_created_by_original_url_hash", columnList = "created_by, original_url_hash"),
+               @Index(name = "idx_url_info_created_by_status_created_datetime_id",
+                      columnList = "created_by, status, created_datetime, id")
        })
 @Getter
 @Setter
@@ -58,6 +61,13 @@ public class UrlInfo {
     @Column
     private String originalUrl;
 
+    /**
+     * FNV-1a 64-bit hash of the normalized {@code originalUrl}, indexed together with {@code created_by}
+     * for deduplication lookups. Null for rows created before the column existed.
+     */
+    @Column
+    private Long originalUrlHash;
+
     /** Whether the short code is a user-defined alias */
     @Column(name = "is_alias")
     private Boolean alias;
@@ -82,6 +92,14 @@ public class UrlInfo {
     @Column
     private LocalDateTime lastAccessDatetime;
 
+    /** Clicks since creation, maintained by the click rollup flusher; never written through JPA. */
+    @Column(insertable = false, updatable = false)
+    private Long totalClicks;
+
+    /** Repeat visits collapsed by the dedup window, maintained by the click rollup flusher; never written through JPA. */
+    @Column(insertable = false, updatable = false)
+    private Long duplicateClicks;
+
     /** Timestamp when the short URL was deleted (UTC). */
     @Column
     private LocalDateTime deletedDatetime;
@@ -44,6 +44,24 @@ public class UrlVisit {
     @Column
     private String country;
 
+    @Column
+    private String userAgentFamily;
+
+    @Column
+    private String userAgentOs;
+
+    @Column
+    private String userAgentDevice;
+
+    @Column(name = "is_bot")
+    private Boolean bot;
+
+    /**
+     * Number of visits this visit stands for, more than 1 when it was recorded while visits were sampled
+     */
+    @Column
+    private Integer sampleWeight;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "shorten_url_id")
     private UrlInfo shortenUrl;
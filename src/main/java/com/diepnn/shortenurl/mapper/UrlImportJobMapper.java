@@ -0,0 +1,20 @@
+package com.diepnn.shortenurl.mapper;
+
+import com.diepnn.shortenurl.common.annotation.EnumTranslator;
+import com.diepnn.shortenurl.common.annotation.FromEnum;
+import com.diepnn.shortenurl.dto.UrlImportJobDTO;
+import com.diepnn.shortenurl.entity.UrlImportJob;
+import com.diepnn.shortenurl.mapper.translator.EnumMappings;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Mapper for converting between {@link UrlImportJob} and {@link UrlImportJobDTO}
+ */
+@Mapper(uses = EnumMappings.class)
+public abstract class UrlImportJobMapper implements BaseMapper<UrlImportJob, UrlImportJobDTO> {
+    @Mapping(target = "status", qualifiedBy = {EnumTranslator.class, FromEnum.class})
+    @Mapping(target = "format", qualifiedBy = {EnumTranslator.class, FromEnum.class})
+    @Override
+    public abstract UrlImportJobDTO toDto(UrlImportJob s);
+}
@@ -1,5 +1,6 @@
 package com.diepnn.shortenurl.mapper;
 
+import com.diepnn.shortenurl.dto.UserAgentInfo;
 import com.diepnn.shortenurl.dto.UserInfo;
 import com.diepnn.shortenurl.entity.UrlVisit;
 import org.mapstruct.Mapper;
@@ -9,5 +10,19 @@ import org.mapstruct.Mapping;
 public abstract class UrlVisitMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "shortenUrl", ignore = true)
+    @Mapping(target = "userAgentFamily", ignore = true)
+    @Mapping(target = "userAgentOs", ignore = true)
+    @Mapping(target = "userAgentDevice", ignore = true)
+    @Mapping(target = "bot", ignore = true)
+    @Mapping(target = "sampleWeight", ignore = true)
     public abstract UrlVisit toEntity(UserInfo userInfo);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "shortenUrl", ignore = true)
+    @Mapping(target = "userAgentFamily", source = "userAgentInfo.family")
+    @Mapping(target = "userAgentOs", source = "userAgentInfo.os")
+    @Mapping(target = "userAgentDevice", source = "userAgentInfo.device")
+    @Mapping(target = "bot", source = "userAgentInfo.bot")
+    @Mapping(target = "sampleWeight", ignore = true)
+    public abstract UrlVisit toEntity(UserInfo userInfo, UserAgentInfo userAgentInfo);
 }
@@ -3,6 +3,9 @@ package com.diepnn.shortenurl.mapper.translator;
 import com.diepnn.shortenurl.common.annotation.FromShortUrl;
 import com.diepnn.shortenurl.common.annotation.ShortUrlTranslator;
 import com.diepnn.shortenurl.common.annotation.ToShortUrl;
+import com.diepnn.shortenurl.service.blocklist.DomainBlocklistService;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer.CanonicalUrl;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -14,9 +17,11 @@ import java.net.URI;
 @ShortUrlTranslator
 public class ShortUrlMappings {
     private final URI baseUri;
+    private final DomainBlocklistService domainBlocklistService;
 
-    public ShortUrlMappings(@Value("${app.short-base-url}") String baseUrl) {
+    public ShortUrlMappings(@Value("${app.short-base-url}") String baseUrl, DomainBlocklistService domainBlocklistService) {
         this.baseUri = URI.create(baseUrl);
+        this.domainBlocklistService = domainBlocklistService;
     }
 
     @ToShortUrl
@@ -45,37 +50,22 @@ public class ShortUrlMappings {
     }
 
     /**
-     * Normalize the given URL.
+     * Validate the given original URL and convert it to its canonical form.
      *
-     * @param originalUrl the original URL
-     * @return the normalized URL
+     * @param originalUrl the original URL as entered, with or without scheme
+     * @return the canonical URL and its hash
+     * @throws IllegalArgumentException if the URL is invalid, points to this service or to a blocked domain
      */
-    public String normalizeUrl(String originalUrl) {
-        if (originalUrl.startsWith("http://") || originalUrl.startsWith("https://")) {
-            return originalUrl;
+    public CanonicalUrl canonicalizeOriginalUrl(String originalUrl) {
+        CanonicalUrl canonical = UrlCanonicalizer.canonicalize(originalUrl);
+        if (baseUri.getHost().equals(canonical.host())) {
+            throw new IllegalArgumentException("Prohibited domain: " + canonical.host());
         }
 
-        return "http://" + originalUrl;
-    }
-
-    /**
-     * Validate the given original URL.
-     *
-     * @param originalUrl the original URL to validate
-     * @throws IllegalArgumentException if the URL is invalid
-     */
-    public void validateOriginalUrl(String originalUrl) {
-        if (StringUtils.isBlank(originalUrl)) {
-            throw new IllegalArgumentException("Invalid input: " + originalUrl);
-        }
-
-        URI uri = URI.create(originalUrl);
-        if (baseUri.getHost().equals(StringUtils.lowerCase(uri.getHost()))) {
-            throw new IllegalArgumentException("Prohibited domain: " + uri.getHost());
+        if (domainBlocklistService.isBlocked(canonical.host())) {
+            throw new IllegalArgumentException("Blocked domain: " + canonical.host());
         }
 
-        if (baseUri.getHost().equals(StringUtils.lowerCase(uri.getScheme()))) {
-            throw new IllegalArgumentException("Prohibited domain: " + uri.getScheme());
-        }
+        return canonical;
     }
 }
@@ -0,0 +1,246 @@
+package com.diepnn.shortenurl.repository;
+
+import com.diepnn.shortenurl.common.enums.ClickGranularity;
+import com.diepnn.shortenurl.common.enums.VisitDimension;
+import com.diepnn.shortenurl.dto.ClickBucketDTO;
+import com.diepnn.shortenurl.dto.DailyUniqueVisitorsDTO;
+import com.diepnn.shortenurl.dto.DimensionCountDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC operations on the pre-aggregated click counters: {@code url_click_rollup} buckets,
+ * {@code url_dimension_rollup} daily counters, {@code url_info.total_clicks} and {@code url_info.duplicate_clicks}.
+ * Day buckets also keep the unique visitors of the days compacted from the raw visits.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UrlClickRollupRepository {
+    private static final String UPSERT_BUCKET_SQL = """
+            INSERT INTO url_click_rollup (url_id, granularity, bucket_start, clicks)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE clicks = clicks + VALUES(clicks)
+            """;
+
+    private static final String ADD_TOTAL_CLICKS_SQL = "UPDATE url_info SET total_clicks = total_clicks + ? WHERE id = ?";
+    private static final String ADD_DUPLICATE_CLICKS_SQL = "UPDATE url_info SET duplicate_clicks = duplicate_clicks + ? WHERE id = ?";
+
+    private static final String FIND_BUCKETS_SQL = """
+            SELECT bucket_start, clicks FROM url_click_rollup
+            WHERE url_id = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ?
+            ORDER BY bucket_start
+            """;
+
+    private static final String UPSERT_DIMENSION_SQL = """
+            INSERT INTO url_dimension_rollup (url_id, dimension, bucket_day, dimension_value, clicks)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE clicks = clicks + VALUES(clicks)
+            """;
+
+    private static final String FIND_TOP_VALUES_SQL = """
+            SELECT dimension_value, SUM(clicks) AS total FROM url_dimension_rollup
+            WHERE url_id = ? AND dimension = ? AND bucket_day >= ? AND bucket_day < ?
+            GROUP BY dimension_value
+            ORDER BY total DESC, dimension_value
+            LIMIT ?
+            """;
+
+    // Only days with counted clicks have a bucket, a day without clicks has no visitors to show either
+    private static final String SAVE_UNIQUE_VISITORS_SQL = """
+            UPDATE url_click_rollup SET unique_visitors = GREATEST(unique_visitors, ?)
+            WHERE url_id = ? AND granularity = ? AND bucket_start = ?
+            """;
+
+    private static final String FIND_UNIQUE_VISITORS_SQL = """
+            SELECT bucket_start, unique_visitors FROM url_click_rollup
+            WHERE url_id = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ? AND unique_visitors > 0
+            ORDER BY bucket_start
+            """;
+
+    // Walks idx_url_click_rollup_granularity_bucket_start from the oldest buckets, so a batch stops at its limit
+    private static final String DELETE_BUCKETS_BEFORE_SQL = """
+            DELETE FROM url_click_rollup WHERE granularity = ? AND bucket_start < ? ORDER BY bucket_start LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Click delta of one bucket.
+     */
+    public record BucketDelta(long urlId, ClickGranularity granularity, LocalDateTime bucketStart, long clicks) {
+    }
+
+    /**
+     * Click delta of one value of a dimension on one day.
+     */
+    public record DimensionDelta(long urlId, VisitDimension dimension, LocalDate day, String value, long clicks) {
+    }
+
+    /**
+     * Unique visitors of a URL on one day.
+     */
+    public record DailyUniqueVisitors(long urlId, LocalDate day, long uniqueVisitors) {
+    }
+
+    /**
+     * Adds the deltas to their buckets, creating missing buckets.
+     *
+     * @param deltas bucket deltas, at most one per bucket
+     * @param batchSize number of rows per JDBC batch
+     */
+    public void upsertBuckets(List<BucketDelta> deltas, int batchSize) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_BUCKET_SQL, deltas, batchSize, (ps, delta) -> {
+            ps.setLong(1, delta.urlId());
+            ps.setString(2, delta.granularity().getValue());
+            ps.setTimestamp(3, Timestamp.valueOf(delta.bucketStart()));
+            ps.setLong(4, delta.clicks());
+        });
+    }
+
+    /**
+     * Adds the deltas to {@code url_info.total_clicks}, rows not persisted yet are skipped.
+     *
+     * @param deltas clicks to add by URL id
+     * @param batchSize number of rows per JDBC batch
+     */
+    public void addTotalClicks(Map<Long, Long> deltas, int batchSize) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(ADD_TOTAL_CLICKS_SQL, List.copyOf(deltas.entrySet()), batchSize, (ps, delta) -> {
+            ps.setLong(1, delta.getValue());
+            ps.setLong(2, delta.getKey());
+        });
+    }
+
+    /**
+     * Adds the deltas to {@code url_info.duplicate_clicks}, rows not persisted yet are skipped.
+     *
+     * @param deltas repeat visits to add by URL id
+     * @param batchSize number of rows per JDBC batch
+     */
+    public void addDuplicateClicks(Map<Long, Long> deltas, int batchSize) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(ADD_DUPLICATE_CLICKS_SQL, List.copyOf(deltas.entrySet()), batchSize, (ps, delta) -> {
+            ps.setLong(1, delta.getValue());
+            ps.setLong(2, delta.getKey());
+        });
+    }
+
+    /**
+     * Keeps the unique visitors of the days on their day buckets, a lower value never replaces a higher one.
+     *
+     * @param visitors unique visitors, at most one per URL and day
+     * @param batchSize number of rows per JDBC batch
+     */
+    public void saveUniqueVisitors(List<DailyUniqueVisitors> visitors, int batchSize) {
+        if (visitors.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(SAVE_UNIQUE_VISITORS_SQL, visitors, batchSize, (ps, day) -> {
+            ps.setLong(1, day.uniqueVisitors());
+            ps.setLong(2, day.urlId());
+            ps.setString(3, ClickGranularity.DAY.getValue());
+            ps.setTimestamp(4, Timestamp.valueOf(day.day().atStartOfDay()));
+        });
+    }
+
+    /**
+     * Returns the unique visitors kept on the day buckets of the URL in {@code [from, to)}, oldest first.
+     * Days never compacted are left out.
+     *
+     * @param urlId the URL id
+     * @param from first day, inclusive (UTC)
+     * @param to last day, exclusive (UTC)
+     * @return the unique visitors per day
+     */
+    public List<DailyUniqueVisitorsDTO> findUniqueVisitors(long urlId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(FIND_UNIQUE_VISITORS_SQL,
+                                  (rs, rowNum) -> new DailyUniqueVisitorsDTO(rs.getTimestamp(1).toLocalDateTime().toLocalDate(),
+                                                                             rs.getLong(2)),
+                                  urlId, ClickGranularity.DAY.getValue(), Timestamp.valueOf(from.atStartOfDay()),
+                                  Timestamp.valueOf(to.atStartOfDay()));
+    }
+
+    /**
+     * Deletes at most {@code limit} buckets of the granularity starting before the given time. Meant to run outside
+     * a transaction, so each batch commits and releases its locks before the next one.
+     *
+     * @param granularity bucket size
+     * @param before exclusive upper bound of the bucket start (UTC)
+     * @param limit maximum number of buckets deleted
+     * @return number of buckets deleted
+     */
+    public int deleteBucketsBefore(ClickGranularity granularity, LocalDateTime before, int limit) {
+        return jdbcTemplate.update(DELETE_BUCKETS_BEFORE_SQL, granularity.getValue(), Timestamp.valueOf(before), limit);
+    }
+
+    /**
+     * Returns the non-empty buckets of the URL in {@code [from, to)}, oldest first.
+     *
+     * @param urlId the URL id
+     * @param granularity bucket size
+     * @param from inclusive start (UTC)
+     * @param to exclusive end (UTC)
+     * @return the buckets
+     */
+    public List<ClickBucketDTO> findBuckets(long urlId, ClickGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(FIND_BUCKETS_SQL,
+                                  (rs, rowNum) -> new ClickBucketDTO(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2)),
+                                  urlId, granularity.getValue(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Adds the deltas to their daily dimension counters, creating missing counters.
+     *
+     * @param deltas dimension deltas, at most one per counter
+     * @param batchSize number of rows per JDBC batch
+     */
+    public void upsertDimensions(List<DimensionDelta> deltas, int batchSize) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_DIMENSION_SQL, deltas, batchSize, (ps, delta) -> {
+            ps.setLong(1, delta.urlId());
+            ps.setString(2, delta.dimension().getValue());
+            ps.setDate(3, Date.valueOf(delta.day()));
+            ps.setString(4, delta.value());
+            ps.setLong(5, delta.clicks());
+        });
+    }
+
+    /**
+     * Returns the values of the dimension with the most clicks in {@code [from, to)}, most clicked first.
+     * Served by the primary key prefix, the scan is bounded by days times distinct values.
+     *
+     * @param urlId the URL id
+     * @param dimension the dimension to rank
+     * @param from first day, inclusive (UTC)
+     * @param to last day, exclusive (UTC)
+     * @param limit maximum number of values
+     * @return the values with their clicks
+     */
+    public List<DimensionCountDTO> findTopValues(long urlId, VisitDimension dimension, LocalDate from, LocalDate to, int limit) {
+        return jdbcTemplate.query(FIND_TOP_VALUES_SQL,
+                                  (rs, rowNum) -> new DimensionCountDTO(rs.getString(1), rs.getLong(2)),
+                                  urlId, dimension.getValue(), Date.valueOf(from), Date.valueOf(to), limit);
+    }
+}
@@ -0,0 +1,30 @@
+package com.diepnn.shortenurl.repository;
+
+import com.diepnn.shortenurl.entity.UrlImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface UrlImportJobRepository extends JpaRepository<UrlImportJob, Long> {
+    /**
+     * Record the progress of a committed chunk.
+     *
+     * @param id import job id
+     * @param committedLines source lines covered by committed chunks
+     * @param importedCount rows inserted so far
+     * @param skippedCount rows skipped so far
+     * @param updatedDatetime update time
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+           UPDATE UrlImportJob j
+           SET j.committedLines = :committedLines, j.importedCount = :importedCount,
+               j.skippedCount = :skippedCount, j.updatedDatetime = :updatedDatetime
+           WHERE j.id = :id
+           """)
+    void updateProgress(Long id, long committedLines, long importedCount, long skippedCount, LocalDateTime updatedDatetime);
+}
@@ -0,0 +1,161 @@
+package com.diepnn.shortenurl.repository;
+
+import com.diepnn.shortenurl.entity.UrlInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * JDBC batch operations on {@code url_info} that bypass the persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class UrlInfoBatchRepository {
+    // Only a duplicate id or short code turns into a no-op, any other error (foreign key, truncation, ...) still fails
+    private static final String INSERT_SQL = """
+            INSERT INTO url_info (id, short_code, original_url, original_url_hash, is_alias, status,
+                                  created_by, created_by_ip, created_by_user_agent, created_datetime)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE id = id
+            """;
+
+    private static final String FIND_BY_IDS_OR_SHORT_CODES_SQL = """
+            SELECT id, short_code, original_url_hash FROM url_info WHERE id IN (:ids) OR short_code IN (:shortCodes)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Outcome of a row of {@link #insert(List, int)}.
+     */
+    public enum InsertOutcome {
+        /**
+         * The row is in the table, written now or by an earlier attempt with the same values
+         */
+        INSERTED,
+        /**
+         * Another row already has the id
+         */
+        ID_EXISTS,
+        /**
+         * Another row already has the short code
+         */
+        SHORT_CODE_EXISTS,
+        /**
+         * The row was rejected by the database for another reason
+         */
+        FAILED
+    }
+
+    private record StoredRow(String shortCode, Long originalUrlHash) {
+    }
+
+    /**
+     * Inserts the given rows, skipping those whose id or short code already exists instead of failing the whole
+     * batch. A batch rejected for another reason is retried row by row, so only the faulty rows fail.
+     *
+     * <p>Affected row counts cannot tell an inserted row from a skipped one (rewritten batches do not report them,
+     * found rows count duplicates as matched), so the rows are looked up afterwards to tell which key collided.</p>
+     *
+     * @param urlInfos rows to insert, ids must be freshly generated
+     * @param batchSize number of rows per JDBC batch
+     * @return {@code outcomes[i]} is the outcome of {@code urlInfos.get(i)}
+     */
+    public InsertOutcome[] insert(List<UrlInfo> urlInfos, int batchSize) {
+        InsertOutcome[] outcomes = new InsertOutcome[urlInfos.size()];
+        if (urlInfos.isEmpty()) {
+            return outcomes;
+        }
+
+        for (int from = 0; from < urlInfos.size(); from += batchSize) {
+            List<UrlInfo> batch = urlInfos.subList(from, Math.min(from + batchSize, urlInfos.size()));
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), this::setInsertValues);
+            } catch (DataIntegrityViolationException e) {
+                // The failed statement wrote none of its rows
+                for (int i = 0; i < batch.size(); i++) {
+                    outcomes[from + i] = insertOne(batch.get(i));
+                }
+            }
+        }
+
+        Map<Long, StoredRow> storedById = new HashMap<>();
+        Set<String> storedShortCodes = new HashSet<>();
+        namedParameterJdbcTemplate.query(FIND_BY_IDS_OR_SHORT_CODES_SQL,
+                                         new MapSqlParameterSource("ids", urlInfos.stream().map(UrlInfo::getId).toList())
+                                                 .addValue("shortCodes", urlInfos.stream().map(UrlInfo::getShortCode).toList()),
+                                         rs -> {
+                                             String shortCode = rs.getString(2);
+                                             storedById.put(rs.getLong(1), new StoredRow(shortCode, rs.getObject(3, Long.class)));
+                                             storedShortCodes.add(shortCode.toLowerCase());
+                                         });
+
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] != InsertOutcome.FAILED) {
+                outcomes[i] = classify(urlInfos.get(i), storedById, storedShortCodes);
+            }
+        }
+
+        return outcomes;
+    }
+
+    private InsertOutcome insertOne(UrlInfo urlInfo) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, ps -> setInsertValues(ps, urlInfo));
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Failed to insert url info {}", urlInfo.getId(), e);
+            return InsertOutcome.FAILED;
+        }
+    }
+
+    private static InsertOutcome classify(UrlInfo urlInfo, Map<Long, StoredRow> storedById, Set<String> storedShortCodes) {
+        StoredRow stored = storedById.get(urlInfo.getId());
+        if (stored != null) {
+            boolean same = stored.shortCode().equalsIgnoreCase(urlInfo.getShortCode())
+                           && Objects.equals(stored.originalUrlHash(), urlInfo.getOriginalUrlHash());
+            return same ? InsertOutcome.INSERTED : InsertOutcome.ID_EXISTS;
+        }
+
+        // Not written without an error, so only its short code can have collided
+        return storedShortCodes.contains(urlInfo.getShortCode().toLowerCase()) ? InsertOutcome.SHORT_CODE_EXISTS : InsertOutcome.FAILED;
+    }
+
+    private void setInsertValues(PreparedStatement ps, UrlInfo urlInfo) throws SQLException {
+        ps.setLong(1, urlInfo.getId());
+        ps.setString(2, urlInfo.getShortCode());
+        ps.setString(3, urlInfo.getOriginalUrl());
+        setNullableLong(ps, 4, urlInfo.getOriginalUrlHash());
+        ps.setBoolean(5, Boolean.TRUE.equals(urlInfo.getAlias()));
+        ps.setString(6, urlInfo.getStatus() == null ? null : urlInfo.getStatus().getValue());
+        setNullableLong(ps, 7, urlInfo.getUserId());
+        ps.setString(8, urlInfo.getCreatedByIp());
+        ps.setString(9, urlInfo.getCreatedByUserAgent());
+        ps.setTimestamp(10, urlInfo.getCreatedDatetime() == null ? null : Timestamp.valueOf(urlInfo.getCreatedDatetime()));
+    }
+
+    private void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
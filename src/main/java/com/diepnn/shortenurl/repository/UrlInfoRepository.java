@@ -4,6 +4,7 @@ import com.diepnn.shortenurl.dto.cache.UrlInfoCache;
 import com.diepnn.shortenurl.dto.filter.UrlInfoFilter;
 import com.diepnn.shortenurl.entity.UrlInfo;
 import com.diepnn.shortenurl.specification.UrlInfoSpecs;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -65,6 +66,59 @@ public interface UrlInfoRepository extends JpaRepository<UrlInfo, Long>, JpaSpec
            """)
     List<UrlInfo> findAllByUserIdOrderByCreatedDatetimeDesc(Long userId);
 
+    /**
+     * Find the first page of active url info of the user, newest first.
+     * Served by the {@code (created_by, status, created_datetime, id)} index.
+     *
+     * @param userId user id
+     * @param limit page size
+     * @return url info list
+     */
+    @Query("""
+           SELECT u
+           FROM UrlInfo u
+           WHERE u.userId = :userId AND u.status = com.diepnn.shortenurl.common.enums.UrlInfoStatus.ACTIVE
+           ORDER BY u.createdDatetime DESC, u.id DESC
+           """)
+    List<UrlInfo> findActivePageByUserId(Long userId, Limit limit);
+
+    /**
+     * Find the page of active url info of the user that follows the given keyset position, newest first.
+     *
+     * @param userId user id
+     * @param createdDatetime created datetime of the last url info of the previous page
+     * @param id id of the last url info of the previous page
+     * @param limit page size
+     * @return url info list
+     */
+    @Query("""
+           SELECT u
+           FROM UrlInfo u
+           WHERE u.userId = :userId AND u.status = com.diepnn.shortenurl.common.enums.UrlInfoStatus.ACTIVE
+                 AND (u.createdDatetime < :createdDatetime OR (u.createdDatetime = :createdDatetime AND u.id < :id))
+           ORDER BY u.createdDatetime DESC, u.id DESC
+           """)
+    List<UrlInfo> findActivePageByUserIdAfter(Long userId, LocalDateTime createdDatetime, Long id, Limit limit);
+
+    /**
+     * Find active, non-alias url info created by the user for the given original URL.
+     * The lookup goes through the {@code (created_by, original_url_hash)} index; comparing
+     * {@code originalUrl} rules out hash collisions.
+     *
+     * @param userId user id
+     * @param originalUrlHash hash of the normalized original URL
+     * @param originalUrl normalized original URL
+     * @return matching url info, oldest first
+     */
+    @Query("""
+           SELECT u
+           FROM UrlInfo u
+           WHERE u.userId = :userId AND u.originalUrlHash = :originalUrlHash AND u.originalUrl = :originalUrl
+                 AND u.alias = false AND u.status = com.diepnn.shortenurl.common.enums.UrlInfoStatus.ACTIVE
+           ORDER BY u.id
+           """)
+    List<UrlInfo> findDedupCandidates(Long userId, Long originalUrlHash, String originalUrl);
+
     /**
      * Update last access datetime by id.
      *
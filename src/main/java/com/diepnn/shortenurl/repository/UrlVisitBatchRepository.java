@@ -0,0 +1,86 @@
+package com.diepnn.shortenurl.repository;
+
+import com.diepnn.shortenurl.entity.UrlVisit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC batch operations on {@code url_visit} that bypass the persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UrlVisitBatchRepository {
+    private static final String INSERT_SQL = """
+            INSERT INTO url_visit (shorten_url_id, visited_datetime, user_agent, ip_address, country,
+                                   user_agent_family, user_agent_os, user_agent_device, is_bot)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String FIND_URL_IDS_SQL = "SELECT id FROM url_info WHERE id IN (:ids)";
+
+    // Walks idx_url_visit_visited_datetime from the oldest visits, so a batch reads and locks only the expired rows it
+    // deletes plus the next index entry, and the last batch of a run stops at the cutoff
+    private static final String DELETE_VISITED_BEFORE_SQL = "DELETE FROM url_visit WHERE visited_datetime < ? ORDER BY visited_datetime LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Inserts the visits of the URLs already in {@code url_info}. The visits of a URL still queued by write-behind
+     * are skipped instead of failing the whole batch on the foreign key; any other error fails the batch.
+     *
+     * @param urlVisits visits to insert, only the id of their URL is read
+     * @param batchSize number of rows per JDBC batch
+     * @return number of visits skipped because their URL is not persisted
+     */
+    public int insert(List<UrlVisit> urlVisits, int batchSize) {
+        if (urlVisits.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> urlIds = new HashSet<>();
+        urlVisits.forEach(urlVisit -> urlIds.add(urlVisit.getShortenUrl().getId()));
+        Set<Long> persisted = new HashSet<>(namedParameterJdbcTemplate.queryForList(FIND_URL_IDS_SQL, Map.of("ids", urlIds), Long.class));
+        List<UrlVisit> insertable = urlVisits.stream()
+                                             .filter(urlVisit -> persisted.contains(urlVisit.getShortenUrl().getId()))
+                                             .toList();
+        if (insertable.isEmpty()) {
+            return urlVisits.size();
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, insertable, batchSize, (ps, urlVisit) -> {
+            ps.setLong(1, urlVisit.getShortenUrl().getId());
+            ps.setTimestamp(2, Timestamp.valueOf(urlVisit.getVisitedDatetime()));
+            ps.setString(3, urlVisit.getUserAgent());
+            ps.setString(4, urlVisit.getIpAddress());
+            ps.setString(5, urlVisit.getCountry());
+            ps.setString(6, urlVisit.getUserAgentFamily());
+            ps.setString(7, urlVisit.getUserAgentOs());
+            ps.setString(8, urlVisit.getUserAgentDevice());
+            ps.setObject(9, urlVisit.getBot());
+        });
+
+        return urlVisits.size() - insertable.size();
+    }
+
+    /**
+     * Deletes at most {@code limit} visits older than the given time. Meant to run outside a transaction, so each
+     * batch commits and releases its locks before the next one.
+     *
+     * @param before exclusive upper bound of the visit time (UTC)
+     * @param limit maximum number of visits deleted
+     * @return number of visits deleted
+     */
+    public int deleteVisitedBefore(LocalDateTime before, int limit) {
+        return jdbcTemplate.update(DELETE_VISITED_BEFORE_SQL, Timestamp.valueOf(before), limit);
+    }
+}
@@ -0,0 +1,151 @@
+package com.diepnn.shortenurl.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC operations of the compaction of raw {@code url_visit} rows, with its progress in
+ * {@code url_visit_compaction_checkpoint}. The same table keeps the rollup watermark: the first visit id recorded
+ * while the click rollup was counting visits, the visits below it are in no click bucket.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UrlVisitCompactionRepository {
+    private static final String JOB = "url_visit";
+    private static final String ROLLUP_JOB = "url_visit_rollup";
+
+    private static final String FIND_NEXT_VISIT_ID_SQL = "SELECT next_visit_id FROM url_visit_compaction_checkpoint WHERE job = ?";
+
+    private static final String CREATE_CHECKPOINT_SQL = """
+            INSERT IGNORE INTO url_visit_compaction_checkpoint (job, next_visit_id, updated_datetime)
+            VALUES (?, 0, CURRENT_TIMESTAMP)
+            """;
+
+    // Another instance compacting holds the row, skip it instead of waiting for its chunk
+    private static final String LOCK_NEXT_VISIT_ID_SQL = FIND_NEXT_VISIT_ID_SQL + " FOR UPDATE SKIP LOCKED";
+
+    private static final String SAVE_NEXT_VISIT_ID_SQL = """
+            UPDATE url_visit_compaction_checkpoint SET next_visit_id = ?, updated_datetime = CURRENT_TIMESTAMP WHERE job = ?
+            """;
+
+    private static final String FIND_VISITS_FROM_SQL = """
+            SELECT id, shorten_url_id, visited_datetime
+            FROM url_visit
+            WHERE id >= ?
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    // Visits recorded from now on are counted by the rollup, an existing watermark is older and kept
+    private static final String CREATE_ROLLUP_WATERMARK_SQL = """
+            INSERT IGNORE INTO url_visit_compaction_checkpoint (job, next_visit_id, updated_datetime)
+            SELECT ?, COALESCE(MAX(id), 0) + 1, CURRENT_TIMESTAMP FROM url_visit
+            """;
+
+    private static final String DELETE_ROLLUP_WATERMARK_SQL = "DELETE FROM url_visit_compaction_checkpoint WHERE job = ?";
+
+    // Walks the primary key from the oldest ids, so a batch stops at its limit instead of scanning the table
+    private static final String DELETE_VISITS_BETWEEN_SQL = "DELETE FROM url_visit WHERE id >= ? AND id < ? ORDER BY id LIMIT ?";
+
+    private static final String DELETE_HUMAN_VISITS_BETWEEN_SQL = """
+            DELETE FROM url_visit WHERE id >= ? AND id < ? AND (is_bot IS NULL OR is_bot = FALSE) ORDER BY id LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A raw visit read for compaction.
+     */
+    public record CompactedVisit(long id, Long urlId, LocalDateTime visitedDatetime) {
+    }
+
+    /**
+     * Returns the id compaction resumes from, without locking.
+     *
+     * @return the next visit id to compact, null if compaction never ran
+     */
+    public Long findNextVisitId() {
+        List<Long> ids = jdbcTemplate.queryForList(FIND_NEXT_VISIT_ID_SQL, Long.class, JOB);
+        return ids.isEmpty() ? null : ids.getFirst();
+    }
+
+    /**
+     * Creates the checkpoint from the first visit, if missing.
+     */
+    public void createCheckpoint() {
+        jdbcTemplate.update(CREATE_CHECKPOINT_SQL, JOB);
+    }
+
+    /**
+     * Locks the checkpoint until the end of the current transaction and returns the id compaction resumes from.
+     *
+     * @return the next visit id to compact, null if the checkpoint is missing or locked by another transaction
+     */
+    public Long lockNextVisitId() {
+        List<Long> ids = jdbcTemplate.queryForList(LOCK_NEXT_VISIT_ID_SQL, Long.class, JOB);
+        return ids.isEmpty() ? null : ids.getFirst();
+    }
+
+    /**
+     * Records the compaction progress, meant to run in the transaction that kept the unique visitors.
+     *
+     * @param nextVisitId the next visit id to compact
+     */
+    public void saveNextVisitId(long nextVisitId) {
+        jdbcTemplate.update(SAVE_NEXT_VISIT_ID_SQL, nextVisitId, JOB);
+    }
+
+    /**
+     * Returns the first visit id counted by the click rollup.
+     *
+     * @return the rollup watermark, null if the rollup is not counting visits
+     */
+    public Long findRollupWatermark() {
+        List<Long> ids = jdbcTemplate.queryForList(FIND_NEXT_VISIT_ID_SQL, Long.class, ROLLUP_JOB);
+        return ids.isEmpty() ? null : ids.getFirst();
+    }
+
+    /**
+     * Records that the visits from the next id on are counted by the click rollup, if not recorded yet.
+     */
+    public void createRollupWatermark() {
+        jdbcTemplate.update(CREATE_ROLLUP_WATERMARK_SQL, ROLLUP_JOB);
+    }
+
+    /**
+     * Forgets the rollup watermark, the visits recorded from now on are not counted by the click rollup.
+     */
+    public void deleteRollupWatermark() {
+        jdbcTemplate.update(DELETE_ROLLUP_WATERMARK_SQL, ROLLUP_JOB);
+    }
+
+    /**
+     * Returns at most {@code limit} visits from the given id on, by id.
+     *
+     * @param fromId inclusive lower bound of the visit id
+     * @param limit maximum number of visits
+     * @return the visits
+     */
+    public List<CompactedVisit> findVisitsFrom(long fromId, int limit) {
+        return jdbcTemplate.query(FIND_VISITS_FROM_SQL, (rs, rowNum) -> new CompactedVisit(
+                rs.getLong(1), rs.getObject(2, Long.class), rs.getTimestamp(3).toLocalDateTime()), fromId, limit);
+    }
+
+    /**
+     * Deletes at most {@code limit} visits in {@code [fromId, beforeId)}. Meant to run outside a transaction, so
+     * each batch commits and releases its locks before the next one.
+     *
+     * @param fromId inclusive lower bound of the visit id
+     * @param beforeId exclusive upper bound of the visit id
+     * @param keepBots whether bot visits are kept
+     * @param limit maximum number of visits deleted
+     * @return number of visits deleted
+     */
+    public int deleteVisitsBetween(long fromId, long beforeId, boolean keepBots, int limit) {
+        return jdbcTemplate.update(keepBots ? DELETE_HUMAN_VISITS_BETWEEN_SQL : DELETE_VISITS_BETWEEN_SQL, fromId, beforeId, limit);
+    }
+}
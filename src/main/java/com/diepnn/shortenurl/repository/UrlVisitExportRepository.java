@@ -0,0 +1,77 @@
+package com.diepnn.shortenurl.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Streams raw {@code url_visit} rows for exports, without loading them into the persistence context or a list.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UrlVisitExportRepository {
+    private static final String COLUMNS = """
+            SELECT shorten_url_id, visited_datetime, ip_address, user_agent, country,
+                   user_agent_family, user_agent_os, user_agent_device, is_bot, sample_weight
+            FROM url_visit
+            """;
+
+    // Ids follow the visit order; per URL, the shorten_url_id index already returns rows by id, so nothing is sorted
+    private static final String STREAM_URL_VISITS_SQL = COLUMNS + """
+            WHERE shorten_url_id = ? AND visited_datetime >= ? AND visited_datetime < ?
+            ORDER BY id
+            """;
+
+    // Ranges idx_url_visit_visited_datetime, whose entries are ordered by (visited_datetime, id), so nothing is sorted
+    private static final String STREAM_VISITS_SQL = COLUMNS + """
+            WHERE visited_datetime >= ? AND visited_datetime < ?
+            ORDER BY visited_datetime, id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A raw visit, standing for {@code sampleWeight} visits.
+     */
+    public record VisitRow(long urlId, LocalDateTime visitedDatetime, String ipAddress, String userAgent, String country,
+                           String userAgentFamily, String userAgentOs, String userAgentDevice, Boolean bot,
+                           int sampleWeight) {
+    }
+
+    /**
+     * Passes the visits of the range to the consumer one by one, as the server sends them. Holds a connection, which
+     * runs no other statement, until the last row is consumed.
+     *
+     * @param urlId the visited URL id, null for the visits of every URL
+     * @param from inclusive start of the visit time (UTC)
+     * @param to exclusive end of the visit time (UTC)
+     * @param consumer receives each visit, exceptions it throws stop the stream
+     */
+    public void stream(Long urlId, LocalDateTime from, LocalDateTime to, Consumer<VisitRow> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(urlId == null ? STREAM_VISITS_SQL : STREAM_URL_VISITS_SQL,
+                                                               ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams the rows of a forward-only, read-only statement with this fetch size instead of
+            // buffering the whole result; no server-side cursor, so nothing is copied to a temporary table
+            ps.setFetchSize(Integer.MIN_VALUE);
+            int index = 1;
+            if (urlId != null) {
+                ps.setLong(index++, urlId);
+            }
+
+            ps.setTimestamp(index++, Timestamp.valueOf(from));
+            ps.setTimestamp(index, Timestamp.valueOf(to));
+            return ps;
+        }, rs -> {
+            consumer.accept(new VisitRow(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(), rs.getString(3), rs.getString(4),
+                                         rs.getString(5), rs.getString(6), rs.getString(7), rs.getString(8),
+                                         rs.getObject(9, Boolean.class), rs.getInt(10)));
+        });
+    }
+}
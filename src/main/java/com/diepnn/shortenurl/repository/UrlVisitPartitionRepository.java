@@ -0,0 +1,96 @@
+package com.diepnn.shortenurl.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * JDBC operations on the monthly range partitions of {@code url_visit}, see {@code url_visit_partitioning.sql}.
+ *
+ * <p>Partitions are ranged on {@code UNIX_TIMESTAMP(visited_datetime)}. The partition of a month is named
+ * {@code pYYYYMM} and holds the visits before the start of the next month (UTC); a last {@code p_future}
+ * partition holds everything after the last month.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class UrlVisitPartitionRepository {
+    public static final String FUTURE_PARTITION = "p_future";
+
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final String FIND_PARTITIONS_SQL = """
+            SELECT partition_name, partition_description FROM information_schema.partitions
+            WHERE table_schema = DATABASE() AND table_name = 'url_visit' AND partition_name IS NOT NULL
+            ORDER BY partition_ordinal_position
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A range partition.
+     *
+     * @param name the partition name
+     * @param lessThan exclusive upper bound in epoch seconds, null for {@code MAXVALUE}
+     */
+    public record Partition(String name, Long lessThan) {
+    }
+
+    /**
+     * Returns the partitions of {@code url_visit} in range order.
+     *
+     * @return the partitions, empty when the table is not partitioned
+     */
+    public List<Partition> findPartitions() {
+        return jdbcTemplate.query(FIND_PARTITIONS_SQL, (rs, rowNum) -> {
+            String description = rs.getString(2);
+            return new Partition(rs.getString(1), "MAXVALUE".equals(description) ? null : Long.valueOf(description));
+        });
+    }
+
+    /**
+     * Adds one partition per month after the last one. With a {@code p_future} partition, it is split, which only
+     * moves rows if visits were written past the last month.
+     *
+     * @param months the months to add, in order, after the last month partition
+     * @param splitFuture whether the table ends with {@code p_future}
+     */
+    public void addMonthlyPartitions(List<YearMonth> months, boolean splitFuture) {
+        StringJoiner partitions = new StringJoiner(", ", "(", ")");
+        for (YearMonth month : months) {
+            partitions.add("PARTITION " + partitionName(month) + " VALUES LESS THAN (" + lessThan(month) + ")");
+        }
+
+        if (splitFuture) {
+            partitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE");
+            jdbcTemplate.execute("ALTER TABLE url_visit REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO " + partitions);
+        } else {
+            jdbcTemplate.execute("ALTER TABLE url_visit ADD PARTITION " + partitions);
+        }
+    }
+
+    /**
+     * Drops partitions with their rows, a metadata operation whatever their size.
+     *
+     * @param names names of the partitions to drop, as returned by {@link #findPartitions()}
+     */
+    public void dropPartitions(List<String> names) {
+        jdbcTemplate.execute("ALTER TABLE url_visit DROP PARTITION " + String.join(", ", names));
+    }
+
+    public static String partitionName(YearMonth month) {
+        return month.format(PARTITION_NAME_FORMAT);
+    }
+
+    /**
+     * Upper bound of the partition of a month, the start of the next month in epoch seconds.
+     */
+    public static long lessThan(YearMonth month) {
+        return month.plusMonths(1).atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,45 @@
+package com.diepnn.shortenurl.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * JDBC operations on {@code url_visit_log_checkpoint}, the compaction progress of each visit log.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VisitLogCheckpointRepository {
+    private static final String FIND_NEXT_OFFSET_SQL = "SELECT next_offset FROM url_visit_log_checkpoint WHERE log_id = ?";
+
+    private static final String SAVE_NEXT_OFFSET_SQL = """
+            INSERT INTO url_visit_log_checkpoint (log_id, next_offset, updated_datetime)
+            VALUES (?, ?, CURRENT_TIMESTAMP)
+            ON DUPLICATE KEY UPDATE next_offset = VALUES(next_offset), updated_datetime = VALUES(updated_datetime)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the offset compaction of the log resumes from.
+     *
+     * @param logId the visit log id
+     * @return the next offset to compact, 0 if the log was never compacted
+     */
+    public long findNextOffset(String logId) {
+        List<Long> offsets = jdbcTemplate.queryForList(FIND_NEXT_OFFSET_SQL, Long.class, logId);
+        return offsets.isEmpty() ? 0 : offsets.getFirst();
+    }
+
+    /**
+     * Records the compaction progress of the log, meant to run in the transaction that wrote what was compacted.
+     *
+     * @param logId the visit log id
+     * @param nextOffset the next offset to compact
+     */
+    public void saveNextOffset(String logId, long nextOffset) {
+        jdbcTemplate.update(SAVE_NEXT_OFFSET_SQL, logId, nextOffset);
+    }
+}
@@ -3,6 +3,9 @@ package com.diepnn.shortenurl.service;
 import com.diepnn.shortenurl.dto.cache.UrlInfoCache;
 import com.diepnn.shortenurl.dto.UserInfo;
 import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.service.live.LiveClicksService;
+import com.diepnn.shortenurl.service.stats.VisitDeduplicator;
+import com.diepnn.shortenurl.service.trending.TrendingLinksService;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -13,14 +16,23 @@ import org.springframework.transaction.annotation.Transactional;
 public class ResolveUrlServiceImpl implements ResolveUrlService {
     private final UrlInfoService urlInfoService;
     private final UrlVisitService urlVisitService;
+    private final TrendingLinksService trendingLinksService;
+    private final LiveClicksService liveClicksService;
+    private final VisitDeduplicator visitDeduplicator;
     private final EntityManager entityManager;
 
     @Transactional
     @Override
     public String resolve(String shortCode, UserInfo userInfo) {
         UrlInfoCache urlInfo = urlInfoService.findByShortCodeCache(shortCode);
-        urlVisitService.createAsync(entityManager.getReference(UrlInfo.class, urlInfo.id()), userInfo);
         urlInfoService.updateLastAccessDatetimeByIdAsync(urlInfo.id(), userInfo.visitedDatetime());
+        if (!visitDeduplicator.admit(urlInfo.id(), userInfo)) {
+            return urlInfo.originalUrl();
+        }
+
+        urlVisitService.createAsync(entityManager.getReference(UrlInfo.class, urlInfo.id()), userInfo);
+        trendingLinksService.record(urlInfo.id());
+        liveClicksService.record(urlInfo.id());
         return urlInfo.originalUrl();
     }
 }
@@ -9,4 +9,5 @@ public interface ShortCodeService {
     String generateShortCode(long id);
     String generateShortCode() throws TooManyRequestException;
     Long generateId() throws TooManyRequestException;
+    long[] generateIds(int count) throws TooManyRequestException;
 }
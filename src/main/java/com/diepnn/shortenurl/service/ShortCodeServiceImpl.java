@@ -58,4 +58,16 @@ public class ShortCodeServiceImpl implements ShortCodeService {
     public Long generateId() throws TooManyRequestException {
         return idGenerator.generate();
     }
+
+    /**
+     * Reserves {@code count} unique identifiers in one call, used by batch creation.
+     *
+     * @param count number of identifiers to reserve
+     * @return the reserved identifiers
+     * @throws TooManyRequestException if the underlying ID generator is unable to allocate the IDs
+     */
+    @Override
+    public long[] generateIds(int count) throws TooManyRequestException {
+        return idGenerator.generate(count);
+    }
 }
@@ -0,0 +1,56 @@
+package com.diepnn.shortenurl.service;
+
+import com.diepnn.shortenurl.common.enums.ClickGranularity;
+import com.diepnn.shortenurl.common.enums.VisitDimension;
+import com.diepnn.shortenurl.dto.response.ClickStatsResponse;
+import com.diepnn.shortenurl.dto.response.TopValuesResponse;
+import com.diepnn.shortenurl.dto.response.UniqueVisitorsResponse;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Service for the analytics of short URLs, restricted to their owner
+ */
+public interface UrlAnalyticsService {
+    /**
+     * Get the click statistics of a url info owned by the authenticated user.
+     * Reads the pre-aggregated buckets, clicks not flushed by the click rollup yet are not included.
+     *
+     * @param urlId url info id
+     * @param granularity bucket size
+     * @param from inclusive start (UTC)
+     * @param to exclusive end (UTC)
+     * @param userDetails user details
+     * @return total clicks and the non-empty buckets of the range
+     */
+    ClickStatsResponse findClickStats(Long urlId, ClickGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                      CustomUserDetails userDetails);
+
+    /**
+     * Get the approximate unique visitors of a url info owned by the authenticated user.
+     *
+     * @param urlId url info id
+     * @param from first day, inclusive (UTC)
+     * @param to last day, inclusive (UTC)
+     * @param userDetails user details
+     * @return unique visitors of the whole range and of each day
+     */
+    UniqueVisitorsResponse findUniqueVisitors(Long urlId, LocalDate from, LocalDate to, CustomUserDetails userDetails);
+
+    /**
+     * Get the most clicked values of a visit dimension for a url info owned by the authenticated user.
+     * Reads the daily dimension counters, clicks not flushed by the click rollup yet are not included.
+     *
+     * @param urlId url info id
+     * @param dimension the dimension to rank
+     * @param from first day, inclusive (UTC)
+     * @param to last day, inclusive (UTC)
+     * @param limit maximum number of values, between 1 and 100
+     * @param userDetails user details
+     * @return the values with their clicks, most clicked first
+     */
+    TopValuesResponse findTopValues(Long urlId, VisitDimension dimension, LocalDate from, LocalDate to, int limit,
+                                    CustomUserDetails userDetails);
+}
@@ -0,0 +1,108 @@
+package com.diepnn.shortenurl.service;
+
+import com.diepnn.shortenurl.common.enums.ClickGranularity;
+import com.diepnn.shortenurl.common.enums.VisitDimension;
+import com.diepnn.shortenurl.common.properties.ClickRollupProperties;
+import com.diepnn.shortenurl.common.properties.UniqueVisitorProperties;
+import com.diepnn.shortenurl.dto.response.ClickStatsResponse;
+import com.diepnn.shortenurl.dto.response.TopValuesResponse;
+import com.diepnn.shortenurl.dto.response.UniqueVisitorsResponse;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.exception.NotFoundException;
+import com.diepnn.shortenurl.repository.UrlInfoRepository;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.cache.UrlAnalyticsCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Rollup-backed implementation of {@link UrlAnalyticsService}.
+ * Validates the range and the ownership on every call, then reads the results through {@link UrlAnalyticsCacheService}.
+ */
+@Service
+@RequiredArgsConstructor
+public class UrlAnalyticsServiceImpl extends BaseService implements UrlAnalyticsService {
+    private static final int MAX_TOP_VALUES = 100;
+
+    private final UrlInfoRepository urlInfoRepository;
+    private final UrlAnalyticsCacheService urlAnalyticsCacheService;
+    private final ClickRollupProperties clickRollupProperties;
+    private final UniqueVisitorProperties uniqueVisitorProperties;
+
+    @Transactional(readOnly = true)
+    @Override
+    public ClickStatsResponse findClickStats(Long urlId, ClickGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                             CustomUserDetails userDetails) {
+        if (granularity == null || from == null || to == null) {
+            throw new IllegalArgumentException("Granularity, from and to are required");
+        }
+
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("From must be before to");
+        }
+
+        if (granularity.bucketsBetween(from, to) > clickRollupProperties.getMaxBuckets()) {
+            throw new IllegalArgumentException("Range exceeds " + clickRollupProperties.getMaxBuckets() + " buckets, use a coarser granularity");
+        }
+
+        UrlInfo urlInfo = findOwnedUrl(urlId, userDetails);
+        long totalClicks = urlInfo.getTotalClicks() == null ? 0 : urlInfo.getTotalClicks();
+        long duplicateClicks = urlInfo.getDuplicateClicks() == null ? 0 : urlInfo.getDuplicateClicks();
+        return new ClickStatsResponse(totalClicks, duplicateClicks, urlAnalyticsCacheService.findClickBuckets(urlId, granularity, from, to));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public UniqueVisitorsResponse findUniqueVisitors(Long urlId, LocalDate from, LocalDate to, CustomUserDetails userDetails) {
+        validateDays(from, to, uniqueVisitorProperties.getMaxDays());
+        findOwnedUrl(urlId, userDetails);
+        return urlAnalyticsCacheService.findUniqueVisitors(urlId, from, to);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public TopValuesResponse findTopValues(Long urlId, VisitDimension dimension, LocalDate from, LocalDate to, int limit,
+                                           CustomUserDetails userDetails) {
+        if (dimension == null) {
+            throw new IllegalArgumentException("Dimension is required");
+        }
+
+        if (limit < 1 || limit > MAX_TOP_VALUES) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_TOP_VALUES);
+        }
+
+        validateDays(from, to, clickRollupProperties.getMaxDays());
+        findOwnedUrl(urlId, userDetails);
+        return new TopValuesResponse(dimension, urlAnalyticsCacheService.findTopValues(urlId, dimension, from, to, limit));
+    }
+
+    private void validateDays(LocalDate from, LocalDate to, int maxDays) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("From and to are required");
+        }
+
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From must not be after to");
+        }
+
+        if (ChronoUnit.DAYS.between(from, to) + 1 > maxDays) {
+            throw new IllegalArgumentException("Range exceeds " + maxDays + " days");
+        }
+    }
+
+    private UrlInfo findOwnedUrl(Long urlId, CustomUserDetails userDetails) {
+        UrlInfo urlInfo = urlInfoRepository.findById(urlId)
+                                           .orElseThrow(() -> new NotFoundException("URL not found"));
+        if (notBelongToCurrentUser(urlInfo.getUserId(), userDetails.getId())) {
+            throw new AccessDeniedException("URL not belongs to current user");
+        }
+
+        return urlInfo;
+    }
+}
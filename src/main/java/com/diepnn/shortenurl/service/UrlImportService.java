@@ -0,0 +1,46 @@
+package com.diepnn.shortenurl.service;
+
+import com.diepnn.shortenurl.common.enums.UrlImportFormat;
+import com.diepnn.shortenurl.dto.UrlImportJobDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Service for bulk importing legacy short URLs
+ */
+public interface UrlImportService {
+    /**
+     * Stage the uploaded file and start an import job for it.
+     *
+     * @param file the uploaded CSV or NDJSON file
+     * @param format the file format
+     * @param userId the admin starting the import
+     * @return the created job
+     */
+    UrlImportJobDTO importUpload(MultipartFile file, UrlImportFormat format, Long userId);
+
+    /**
+     * Start an import job for a file already present under {@code app.url-import.local-dir}.
+     *
+     * @param path path relative to the local import directory
+     * @param format the file format
+     * @param userId the admin starting the import
+     * @return the created job
+     */
+    UrlImportJobDTO importLocalFile(String path, UrlImportFormat format, Long userId);
+
+    /**
+     * Find an import job and its progress.
+     *
+     * @param jobId import job id
+     * @return the job
+     */
+    UrlImportJobDTO findById(Long jobId);
+
+    /**
+     * Resume a failed or interrupted import job from its last committed chunk.
+     *
+     * @param jobId import job id
+     * @return the job
+     */
+    UrlImportJobDTO resume(Long jobId);
+}
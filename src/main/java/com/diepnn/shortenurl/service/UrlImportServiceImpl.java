@@ -0,0 +1,117 @@
+package com.diepnn.shortenurl.service;
+
+import com.diepnn.shortenurl.common.annotation.Admin;
+import com.diepnn.shortenurl.common.enums.UrlImportFormat;
+import com.diepnn.shortenurl.common.enums.UrlImportStatus;
+import com.diepnn.shortenurl.common.properties.UrlImportProperties;
+import com.diepnn.shortenurl.dto.UrlImportJobDTO;
+import com.diepnn.shortenurl.entity.UrlImportJob;
+import com.diepnn.shortenurl.exception.NotFoundException;
+import com.diepnn.shortenurl.mapper.UrlImportJobMapper;
+import com.diepnn.shortenurl.repository.UrlImportJobRepository;
+import com.diepnn.shortenurl.service.importer.UrlImportJobRunner;
+import com.diepnn.shortenurl.utils.DateUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Implementation of {@link UrlImportService}. Jobs are persisted before they are handed to
+ * {@link UrlImportJobRunner}, so the runner always sees a committed job.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UrlImportServiceImpl implements UrlImportService {
+    private final UrlImportJobRepository urlImportJobRepository;
+    private final UrlImportJobRunner urlImportJobRunner;
+    private final UrlImportJobMapper urlImportJobMapper;
+    private final UrlImportProperties urlImportProperties;
+
+    @Override
+    @Admin
+    public UrlImportJobDTO importUpload(MultipartFile file, UrlImportFormat format, Long userId) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File must not be empty");
+        }
+
+        Path staged;
+        try {
+            Path stagingDir = Files.createDirectories(Path.of(urlImportProperties.getStagingDir()));
+            staged = stagingDir.resolve(UUID.randomUUID() + "." + format.getValue().toLowerCase());
+            // Streams the multipart content to disk without buffering it in memory
+            file.transferTo(staged);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stage uploaded file", e);
+        }
+
+        return start(file.getOriginalFilename(), staged, format, userId);
+    }
+
+    @Override
+    @Admin
+    public UrlImportJobDTO importLocalFile(String path, UrlImportFormat format, Long userId) {
+        if (StringUtils.isBlank(urlImportProperties.getLocalDir())) {
+            throw new IllegalArgumentException("Local imports are disabled");
+        }
+
+        Path baseDir = Path.of(urlImportProperties.getLocalDir()).toAbsolutePath().normalize();
+        Path source = baseDir.resolve(path).normalize();
+        if (!source.startsWith(baseDir) || !Files.isRegularFile(source) || !Files.isReadable(source)) {
+            throw new IllegalArgumentException("File not found in local import directory: " + path);
+        }
+
+        return start(path, source, format, userId);
+    }
+
+    @Override
+    @Admin
+    public UrlImportJobDTO findById(Long jobId) {
+        return urlImportJobMapper.toDto(findJob(jobId));
+    }
+
+    @Override
+    @Admin
+    public UrlImportJobDTO resume(Long jobId) {
+        UrlImportJob job = findJob(jobId);
+        if (job.getStatus() == UrlImportStatus.COMPLETED) {
+            throw new IllegalArgumentException("Import job is already completed");
+        }
+
+        if (urlImportJobRunner.isActive(jobId)) {
+            throw new IllegalArgumentException("Import job is already running");
+        }
+
+        log.info("Resuming import job {} after line {}", jobId, job.getCommittedLines());
+        urlImportJobRunner.runAsync(jobId);
+        return urlImportJobMapper.toDto(job);
+    }
+
+    private UrlImportJobDTO start(String sourceName, Path source, UrlImportFormat format, Long userId) {
+        UrlImportJob job = UrlImportJob.builder()
+                                       .status(UrlImportStatus.PENDING)
+                                       .format(format)
+                                       .sourceName(sourceName)
+                                       .sourcePath(source.toString())
+                                       .createdBy(userId)
+                                       .createdDatetime(DateUtils.nowTruncatedToSeconds())
+                                       .build();
+        job = urlImportJobRepository.save(job);
+
+        urlImportJobRunner.runAsync(job.getId());
+        return urlImportJobMapper.toDto(job);
+    }
+
+    private UrlImportJob findJob(Long jobId) {
+        return urlImportJobRepository.findById(jobId)
+                                     .orElseThrow(() -> new NotFoundException("Import job not found"));
+    }
+}
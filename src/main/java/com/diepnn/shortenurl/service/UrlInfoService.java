@@ -7,7 +7,10 @@ import com.diepnn.shortenurl.dto.filter.UrlInfoFilter;
 import com.diepnn.shortenurl.dto.request.DeactivateUrlInfo;
 import com.diepnn.shortenurl.dto.request.UpdateOriginalUrl;
 import com.diepnn.shortenurl.dto.request.UrlInfoRequest;
+import com.diepnn.shortenurl.dto.response.BatchItemResponse;
+import com.diepnn.shortenurl.dto.response.CursorPageResponse;
 import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer.CanonicalUrl;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -22,9 +25,24 @@ public interface UrlInfoService {
      * Creates a short URL for the given original URL.
      *
      * @param userRequest contains the original URL and alias (optional)
+     * @param originalUrl the canonical original URL of the request, stored and hashed as is
      * @return a generated short URL
      */
-    UrlInfoDTO create(UrlInfoRequest userRequest, UserInfo userInfo, Long userId);
+    UrlInfoDTO create(UrlInfoRequest userRequest, CanonicalUrl originalUrl, UserInfo userInfo, Long userId);
+
+    /**
+     * Creates short URLs for a batch of requests.
+     * Each item is validated and normalized on its own; invalid items, alias or id conflicts and rows the
+     * database rejects are reported in the item result without failing the rest of the batch.
+     * Dedup items are answered with the short URL the user already has, or with the one created for the
+     * first item of the batch with the same original URL.
+     *
+     * @param userRequests the items to shorten, at most {@code app.url-info.batch-max-size}
+     * @param userInfo request metadata of the caller
+     * @param userId authenticated user id
+     * @return one result per item, in request order
+     */
+    List<BatchItemResponse<UrlInfoDTO>> createBatch(List<UrlInfoRequest> userRequests, UserInfo userInfo, Long userId);
 
     /**
      * Find url info by short code and cache it.
@@ -49,12 +67,41 @@ public interface UrlInfoService {
     List<UrlInfoDTO> findAllByUserId(Long userId);
 
     /**
-     * Update original url.
+     * Get the version of the user's url info list, bumped after every create, update, delete and deactivate.
+     *
+     * @param userId authenticated user id
+     * @return the list version
+     */
+    long getUserUrlsVersion(Long userId);
+
+    /**
+     * Find all url info by user id, serialized to a JSON array.
+     * The serialized list is cached per user and version when {@code app.url-info.list-body-cache-enabled} is set.
+     *
+     * @param userId authenticated user id
+     * @param version the list version from {@link #getUserUrlsVersion(Long)}, read before this call
+     * @return url info list as JSON
+     */
+    byte[] findAllByUserIdJson(Long userId, long version);
+
+    /**
+     * Find a page of the user's url info, newest first.
+     *
+     * @param userId authenticated user id
+     * @param cursor cursor returned with the previous page, {@code null} for the first page
+     * @param size page size
+     * @return the page and the cursor of the next one
+     */
+    CursorPageResponse<UrlInfoDTO> findPageByUserId(Long userId, String cursor, int size);
+
+    /**
+     * Update original url, screened and canonicalized like on creation.
      *
      * @param urlId url info id
      * @param userRequest contains the original URL
      * @param userDetails user information
      * @return the updated url info
+     * @throws IllegalArgumentException if the new URL is invalid, points to this service or to a blocked domain
      */
     UrlInfoDTO updateOriginalUrl(Long urlId, UpdateOriginalUrl userRequest, CustomUserDetails userDetails);
 
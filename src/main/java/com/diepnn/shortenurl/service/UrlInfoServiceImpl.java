@@ -2,30 +2,46 @@ package com.diepnn.shortenurl.service;
 
 import com.diepnn.shortenurl.common.annotation.Admin;
 import com.diepnn.shortenurl.common.annotation.validation.User;
+import com.diepnn.shortenurl.common.constant.PagingConstants;
 import com.diepnn.shortenurl.common.enums.UrlInfoStatus;
+import com.diepnn.shortenurl.common.properties.RedisCacheProperties;
+import com.diepnn.shortenurl.common.properties.UrlInfoProperties;
 import com.diepnn.shortenurl.dto.UrlInfoDTO;
 import com.diepnn.shortenurl.dto.UserInfo;
 import com.diepnn.shortenurl.dto.cache.UrlInfoCache;
+import com.diepnn.shortenurl.dto.filter.UrlInfoCursor;
 import com.diepnn.shortenurl.dto.filter.UrlInfoFilter;
 import com.diepnn.shortenurl.dto.request.DeactivateUrlInfo;
 import com.diepnn.shortenurl.dto.request.UpdateOriginalUrl;
 import com.diepnn.shortenurl.dto.request.UrlInfoRequest;
+import com.diepnn.shortenurl.dto.response.BatchItemResponse;
+import com.diepnn.shortenurl.dto.response.CursorPageResponse;
 import com.diepnn.shortenurl.entity.UrlInfo;
 import com.diepnn.shortenurl.exception.AliasAlreadyExistsException;
 import com.diepnn.shortenurl.exception.IdCollisionException;
 import com.diepnn.shortenurl.exception.NotFoundException;
 import com.diepnn.shortenurl.mapper.UrlInfoMapper;
+import com.diepnn.shortenurl.mapper.translator.ShortUrlMappings;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository.InsertOutcome;
 import com.diepnn.shortenurl.repository.UrlInfoRepository;
 import com.diepnn.shortenurl.security.CustomUserDetails;
 import com.diepnn.shortenurl.service.cache.UrlInfoCacheService;
+import com.diepnn.shortenurl.service.cache.UserUrlsBodyCache;
+import com.diepnn.shortenurl.service.writebehind.UrlInfoWriteBehindService;
 import com.diepnn.shortenurl.utils.DateUtils;
 import com.diepnn.shortenurl.utils.SqlConstraintUtils;
+import com.diepnn.shortenurl.utils.TransactionUtils;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer.CanonicalUrl;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
@@ -33,9 +49,15 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Database-backed implementation of {@link UrlInfoService}
@@ -44,24 +66,47 @@ import java.util.Optional;
 @RequiredArgsConstructor
 @Slf4j
 public class UrlInfoServiceImpl extends BaseService implements UrlInfoService {
+    private static final String DEDUP_MESSAGE = "Already shortened";
+
     private final UrlInfoRepository urlInfoRepository;
     private final ShortCodeService shortCodeService;
     private final UrlInfoMapper urlInfoMapper;
     private final UrlInfoCacheService urlInfoCacheService;
+    private final UrlInfoBatchRepository urlInfoBatchRepository;
+    private final UrlInfoProperties urlInfoProperties;
+    private final ShortUrlMappings shortUrlMappings;
+    private final Validator validator;
+    private final UrlInfoWriteBehindService urlInfoWriteBehindService;
+    private final RedisCacheProperties redisCacheProperties;
+    private final UserUrlsBodyCache userUrlsBodyCache;
 
-    @Transactional
+    /**
+     * Not transactional on purpose: {@code saveAndFlush} runs in its own transaction, and the write-behind
+     * path must not check out a database connection at all.
+     */
     @Override
-    public UrlInfoDTO create(UrlInfoRequest userRequest, UserInfo userInfo, Long userId) {
-        long id = shortCodeService.generateId();
-
+    public UrlInfoDTO create(UrlInfoRequest userRequest, CanonicalUrl originalUrl, UserInfo userInfo, Long userId) {
         boolean hasCustomAlias = StringUtils.isNotBlank(userRequest.getAlias());
+        long originalUrlHash = originalUrl.hash();
+
+        boolean dedup = isDedupRequested(userRequest, hasCustomAlias, userId);
+        if (dedup) {
+            UrlInfoDTO existing = urlInfoCacheService.findDedupCandidate(userId, originalUrlHash, originalUrl.url());
+            // The cache is keyed by hash only, a different URL here means a hash collision
+            if (existing != null && originalUrl.url().equals(existing.getOriginalUrl())) {
+                return existing;
+            }
+        }
+
+        long id = shortCodeService.generateId();
         String shortCode = hasCustomAlias
                            ? userRequest.getAlias().toLowerCase()
                            : shortCodeService.generateShortCode(id);
 
         UrlInfo urlInfo = UrlInfo.builder()
                                  .id(id)
-                                 .originalUrl(userRequest.getOriginalUrl())
+                                 .originalUrl(originalUrl.url())
+                                 .originalUrlHash(originalUrlHash)
                                  .status(UrlInfoStatus.ACTIVE)
                                  .alias(hasCustomAlias)
                                  .shortCode(shortCode)
@@ -71,14 +116,24 @@ public class UrlInfoServiceImpl extends BaseService implements UrlInfoService {
                                  .createdDatetime(DateUtils.nowTruncatedToSeconds())
                                  .build();
 
+        if (isWriteBehindEligible(hasCustomAlias, userId) && enqueueWriteBehind(urlInfo)) {
+            return urlInfoMapper.toDto(urlInfo);
+        }
+
         try {
-            UrlInfoDTO result = urlInfoMapper.toDto(urlInfoRepository.saveAndFlush(urlInfo));
+            UrlInfo saved = urlInfoRepository.saveAndFlush(urlInfo);
+            UrlInfoDTO result = urlInfoMapper.toDto(saved);
 
-            // Evict caches after successful creation
             if (userId != null) {
-                urlInfoCacheService.evictUserUrlsCache(userId);
+                putUserUrlsCache(userId, List.of(result));
             }
 
+            if (dedup) {
+                urlInfoCacheService.putDedupCache(userId, originalUrlHash, result);
+            }
+
+            // New links are usually clicked right after being shared
+            writeThroughUrlAccessCache(saved);
             return result;
         } catch (DataIntegrityViolationException e) {
             if (SqlConstraintUtils.isPrimaryKeyViolation(e, null)) {
@@ -93,6 +148,131 @@ public class UrlInfoServiceImpl extends BaseService implements UrlInfoService {
         }
     }
 
+    @Transactional
+    @Override
+    public List<BatchItemResponse<UrlInfoDTO>> createBatch(List<UrlInfoRequest> userRequests, UserInfo userInfo, Long userId) {
+        if (CollectionUtils.isEmpty(userRequests)) {
+            throw new IllegalArgumentException("Batch must contain at least one item");
+        }
+
+        int size = userRequests.size();
+        if (size > urlInfoProperties.getBatchMaxSize()) {
+            throw new IllegalArgumentException("Batch must not contain more than " + urlInfoProperties.getBatchMaxSize() + " items");
+        }
+
+        List<BatchItemResponse<UrlInfoDTO>> results = new ArrayList<>(Collections.nCopies(size, null));
+        CanonicalUrl[] originalUrls = new CanonicalUrl[size];
+        boolean[] dedup = new boolean[size];
+        List<Integer> accepted = new ArrayList<>(size);
+        Set<String> aliases = new HashSet<>();
+        // Dedup items repeating an earlier item of the batch get the outcome of that item
+        Map<String, Integer> firstByUrl = new HashMap<>();
+        Map<Integer, Integer> repeats = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            UrlInfoRequest item = userRequests.get(i);
+            try {
+                originalUrls[i] = validateAndNormalize(item);
+            } catch (IllegalArgumentException e) {
+                results.set(i, new BatchItemResponse<>(i, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null));
+                continue;
+            }
+
+            if (StringUtils.isNotBlank(item.getAlias()) && !aliases.add(item.getAlias().toLowerCase())) {
+                String message = "The alias '" + item.getAlias().toLowerCase() + "' is duplicated in the batch.";
+                results.set(i, new BatchItemResponse<>(i, HttpStatus.CONFLICT.value(), message, null));
+                continue;
+            }
+
+            dedup[i] = isDedupRequested(item, StringUtils.isNotBlank(item.getAlias()), userId);
+            if (dedup[i]) {
+                CanonicalUrl originalUrl = originalUrls[i];
+                Integer first = firstByUrl.putIfAbsent(originalUrl.url(), i);
+                if (first != null) {
+                    repeats.put(i, first);
+                    continue;
+                }
+
+                UrlInfoDTO existing = urlInfoCacheService.findDedupCandidate(userId, originalUrl.hash(), originalUrl.url());
+                // The cache is keyed by hash only, a different URL here means a hash collision
+                if (existing != null && originalUrl.url().equals(existing.getOriginalUrl())) {
+                    results.set(i, new BatchItemResponse<>(i, HttpStatus.OK.value(), DEDUP_MESSAGE, existing));
+                    continue;
+                }
+            }
+
+            accepted.add(i);
+        }
+
+        if (accepted.isEmpty()) {
+            resolveRepeats(results, repeats);
+            return results;
+        }
+
+        long[] ids = shortCodeService.generateIds(accepted.size());
+        LocalDateTime now = DateUtils.nowTruncatedToSeconds();
+        List<UrlInfo> urlInfos = new ArrayList<>(accepted.size());
+        for (int j = 0; j < accepted.size(); j++) {
+            UrlInfoRequest item = userRequests.get(accepted.get(j));
+            CanonicalUrl originalUrl = originalUrls[accepted.get(j)];
+            boolean hasCustomAlias = StringUtils.isNotBlank(item.getAlias());
+            urlInfos.add(UrlInfo.builder()
+                                .id(ids[j])
+                                .originalUrl(originalUrl.url())
+                                .originalUrlHash(originalUrl.hash())
+                                .status(UrlInfoStatus.ACTIVE)
+                                .alias(hasCustomAlias)
+                                .shortCode(hasCustomAlias
+                                           ? item.getAlias().toLowerCase()
+                                           : shortCodeService.generateShortCode(ids[j]))
+                                .userId(userId)
+                                .createdByIp(userInfo.ipAddress())
+                                .createdByUserAgent(userInfo.userAgent())
+                                .createdDatetime(now)
+                                .build());
+        }
+
+        InsertOutcome[] outcomes = urlInfoBatchRepository.insert(urlInfos, urlInfoProperties.getJdbcBatchSize());
+
+        List<UrlInfoDTO> created = new ArrayList<>(accepted.size());
+        for (int j = 0; j < accepted.size(); j++) {
+            int index = accepted.get(j);
+            UrlInfo urlInfo = urlInfos.get(j);
+            switch (outcomes[j]) {
+                case INSERTED -> {
+                    UrlInfoDTO dto = urlInfoMapper.toDto(urlInfo);
+                    created.add(dto);
+                    results.set(index, new BatchItemResponse<>(index, HttpStatus.CREATED.value(), "Created", dto));
+                    if (dedup[index]) {
+                        Long originalUrlHash = urlInfo.getOriginalUrlHash();
+                        TransactionUtils.afterCommit(() -> urlInfoCacheService.putDedupCache(userId, originalUrlHash, dto));
+                    }
+                }
+                case SHORT_CODE_EXISTS -> {
+                    String message = Boolean.TRUE.equals(urlInfo.getAlias())
+                                     ? "The alias '" + urlInfo.getShortCode() + "' is already in use."
+                                     : "Short code collision detected for id: " + urlInfo.getId();
+                    results.set(index, new BatchItemResponse<>(index, HttpStatus.CONFLICT.value(), message, null));
+                }
+                case ID_EXISTS -> {
+                    String message = "Id collision detected for id: " + urlInfo.getId();
+                    results.set(index, new BatchItemResponse<>(index, HttpStatus.CONFLICT.value(), message, null));
+                }
+                case FAILED -> {
+                    String message = "Failed to create the URL.";
+                    results.set(index, new BatchItemResponse<>(index, HttpStatus.INTERNAL_SERVER_ERROR.value(), message, null));
+                }
+            }
+        }
+
+        // Patch once for the whole batch
+        if (!created.isEmpty() && userId != null) {
+            putUserUrlsCache(userId, created);
+        }
+
+        resolveRepeats(results, repeats);
+        return results;
+    }
+
     @Transactional(readOnly = true)
     @Override
     public UrlInfoCache findByShortCodeCache(String shortCode) {
@@ -134,6 +314,55 @@ public class UrlInfoServiceImpl extends BaseService implements UrlInfoService {
         return Collections.unmodifiableList(urls);
     }
 
+    @Override
+    public long getUserUrlsVersion(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User id cannot be null");
+        }
+
+        return urlInfoCacheService.getUserUrlsPageVersion(userId);
+    }
+
+    @Override
+    public byte[] findAllByUserIdJson(Long userId, long version) {
+        if (!urlInfoProperties.isListBodyCacheEnabled()) {
+            return userUrlsBodyCache.serialize(findAllByUserId(userId));
+        }
+
+        // The version was read before the list, a change in between leaves the body under a version nobody reads
+        byte[] body = userUrlsBodyCache.get(userId, version);
+        if (body != null) {
+            return body;
+        }
+
+        return userUrlsBodyCache.put(userId, version, findAllByUserId(userId));
+    }
+
+    @Override
+    public CursorPageResponse<UrlInfoDTO> findPageByUserId(Long userId, String cursor, int size) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User id cannot be null");
+        }
+
+        if (size < 1 || size > PagingConstants.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + PagingConstants.MAX_PAGE_SIZE);
+        }
+
+        String token = StringUtils.trimToNull(cursor);
+        if (token != null) {
+            // Reject malformed cursors before they reach the cache key
+            UrlInfoCursor.decode(token);
+        }
+
+        long pageVersion = urlInfoCacheService.getUserUrlsPageVersion(userId);
+        CursorPageResponse<UrlInfoDTO> page = urlInfoCacheService.findPageByUserId(userId, pageVersion, token, size);
+        if (token == null && page.items().isEmpty()) {
+            throw new NotFoundException("Not found URL for user id: " + userId);
+        }
+
+        return page;
+    }
+
     @Transactional
     @Override
     public UrlInfoDTO updateOriginalUrl(Long urlId, UpdateOriginalUrl userRequest, CustomUserDetails userDetails) {
@@ -145,12 +374,23 @@ public class UrlInfoServiceImpl extends BaseService implements UrlInfoService {
             throw new AccessDeniedException("URL not belongs to current user");
         }
 
-        urlInfo.setOriginalUrl(userRequest.getOriginalUrl());
+        // Stored and hashed like on creation, so the dedup lookup finds the updated URL
+        CanonicalUrl originalUrl = shortUrlMappings.canonicalizeOriginalUrl(userRequest.getOriginalUrl());
+        evictDedupCache(urlInfo);
+        urlInfo.setOriginalUrl(originalUrl.url());
+        urlInfo.setOriginalUrlHash(originalUrl.hash());
         urlInfo.setUpdatedDatetime(DateUtils.nowTruncatedToSeconds());
         urlInfoRepository.save(urlInfo);
-        urlInfoCacheService.evictUserUrlsCache(currentUserId);
         urlInfoCacheService.evictUrlAccessCache(urlInfo.getShortCode());
-        return urlInfoMapper.toDto(urlInfo);
+        writeThroughUrlAccessCache(urlInfo);
+
+        UrlInfoDTO result = urlInfoMapper.toDto(urlInfo);
+        // Only active URLs are listed
+        if (urlInfo.getStatus() == UrlInfoStatus.ACTIVE) {
+            putUserUrlsCache(ownerId, List.of(result));
+        }
+
+        return result;
     }
 
     @Transactional
@@ -165,8 +405,9 @@ public class UrlInfoServiceImpl extends BaseService implements UrlInfoService {
         }
 
         urlInfoRepository.deleteByIdAndUserId(urlId, userDetails.getId());
-        urlInfoCacheService.evictUserUrlsCache(userDetails.getId());
+        removeFromUserUrlsCache(userDetails.getId(), urlId);
         urlInfoCacheService.evictUrlAccessCache(urlInfo.getShortCode());
+        evictDedupCache(urlInfo);
     }
 
     @Transactional
@@ -180,7 +421,8 @@ public class UrlInfoServiceImpl extends BaseService implements UrlInfoService {
 
         //evict all caches
         urlInfoCacheService.evictUrlAccessCache(urlInfo.getShortCode());
-        urlInfoCacheService.evictUserUrlsCache(urlInfo.getUserId());
+        removeFromUserUrlsCache(urlInfo.getUserId(), urlId);
+        evictDedupCache(urlInfo);
 
         String deactivatedReason = String.format("Deactivated by %s", userDetails.getUsername());
         urlInfoRepository.deactivateUrlInfo(urlId, deactivatedReason, userDetails.getId());
@@ -208,12 +450,137 @@ public class UrlInfoServiceImpl extends BaseService implements UrlInfoService {
 
         //evict all caches
         urlInfoCacheService.evictUrlAccessCache(urlInfo.getShortCode());
-        urlInfoCacheService.evictUserUrlsCache(urlInfo.getUserId());
+        removeFromUserUrlsCache(urlInfo.getUserId(), urlId);
+        evictDedupCache(urlInfo);
 
         urlInfoRepository.deactivateUrlInfo(urlId, userRequest.getDeactivatedReason(), userDetails.getId());
     }
 
 
+    /**
+     * Validates a batch item and canonicalizes its original URL.
+     *
+     * @param item the batch item
+     * @return the canonical original URL with its hash
+     * @throws IllegalArgumentException with the first validation error if the item is invalid
+     */
+    private CanonicalUrl validateAndNormalize(UrlInfoRequest item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item must not be null");
+        }
+
+        Set<ConstraintViolation<UrlInfoRequest>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.iterator().next().getMessage());
+        }
+
+        return shortUrlMappings.canonicalizeOriginalUrl(item.getOriginalUrl());
+    }
+
+    /**
+     * Give each repeated dedup item of a batch the outcome of the first item with the same original URL:
+     * the short URL it created or found, or its error.
+     *
+     * @param results the item results, indexed by position in the request
+     * @param repeats the position of each repeated item mapped to the position of the first item
+     */
+    private static void resolveRepeats(List<BatchItemResponse<UrlInfoDTO>> results, Map<Integer, Integer> repeats) {
+        repeats.forEach((index, first) -> {
+            BatchItemResponse<UrlInfoDTO> result = results.get(first);
+            results.set(index, result.data() == null
+                               ? new BatchItemResponse<>(index, result.status(), result.message(), null)
+                               : new BatchItemResponse<>(index, HttpStatus.OK.value(), DEDUP_MESSAGE, result.data()));
+        });
+    }
+
+    /**
+     * Dedup applies only when the caller opts in, the feature is enabled, the request is authenticated
+     * and the short code is generated (a custom alias always asks for a new short URL).
+     *
+     * <p>Dedup is best effort. Nothing in the schema makes {@code (created_by, original_url_hash)} unique, and
+     * it cannot: the same user may shorten a URL again without dedup. Two concurrent dedup requests for the
+     * same URL can both miss the lookup and both insert a row; later lookups return the oldest one.</p>
+     */
+    private boolean isDedupRequested(UrlInfoRequest userRequest, boolean hasCustomAlias, Long userId) {
+        return Boolean.TRUE.equals(userRequest.getDedup())
+               && !hasCustomAlias
+               && userId != null
+               && urlInfoProperties.isDedupEnabled();
+    }
+
+    /**
+     * Write-behind only covers anonymous URLs with generated short codes: their code cannot clash with
+     * an existing row and no per-user cache has to reflect them.
+     */
+    private boolean isWriteBehindEligible(boolean hasCustomAlias, Long userId) {
+        return !hasCustomAlias && userId == null && urlInfoWriteBehindService.isEnabled();
+    }
+
+    /**
+     * Queue the URL info for asynchronous persistence and make it resolvable right away.
+     *
+     * @return false if the queue is unavailable and the caller must persist synchronously
+     */
+    private boolean enqueueWriteBehind(UrlInfo urlInfo) {
+        try {
+            urlInfoWriteBehindService.enqueue(urlInfo);
+        } catch (RuntimeException e) {
+            log.warn("Failed to queue URL {} for write-behind, persisting synchronously", urlInfo.getId(), e);
+            return false;
+        }
+
+        try {
+            urlInfoCacheService.putUrlAccessCache(urlInfo.getShortCode(), new UrlInfoCache(urlInfo.getId(), urlInfo.getOriginalUrl()));
+        } catch (RuntimeException e) {
+            // Already queued, the short URL resolves once the row is flushed
+            log.warn("Failed to cache queued URL {}", urlInfo.getId(), e);
+        }
+
+        return true;
+    }
+
+    /**
+     * Cache the URL for resolving once the surrounding transaction commits, if write-through is enabled
+     * for {@code url-access}. Failures are logged only, the next resolve falls back to the database.
+     */
+    private void writeThroughUrlAccessCache(UrlInfo urlInfo) {
+        if (urlInfo.getStatus() != UrlInfoStatus.ACTIVE || !redisCacheProperties.isWriteThrough("url-access")) {
+            return;
+        }
+
+        String shortCode = urlInfo.getShortCode();
+        UrlInfoCache urlInfoCache = new UrlInfoCache(urlInfo.getId(), urlInfo.getOriginalUrl());
+        TransactionUtils.afterCommit(() -> {
+            try {
+                urlInfoCacheService.putUrlAccessCache(shortCode, urlInfoCache);
+            } catch (RuntimeException e) {
+                log.warn("Failed to write through url-access cache for short code: {}", shortCode, e);
+            }
+        });
+    }
+
+    /**
+     * Patch the owner's cached URL list once the surrounding transaction commits.
+     */
+    private void putUserUrlsCache(Long userId, List<UrlInfoDTO> dtos) {
+        TransactionUtils.afterCommit(() -> urlInfoCacheService.putUserUrls(userId, dtos));
+    }
+
+    /**
+     * Remove the URL from the owner's cached list once the surrounding transaction commits.
+     */
+    private void removeFromUserUrlsCache(Long userId, Long urlId) {
+        if (userId != null) {
+            TransactionUtils.afterCommit(() -> urlInfoCacheService.removeUserUrl(userId, urlId));
+        }
+    }
+
+    private void evictDedupCache(UrlInfo urlInfo) {
+        if (urlInfo.getUserId() != null && urlInfo.getOriginalUrlHash() != null) {
+            urlInfoCacheService.evictDedupCache(urlInfo.getUserId(), urlInfo.getOriginalUrlHash());
+        }
+    }
+
     private UrlInfo findById(Long urlId) {
         return urlInfoRepository.findById(urlId)
                                 .orElseThrow(() -> new NotFoundException("URL not found"));
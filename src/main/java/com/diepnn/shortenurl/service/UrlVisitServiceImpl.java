@@ -1,23 +1,42 @@
 package com.diepnn.shortenurl.service;
 
+import com.diepnn.shortenurl.dto.UserAgentInfo;
 import com.diepnn.shortenurl.dto.UserInfo;
 import com.diepnn.shortenurl.entity.UrlInfo;
 import com.diepnn.shortenurl.entity.UrlVisit;
 import com.diepnn.shortenurl.mapper.UrlVisitMapper;
 import com.diepnn.shortenurl.repository.UrlVisitRepository;
+import com.diepnn.shortenurl.service.geo.GeoIpService;
+import com.diepnn.shortenurl.service.stats.ClickRollupService;
+import com.diepnn.shortenurl.service.stats.UniqueVisitorService;
+import com.diepnn.shortenurl.service.stats.UserAgentClassifier;
+import com.diepnn.shortenurl.service.stats.VisitSampler;
+import com.diepnn.shortenurl.service.writebehind.UrlInfoWriteBehindService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Async;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 
 @Service
+@ConditionalOnProperty(name = "app.url-visit.backend", havingValue = "database", matchIfMissing = true)
 @RequiredArgsConstructor
+@Slf4j
 public class UrlVisitServiceImpl implements UrlVisitService {
     private final UrlVisitRepository urlVisitRepository;
     private final UrlVisitMapper urlVisitMapper;
+    private final ClickRollupService clickRollupService;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final UserAgentClassifier userAgentClassifier;
+    private final GeoIpService geoIpService;
+    private final VisitSampler visitSampler;
+    private final UrlInfoWriteBehindService urlInfoWriteBehindService;
+    private final Executor taskExecutor;
 
     /**
      * Create a log when the short URL is visited.
@@ -38,12 +57,19 @@ public class UrlVisitServiceImpl implements UrlVisitService {
             throw new IllegalArgumentException("User info cannot be null");
         }
 
-        UrlVisit urlVisit = urlVisitMapper.toEntity(userInfo);
-        urlVisit.setShortenUrl(shortUrl);
-        return urlVisitRepository.save(urlVisit);
+        return record(shortUrl, userInfo, 1);
     }
 
-    @Async
+    /**
+     * Create a log on the task executor when the {@link VisitSampler} samples the visit in. The decision is taken
+     * on the caller thread, so a visit sampled out under overload is neither queued nor run by the caller-runs
+     * fallback; a visit sampled in carries the number of visits it stands for in its sample weight.
+     *
+     * @param shortUrl the short url is accessed
+     * @param userInfo user information
+     * @return the log record, or null when the visit is sampled out
+     * @throws IllegalArgumentException if either argument is null
+     */
     @Override
     public Future<UrlVisit> createAsync(UrlInfo shortUrl, UserInfo userInfo) {
         if (shortUrl == null) {
@@ -54,8 +80,49 @@ public class UrlVisitServiceImpl implements UrlVisitService {
             throw new IllegalArgumentException("User info cannot be null");
         }
 
-        UrlVisit urlVisit = urlVisitMapper.toEntity(userInfo);
+        int weight = visitSampler.sample();
+        if (weight == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long startNanos = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return record(shortUrl, userInfo, weight);
+            } finally {
+                visitSampler.done(startNanos);
+            }
+        }, taskExecutor);
+    }
+
+    private UrlVisit record(UrlInfo shortUrl, UserInfo userInfo, int weight) {
+        UserInfo visitor = geoIpService.locate(userInfo);
+        UserAgentInfo userAgent = userAgentClassifier.classify(visitor.userAgent());
+        UrlVisit urlVisit = urlVisitMapper.toEntity(visitor, userAgent);
         urlVisit.setShortenUrl(shortUrl);
-        return CompletableFuture.supplyAsync(() -> urlVisitRepository.save(urlVisit));
+        urlVisit.setSampleWeight(weight);
+        UrlVisit saved = save(urlVisit, shortUrl.getId());
+        // Counted once saved or skipped, a visit that failed to save is in no counter either
+        clickRollupService.record(shortUrl.getId(), visitor, userAgent, weight);
+        uniqueVisitorService.record(shortUrl.getId(), visitor);
+        return saved;
+    }
+
+    /**
+     * Save the visit, skipping it when its URL is still queued by write-behind and cannot be referenced yet.
+     *
+     * @return the saved visit, or null when skipped
+     */
+    private UrlVisit save(UrlVisit urlVisit, Long urlId) {
+        try {
+            return urlVisitRepository.save(urlVisit);
+        } catch (DataIntegrityViolationException e) {
+            if (urlId == null || !urlInfoWriteBehindService.isQueued(urlId)) {
+                throw e;
+            }
+
+            log.debug("Skipped visit row of URL {} not persisted yet", urlId);
+            return null;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.diepnn.shortenurl.service;
+
+import com.diepnn.shortenurl.common.enums.VisitExportFormat;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.export.VisitExport;
+
+import java.time.LocalDate;
+
+/**
+ * Service for the raw visit exports, streamed from the database so memory use does not depend on the number of visits
+ */
+public interface VisitExportService {
+    /**
+     * Prepare the export of the visits of a url info owned by the authenticated user.
+     *
+     * @param urlId url info id
+     * @param from first day, inclusive (UTC)
+     * @param to last day, inclusive (UTC)
+     * @param format the file format
+     * @param gzip whether to gzip the export on the fly
+     * @param userDetails user details
+     * @return the export, to be streamed once
+     */
+    VisitExport exportUrlVisits(Long urlId, LocalDate from, LocalDate to, VisitExportFormat format, boolean gzip,
+                                CustomUserDetails userDetails);
+
+    /**
+     * Prepare the export of the visits of every url info, for administrators.
+     *
+     * @param urlId url info id to restrict the export to, null for every url info
+     * @param from first day, inclusive (UTC)
+     * @param to last day, inclusive (UTC)
+     * @param format the file format
+     * @param gzip whether to gzip the export on the fly
+     * @param userDetails user details
+     * @return the export, to be streamed once
+     */
+    VisitExport exportVisits(Long urlId, LocalDate from, LocalDate to, VisitExportFormat format, boolean gzip,
+                             CustomUserDetails userDetails);
+}
@@ -0,0 +1,144 @@
+package com.diepnn.shortenurl.service;
+
+import com.diepnn.shortenurl.common.enums.VisitExportFormat;
+import com.diepnn.shortenurl.common.properties.VisitExportProperties;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.exception.NotFoundException;
+import com.diepnn.shortenurl.exception.TooManyRequestException;
+import com.diepnn.shortenurl.repository.UrlInfoRepository;
+import com.diepnn.shortenurl.repository.UrlVisitExportRepository;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.export.VisitExport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming implementation of {@link VisitExportService}.
+ *
+ * <p>Validates the range and the ownership before the response starts, so errors still get a proper status,
+ * then streams the visits from {@link UrlVisitExportRepository} as the response is written. Each user can run
+ * {@code max-concurrent-per-user} exports at a time on an instance, since an export holds a database connection
+ * and a thread until the client has downloaded it.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.export.rows}: visits exported</li>
+ *     <li>{@code url_visit.export.active}: exports being streamed</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+public class VisitExportServiceImpl extends BaseService implements VisitExportService {
+    private final VisitExportProperties props;
+    private final UrlInfoRepository urlInfoRepository;
+    private final UrlVisitExportRepository urlVisitExportRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, Integer> activeExports = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+
+    private Counter rowsCounter;
+
+    @PostConstruct
+    public void init() {
+        rowsCounter = Counter.builder("url_visit.export.rows")
+                             .description("Visits exported")
+                             .register(meterRegistry);
+        Gauge.builder("url_visit.export.active", active, AtomicInteger::get)
+             .description("Visit exports being streamed")
+             .register(meterRegistry);
+    }
+
+    @Override
+    public VisitExport exportUrlVisits(Long urlId, LocalDate from, LocalDate to, VisitExportFormat format, boolean gzip,
+                                       CustomUserDetails userDetails) {
+        validate(from, to, format);
+        UrlInfo urlInfo = urlInfoRepository.findById(urlId)
+                                           .orElseThrow(() -> new NotFoundException("URL not found"));
+        if (notBelongToCurrentUser(urlInfo.getUserId(), userDetails.getId())) {
+            throw new AccessDeniedException("URL not belongs to current user");
+        }
+
+        return export("visits-" + urlInfo.getShortCode(), urlId, from, to, format, gzip, userDetails.getId());
+    }
+
+    @Override
+    public VisitExport exportVisits(Long urlId, LocalDate from, LocalDate to, VisitExportFormat format, boolean gzip,
+                                    CustomUserDetails userDetails) {
+        validate(from, to, format);
+        return export(urlId == null ? "visits" : "visits-" + urlId, urlId, from, to, format, gzip, userDetails.getId());
+    }
+
+    private VisitExport export(String name, Long urlId, LocalDate from, LocalDate to, VisitExportFormat format, boolean gzip,
+                               Long userId) {
+        acquire(userId);
+        String fileName = name + "-" + from + "-" + to + "." + format.getExtension();
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        active.incrementAndGet();
+        return new VisitExport(fileName, format, gzip, objectMapper.getFactory(), writer -> {
+            urlVisitExportRepository.stream(urlId, start, end, row -> {
+                try {
+                    writer.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                rowsCounter.increment();
+            });
+        }, () -> {
+            active.decrementAndGet();
+            release(userId);
+        });
+    }
+
+    private void validate(LocalDate from, LocalDate to, VisitExportFormat format) {
+        if (from == null || to == null || format == null) {
+            throw new IllegalArgumentException("From, to and format are required");
+        }
+
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From must not be after to");
+        }
+
+        if (ChronoUnit.DAYS.between(from, to) + 1 > props.getMaxDays()) {
+            throw new IllegalArgumentException("Range exceeds " + props.getMaxDays() + " days");
+        }
+    }
+
+    private void acquire(Long userId) {
+        boolean[] acquired = {false};
+        activeExports.compute(userId, (id, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= props.getMaxConcurrentPerUser()) {
+                return count;
+            }
+
+            acquired[0] = true;
+            return current + 1;
+        });
+        if (!acquired[0]) {
+            throw new TooManyRequestException("Already running " + props.getMaxConcurrentPerUser() + " exports, retry when one is done");
+        }
+    }
+
+    private void release(Long userId) {
+        activeExports.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+}
@@ -0,0 +1,96 @@
+package com.diepnn.shortenurl.service.blocklist;
+
+import com.diepnn.shortenurl.common.properties.DomainBlocklistProperties;
+import com.diepnn.shortenurl.utils.ReloadableFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Screens the hosts of new URLs against a domain blocklist loaded from a local file.
+ *
+ * <p>The rules are compiled into an immutable {@link DomainTrie} held in a {@link ReloadableFile}: the file is
+ * polled for changes and a new trie is built on the scheduler thread, while request threads keep matching against
+ * the previous trie and never wait for a reload. A file that fails to load leaves the current trie in place.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_info.blocklist.match}: time spent matching a host</li>
+ *     <li>{@code url_info.blocklist.blocked}: hosts rejected by the blocklist</li>
+ *     <li>{@code url_info.blocklist.rules}: rules in the current trie</li>
+ *     <li>{@code url_info.blocklist.nodes}: nodes in the current trie</li>
+ *     <li>{@code url_info.blocklist.memory}: heap footprint of the current trie in bytes</li>
+ *     <li>{@code url_info.blocklist.reload.failures}: reloads that kept the previous trie</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+public class DomainBlocklistService {
+    private final DomainBlocklistProperties props;
+    private final MeterRegistry meterRegistry;
+
+    private ReloadableFile<DomainTrie> rules;
+    private Timer matchTimer;
+    private Counter blockedCounter;
+
+    @PostConstruct
+    public void init() {
+        matchTimer = Timer.builder("url_info.blocklist.match")
+                          .description("Time spent matching a host against the domain blocklist")
+                          .register(meterRegistry);
+        blockedCounter = Counter.builder("url_info.blocklist.blocked")
+                                .description("Hosts rejected by the domain blocklist")
+                                .register(meterRegistry);
+        Counter reloadFailureCounter = Counter.builder("url_info.blocklist.reload.failures")
+                                              .description("Domain blocklist reloads that kept the previous rules")
+                                              .register(meterRegistry);
+        rules = new ReloadableFile<>("domain blocklist", DomainTrie.EMPTY, DomainTrie::load,
+                                     trie -> String.format("(%d rules, %d invalid, %d nodes, %d bytes)", trie.getRuleCount(),
+                                                           trie.getInvalidRuleCount(), trie.getNodeCount(), trie.getMemoryBytes()),
+                                     reloadFailureCounter);
+        Gauge.builder("url_info.blocklist.rules", this, s -> s.rules.get().getRuleCount())
+             .description("Rules in the domain blocklist")
+             .register(meterRegistry);
+        Gauge.builder("url_info.blocklist.nodes", this, s -> s.rules.get().getNodeCount())
+             .description("Nodes in the domain blocklist trie")
+             .register(meterRegistry);
+        Gauge.builder("url_info.blocklist.memory", this, s -> s.rules.get().getMemoryBytes())
+             .description("Heap footprint of the domain blocklist trie")
+             .baseUnit("bytes")
+             .register(meterRegistry);
+
+        reload();
+    }
+
+    /**
+     * Whether the host is blocked, either exactly or through a rule on one of its parent domains.
+     *
+     * @param host a canonical host, lowercase ASCII
+     * @return true if URLs to this host must be rejected
+     */
+    public boolean isBlocked(String host) {
+        long start = System.nanoTime();
+        boolean blocked = rules.get().matches(host);
+        matchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (blocked) {
+            blockedCounter.increment();
+        }
+
+        return blocked;
+    }
+
+    /**
+     * Rebuild the trie if the rules file changed since the last load.
+     */
+    @Scheduled(fixedDelayString = "${app.domain-blocklist.reload-interval-ms}")
+    public void reload() {
+        rules.reload(props.getFile());
+    }
+}
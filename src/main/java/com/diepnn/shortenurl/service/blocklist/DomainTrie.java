@@ -0,0 +1,449 @@
+package com.diepnn.shortenurl.service.blocklist;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.IDN;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable reversed-label trie of blocked domains.
+ *
+ * <p>{@code www.bad.com} is stored as the path {@code com -> bad -> www}. Nodes are numbered breadth-first,
+ * so the children of every node are a contiguous, label-sorted run and the whole trie is five flat arrays:
+ * <ul>
+ *   <li>{@code childStart[n] .. childStart[n + 1]}: child node range of node {@code n} (CSR layout)</li>
+ *   <li>{@code labelStart[n]}, {@code labelLength[n]}: label of node {@code n} in the shared, deduplicated
+ *       {@code labels} pool</li>
+ *   <li>{@code flags[n]}: {@link #EXACT} and/or {@link #SUBTREE}</li>
+ * </ul>
+ * That is 10 bytes per node plus the label pool, and {@link #matches(String)} binary searches the children
+ * of each level directly against the host characters without allocating.</p>
+ *
+ * <p>Rules file format, one rule per line:
+ * <ul>
+ *   <li>{@code bad.com}: blocks {@code bad.com} only</li>
+ *   <li>{@code .bad.com} or {@code *.bad.com}: blocks {@code bad.com} and all its subdomains</li>
+ *   <li>blank lines and lines starting with {@code #} are ignored, anything after the first whitespace too</li>
+ * </ul></p>
+ */
+public final class DomainTrie {
+    static final byte EXACT = 1;
+    static final byte SUBTREE = 2;
+
+    public static final DomainTrie EMPTY = new DomainTrie(new int[] {0, 0}, new int[1], new byte[1], new byte[1],
+                                                          new byte[0], 0, 0);
+
+    /**
+     * Sorts below every label character, so a key sorts right before the keys of its subdomains.
+     */
+    private static final char SEPARATOR = '\u0001';
+
+    private final int[] childStart;
+    private final int[] labelStart;
+    private final byte[] labelLength;
+    private final byte[] flags;
+    private final byte[] labels;
+    private final int ruleCount;
+    private final int invalidRuleCount;
+
+    private DomainTrie(int[] childStart, int[] labelStart, byte[] labelLength, byte[] flags, byte[] labels,
+                       int ruleCount, int invalidRuleCount) {
+        this.childStart = childStart;
+        this.labelStart = labelStart;
+        this.labelLength = labelLength;
+        this.flags = flags;
+        this.labels = labels;
+        this.ruleCount = ruleCount;
+        this.invalidRuleCount = invalidRuleCount;
+    }
+
+    /**
+     * Whether the host is blocked by an exact rule or by a subtree rule on it or one of its parent domains.
+     *
+     * @param host a lowercase ASCII host, as produced by the URL canonicalizer
+     * @return true if the host is blocked
+     */
+    public boolean matches(String host) {
+        int end = host.length();
+        if (end > 0 && host.charAt(end - 1) == '.') {
+            end--;
+        }
+
+        int node = 0;
+        while (end > 0) {
+            int start = host.lastIndexOf('.', end - 1) + 1;
+            node = findChild(node, host, start, end);
+            if (node < 0) {
+                return false;
+            }
+
+            if ((flags[node] & SUBTREE) != 0) {
+                return true;
+            }
+
+            end = start - 1;
+        }
+
+        return node != 0 && (flags[node] & EXACT) != 0;
+    }
+
+    /**
+     * @return number of distinct rules in the trie
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * @return number of rule lines skipped because they are not valid domains
+     */
+    public int getInvalidRuleCount() {
+        return invalidRuleCount;
+    }
+
+    /**
+     * @return number of trie nodes, including the root
+     */
+    public int getNodeCount() {
+        return flags.length;
+    }
+
+    /**
+     * @return approximate heap footprint of the trie arrays in bytes
+     */
+    public long getMemoryBytes() {
+        return 4L * childStart.length + 4L * labelStart.length + labelLength.length + flags.length + labels.length;
+    }
+
+    private int findChild(int node, String host, int start, int end) {
+        int lo = childStart[node];
+        int hi = childStart[node + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareLabel(mid, host, start, end);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    private int compareLabel(int node, String host, int start, int end) {
+        int offset = labelStart[node];
+        int length = labelLength[node];
+        int hostLength = end - start;
+        int common = Math.min(length, hostLength);
+        for (int i = 0; i < common; i++) {
+            int diff = labels[offset + i] - host.charAt(start + i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+
+        return length - hostLength;
+    }
+
+    /**
+     * Build a trie from rules in the documented file format.
+     *
+     * @param reader the rules, read line by line
+     * @return the trie
+     * @throws IOException if reading fails
+     */
+    public static DomainTrie load(BufferedReader reader) throws IOException {
+        List<String> keys = new ArrayList<>();
+        int invalid = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String key = toKey(line);
+            if (key == null) {
+                continue;
+            }
+
+            if (key.isEmpty()) {
+                invalid++;
+            } else {
+                keys.add(key);
+            }
+        }
+
+        return build(keys, invalid);
+    }
+
+    /**
+     * Build a trie from individual rules.
+     *
+     * @param rules rules in the documented file format
+     * @return the trie
+     */
+    public static DomainTrie of(String... rules) {
+        List<String> keys = new ArrayList<>(rules.length);
+        int invalid = 0;
+        for (String rule : rules) {
+            String key = toKey(rule);
+            if (key != null && key.isEmpty()) {
+                invalid++;
+            } else if (key != null) {
+                keys.add(key);
+            }
+        }
+
+        return build(keys, invalid);
+    }
+
+    /**
+     * Convert a rule line to its sort key: the flag character followed by the reversed labels joined by
+     * {@link #SEPARATOR}, e.g. {@code ".www.bad.com"} becomes {@code "\2com\1bad\1www"}.
+     *
+     * @return the key, {@code null} for blank and comment lines, empty for invalid rules
+     */
+    private static String toKey(String line) {
+        String rule = line.strip();
+        int whitespace = indexOfWhitespace(rule);
+        if (whitespace >= 0) {
+            rule = rule.substring(0, whitespace);
+        }
+
+        if (rule.isEmpty() || rule.charAt(0) == '#') {
+            return null;
+        }
+
+        byte flag = EXACT;
+        if (rule.startsWith("*.")) {
+            flag = SUBTREE;
+            rule = rule.substring(2);
+        } else if (rule.startsWith(".")) {
+            flag = SUBTREE;
+            rule = rule.substring(1);
+        }
+
+        if (rule.endsWith(".")) {
+            rule = rule.substring(0, rule.length() - 1);
+        }
+
+        if (!isAscii(rule)) {
+            try {
+                rule = IDN.toASCII(rule, IDN.ALLOW_UNASSIGNED);
+            } catch (IllegalArgumentException e) {
+                return "";
+            }
+        }
+
+        rule = rule.toLowerCase(Locale.ROOT);
+
+        String[] labels = rule.split("\\.", -1);
+        StringBuilder key = new StringBuilder(rule.length() + 1).append((char) flag);
+        for (int i = labels.length - 1; i >= 0; i--) {
+            if (!isValidLabel(labels[i])) {
+                return "";
+            }
+
+            key.append(labels[i]);
+            if (i > 0) {
+                key.append(SEPARATOR);
+            }
+        }
+
+        return key.toString();
+    }
+
+    private static DomainTrie build(List<String> keys, int invalid) {
+        // Sort by labels, ignoring the leading flag character, and merge the flags of duplicate rules
+        String[] sorted = keys.toArray(new String[0]);
+        Arrays.sort(sorted, DomainTrie::compareKeys);
+        int ruleCount = 0;
+        byte[] ruleFlags = new byte[sorted.length];
+        for (String key : sorted) {
+            if (ruleCount > 0 && compareKeys(sorted[ruleCount - 1], key) == 0) {
+                ruleFlags[ruleCount - 1] |= (byte) key.charAt(0);
+                continue;
+            }
+
+            sorted[ruleCount] = key;
+            ruleFlags[ruleCount] = (byte) key.charAt(0);
+            ruleCount++;
+        }
+
+        IntBuffer childStart = new IntBuffer();
+        IntBuffer labelStart = new IntBuffer();
+        ByteBuffer labelLength = new ByteBuffer();
+        ByteBuffer nodeFlags = new ByteBuffer();
+        ByteBuffer labelPool = new ByteBuffer();
+        Map<String, Integer> labelOffsets = new HashMap<>();
+
+        // Breadth-first queue of nodes as (first key, end key, prefix length) over the sorted keys.
+        // The keys of a node share its labels, so they form one contiguous run with the same prefix.
+        IntBuffer queue = new IntBuffer();
+        queue.add(0);
+        queue.add(ruleCount);
+        queue.add(1);
+        labelStart.add(0);
+        labelLength.add((byte) 0);
+        nodeFlags.add((byte) 0);
+
+        int nodeCount = 1;
+        for (int node = 0; node < nodeCount; node++) {
+            int lo = queue.get(node * 3);
+            int hi = queue.get(node * 3 + 1);
+            int prefixLength = queue.get(node * 3 + 2);
+            childStart.add(nodeCount);
+
+            int i = lo;
+            // The rule ending at this node sorts first among the node's keys
+            if (node != 0 && i < hi && sorted[i].length() == prefixLength) {
+                nodeFlags.set(node, ruleFlags[i]);
+                i++;
+            }
+
+            int labelFrom = node == 0 ? prefixLength : prefixLength + 1;
+            while (i < hi) {
+                String key = sorted[i];
+                int labelEnd = key.indexOf(SEPARATOR, labelFrom);
+                labelEnd = labelEnd < 0 ? key.length() : labelEnd;
+
+                int j = i + 1;
+                while (j < hi && sameLabel(sorted[j], key, labelFrom, labelEnd)) {
+                    j++;
+                }
+
+                String label = key.substring(labelFrom, labelEnd);
+                Integer offset = labelOffsets.get(label);
+                if (offset == null) {
+                    offset = labelPool.size();
+                    labelOffsets.put(label, offset);
+                    for (int c = 0; c < label.length(); c++) {
+                        labelPool.add((byte) label.charAt(c));
+                    }
+                }
+
+                labelStart.add(offset);
+                labelLength.add((byte) label.length());
+                nodeFlags.add((byte) 0);
+                queue.add(i);
+                queue.add(j);
+                queue.add(labelEnd);
+                nodeCount++;
+                i = j;
+            }
+        }
+
+        childStart.add(nodeCount);
+        return new DomainTrie(childStart.toArray(), labelStart.toArray(), labelLength.toArray(), nodeFlags.toArray(),
+                              labelPool.toArray(), ruleCount, invalid);
+    }
+
+    /**
+     * Orders keys by their labels, ignoring the leading flag character.
+     */
+    private static int compareKeys(String a, String b) {
+        int common = Math.min(a.length(), b.length());
+        for (int i = 1; i < common; i++) {
+            int diff = a.charAt(i) - b.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+
+        return a.length() - b.length();
+    }
+
+    private static boolean sameLabel(String candidate, String key, int labelFrom, int labelEnd) {
+        int length = labelEnd - labelFrom;
+        return candidate.regionMatches(labelFrom, key, labelFrom, length)
+               && (candidate.length() == labelEnd || candidate.charAt(labelEnd) == SEPARATOR);
+    }
+
+    private static boolean isValidLabel(String label) {
+        if (label.isEmpty() || label.length() > 63) {
+            return false;
+        }
+
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int indexOfWhitespace(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isWhitespace(value.charAt(i))) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Growable {@code int[]}, avoids boxing millions of node fields while building.
+     */
+    private static final class IntBuffer {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class ByteBuffer {
+        private byte[] values = new byte[16];
+        private int size;
+
+        void add(byte value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = value;
+        }
+
+        void set(int index, byte value) {
+            values[index] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
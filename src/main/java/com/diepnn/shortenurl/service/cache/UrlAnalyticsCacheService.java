@@ -0,0 +1,103 @@
+package com.diepnn.shortenurl.service.cache;
+
+import com.diepnn.shortenurl.common.enums.ClickGranularity;
+import com.diepnn.shortenurl.common.enums.VisitDimension;
+import com.diepnn.shortenurl.dto.ClickBucketDTO;
+import com.diepnn.shortenurl.dto.DailyUniqueVisitorsDTO;
+import com.diepnn.shortenurl.dto.DimensionCountDTO;
+import com.diepnn.shortenurl.dto.response.UniqueVisitorsResponse;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository;
+import com.diepnn.shortenurl.service.stats.UniqueVisitorService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches analytics results per URL and requested range, so dashboards polling the same range hit Redis
+ * instead of re-aggregating the rollups. Entries are not evicted on new clicks, they expire after a short TTL.
+ * Ownership must be checked by the caller.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UrlAnalyticsCacheService {
+    private final UrlClickRollupRepository urlClickRollupRepository;
+    private final UniqueVisitorService uniqueVisitorService;
+
+    /**
+     * Find the non-empty click buckets of the URL in {@code [from, to)}.
+     *
+     * @param urlId the URL id
+     * @param granularity bucket size
+     * @param from inclusive start (UTC)
+     * @param to exclusive end (UTC)
+     * @return the buckets, oldest first
+     */
+    @Cacheable(cacheNames = "url-click-buckets", key = "#urlId + ':' + #granularity + ':' + #from + ':' + #to")
+    public List<ClickBucketDTO> findClickBuckets(long urlId, ClickGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        log.debug("Loading {} click buckets of URL {} from {} to {}", granularity, urlId, from, to);
+        return urlClickRollupRepository.findBuckets(urlId, granularity, from, to);
+    }
+
+    /**
+     * Find the most clicked values of the dimension in {@code [from, to]}.
+     *
+     * @param urlId the URL id
+     * @param dimension the dimension to rank
+     * @param from first day, inclusive (UTC)
+     * @param to last day, inclusive (UTC)
+     * @param limit maximum number of values
+     * @return the values, most clicked first
+     */
+    @Cacheable(cacheNames = "url-top-values", key = "#urlId + ':' + #dimension + ':' + #from + ':' + #to + ':' + #limit")
+    public List<DimensionCountDTO> findTopValues(long urlId, VisitDimension dimension, LocalDate from, LocalDate to, int limit) {
+        log.debug("Loading top {} {} values of URL {} from {} to {}", limit, dimension, urlId, from, to);
+        return urlClickRollupRepository.findTopValues(urlId, dimension, from, to.plusDays(1), limit);
+    }
+
+    /**
+     * Estimate the unique visitors of the URL in {@code [from, to]}. Days whose sketch expired take the unique
+     * visitors compacted into their day bucket, and add them to the range total: a visitor of such a day also
+     * seen on another day is counted again.
+     *
+     * @param urlId the URL id
+     * @param from first day, inclusive (UTC)
+     * @param to last day, inclusive (UTC)
+     * @return the estimates
+     */
+    @Cacheable(cacheNames = "url-unique-visitors", key = "#urlId + ':' + #from + ':' + #to")
+    public UniqueVisitorsResponse findUniqueVisitors(long urlId, LocalDate from, LocalDate to) {
+        log.debug("Counting unique visitors of URL {} from {} to {}", urlId, from, to);
+        UniqueVisitorsResponse estimates = uniqueVisitorService.count(urlId, from, to);
+        if (estimates.days().stream().allMatch(day -> day.uniqueVisitors() > 0)) {
+            return estimates;
+        }
+
+        Map<LocalDate, Long> compacted = new HashMap<>();
+        for (DailyUniqueVisitorsDTO day : urlClickRollupRepository.findUniqueVisitors(urlId, from, to.plusDays(1))) {
+            compacted.put(day.date(), day.uniqueVisitors());
+        }
+
+        if (compacted.isEmpty()) {
+            return estimates;
+        }
+
+        long total = estimates.uniqueVisitors();
+        List<DailyUniqueVisitorsDTO> days = new ArrayList<>(estimates.days().size());
+        for (DailyUniqueVisitorsDTO day : estimates.days()) {
+            long kept = day.uniqueVisitors() > 0 ? 0 : compacted.getOrDefault(day.date(), 0L);
+            total += kept;
+            days.add(kept > 0 ? new DailyUniqueVisitorsDTO(day.date(), kept) : day);
+        }
+
+        return new UniqueVisitorsResponse(total, days);
+    }
+}
@@ -2,12 +2,18 @@ package com.diepnn.shortenurl.service.cache;
 
 import com.diepnn.shortenurl.dto.UrlInfoDTO;
 import com.diepnn.shortenurl.dto.cache.UrlInfoCache;
+import com.diepnn.shortenurl.dto.filter.UrlInfoCursor;
+import com.diepnn.shortenurl.dto.response.CursorPageResponse;
+import com.diepnn.shortenurl.entity.UrlInfo;
 import com.diepnn.shortenurl.mapper.UrlInfoMapper;
 import com.diepnn.shortenurl.repository.UrlInfoRepository;
+import com.diepnn.shortenurl.service.writebehind.UrlInfoWriteBehindService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,9 +28,12 @@ import java.util.List;
 public class UrlInfoCacheService {
     private final UrlInfoRepository urlInfoRepository;
     private final UrlInfoMapper urlInfoMapper;
+    private final UserUrlsCache userUrlsCache;
+    private final UrlInfoWriteBehindService urlInfoWriteBehindService;
 
     /**
      * Find a URL by its short code in the cache.
+     * On a miss, a URL still queued by write-behind is found in the queue once not in the database.
      *
      * @param shortCode the short code to look up
      * @return the URL info cache object, or null if not found
@@ -33,29 +42,165 @@ public class UrlInfoCacheService {
     @Cacheable(cacheNames = "url-access", key = "#shortCode", unless = "#result == null")
     public UrlInfoCache findByShortCodeCache(String shortCode) {
         log.debug("Loading URL from database for short code: {}", shortCode);
-        return urlInfoRepository.findUrlInfoCacheByShortCode(shortCode);
+        UrlInfoCache urlInfoCache = urlInfoRepository.findUrlInfoCacheByShortCode(shortCode);
+        if (urlInfoCache == null && urlInfoWriteBehindService.isEnabled()) {
+            return urlInfoWriteBehindService.findQueued(shortCode);
+        }
+
+        return urlInfoCache;
+    }
+
+    /**
+     * Cache the given URL under its short code, used when the row is not persisted yet.
+     *
+     * @param shortCode the short code
+     * @param urlInfoCache the URL info cache object
+     * @return the cached object
+     */
+    @CachePut(cacheNames = "url-access", key = "#shortCode")
+    public UrlInfoCache putUrlAccessCache(String shortCode, UrlInfoCache urlInfoCache) {
+        log.debug("Cached url-access entry for short code: {}", shortCode);
+        return urlInfoCache;
     }
 
     /**
      * Find all URLs for the given user ID.
+     * On a miss the list is loaded under a lease, so a change committed while loading is not overwritten.
      *
      * @param userId the user ID to look up
      * @return a list of URL info DTOs, or an empty list if not found
      */
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = "user-urls", key = "#userId", unless = "#result.isEmpty()")
     public List<UrlInfoDTO> findAllByUserId(Long userId) {
+        List<UrlInfoDTO> cached = userUrlsCache.get(userId);
+        if (!cached.isEmpty()) {
+            return cached;
+        }
+
+        long leaseToken = userUrlsCache.acquireLease(userId);
         log.debug("Loading URLs from database for user ID: {}", userId);
-        return urlInfoMapper.toDtos(urlInfoRepository.findAllByUserIdOrderByCreatedDatetimeDesc(userId));
+        List<UrlInfoDTO> urls = urlInfoMapper.toDtos(urlInfoRepository.findAllByUserIdOrderByCreatedDatetimeDesc(userId));
+        if (!urls.isEmpty()) {
+            userUrlsCache.fill(userId, leaseToken, urls);
+        }
+
+        return urls;
+    }
+
+    /**
+     * Current page version of the user's paginated listing, changes whenever the user's URLs change.
+     *
+     * @param userId the user ID
+     * @return the page version
+     */
+    public long getUserUrlsPageVersion(Long userId) {
+        return userUrlsCache.pageVersion(userId);
+    }
+
+    /**
+     * Find a page of the user's active URLs, newest first.
+     * Pages are cached per page version, so a changed list is never served from a stale page.
+     *
+     * @param userId the user ID
+     * @param pageVersion the user's current page version, only part of the cache key
+     * @param cursor cursor of the page, {@code null} for the first page
+     * @param size page size
+     * @return the page
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = "user-url-pages", key = "#userId + ':' + #pageVersion + ':' + #size + ':' + (#cursor ?: '')")
+    public CursorPageResponse<UrlInfoDTO> findPageByUserId(Long userId, long pageVersion, String cursor, int size) {
+        log.debug("Loading URL page from database for user ID: {}, cursor: {}", userId, cursor);
+        // Fetch one extra row to know whether a next page exists
+        Limit limit = Limit.of(size + 1);
+        List<UrlInfo> rows;
+        if (cursor == null) {
+            rows = urlInfoRepository.findActivePageByUserId(userId, limit);
+        } else {
+            UrlInfoCursor after = UrlInfoCursor.decode(cursor);
+            rows = urlInfoRepository.findActivePageByUserIdAfter(userId, after.createdDatetime(), after.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<UrlInfo> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? UrlInfoCursor.of(page.getLast()).encode() : null;
+        return new CursorPageResponse<>(urlInfoMapper.toDtos(page), nextCursor, size);
+    }
+
+    /**
+     * Add or replace URLs in the user's cached list, a list that is not cached is left alone.
+     *
+     * @param userId the user ID
+     * @param dtos the created or updated URLs
+     */
+    public void putUserUrls(Long userId, List<UrlInfoDTO> dtos) {
+        userUrlsCache.upsert(userId, dtos);
+        userUrlsCache.bumpPageVersion(userId);
+        log.debug("Patched user-urls cache for user: {} with {} urls", userId, dtos.size());
+    }
+
+    /**
+     * Remove a URL from the user's cached list.
+     *
+     * @param userId the user ID
+     * @param urlId the deleted or deactivated URL id
+     */
+    public void removeUserUrl(Long userId, Long urlId) {
+        userUrlsCache.remove(userId, urlId);
+        userUrlsCache.bumpPageVersion(userId);
+        log.debug("Removed url: {} from user-urls cache for user: {}", urlId, userId);
+    }
+
+    /**
+     * Find an existing short URL created by the given user for the original URL.
+     * The cache is keyed by user and hash only, so callers must compare the original URL of the result.
+     *
+     * @param userId the user ID
+     * @param originalUrlHash hash of the normalized original URL
+     * @param originalUrl the normalized original URL
+     * @return the existing URL info DTO, or null if not found
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = "url-dedup", key = "#userId + ':' + #originalUrlHash", unless = "#result == null")
+    public UrlInfoDTO findDedupCandidate(Long userId, Long originalUrlHash, String originalUrl) {
+        log.debug("Loading dedup candidate from database for user: {}, hash: {}", userId, originalUrlHash);
+        List<UrlInfo> candidates = urlInfoRepository.findDedupCandidates(userId, originalUrlHash, originalUrl);
+        return candidates.isEmpty() ? null : urlInfoMapper.toDto(candidates.getFirst());
+    }
+
+    /**
+     * Cache a newly created URL so a re-submission of the same original URL is served from the cache.
+     *
+     * @param userId the user ID
+     * @param originalUrlHash hash of the normalized original URL
+     * @param dto the created URL info
+     * @return the cached URL info
+     */
+    @CachePut(cacheNames = "url-dedup", key = "#userId + ':' + #originalUrlHash")
+    public UrlInfoDTO putDedupCache(Long userId, Long originalUrlHash, UrlInfoDTO dto) {
+        log.debug("Cached dedup entry for user: {}, hash: {}", userId, originalUrlHash);
+        return dto;
+    }
+
+    /**
+     * Evict the dedup cache for the given user and original URL hash.
+     *
+     * @param userId the user ID
+     * @param originalUrlHash hash of the normalized original URL
+     */
+    @CacheEvict(cacheNames = "url-dedup", key = "#userId + ':' + #originalUrlHash")
+    public void evictDedupCache(Long userId, Long originalUrlHash) {
+        log.debug("Evicted url-dedup cache for user: {}, hash: {}", userId, originalUrlHash);
     }
 
     /**
-     * Evict the cache for the given user ID.
+     * Evict the cache for the given user ID, used for bulk changes that are cheaper to reload.
      *
      * @param userId the user ID to evict the cache
      */
-    @CacheEvict(cacheNames = "user-urls", key = "#userId")
     public void evictUserUrlsCache(Long userId) {
+        userUrlsCache.evict(userId);
+        userUrlsCache.bumpPageVersion(userId);
         log.debug("Evicted user-urls cache for user: {}", userId);
     }
 
@@ -0,0 +1,91 @@
+package com.diepnn.shortenurl.service.cache;
+
+import com.diepnn.shortenurl.common.properties.RedisCacheProperties;
+import com.diepnn.shortenurl.dto.UrlInfoDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Redis cache of a user's URL list already serialized to the JSON sent to clients.
+ *
+ * <p>Entries are keyed by the user's page version (see {@link UserUrlsCache#pageVersion(Long)}), so any change
+ * to the user's URLs makes the cached body unreachable without deleting it. A body stored under an old version
+ * after a concurrent change is never read again and expires with its TTL.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserUrlsBodyCache {
+    private static final String CACHE_NAME = "user-urls-body";
+    private static final String BODY_KEY_FORMAT = "user-urls::{%d}::body::%d";
+    private static final long DEFAULT_TTL_MS = Duration.ofMinutes(5).toMillis();
+
+    private final RedisTemplate<String, byte[]> bytesRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RedisCacheProperties redisCacheProperties;
+
+    /**
+     * Read the cached JSON of the user's list.
+     *
+     * @param userId the user ID
+     * @param pageVersion the user's current page version
+     * @return the serialized list, or null on a miss or when Redis is unavailable
+     */
+    public byte[] get(Long userId, long pageVersion) {
+        try {
+            return bytesRedisTemplate.opsForValue().get(key(userId, pageVersion));
+        } catch (RuntimeException e) {
+            log.warn("Failed to read user-urls body cache for user {}", userId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Serialize the user's list and cache the result.
+     *
+     * @param userId the user ID
+     * @param pageVersion the page version read before loading the list
+     * @param dtos the user's URLs
+     * @return the serialized list
+     */
+    public byte[] put(Long userId, long pageVersion, List<UrlInfoDTO> dtos) {
+        byte[] body = serialize(dtos);
+        try {
+            bytesRedisTemplate.opsForValue().set(key(userId, pageVersion), body, Duration.ofMillis(ttlMs()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to cache user-urls body for user {}", userId, e);
+        }
+
+        return body;
+    }
+
+    /**
+     * Serialize the user's list the same way a cached body is, without caching it.
+     *
+     * @param dtos the user's URLs
+     * @return the serialized list
+     */
+    public byte[] serialize(List<UrlInfoDTO> dtos) {
+        try {
+            return objectMapper.writeValueAsBytes(dtos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize URL list", e);
+        }
+    }
+
+    private String key(Long userId, long pageVersion) {
+        return String.format(BODY_KEY_FORMAT, userId, pageVersion);
+    }
+
+    private long ttlMs() {
+        Long ttl = redisCacheProperties.getCacheTtl() == null ? null : redisCacheProperties.getCacheTtl().get(CACHE_NAME);
+        return ttl == null ? DEFAULT_TTL_MS : ttl;
+    }
+}
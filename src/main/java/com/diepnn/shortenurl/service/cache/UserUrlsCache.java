@@ -0,0 +1,257 @@
+package com.diepnn.shortenurl.service.cache;
+
+import com.diepnn.shortenurl.common.properties.RedisCacheProperties;
+import com.diepnn.shortenurl.dto.UrlInfoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Redis-backed {@code user-urls} cache that can be patched one entry at a time.
+ *
+ * <p>A user's list is stored as a sorted set of url ids scored by created time plus a hash of url id to DTO,
+ * so a create, update or delete touches one entry instead of evicting and reloading the whole list.</p>
+ *
+ * <p>A load from the database takes a lease token first and only stores its result if the lease is still held.
+ * Every patch revokes the lease, so a load that read the database before a concurrent change cannot overwrite
+ * the cache with the stale list. Patches on an uncached list are dropped rather than creating a partial list.</p>
+ *
+ * <p>Pages of the paginated listing are cached separately under the user's page version. Any change bumps the
+ * version, so cached pages of the previous version are never read again and expire with their TTL. A missing
+ * version is seeded with a random value rather than restarting from 0, so after a Redis flush or failover the
+ * ETags and pages of the lost versions never match again. A version that cannot be bumped is deleted instead, so
+ * it is seeded anew; if that fails too the change fails rather than keep serving the old version.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserUrlsCache {
+    private static final String CACHE_NAME = "user-urls";
+    private static final String INDEX_KEY_FORMAT = "user-urls::{%d}::index";
+    private static final String ITEMS_KEY_FORMAT = "user-urls::{%d}::items";
+    private static final String LEASE_KEY_FORMAT = "user-urls::{%d}::lease";
+    private static final String PAGE_VERSION_KEY_FORMAT = "user-urls::{%d}::page-version";
+    private static final Duration LEASE_TTL = Duration.ofSeconds(10);
+    private static final long DEFAULT_TTL_MS = Duration.ofMinutes(30).toMillis();
+    // Far below the INCR limit, a seeded version can be bumped for ever
+    private static final long MAX_VERSION_SEED = 1L << 52;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final RedisCacheProperties redisCacheProperties;
+
+    private DefaultRedisScript<List> readScript;
+    private DefaultRedisScript<Long> fillScript;
+    private DefaultRedisScript<Long> upsertScript;
+    private DefaultRedisScript<Long> removeScript;
+    private DefaultRedisScript<Long> bumpVersionScript;
+
+    @PostConstruct
+    public void init() {
+        readScript = loadScript("user-urls-read.lua", List.class);
+        fillScript = loadScript("user-urls-fill.lua", Long.class);
+        upsertScript = loadScript("user-urls-upsert.lua", Long.class);
+        removeScript = loadScript("user-urls-remove.lua", Long.class);
+        bumpVersionScript = loadScript("user-urls-bump-version.lua", Long.class);
+    }
+
+    /**
+     * Read the cached list of the user.
+     *
+     * @param userId the user ID
+     * @return the cached URLs newest first, or an empty list on a miss
+     */
+    public List<UrlInfoDTO> get(Long userId) {
+        List<?> values = redisTemplate.execute(readScript, keys(userId));
+        if (values == null || values.isEmpty()) {
+            return List.of();
+        }
+
+        List<UrlInfoDTO> dtos = new ArrayList<>(values.size());
+        for (Object value : values) {
+            dtos.add(objectMapper.convertValue(value, UrlInfoDTO.class));
+        }
+
+        return dtos;
+    }
+
+    /**
+     * Take the load lease of the user's list, call before reading the list from the database.
+     *
+     * @param userId the user ID
+     * @return the lease token to pass to {@link #fill(Long, long, List)}
+     */
+    public long acquireLease(Long userId) {
+        long token = ThreadLocalRandom.current().nextLong();
+        redisTemplate.opsForValue().set(String.format(LEASE_KEY_FORMAT, userId), token, LEASE_TTL);
+        return token;
+    }
+
+    /**
+     * Store the list loaded from the database if no change happened since the lease was taken.
+     *
+     * @param userId the user ID
+     * @param leaseToken the token returned by {@link #acquireLease(Long)}
+     * @param dtos the loaded URLs
+     * @return true if the list was stored
+     */
+    public boolean fill(Long userId, long leaseToken, List<UrlInfoDTO> dtos) {
+        List<Object> args = new ArrayList<>(2 + dtos.size() * 3);
+        args.add(leaseToken);
+        args.add(ttlMs());
+        addEntries(args, dtos);
+
+        Long stored = redisTemplate.execute(fillScript, keys(userId), args.toArray());
+        if (stored == null || stored == 0) {
+            log.debug("Dropped user-urls load for user {}, the list changed while loading", userId);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Add or replace entries of the user's cached list.
+     *
+     * @param userId the user ID
+     * @param dtos the created or updated URLs
+     */
+    public void upsert(Long userId, List<UrlInfoDTO> dtos) {
+        if (dtos.isEmpty()) {
+            return;
+        }
+
+        List<Object> args = new ArrayList<>(1 + dtos.size() * 3);
+        args.add(ttlMs());
+        addEntries(args, dtos);
+
+        try {
+            redisTemplate.execute(upsertScript, keys(userId), args.toArray());
+        } catch (RuntimeException e) {
+            log.warn("Failed to patch user-urls cache for user {}, evicting it", userId, e);
+            evictQuietly(userId);
+        }
+    }
+
+    /**
+     * Remove an entry from the user's cached list.
+     *
+     * @param userId the user ID
+     * @param urlId the removed URL id
+     */
+    public void remove(Long userId, Long urlId) {
+        try {
+            redisTemplate.execute(removeScript, keys(userId), urlId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to remove URL {} from user-urls cache for user {}, evicting it", urlId, userId, e);
+            evictQuietly(userId);
+        }
+    }
+
+    /**
+     * Drop the user's cached list and revoke any load in flight.
+     *
+     * @param userId the user ID
+     */
+    public void evict(Long userId) {
+        redisTemplate.delete(keys(userId));
+    }
+
+    /**
+     * Current page version of the user, part of the key of every cached page.
+     *
+     * @param userId the user ID
+     * @return the page version, seeded with a random value if missing
+     */
+    public long pageVersion(Long userId) {
+        String key = String.format(PAGE_VERSION_KEY_FORMAT, userId);
+        Object version = redisTemplate.opsForValue().get(key);
+        if (version != null) {
+            return ((Number) version).longValue();
+        }
+
+        long seed = versionSeed();
+        if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, seed))) {
+            return seed;
+        }
+
+        // Seeded concurrently
+        return ((Number) redisTemplate.opsForValue().get(key)).longValue();
+    }
+
+    /**
+     * Invalidate all cached pages of the user.
+     *
+     * @param userId the user ID
+     * @throws RuntimeException if the version can neither be bumped nor reset
+     */
+    public void bumpPageVersion(Long userId) {
+        String key = String.format(PAGE_VERSION_KEY_FORMAT, userId);
+        try {
+            redisTemplate.execute(bumpVersionScript, List.of(key), versionSeed());
+        } catch (RuntimeException e) {
+            log.warn("Failed to bump user-urls page version for user {}, resetting it", userId, e);
+            redisTemplate.delete(key);
+        }
+    }
+
+    private void evictQuietly(Long userId) {
+        try {
+            evict(userId);
+        } catch (RuntimeException e) {
+            log.error("Failed to evict user-urls cache for user {}, it expires with its TTL", userId, e);
+        }
+    }
+
+    private void addEntries(List<Object> args, List<UrlInfoDTO> dtos) {
+        for (UrlInfoDTO dto : dtos) {
+            args.add(score(dto.getCreatedDatetime()));
+            args.add(dto.getId());
+            args.add(dto);
+        }
+    }
+
+    /**
+     * Keys of the sorted set, DTO hash and lease, in the order the scripts expect.
+     * The user id is a hash tag so all keys of a user live in the same cluster slot.
+     */
+    private List<String> keys(Long userId) {
+        return List.of(String.format(INDEX_KEY_FORMAT, userId),
+                       String.format(ITEMS_KEY_FORMAT, userId),
+                       String.format(LEASE_KEY_FORMAT, userId));
+    }
+
+    private long ttlMs() {
+        Long ttl = redisCacheProperties.getCacheTtl() == null ? null : redisCacheProperties.getCacheTtl().get(CACHE_NAME);
+        return ttl == null ? DEFAULT_TTL_MS : ttl;
+    }
+
+    private static long versionSeed() {
+        return ThreadLocalRandom.current().nextLong(1, MAX_VERSION_SEED);
+    }
+
+    private static long score(LocalDateTime createdDatetime) {
+        return createdDatetime == null ? 0 : createdDatetime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private <T> DefaultRedisScript<T> loadScript(String name, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(resourceLoader.getResource("classpath:redis/scripts/" + name)));
+        script.setResultType(resultType);
+        return script;
+    }
+}
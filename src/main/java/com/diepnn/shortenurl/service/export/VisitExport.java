@@ -0,0 +1,58 @@
+package com.diepnn.shortenurl.service.export;
+
+import com.diepnn.shortenurl.common.enums.VisitExportFormat;
+import com.fasterxml.jackson.core.JsonFactory;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An export ready to be streamed to the response, gzip-encoded on the fly when {@link #isGzip()}. It holds one of
+ * the export slots of its user, released once written whether it succeeds or not.
+ */
+@RequiredArgsConstructor
+public class VisitExport implements StreamingResponseBody {
+    private static final int GZIP_BUFFER_BYTES = 8192;
+
+    @Getter
+    private final String fileName;
+
+    @Getter
+    private final VisitExportFormat format;
+
+    @Getter
+    private final boolean gzip;
+
+    private final JsonFactory jsonFactory;
+    private final Source source;
+    private final Runnable onComplete;
+
+    /**
+     * Writes the rows of an export.
+     */
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * @param writer the destination of the rows
+         * @throws UncheckedIOException if the writer fails
+         */
+        void writeTo(VisitExportWriter writer);
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try (VisitExportWriter writer = new VisitExportWriter(gzip ? new GZIPOutputStream(out, GZIP_BUFFER_BYTES) : out, format,
+                                                              jsonFactory)) {
+            source.writeTo(writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            onComplete.run();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.diepnn.shortenurl.service.export;
+
+import com.diepnn.shortenurl.common.enums.VisitExportFormat;
+import com.diepnn.shortenurl.repository.UrlVisitExportRepository.VisitRow;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes visits to a stream as CSV or NDJSON, one row at a time through a fixed-size buffer.
+ */
+public class VisitExportWriter implements Closeable {
+    private static final String[] COLUMNS = {"url_id", "visited_datetime", "ip_address", "user_agent", "country",
+                                             "user_agent_family", "user_agent_os", "user_agent_device", "is_bot",
+                                             "sample_weight"};
+    private static final DateTimeFormatter VISITED_DATETIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
+    /**
+     * Leading characters that make a spreadsheet evaluate a cell as a formula
+     */
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final Writer writer;
+    private final JsonGenerator generator;
+    private long rows;
+
+    /**
+     * @param out the destination, closed with this writer
+     * @param format the file format
+     * @param jsonFactory creates the generator of NDJSON exports
+     * @throws IOException if the CSV header cannot be written
+     */
+    public VisitExportWriter(OutputStream out, VisitExportFormat format, JsonFactory jsonFactory) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == VisitExportFormat.NDJSON) {
+            generator = jsonFactory.createGenerator(writer);
+            // Rows are separated by the line break written after each of them
+            generator.setRootValueSeparator(null);
+        } else {
+            generator = null;
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Write a visit.
+     *
+     * @param row the visit
+     * @throws IOException if the destination cannot be written, e.g. the client went away
+     */
+    public void write(VisitRow row) throws IOException {
+        String visitedDatetime = VISITED_DATETIME_FORMAT.format(row.visitedDatetime());
+        if (generator != null) {
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], row.urlId());
+            generator.writeStringField(COLUMNS[1], visitedDatetime);
+            generator.writeStringField(COLUMNS[2], row.ipAddress());
+            generator.writeStringField(COLUMNS[3], row.userAgent());
+            generator.writeStringField(COLUMNS[4], row.country());
+            generator.writeStringField(COLUMNS[5], row.userAgentFamily());
+            generator.writeStringField(COLUMNS[6], row.userAgentOs());
+            generator.writeStringField(COLUMNS[7], row.userAgentDevice());
+            generator.writeFieldName(COLUMNS[8]);
+            if (row.bot() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeBoolean(row.bot());
+            }
+
+            generator.writeNumberField(COLUMNS[9], row.sampleWeight());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } else {
+            writer.write(Long.toString(row.urlId()));
+            writeCsvField(visitedDatetime);
+            writeCsvField(row.ipAddress());
+            writeCsvField(row.userAgent());
+            writeCsvField(row.country());
+            writeCsvField(row.userAgentFamily());
+            writeCsvField(row.userAgentOs());
+            writeCsvField(row.userAgentDevice());
+            writeCsvField(row.bot() == null ? null : row.bot().toString());
+            writeCsvField(Integer.toString(row.sampleWeight()));
+            writer.write('\n');
+        }
+
+        rows++;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+        }
+
+        writer.close();
+    }
+
+    /**
+     * Write a comma then the value, quoted when it holds a separator, a quote or a line break. Null is written empty.
+     * A value a spreadsheet would run as a formula, such as a user agent starting with {@code =}, is prefixed with
+     * {@code '} so it opens as text.
+     */
+    private void writeCsvField(String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,108 @@
+package com.diepnn.shortenurl.service.geo;
+
+import com.diepnn.shortenurl.common.properties.GeoIpProperties;
+import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.utils.ReloadableFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves the country of visitors from a local IP range file, see {@link IpCountryTable} for the format.
+ *
+ * <p>Runs on the visit pipeline, never on the redirect thread: the database backend locates visits on its async
+ * executor and the segment log backend when compacting. The table is held in a {@link ReloadableFile}: the file is
+ * polled for changes and a new table is built on the scheduler thread. A file that fails to load leaves the current
+ * table in place.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.geo_ip.resolved}: visits located to a country</li>
+ *     <li>{@code url_visit.geo_ip.unresolved}: visits whose address is in no range or not an IP address</li>
+ *     <li>{@code url_visit.geo_ip.ranges}: ranges in the current table</li>
+ *     <li>{@code url_visit.geo_ip.memory}: heap footprint of the current table in bytes</li>
+ *     <li>{@code url_visit.geo_ip.reload.failures}: reloads that kept the previous table</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+public class GeoIpService {
+    private final GeoIpProperties props;
+    private final MeterRegistry meterRegistry;
+
+    private ReloadableFile<IpCountryTable> ranges;
+    private Counter resolvedCounter;
+    private Counter unresolvedCounter;
+
+    @PostConstruct
+    public void init() {
+        resolvedCounter = Counter.builder("url_visit.geo_ip.resolved")
+                                 .description("Visits located to a country")
+                                 .register(meterRegistry);
+        unresolvedCounter = Counter.builder("url_visit.geo_ip.unresolved")
+                                   .description("Visits whose address matched no country")
+                                   .register(meterRegistry);
+        Counter reloadFailureCounter = Counter.builder("url_visit.geo_ip.reload.failures")
+                                              .description("IP range reloads that kept the previous table")
+                                              .register(meterRegistry);
+        ranges = new ReloadableFile<>("IP ranges", IpCountryTable.EMPTY, IpCountryTable::load,
+                                      table -> String.format("(%d ranges, %d invalid, %d bytes)", table.getRangeCount(),
+                                                             table.getInvalidRangeCount(), table.getMemoryBytes()),
+                                      reloadFailureCounter);
+        Gauge.builder("url_visit.geo_ip.ranges", this, s -> s.ranges.get().getRangeCount())
+             .description("IP ranges in the geolocation table")
+             .register(meterRegistry);
+        Gauge.builder("url_visit.geo_ip.memory", this, s -> s.ranges.get().getMemoryBytes())
+             .description("Heap footprint of the geolocation table")
+             .baseUnit("bytes")
+             .register(meterRegistry);
+
+        reload();
+    }
+
+    /**
+     * Fill in the visitor country from its IP address, unless it is already known or geolocation is disabled.
+     *
+     * @param userInfo the visitor
+     * @return the visitor with its country, the same instance when nothing changes
+     */
+    public UserInfo locate(UserInfo userInfo) {
+        if (userInfo.country() != null || userInfo.ipAddress() == null) {
+            return userInfo;
+        }
+
+        String country = country(userInfo.ipAddress());
+        return country == null
+               ? userInfo
+               : new UserInfo(userInfo.ipAddress(), userInfo.userAgent(), userInfo.visitedDatetime(), country);
+    }
+
+    /**
+     * Country of an IP address.
+     *
+     * @param ipAddress an IPv4 or IPv6 literal
+     * @return the country code, {@code null} if unknown or geolocation is disabled
+     */
+    public String country(String ipAddress) {
+        IpCountryTable current = ranges.get();
+        if (current.getRangeCount() == 0) {
+            return null;
+        }
+
+        String country = current.country(ipAddress);
+        (country == null ? unresolvedCounter : resolvedCounter).increment();
+        return country;
+    }
+
+    /**
+     * Rebuild the table if the ranges file changed since the last load.
+     */
+    @Scheduled(fixedDelayString = "${app.url-visit.geo-ip.reload-interval-ms}")
+    public void reload() {
+        ranges.reload(props.getFile());
+    }
+}
@@ -0,0 +1,541 @@
+package com.diepnn.shortenurl.service.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable table of IP ranges to ISO country codes.
+ *
+ * <p>Ranges are sorted by their first address and kept in flat primitive arrays, one set per address family:
+ * <ul>
+ *   <li>IPv4: {@code v4Start[i]}, {@code v4End[i]} as unsigned 32-bit values, 10 bytes per range</li>
+ *   <li>IPv6: {@code v6StartHi[i]}, {@code v6StartLo[i]}, {@code v6EndHi[i]}, {@code v6EndLo[i]} as unsigned
+ *       128-bit values split in two longs, 34 bytes per range</li>
+ *   <li>{@code v4Country[i]}, {@code v6Country[i]}: index of the range country in the shared {@code countries}</li>
+ * </ul>
+ * {@link #country(String)} parses the address straight from the string and binary searches the ranges of its
+ * family without allocating. IPv4-mapped IPv6 addresses ({@code ::ffff:a.b.c.d}) are looked up as IPv4.</p>
+ *
+ * <p>File format, one range per line, comma separated with optional double quotes:
+ * <ul>
+ *   <li>{@code first,last,...}: inclusive range, e.g. {@code 1.0.0.0,1.0.0.255,AU}</li>
+ *   <li>{@code network/prefix,...}: CIDR block, e.g. {@code 2001:db8::/32,VN}</li>
+ *   <li>the country is the first two-letter field after the range, so legacy GeoIP dumps with extra numeric
+ *       columns load as is</li>
+ *   <li>blank lines and lines starting with {@code #} are ignored; headers and ranges overlapping a previous
+ *       one are counted as invalid</li>
+ * </ul></p>
+ */
+public final class IpCountryTable {
+    public static final IpCountryTable EMPTY = new IpCountryTable(new int[0], new int[0], new short[0], new long[0],
+                                                                  new long[0], new long[0], new long[0], new short[0],
+                                                                  new String[0], 0);
+
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFFL;
+
+    private final int[] v4Start;
+    private final int[] v4End;
+    private final short[] v4Country;
+    private final long[] v6StartHi;
+    private final long[] v6StartLo;
+    private final long[] v6EndHi;
+    private final long[] v6EndLo;
+    private final short[] v6Country;
+    private final String[] countries;
+    private final int invalidRangeCount;
+
+    private IpCountryTable(int[] v4Start, int[] v4End, short[] v4Country, long[] v6StartHi, long[] v6StartLo,
+                           long[] v6EndHi, long[] v6EndLo, short[] v6Country, String[] countries, int invalidRangeCount) {
+        this.v4Start = v4Start;
+        this.v4End = v4End;
+        this.v4Country = v4Country;
+        this.v6StartHi = v6StartHi;
+        this.v6StartLo = v6StartLo;
+        this.v6EndHi = v6EndHi;
+        this.v6EndLo = v6EndLo;
+        this.v6Country = v6Country;
+        this.countries = countries;
+        this.invalidRangeCount = invalidRangeCount;
+    }
+
+    /**
+     * Country of an IP address.
+     *
+     * @param ipAddress an IPv4 or IPv6 literal, optionally bracketed or with a zone id
+     * @return the country code, {@code null} if the address is invalid or in no range
+     */
+    public String country(String ipAddress) {
+        if (ipAddress == null) {
+            return null;
+        }
+
+        int from = 0;
+        int to = ipAddress.length();
+        while (from < to && Character.isWhitespace(ipAddress.charAt(from))) {
+            from++;
+        }
+
+        while (to > from && Character.isWhitespace(ipAddress.charAt(to - 1))) {
+            to--;
+        }
+
+        if (to - from > 1 && ipAddress.charAt(from) == '[' && ipAddress.charAt(to - 1) == ']') {
+            from++;
+            to--;
+        }
+
+        int zone = ipAddress.indexOf('%', from, to);
+        if (zone >= 0) {
+            to = zone;
+        }
+
+        if (ipAddress.indexOf(':', from, to) >= 0) {
+            return countryOfIpv6(ipAddress, from, to);
+        }
+
+        long ipv4 = parseIpv4(ipAddress, from, to);
+        return ipv4 < 0 ? null : findIpv4((int) ipv4);
+    }
+
+    /**
+     * @return number of ranges in the table, both families
+     */
+    public int getRangeCount() {
+        return v4Start.length + v6StartHi.length;
+    }
+
+    /**
+     * @return number of lines skipped because they are not valid ranges or overlap a previous range
+     */
+    public int getInvalidRangeCount() {
+        return invalidRangeCount;
+    }
+
+    /**
+     * @return approximate heap footprint of the range arrays in bytes
+     */
+    public long getMemoryBytes() {
+        return 10L * v4Start.length + 34L * v6StartHi.length;
+    }
+
+    /**
+     * Parse the address 128 bits at a time, groups before {@code ::} into {@code hi, lo} and groups after it into
+     * {@code tailHi, tailLo}, then shift the head into place.
+     */
+    private String countryOfIpv6(String ip, int from, int to) {
+        long hi = 0;
+        long lo = 0;
+        long tailHi = 0;
+        long tailLo = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int i = from;
+        if (ip.startsWith("::", from)) {
+            compressed = true;
+            i += 2;
+        }
+
+        while (i < to) {
+            int end = ip.indexOf(':', i, to);
+            end = end < 0 ? to : end;
+            int groups;
+            long value;
+            if (end == to && ip.indexOf('.', i, to) >= 0) {
+                // Embedded IPv4 address, the last two groups
+                value = parseIpv4(ip, i, to);
+                groups = 2;
+            } else {
+                value = parseHexGroup(ip, i, end);
+                groups = 1;
+            }
+
+            if (value < 0 || headGroups + tailGroups + groups > 8) {
+                return null;
+            }
+
+            int shift = 16 * groups;
+            if (compressed) {
+                tailHi = (tailHi << shift) | (tailLo >>> (64 - shift));
+                tailLo = (tailLo << shift) | value;
+                tailGroups += groups;
+            } else {
+                hi = (hi << shift) | (lo >>> (64 - shift));
+                lo = (lo << shift) | value;
+                headGroups += groups;
+            }
+
+            if (end == to) {
+                break;
+            }
+
+            if (end + 1 < to && ip.charAt(end + 1) == ':') {
+                if (compressed) {
+                    return null;
+                }
+
+                compressed = true;
+                i = end + 2;
+            } else if (end + 1 == to) {
+                return null;
+            } else {
+                i = end + 1;
+            }
+        }
+
+        if (compressed ? headGroups + tailGroups > 7 : headGroups != 8) {
+            return null;
+        }
+
+        int shift = 16 * (8 - headGroups);
+        if (shift >= 64) {
+            hi = lo << (shift - 64);
+            lo = 0;
+        } else if (shift > 0) {
+            hi = (hi << shift) | (lo >>> (64 - shift));
+            lo <<= shift;
+        }
+
+        hi |= tailHi;
+        lo |= tailLo;
+        if (hi == 0 && (lo >>> 32) == IPV4_MAPPED_PREFIX) {
+            return findIpv4((int) lo);
+        }
+
+        return findIpv6(hi, lo);
+    }
+
+    private String findIpv4(int ip) {
+        int lo = 0;
+        int hi = v4Start.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Integer.compareUnsigned(v4Start[mid], ip) <= 0) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        return found >= 0 && Integer.compareUnsigned(ip, v4End[found]) <= 0 ? countries[v4Country[found]] : null;
+    }
+
+    private String findIpv6(long ipHi, long ipLo) {
+        int lo = 0;
+        int hi = v6StartHi.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(v6StartHi[mid], v6StartLo[mid], ipHi, ipLo) <= 0) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        return found >= 0 && compare(ipHi, ipLo, v6EndHi[found], v6EndLo[found]) <= 0 ? countries[v6Country[found]] : null;
+    }
+
+    private static int compare(long aHi, long aLo, long bHi, long bLo) {
+        int cmp = Long.compareUnsigned(aHi, bHi);
+        return cmp != 0 ? cmp : Long.compareUnsigned(aLo, bLo);
+    }
+
+    /**
+     * @return the address as an unsigned 32-bit value, -1 if it is not a dotted-quad IPv4 address
+     */
+    private static long parseIpv4(String ip, int from, int to) {
+        long value = 0;
+        int octets = 0;
+        int i = from;
+        while (octets < 4) {
+            int octet = 0;
+            int digits = 0;
+            while (i < to && digits < 3 && ip.charAt(i) >= '0' && ip.charAt(i) <= '9') {
+                octet = octet * 10 + ip.charAt(i) - '0';
+                digits++;
+                i++;
+            }
+
+            if (digits == 0 || octet > 255) {
+                return -1;
+            }
+
+            value = (value << 8) | octet;
+            octets++;
+            if (octets < 4) {
+                if (i >= to || ip.charAt(i) != '.') {
+                    return -1;
+                }
+
+                i++;
+            }
+        }
+
+        return i == to ? value : -1;
+    }
+
+    private static int parseHexGroup(String ip, int from, int to) {
+        if (to <= from || to - from > 4) {
+            return -1;
+        }
+
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = ip.charAt(i);
+            int digit = c < 0x80 ? Character.digit(c, 16) : -1;
+            if (digit < 0) {
+                return -1;
+            }
+
+            value = (value << 4) | digit;
+        }
+
+        return value;
+    }
+
+    /**
+     * Build a table from ranges in the documented file format.
+     *
+     * @param reader the ranges, read line by line
+     * @return the table
+     * @throws IOException if reading fails
+     */
+    public static IpCountryTable load(BufferedReader reader) throws IOException {
+        Builder builder = new Builder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            builder.add(line);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Build a table from individual ranges.
+     *
+     * @param lines ranges in the documented file format
+     * @return the table
+     */
+    public static IpCountryTable of(String... lines) {
+        Builder builder = new Builder();
+        for (String line : lines) {
+            builder.add(line);
+        }
+
+        return builder.build();
+    }
+
+    private record Range(long startHi, long startLo, long endHi, long endLo, short country) {
+    }
+
+    private static final class Builder {
+        private static final Comparator<Range> ORDER = (a, b) -> compare(a.startHi(), a.startLo(), b.startHi(), b.startLo());
+
+        private final List<Range> v4 = new ArrayList<>();
+        private final List<Range> v6 = new ArrayList<>();
+        private final Map<String, Short> countryIndexes = new HashMap<>();
+        private final List<String> countries = new ArrayList<>();
+        private int invalid;
+
+        void add(String line) {
+            String stripped = line.strip();
+            if (stripped.isEmpty() || stripped.charAt(0) == '#') {
+                return;
+            }
+
+            String[] fields = stripped.split(",");
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = unquote(fields[i]);
+            }
+
+            if (!addRange(fields)) {
+                invalid++;
+            }
+        }
+
+        private boolean addRange(String[] fields) {
+            byte[] first;
+            byte[] last;
+            int countryFrom;
+            int slash = fields[0].indexOf('/');
+            if (slash >= 0) {
+                first = toBytes(fields[0].substring(0, slash));
+                int prefix = parsePrefix(fields[0].substring(slash + 1), first);
+                if (prefix < 0) {
+                    return false;
+                }
+
+                last = first.clone();
+                for (int bit = prefix; bit < first.length * 8; bit++) {
+                    first[bit / 8] &= (byte) ~(0x80 >>> (bit % 8));
+                    last[bit / 8] |= (byte) (0x80 >>> (bit % 8));
+                }
+
+                countryFrom = 1;
+            } else {
+                first = toBytes(fields[0]);
+                last = fields.length > 1 ? toBytes(fields[1]) : null;
+                countryFrom = 2;
+            }
+
+            String country = null;
+            for (int i = countryFrom; i < fields.length && country == null; i++) {
+                if (isCountryCode(fields[i])) {
+                    country = fields[i].toUpperCase(Locale.ROOT);
+                }
+            }
+
+            if (first == null || last == null || first.length != last.length || country == null) {
+                return false;
+            }
+
+            Range range = new Range(high(first), low(first), high(last), low(last), countryIndex(country));
+            if (compare(range.startHi(), range.startLo(), range.endHi(), range.endLo()) > 0) {
+                return false;
+            }
+
+            (first.length == 4 ? v4 : v6).add(range);
+            return true;
+        }
+
+        IpCountryTable build() {
+            v4.sort(ORDER);
+            v6.sort(ORDER);
+            List<Range> ipv4 = dropOverlaps(v4);
+            List<Range> ipv6 = dropOverlaps(v6);
+
+            int[] v4Start = new int[ipv4.size()];
+            int[] v4End = new int[ipv4.size()];
+            short[] v4Country = new short[ipv4.size()];
+            for (int i = 0; i < v4Start.length; i++) {
+                Range range = ipv4.get(i);
+                v4Start[i] = (int) range.startLo();
+                v4End[i] = (int) range.endLo();
+                v4Country[i] = range.country();
+            }
+
+            long[] v6StartHi = new long[ipv6.size()];
+            long[] v6StartLo = new long[ipv6.size()];
+            long[] v6EndHi = new long[ipv6.size()];
+            long[] v6EndLo = new long[ipv6.size()];
+            short[] v6Country = new short[ipv6.size()];
+            for (int i = 0; i < v6StartHi.length; i++) {
+                Range range = ipv6.get(i);
+                v6StartHi[i] = range.startHi();
+                v6StartLo[i] = range.startLo();
+                v6EndHi[i] = range.endHi();
+                v6EndLo[i] = range.endLo();
+                v6Country[i] = range.country();
+            }
+
+            return new IpCountryTable(v4Start, v4End, v4Country, v6StartHi, v6StartLo, v6EndHi, v6EndLo, v6Country,
+                                      countries.toArray(new String[0]), invalid);
+        }
+
+        private List<Range> dropOverlaps(List<Range> sorted) {
+            List<Range> kept = new ArrayList<>(sorted.size());
+            for (Range range : sorted) {
+                Range previous = kept.isEmpty() ? null : kept.getLast();
+                if (previous != null && compare(range.startHi(), range.startLo(), previous.endHi(), previous.endLo()) <= 0) {
+                    invalid++;
+                } else {
+                    kept.add(range);
+                }
+            }
+
+            return kept;
+        }
+
+        private short countryIndex(String country) {
+            return countryIndexes.computeIfAbsent(country, c -> {
+                countries.add(c);
+                return (short) (countries.size() - 1);
+            });
+        }
+
+        private static String unquote(String field) {
+            String value = field.strip();
+            if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+                value = value.substring(1, value.length() - 1).strip();
+            }
+
+            return value;
+        }
+
+        /**
+         * Address bytes of an IP literal, never a host name: IPv4 goes through the same parser as lookups and only
+         * strings with a colon and hex digits reach {@link InetAddress#getByName}, which parses them without any lookup.
+         *
+         * @return 4 or 16 bytes, IPv4-mapped IPv6 addresses as 4, {@code null} if invalid
+         */
+        private static byte[] toBytes(String ip) {
+            if (ip.indexOf(':') < 0) {
+                long ipv4 = parseIpv4(ip, 0, ip.length());
+                return ipv4 < 0 ? null : new byte[] {(byte) (ipv4 >>> 24), (byte) (ipv4 >>> 16), (byte) (ipv4 >>> 8), (byte) ipv4};
+            }
+
+            for (int i = 0; i < ip.length(); i++) {
+                char c = ip.charAt(i);
+                if (!(c < 0x80 && Character.digit(c, 16) >= 0 || c == ':' || c == '.')) {
+                    return null;
+                }
+            }
+
+            try {
+                return InetAddress.getByName(ip).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+
+        private static int parsePrefix(String value, byte[] address) {
+            if (address == null || value.isEmpty() || value.length() > 3) {
+                return -1;
+            }
+
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                    return -1;
+                }
+            }
+
+            int prefix = Integer.parseInt(value);
+            return prefix <= address.length * 8 ? prefix : -1;
+        }
+
+        private static boolean isCountryCode(String value) {
+            return value.length() == 2 && Character.isLetter(value.charAt(0)) && Character.isLetter(value.charAt(1))
+                   && value.charAt(0) < 0x80 && value.charAt(1) < 0x80;
+        }
+
+        private static long high(byte[] address) {
+            return address.length == 4 ? 0 : bits(address, 0);
+        }
+
+        private static long low(byte[] address) {
+            return address.length == 4 ? bits(address, 0) : bits(address, 8);
+        }
+
+        private static long bits(byte[] address, int from) {
+            long value = 0;
+            for (int i = from; i < Math.min(address.length, from + 8); i++) {
+                value = (value << 8) | (address[i] & 0xFF);
+            }
+
+            return value;
+        }
+    }
+}
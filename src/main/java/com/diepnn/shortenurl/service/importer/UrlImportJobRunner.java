@@ -0,0 +1,248 @@
+package com.diepnn.shortenurl.service.importer;
+
+import com.diepnn.shortenurl.common.enums.UrlImportStatus;
+import com.diepnn.shortenurl.common.enums.UrlInfoStatus;
+import com.diepnn.shortenurl.common.properties.UrlImportProperties;
+import com.diepnn.shortenurl.common.properties.UrlInfoProperties;
+import com.diepnn.shortenurl.entity.UrlImportJob;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.exception.NotFoundException;
+import com.diepnn.shortenurl.mapper.translator.ShortUrlMappings;
+import com.diepnn.shortenurl.repository.UrlImportJobRepository;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository.InsertOutcome;
+import com.diepnn.shortenurl.service.ShortCodeService;
+import com.diepnn.shortenurl.service.cache.UrlInfoCacheService;
+import com.diepnn.shortenurl.utils.DateUtils;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer.CanonicalUrl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Runs URL import jobs on the database executor.
+ *
+ * <p>The source file is streamed; only the current chunk of {@code app.url-import.chunk-size} rows is held
+ * in memory. Each chunk is inserted skipping the existing keys and its progress is committed in the same
+ * transaction, so a resumed job continues after the last committed line without duplicating rows.
+ * Supplied codes are kept as aliases; rows whose code already exists or that the database rejects are
+ * counted as skipped.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UrlImportJobRunner {
+    private static final Pattern CODE_PATTERN = Pattern.compile("^[A-Za-z0-9_-]{1,50}$");
+    private static final int MAX_URL_LENGTH = 2048;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final UrlImportJobRepository urlImportJobRepository;
+    private final UrlInfoBatchRepository urlInfoBatchRepository;
+    private final ShortCodeService shortCodeService;
+    private final UrlInfoCacheService urlInfoCacheService;
+    private final ShortUrlMappings shortUrlMappings;
+    private final UrlImportProperties urlImportProperties;
+    private final UrlInfoProperties urlInfoProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    /** Jobs running on this instance, guards against resuming a job twice. */
+    private final Set<Long> activeJobs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Whether the job is currently running on this instance.
+     *
+     * @param jobId import job id
+     * @return true if the job is running
+     */
+    public boolean isActive(Long jobId) {
+        return activeJobs.contains(jobId);
+    }
+
+    /**
+     * Run or resume the import job asynchronously.
+     *
+     * @param jobId import job id
+     */
+    @Async("databaseExecutor")
+    public void runAsync(Long jobId) {
+        run(jobId);
+    }
+
+    /**
+     * Run or resume the import job in the calling thread.
+     *
+     * @param jobId import job id
+     */
+    public void run(Long jobId) {
+        if (!activeJobs.add(jobId)) {
+            log.warn("Import job {} is already running", jobId);
+            return;
+        }
+
+        try {
+            UrlImportJob job = urlImportJobRepository.findById(jobId)
+                                                     .orElseThrow(() -> new NotFoundException("Import job not found"));
+            execute(job);
+        } finally {
+            activeJobs.remove(jobId);
+        }
+    }
+
+    private void execute(UrlImportJob job) {
+        job.setStatus(UrlImportStatus.RUNNING);
+        job.setErrorMessage(null);
+        job.setUpdatedDatetime(DateUtils.nowTruncatedToSeconds());
+        urlImportJobRepository.save(job);
+        log.info("Import job {} started from line {}", job.getId(), job.getCommittedLines() + 1);
+
+        try (UrlImportReader reader = UrlImportReader.open(Path.of(job.getSourcePath()), job.getFormat(), objectMapper)) {
+            reader.skip(job.getCommittedLines());
+
+            int chunkSize = urlImportProperties.getChunkSize();
+            List<UrlImportRow> chunk = new ArrayList<>(chunkSize);
+            UrlImportRow row;
+            while ((row = reader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    commitChunk(job, chunk, reader.getLineNumber());
+                    chunk.clear();
+                }
+            }
+
+            commitChunk(job, chunk, reader.getLineNumber());
+            job.setStatus(UrlImportStatus.COMPLETED);
+            job.setFinishedDatetime(DateUtils.nowTruncatedToSeconds());
+            deleteStagedFile(job);
+            log.info("Import job {} completed: {} imported, {} skipped", job.getId(), job.getImportedCount(), job.getSkippedCount());
+        } catch (Exception e) {
+            log.error("Import job {} failed after line {}", job.getId(), job.getCommittedLines(), e);
+            job.setStatus(UrlImportStatus.FAILED);
+            job.setErrorMessage(StringUtils.abbreviate(e.getMessage(), MAX_ERROR_LENGTH));
+        }
+
+        job.setUpdatedDatetime(DateUtils.nowTruncatedToSeconds());
+        urlImportJobRepository.save(job);
+    }
+
+    /**
+     * Insert the valid rows of the chunk and record the progress in one transaction.
+     *
+     * @param lastLine the last source line covered by the chunk
+     */
+    private void commitChunk(UrlImportJob job, List<UrlImportRow> chunk, long lastLine) {
+        if (lastLine <= job.getCommittedLines()) {
+            return;
+        }
+
+        LocalDateTime now = DateUtils.nowTruncatedToSeconds();
+        List<UrlInfo> urlInfos = new ArrayList<>(chunk.size());
+        int invalid = 0;
+        for (UrlImportRow row : chunk) {
+            String error = row.isValid() ? validate(row) : row.error();
+            CanonicalUrl originalUrl = null;
+            if (error == null) {
+                try {
+                    originalUrl = shortUrlMappings.canonicalizeOriginalUrl(row.url());
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+            }
+
+            if (error != null) {
+                log.debug("Import job {} skipped line {}: {}", job.getId(), row.lineNumber(), error);
+                invalid++;
+                continue;
+            }
+
+            urlInfos.add(UrlInfo.builder()
+                                .shortCode(row.code())
+                                .originalUrl(originalUrl.url())
+                                .originalUrlHash(originalUrl.hash())
+                                .status(UrlInfoStatus.ACTIVE)
+                                .alias(true)
+                                .userId(row.owner())
+                                .createdByUserAgent("url-import:" + job.getId())
+                                .createdDatetime(now)
+                                .build());
+        }
+
+        long[] ids = shortCodeService.generateIds(urlInfos.size());
+        for (int i = 0; i < ids.length; i++) {
+            urlInfos.get(i).setId(ids[i]);
+        }
+
+        int skipped = invalid;
+        int imported = transactionTemplate.execute(status -> {
+            InsertOutcome[] outcomes = urlInfoBatchRepository.insert(urlInfos, urlInfoProperties.getJdbcBatchSize());
+            int count = 0;
+            for (InsertOutcome outcome : outcomes) {
+                count += outcome == InsertOutcome.INSERTED ? 1 : 0;
+            }
+
+            urlImportJobRepository.updateProgress(job.getId(), lastLine,
+                                                  job.getImportedCount() + count,
+                                                  job.getSkippedCount() + skipped + (urlInfos.size() - count),
+                                                  now);
+            return count;
+        });
+
+        job.setCommittedLines(lastLine);
+        job.setImportedCount(job.getImportedCount() + imported);
+        job.setSkippedCount(job.getSkippedCount() + skipped + (urlInfos.size() - imported));
+
+        Set<Long> owners = new HashSet<>();
+        for (UrlInfo urlInfo : urlInfos) {
+            if (urlInfo.getUserId() != null && owners.add(urlInfo.getUserId())) {
+                urlInfoCacheService.evictUserUrlsCache(urlInfo.getUserId());
+            }
+        }
+    }
+
+    /**
+     * Uploaded files are only kept to allow resuming, drop them once the job is done.
+     */
+    private void deleteStagedFile(UrlImportJob job) {
+        Path stagingDir = Path.of(urlImportProperties.getStagingDir()).toAbsolutePath().normalize();
+        Path source = Path.of(job.getSourcePath()).toAbsolutePath().normalize();
+        if (!source.startsWith(stagingDir)) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(source);
+        } catch (IOException e) {
+            log.warn("Failed to delete staged import file {}", source, e);
+        }
+    }
+
+    /**
+     * @return the validation error, or {@code null} if the code and URL length allow the row to be imported
+     */
+    private String validate(UrlImportRow row) {
+        if (row.code() == null || !CODE_PATTERN.matcher(row.code()).matches()) {
+            return "Invalid code: " + row.code();
+        }
+
+        if (StringUtils.isBlank(row.url()) || row.url().length() > MAX_URL_LENGTH) {
+            return "Invalid url";
+        }
+
+        return null;
+    }
+}
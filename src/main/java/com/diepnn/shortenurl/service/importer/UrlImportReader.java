@@ -0,0 +1,176 @@
+package com.diepnn.shortenurl.service.importer;
+
+import com.diepnn.shortenurl.common.enums.UrlImportFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an import file one line at a time, so memory use does not depend on the file size.
+ *
+ * <p>Blank lines and a CSV header line are skipped but still counted, line numbers always match the
+ * source file so {@link #skip(long)} can resume from a committed line number.</p>
+ */
+public class UrlImportReader implements Closeable {
+    private final BufferedReader reader;
+    private final UrlImportFormat format;
+    private final ObjectMapper objectMapper;
+    private long lineNumber;
+
+    public UrlImportReader(BufferedReader reader, UrlImportFormat format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    public static UrlImportReader open(Path path, UrlImportFormat format, ObjectMapper objectMapper) throws IOException {
+        return new UrlImportReader(Files.newBufferedReader(path, StandardCharsets.UTF_8), format, objectMapper);
+    }
+
+    /**
+     * Skip the given number of lines without parsing them.
+     *
+     * @param lines number of lines to skip
+     * @throws IOException if the file cannot be read
+     */
+    public void skip(long lines) throws IOException {
+        while (lineNumber < lines && reader.readLine() != null) {
+            lineNumber++;
+        }
+    }
+
+    /**
+     * Read the next non-blank row.
+     *
+     * @return the parsed row, possibly invalid, or {@code null} at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    public UrlImportRow next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (StringUtils.isBlank(line)) {
+                continue;
+            }
+
+            if (format == UrlImportFormat.CSV) {
+                if (lineNumber == 1 && StringUtils.startsWithIgnoreCase(line.strip(), "code")) {
+                    continue;
+                }
+
+                return parseCsv(line);
+            }
+
+            return parseNdjson(line);
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the number of lines read so far
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private UrlImportRow parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields == null) {
+            return UrlImportRow.invalid(lineNumber, "Unterminated quoted field");
+        }
+
+        if (fields.size() < 2 || fields.size() > 3) {
+            return UrlImportRow.invalid(lineNumber, "Expected code,url[,owner] but got " + fields.size() + " fields");
+        }
+
+        return toRow(fields.get(0), fields.get(1), fields.size() == 3 ? fields.get(2) : null);
+    }
+
+    private UrlImportRow parseNdjson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            return UrlImportRow.invalid(lineNumber, "Malformed JSON");
+        }
+
+        if (node == null || !node.isObject()) {
+            return UrlImportRow.invalid(lineNumber, "Expected a JSON object");
+        }
+
+        return toRow(text(node, "code"), text(node, "url"), text(node, "owner"));
+    }
+
+    private UrlImportRow toRow(String code, String url, String owner) {
+        Long ownerId = null;
+        if (StringUtils.isNotBlank(owner)) {
+            try {
+                ownerId = Long.valueOf(owner.strip());
+            } catch (NumberFormatException e) {
+                return UrlImportRow.invalid(lineNumber, "Invalid owner: " + owner);
+            }
+        }
+
+        return new UrlImportRow(lineNumber, StringUtils.strip(code), StringUtils.strip(url), ownerId, null);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * Split a single CSV line, supporting quoted fields with {@code ""} escapes.
+     *
+     * @return the fields, or {@code null} if a quoted field is not terminated
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+
+        if (quoted) {
+            return null;
+        }
+
+        fields.add(current.toString());
+        return fields;
+    }
+}
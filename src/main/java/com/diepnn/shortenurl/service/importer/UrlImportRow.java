@@ -0,0 +1,20 @@
+package com.diepnn.shortenurl.service.importer;
+
+/**
+ * A parsed source row of an import file.
+ *
+ * @param lineNumber 1-based line number in the source file
+ * @param code the legacy short code
+ * @param url the original URL
+ * @param owner the owner's user id, optional
+ * @param error parse or validation error, {@code null} if the row is valid
+ */
+public record UrlImportRow(long lineNumber, String code, String url, Long owner, String error) {
+    public static UrlImportRow invalid(long lineNumber, String error) {
+        return new UrlImportRow(lineNumber, null, null, null, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
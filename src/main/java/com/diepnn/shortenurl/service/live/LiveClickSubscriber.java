@@ -0,0 +1,92 @@
+package com.diepnn.shortenurl.service.live;
+
+import com.diepnn.shortenurl.dto.LiveClicksDTO;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * A client following the clicks of a link.
+ *
+ * <p>Clicks are added to a single pending update, so however many clicks come in and however slow the client is,
+ * a subscriber buffers one update and has at most one send in flight; clicks offered during a send are coalesced
+ * into the next update.</p>
+ */
+final class LiveClickSubscriber {
+    static final String EVENT_NAME = "clicks";
+    private static final String KEEP_ALIVE = "keep-alive";
+
+    private final long urlId;
+    private final SseEmitter emitter;
+
+    private long pendingClicks;
+    private long totalClicks;
+    private boolean started;
+    private boolean sending;
+    private long lastSentMillis;
+
+    LiveClickSubscriber(long urlId, SseEmitter emitter, long totalClicks) {
+        this.urlId = urlId;
+        this.emitter = emitter;
+        this.totalClicks = totalClicks;
+    }
+
+    long getUrlId() {
+        return urlId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * Add clicks to the pending update.
+     *
+     * @return whether a send must be started: the first update, clicks or a keep-alive are due and no send is in
+     * flight. The caller then calls {@link #send(long)} once
+     */
+    synchronized boolean offer(long clicks, long nowMillis, long heartbeatIntervalMs) {
+        pendingClicks += clicks;
+        totalClicks += clicks;
+        if (sending || (started && pendingClicks == 0 && nowMillis - lastSentMillis < heartbeatIntervalMs)) {
+            return false;
+        }
+
+        sending = true;
+        return true;
+    }
+
+    /**
+     * Send the pending update, or a keep-alive comment when there was no click since the last update.
+     *
+     * @throws IOException if the client went away
+     */
+    void send(long nowMillis) throws IOException {
+        long clicks;
+        long total;
+        boolean first;
+        synchronized (this) {
+            clicks = pendingClicks;
+            total = totalClicks;
+            first = !started;
+            pendingClicks = 0;
+            started = true;
+        }
+
+        try {
+            if (clicks == 0 && !first) {
+                emitter.send(SseEmitter.event().comment(KEEP_ALIVE));
+            } else {
+                emitter.send(SseEmitter.event()
+                                       .name(EVENT_NAME)
+                                       .data(new LiveClicksDTO(urlId, clicks, total), MediaType.APPLICATION_JSON));
+            }
+        } finally {
+            synchronized (this) {
+                sending = false;
+                lastSentMillis = nowMillis;
+            }
+        }
+    }
+}
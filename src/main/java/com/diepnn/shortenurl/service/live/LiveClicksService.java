@@ -0,0 +1,331 @@
+package com.diepnn.shortenurl.service.live;
+
+import com.diepnn.shortenurl.common.properties.LiveClicksProperties;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.exception.NotFoundException;
+import com.diepnn.shortenurl.exception.TooManyRequestException;
+import com.diepnn.shortenurl.repository.UrlInfoRepository;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.BaseService;
+import com.diepnn.shortenurl.utils.CounterMapUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the clicks of a link to its owner as server-sent events, one update per {@code interval-ms} at most.
+ *
+ * <p>Resolving a link only adds to an in-memory counter, and only when some instance has a subscriber for the
+ * link: instances share the links they watch through the {@code url-live-clicks::watched} sorted set every
+ * {@code watch-refresh-ms}. A single dispatcher thread, every {@code interval-ms}, publishes the clicks counted on
+ * this instance to the {@code url-live-clicks} channel, then hands the clicks received from every instance to the
+ * subscribers of this instance. Each subscriber coalesces them into one pending update, see
+ * {@link LiveClickSubscriber}, and has at most one send in flight on the {@code sender-threads} pool, so a slow
+ * client delays its own updates but never the dispatcher, the other subscribers beyond one sender thread, or the
+ * redirects. Clicks of a publication that failed are not streamed; the click rollup still counts them.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.live_clicks.subscribers}: streams open on this instance</li>
+ *     <li>{@code url_visit.live_clicks.sent}: updates and keep-alives sent</li>
+ *     <li>{@code url_visit.live_clicks.failures}: exchanges through Redis that failed</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveClicksService extends BaseService {
+    static final String CHANNEL = "url-live-clicks";
+    private static final String WATCHED_KEY = "url-live-clicks::watched";
+
+    /**
+     * Refreshes an instance can miss before the links it watches stop being counted elsewhere
+     */
+    private static final int MISSED_REFRESHES = 3;
+
+    private final LiveClicksProperties props;
+    private final RedisTemplate<String, byte[]> bytesRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final UrlInfoRepository urlInfoRepository;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Clicks resolved on this instance since the last publication, of the links watched by any instance
+     */
+    private final Map<Long, Long> counted = new ConcurrentHashMap<>();
+
+    /**
+     * Clicks published by every instance since the last dispatch, of the links watched by this instance
+     */
+    private final Map<Long, Long> received = new ConcurrentHashMap<>();
+
+    private final Map<Long, List<LiveClickSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private volatile Set<Long> watched = Set.of();
+    private volatile long lastRefreshMillis;
+
+    private ScheduledExecutorService dispatcher;
+    private ExecutorService sender;
+    private Counter sentCounter;
+    private Counter failureCounter;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("url_visit.live_clicks.subscribers", subscriberCount, AtomicInteger::get)
+             .description("Live click streams open")
+             .register(meterRegistry);
+        sentCounter = Counter.builder("url_visit.live_clicks.sent")
+                             .description("Live click updates and keep-alives sent")
+                             .register(meterRegistry);
+        failureCounter = Counter.builder("url_visit.live_clicks.failures")
+                                .description("Live click exchanges through Redis that failed")
+                                .register(meterRegistry);
+
+        redisMessageListenerContainer.addMessageListener(this::onMessage, new ChannelTopic(CHANNEL));
+        sender = Executors.newFixedThreadPool(props.getSenderThreads(),
+                                              Thread.ofPlatform().name("live-clicks-sender-", 0).daemon().factory());
+        dispatcher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("live-clicks-dispatcher").daemon().factory());
+        dispatcher.scheduleWithFixedDelay(() -> tick(System.currentTimeMillis()), props.getIntervalMs(), props.getIntervalMs(),
+                                          TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Close every stream; clients reconnect to another instance.
+     */
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        sender.shutdownNow();
+        subscribers.values().forEach(list -> list.forEach(subscriber -> subscriber.getEmitter().complete()));
+    }
+
+    /**
+     * Count a click of a link for its live streams. Costs a set lookup when no instance watches the link.
+     *
+     * @param urlId the resolved URL id, ignored when null
+     */
+    public void record(Long urlId) {
+        if (urlId != null && watched.contains(urlId)) {
+            counted.merge(urlId, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Open a stream of the clicks of a link. The first update carries the stored total clicks.
+     *
+     * @param urlId the URL id
+     * @param userDetails the owner of the URL
+     * @return the stream, closed after {@code timeout-ms}
+     * @throws NotFoundException if the URL does not exist
+     * @throws AccessDeniedException if the URL does not belong to the user
+     * @throws TooManyRequestException if {@code max-subscribers} streams are open on this instance
+     */
+    public SseEmitter subscribe(Long urlId, CustomUserDetails userDetails) {
+        UrlInfo urlInfo = urlInfoRepository.findById(urlId)
+                                           .orElseThrow(() -> new NotFoundException("URL not found"));
+        if (notBelongToCurrentUser(urlInfo.getUserId(), userDetails.getId())) {
+            throw new AccessDeniedException("URL not belongs to current user");
+        }
+
+        SseEmitter emitter = new SseEmitter(props.getTimeoutMs());
+        register(urlInfo.getId(), emitter, urlInfo.getTotalClicks() == null ? 0 : urlInfo.getTotalClicks());
+        return emitter;
+    }
+
+    LiveClickSubscriber register(long urlId, SseEmitter emitter, long totalClicks) {
+        if (subscriberCount.incrementAndGet() > props.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw new TooManyRequestException("Too many live click streams, please try again later");
+        }
+
+        LiveClickSubscriber subscriber = new LiveClickSubscriber(urlId, emitter, totalClicks);
+        subscribers.compute(urlId, (key, list) -> {
+            List<LiveClickSubscriber> next = list == null ? new CopyOnWriteArrayList<>() : list;
+            next.add(subscriber);
+            return next;
+        });
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(e -> unregister(subscriber));
+
+        // Count the link from the next clicks on, other instances follow at their next refresh
+        if (!watched.contains(urlId)) {
+            Set<Long> next = new HashSet<>(watched);
+            next.add(urlId);
+            watched = next;
+            lastRefreshMillis = 0;
+        }
+
+        return subscriber;
+    }
+
+    void unregister(LiveClickSubscriber subscriber) {
+        boolean[] removed = {false};
+        subscribers.computeIfPresent(subscriber.getUrlId(), (key, list) -> {
+            removed[0] = list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+
+        if (removed[0]) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Exchange the clicks with the other instances, then update the subscribers. Never throws, so the dispatcher
+     * keeps running.
+     */
+    void tick(long now) {
+        try {
+            if (now - lastRefreshMillis >= props.getWatchRefreshMs()) {
+                refreshWatched(now);
+                lastRefreshMillis = now;
+            }
+
+            publish();
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.warn("Failed to exchange live clicks", e);
+        }
+
+        try {
+            dispatch(now, sender);
+        } catch (RuntimeException e) {
+            log.error("Failed to dispatch live clicks", e);
+        }
+    }
+
+    /**
+     * Register the links watched here and read the ones watched anywhere.
+     */
+    private void refreshWatched(long now) {
+        Set<Long> local = new HashSet<>(subscribers.keySet());
+        byte[] key = bytes(WATCHED_KEY);
+        double expireAt = now + (double) MISSED_REFRESHES * props.getWatchRefreshMs();
+        bytesRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long urlId : local) {
+                connection.zSetCommands().zAdd(key, expireAt, bytes(Long.toString(urlId)));
+            }
+
+            connection.zSetCommands().zRemRangeByScore(key, Double.NEGATIVE_INFINITY, now);
+            return null;
+        });
+
+        Set<byte[]> members = bytesRedisTemplate.opsForZSet().rangeByScore(WATCHED_KEY, now, Double.POSITIVE_INFINITY);
+        if (members != null) {
+            for (byte[] member : members) {
+                local.add(Long.parseLong(new String(member, StandardCharsets.UTF_8)));
+            }
+        }
+
+        // Links subscribed to during the refresh
+        local.addAll(subscribers.keySet());
+        watched = local;
+    }
+
+    /**
+     * Publish the clicks counted here as {@code urlId:clicks} pairs separated by commas.
+     */
+    private void publish() {
+        Map<Long, Long> clicks = CounterMapUtils.drain(counted);
+        if (clicks.isEmpty()) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder(clicks.size() * 16);
+        clicks.forEach((urlId, count) -> {
+            if (!message.isEmpty()) {
+                message.append(',');
+            }
+
+            message.append(urlId).append(':').append(count);
+        });
+        bytesRedisTemplate.convertAndSend(CHANNEL, bytes(message.toString()));
+    }
+
+    /**
+     * Receive the clicks published by an instance, this one included. Runs on the listener container thread.
+     */
+    void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int start = 0;
+        while (start < body.length()) {
+            int end = body.indexOf(',', start);
+            if (end < 0) {
+                end = body.length();
+            }
+
+            int separator = body.indexOf(':', start);
+            if (separator > start && separator < end) {
+                try {
+                    long urlId = Long.parseLong(body, start, separator, 10);
+                    long clicks = Long.parseLong(body, separator + 1, end, 10);
+                    if (subscribers.containsKey(urlId)) {
+                        received.merge(urlId, clicks, Long::sum);
+                    }
+                } catch (NumberFormatException e) {
+                    log.debug("Ignored malformed live clicks {}", body.substring(start, end));
+                }
+            }
+
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Hand the received clicks to the subscribers, the sends they need run on the executor.
+     */
+    void dispatch(long now, Executor executor) {
+        Map<Long, Long> clicks = CounterMapUtils.drain(received);
+        subscribers.forEach((urlId, list) -> {
+            long count = clicks.getOrDefault(urlId, 0L);
+            for (LiveClickSubscriber subscriber : list) {
+                if (subscriber.offer(count, now, props.getHeartbeatIntervalMs())) {
+                    executor.execute(() -> send(subscriber, now));
+                }
+            }
+        });
+    }
+
+    private void send(LiveClickSubscriber subscriber, long now) {
+        try {
+            subscriber.send(now);
+            sentCounter.increment();
+        } catch (Exception e) {
+            // The client went away or the stream is already closed
+            log.debug("Closed live clicks stream of URL {}", subscriber.getUrlId(), e);
+            unregister(subscriber);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
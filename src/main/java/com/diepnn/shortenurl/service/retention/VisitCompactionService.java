@@ -0,0 +1,253 @@
+package com.diepnn.shortenurl.service.retention;
+
+import com.diepnn.shortenurl.common.properties.ClickRollupProperties;
+import com.diepnn.shortenurl.common.properties.VisitCompactionProperties;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository.DailyUniqueVisitors;
+import com.diepnn.shortenurl.repository.UrlVisitCompactionRepository;
+import com.diepnn.shortenurl.repository.UrlVisitCompactionRepository.CompactedVisit;
+import com.diepnn.shortenurl.service.stats.UniqueVisitorService;
+import com.diepnn.shortenurl.service.stats.VisitSampler;
+import com.diepnn.shortenurl.utils.DateUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compacts the raw visits older than {@code compact-after-days} into the day buckets of the click rollup, then
+ * deletes them. Clicks and the country and user agent family histograms were added to the day buckets of
+ * {@code url_click_rollup} and {@code url_dimension_rollup} when the visits were recorded, so only the unique
+ * visitors of the days, read from the daily sketches of {@link UniqueVisitorService}, are kept on the day buckets
+ * before the sketches expire.
+ *
+ * <p>Only visits the rollup counted are deleted. The rollup watermark, recorded when an instance starts with the
+ * click rollup enabled and dropped when one starts with it disabled, is the first visit id counted: the visits
+ * below it, recorded before the rollup or while it was disabled, are kept until the retention. So are bot visits
+ * when the rollup excludes them, and nothing is compacted while the rollup is disabled.</p>
+ *
+ * <p>Visits are walked by id from a checkpoint, in chunks of {@code chunk-size}, up to the first visit of the
+ * last {@code compact-after-days} days. A chunk keeps the unique visitors of its days and moves the checkpoint
+ * past it in one transaction that holds the checkpoint row, so a chunk is compacted once even if the instance
+ * dies mid-way or several instances run at once. The visits below the checkpoint are then deleted in statements
+ * of {@code delete-batch-size} rows; a run that failed deleting resumes from the oldest ids.</p>
+ *
+ * <p>Runs on the {@code databaseExecutor}, one at a time per instance, pausing {@code pause-ms} after each
+ * statement. A run stops as soon as visits are being sampled, the redirect traffic outweighing the recording
+ * capacity, and at most {@code max-chunks-per-run} chunks are compacted per run.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.compaction.compacted}: visits compacted</li>
+ *     <li>{@code url_visit.compaction.deleted}: compacted visits deleted</li>
+ *     <li>{@code url_visit.compaction.throttled}: runs stopped early because visits are being sampled</li>
+ *     <li>{@code url_visit.compaction.failures}: compaction runs that failed</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VisitCompactionService {
+    private final VisitCompactionProperties props;
+    private final ClickRollupProperties clickRollupProps;
+    private final UrlVisitCompactionRepository urlVisitCompactionRepository;
+    private final UrlClickRollupRepository urlClickRollupRepository;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final VisitSampler visitSampler;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private Counter compactedCounter;
+    private Counter deletedCounter;
+    private Counter throttledCounter;
+    private Counter failureCounter;
+
+    /**
+     * Outcome of a compacted chunk.
+     *
+     * @param compacted number of visits compacted
+     * @param fromVisitId the rollup watermark, no visit below it is deleted
+     * @param nextVisitId the checkpoint after the chunk
+     */
+    record Chunk(int compacted, long fromVisitId, long nextVisitId) {
+    }
+
+    @PostConstruct
+    public void init() {
+        compactedCounter = Counter.builder("url_visit.compaction.compacted")
+                                  .description("Raw visits compacted")
+                                  .register(meterRegistry);
+        deletedCounter = Counter.builder("url_visit.compaction.deleted")
+                                .description("Compacted raw visits deleted")
+                                .register(meterRegistry);
+        throttledCounter = Counter.builder("url_visit.compaction.throttled")
+                                  .description("Visit compaction runs stopped early while visits are sampled")
+                                  .register(meterRegistry);
+        failureCounter = Counter.builder("url_visit.compaction.failures")
+                                .description("Visit compaction runs that failed")
+                                .register(meterRegistry);
+    }
+
+    /**
+     * Record the rollup watermark when the click rollup counts the visits recorded from now on, drop it otherwise.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recordRollupWatermark() {
+        try {
+            if (clickRollupProps.isEnabled()) {
+                urlVisitCompactionRepository.createRollupWatermark();
+            } else {
+                urlVisitCompactionRepository.deleteRollupWatermark();
+            }
+        } catch (Exception e) {
+            log.error("Failed to record the click rollup watermark", e);
+        }
+    }
+
+    /**
+     * Compact the old visits, unless a run is still going on this instance.
+     */
+    @Async("databaseExecutor")
+    @Scheduled(fixedDelayString = "${app.url-visit.compaction.compact-interval-ms}")
+    public void compact() {
+        if (!props.isEnabled() || !clickRollupProps.isEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            compact(DateUtils.nowTruncatedToSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.error("Failed to compact visits", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    void compact(LocalDateTime now) throws InterruptedException {
+        // Whole days only, so the unique visitors of a day are read once its sketch is complete
+        LocalDateTime cutoff = now.toLocalDate().minusDays(props.getCompactAfterDays()).atStartOfDay();
+        if (urlVisitCompactionRepository.findNextVisitId() == null) {
+            urlVisitCompactionRepository.createCheckpoint();
+        }
+
+        long compacted = 0;
+        for (int i = 0; i < props.getMaxChunksPerRun(); i++) {
+            if (visitSampler.getWeight() > 1) {
+                throttledCounter.increment();
+                break;
+            }
+
+            Chunk chunk = transactionTemplate.execute(status -> compactChunk(cutoff));
+            if (chunk == null) {
+                log.debug("Visit compaction is running on another instance");
+                break;
+            }
+
+            compacted += chunk.compacted();
+            compactedCounter.increment(chunk.compacted());
+            deleteBetween(chunk.fromVisitId(), chunk.nextVisitId());
+            if (chunk.compacted() < props.getChunkSize()) {
+                break;
+            }
+
+            Thread.sleep(props.getPauseMs());
+        }
+
+        if (compacted > 0) {
+            log.info("Compacted {} visits before {}", compacted, cutoff);
+        }
+    }
+
+    /**
+     * Keep the unique visitors of the days of the next chunk of visits before the cutoff and move the checkpoint
+     * past it. Starts from the rollup watermark when the checkpoint is below it.
+     */
+    private Chunk compactChunk(LocalDateTime cutoff) {
+        Long checkpoint = urlVisitCompactionRepository.lockNextVisitId();
+        if (checkpoint == null) {
+            return null;
+        }
+
+        Long watermark = urlVisitCompactionRepository.findRollupWatermark();
+        if (watermark == null) {
+            log.warn("No click rollup watermark, visits are not compacted until an instance starts with the rollup enabled");
+            return new Chunk(0, checkpoint, checkpoint);
+        }
+
+        long nextVisitId = Math.max(checkpoint, watermark);
+
+        Map<Long, Set<LocalDate>> days = new TreeMap<>();
+        int compacted = 0;
+        long next = nextVisitId;
+        for (CompactedVisit visit : urlVisitCompactionRepository.findVisitsFrom(nextVisitId, props.getChunkSize())) {
+            // Ids follow the visit order, the visits after it are recent too
+            if (!visit.visitedDatetime().isBefore(cutoff)) {
+                break;
+            }
+
+            compacted++;
+            next = visit.id() + 1;
+            // Visit of a URL deleted since, its buckets are gone
+            if (visit.urlId() != null) {
+                days.computeIfAbsent(visit.urlId(), k -> new TreeSet<>()).add(visit.visitedDatetime().toLocalDate());
+            }
+        }
+
+        if (compacted == 0) {
+            return new Chunk(0, watermark, nextVisitId);
+        }
+
+        List<DailyUniqueVisitors> visitors = new ArrayList<>();
+        uniqueVisitorService.countDaily(days).forEach((urlId, daily) -> daily.forEach((day, count) -> {
+            // An expired sketch counts 0, the value kept when it was still there stays
+            if (count > 0) {
+                visitors.add(new DailyUniqueVisitors(urlId, day, count));
+            }
+        }));
+
+        visitors.sort(Comparator.comparingLong(DailyUniqueVisitors::urlId).thenComparing(DailyUniqueVisitors::day));
+        urlClickRollupRepository.saveUniqueVisitors(visitors, props.getChunkSize());
+        urlVisitCompactionRepository.saveNextVisitId(next);
+        return new Chunk(compacted, watermark, next);
+    }
+
+    /**
+     * Delete the compacted visits counted by the rollup, including those a previous run failed to delete.
+     */
+    private void deleteBetween(long fromVisitId, long nextVisitId) throws InterruptedException {
+        if (fromVisitId >= nextVisitId) {
+            return;
+        }
+
+        int rows;
+        do {
+            Thread.sleep(props.getPauseMs());
+            rows = urlVisitCompactionRepository.deleteVisitsBetween(fromVisitId, nextVisitId, clickRollupProps.isExcludeBots(),
+                                                                   props.getDeleteBatchSize());
+            deletedCounter.increment(rows);
+        } while (rows >= props.getDeleteBatchSize() && visitSampler.getWeight() == 1);
+    }
+}
@@ -0,0 +1,208 @@
+package com.diepnn.shortenurl.service.retention;
+
+import com.diepnn.shortenurl.common.enums.ClickGranularity;
+import com.diepnn.shortenurl.common.properties.ClickRollupProperties;
+import com.diepnn.shortenurl.common.properties.VisitRetentionProperties;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository;
+import com.diepnn.shortenurl.repository.UrlVisitBatchRepository;
+import com.diepnn.shortenurl.repository.UrlVisitPartitionRepository;
+import com.diepnn.shortenurl.repository.UrlVisitPartitionRepository.Partition;
+import com.diepnn.shortenurl.utils.DateUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Purges the visits of {@code url_visit} older than {@code retention-days}.
+ *
+ * <p>When the table is partitioned by month, see {@code url_visit_partitioning.sql}, a run first creates the
+ * partitions of the next {@code future-months} so visits never pile up in {@code p_future}, then drops the
+ * partitions whose whole month is past the retention: a metadata change whatever their size, without undo
+ * or row locks.</p>
+ *
+ * <p>Otherwise, visits are deleted oldest first in transactions of at most {@code delete-batch-size} rows, and at
+ * most {@code max-delete-batches} per run, so neither the locks nor the undo log of a purge grow with the
+ * backlog and a large backlog is worked off over several runs.</p>
+ *
+ * <p>Minute and hour buckets of {@code url_click_rollup} are pruned the same way once they are older than the
+ * largest range a stats query may span at their granularity, {@code click-rollup.max-buckets} buckets back from
+ * now; day buckets are kept.</p>
+ *
+ * <p>Every instance runs the purge; a run that races another on the same partitions fails and the next run
+ * starts again from the current partitions.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.retention.deleted}: visits deleted in batches</li>
+ *     <li>{@code url_visit.retention.partitions.dropped}: monthly partitions dropped</li>
+ *     <li>{@code url_visit.retention.click_buckets.deleted}: minute and hour click buckets pruned</li>
+ *     <li>{@code url_visit.retention.failures}: purge runs that failed</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VisitRetentionService {
+    private static final ClickGranularity[] PRUNED_GRANULARITIES = {ClickGranularity.MINUTE, ClickGranularity.HOUR};
+
+    private final VisitRetentionProperties props;
+    private final UrlVisitPartitionRepository urlVisitPartitionRepository;
+    private final UrlVisitBatchRepository urlVisitBatchRepository;
+    private final ClickRollupProperties clickRollupProperties;
+    private final UrlClickRollupRepository urlClickRollupRepository;
+    private final MeterRegistry meterRegistry;
+
+    private Counter deletedCounter;
+    private Counter droppedCounter;
+    private Counter bucketsDeletedCounter;
+    private Counter failureCounter;
+
+    @PostConstruct
+    public void init() {
+        deletedCounter = Counter.builder("url_visit.retention.deleted")
+                                .description("Expired visits deleted in batches")
+                                .register(meterRegistry);
+        droppedCounter = Counter.builder("url_visit.retention.partitions.dropped")
+                                .description("Expired url_visit partitions dropped")
+                                .register(meterRegistry);
+        bucketsDeletedCounter = Counter.builder("url_visit.retention.click_buckets.deleted")
+                                       .description("Minute and hour click buckets pruned")
+                                       .register(meterRegistry);
+        failureCounter = Counter.builder("url_visit.retention.failures")
+                                .description("Visit retention runs that failed")
+                                .register(meterRegistry);
+    }
+
+    /**
+     * Purge the expired visits.
+     */
+    @Scheduled(fixedDelayString = "${app.url-visit.retention.purge-interval-ms}")
+    public void purge() {
+        if (!props.isEnabled()) {
+            return;
+        }
+
+        try {
+            purge(DateUtils.nowTruncatedToSeconds());
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.error("Failed to purge expired visits", e);
+        }
+    }
+
+    void purge(LocalDateTime now) {
+        purgeVisits(now);
+        pruneClickBuckets(now);
+    }
+
+    private void purgeVisits(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusDays(props.getRetentionDays());
+        List<Partition> partitions = urlVisitPartitionRepository.findPartitions();
+        if (partitions.isEmpty()) {
+            deleteBatches(cutoff);
+            return;
+        }
+
+        if (createFuturePartitions(partitions, YearMonth.from(now))) {
+            partitions = urlVisitPartitionRepository.findPartitions();
+        }
+
+        dropExpiredPartitions(partitions, cutoff);
+    }
+
+    /**
+     * @return whether partitions were added
+     */
+    private boolean createFuturePartitions(List<Partition> partitions, YearMonth currentMonth) {
+        Long lastBound = null;
+        boolean splitFuture = false;
+        for (Partition partition : partitions) {
+            if (partition.lessThan() == null) {
+                splitFuture = true;
+            } else {
+                lastBound = partition.lessThan();
+            }
+        }
+
+        // The month a partition holds ends at its bound
+        YearMonth next = lastBound == null
+                         ? currentMonth
+                         : YearMonth.from(LocalDateTime.ofEpochSecond(lastBound - 1, 0, ZoneOffset.UTC)).plusMonths(1);
+        YearMonth last = currentMonth.plusMonths(props.getFutureMonths());
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+
+        if (months.isEmpty()) {
+            return false;
+        }
+
+        urlVisitPartitionRepository.addMonthlyPartitions(months, splitFuture);
+        log.info("Added url_visit partitions from {} to {}", months.getFirst(), months.getLast());
+        return true;
+    }
+
+    private void dropExpiredPartitions(List<Partition> partitions, LocalDateTime cutoff) {
+        long cutoffEpoch = cutoff.toEpochSecond(ZoneOffset.UTC);
+        List<String> expired = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (partition.lessThan() != null && partition.lessThan() <= cutoffEpoch) {
+                expired.add(partition.name());
+            }
+        }
+
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        urlVisitPartitionRepository.dropPartitions(expired);
+        droppedCounter.increment(expired.size());
+        log.info("Dropped expired url_visit partitions {}", expired);
+    }
+
+    private void pruneClickBuckets(LocalDateTime now) {
+        for (ClickGranularity granularity : PRUNED_GRANULARITIES) {
+            LocalDateTime cutoff = granularity.bucketStartBefore(now, clickRollupProperties.getMaxBuckets());
+            long deleted = 0;
+            for (int batch = 0; batch < props.getMaxDeleteBatches(); batch++) {
+                int rows = urlClickRollupRepository.deleteBucketsBefore(granularity, cutoff, props.getDeleteBatchSize());
+                deleted += rows;
+                bucketsDeletedCounter.increment(rows);
+                if (rows < props.getDeleteBatchSize()) {
+                    break;
+                }
+            }
+
+            if (deleted > 0) {
+                log.info("Deleted {} {} click buckets before {}", deleted, granularity, cutoff);
+            }
+        }
+    }
+
+    private void deleteBatches(LocalDateTime cutoff) {
+        long deleted = 0;
+        for (int batch = 0; batch < props.getMaxDeleteBatches(); batch++) {
+            int rows = urlVisitBatchRepository.deleteVisitedBefore(cutoff, props.getDeleteBatchSize());
+            deleted += rows;
+            deletedCounter.increment(rows);
+            if (rows < props.getDeleteBatchSize()) {
+                break;
+            }
+        }
+
+        if (deleted > 0) {
+            log.info("Deleted {} visits before {}", deleted, cutoff);
+        }
+    }
+}
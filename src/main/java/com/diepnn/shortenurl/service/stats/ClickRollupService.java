@@ -0,0 +1,299 @@
+package com.diepnn.shortenurl.service.stats;
+
+import com.diepnn.shortenurl.common.enums.ClickGranularity;
+import com.diepnn.shortenurl.common.enums.VisitDimension;
+import com.diepnn.shortenurl.common.properties.ClickRollupProperties;
+import com.diepnn.shortenurl.dto.UserAgentInfo;
+import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository.BucketDelta;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository.DimensionDelta;
+import com.diepnn.shortenurl.utils.CounterMapUtils;
+import com.diepnn.shortenurl.utils.DateUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-aggregates visits into per-URL click counters so stats never scan {@code url_visit}.
+ *
+ * <p>Each visit increments an in-memory counter for its minute, hour and day bucket. A scheduled flusher
+ * drains the counters and, in one transaction, upserts them into {@code url_click_rollup} and adds the
+ * minute totals to {@code url_info.total_clicks}. The visit country and user agent family are counted per day
+ * the same way into {@code url_dimension_rollup}. Bot visits are not counted when {@code exclude-bots} is set.
+ * Repeat visits collapsed by {@link VisitDeduplicator} are added to {@code url_info.duplicate_clicks} only.
+ * Counters are removed from the map one by one, so a visit counted concurrently either makes it into this flush
+ * or stays for the next one. A failed flush merges the drained counters back. Counters not flushed yet are lost
+ * if the instance dies, which bounds the loss to one flush interval.</p>
+ *
+ * <p>Sources that replay visits and must commit the counters together with their own progress count them
+ * into a {@link #newBatch() Batch} instead and write it with {@link #write(Batch)} in their transaction.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.click_rollup.pending}: buckets waiting to be flushed</li>
+ *     <li>{@code url_visit.click_rollup.flushed}: clicks written to the rollup</li>
+ *     <li>{@code url_visit.click_rollup.failures}: flushes that failed and were merged back</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClickRollupService {
+    private static final ClickGranularity[] GRANULARITIES = ClickGranularity.values();
+    private static final Comparator<BucketDelta> BUCKET_ORDER = Comparator.comparingLong(BucketDelta::urlId)
+                                                                          .thenComparing(BucketDelta::granularity)
+                                                                          .thenComparing(BucketDelta::bucketStart);
+    private static final Comparator<DimensionDelta> DIMENSION_ORDER = Comparator.comparingLong(DimensionDelta::urlId)
+                                                                               .thenComparing(DimensionDelta::dimension)
+                                                                               .thenComparing(DimensionDelta::day)
+                                                                               .thenComparing(DimensionDelta::value);
+    private static final int MAX_DIMENSION_VALUE_LENGTH = 64;
+    private static final String UNKNOWN_VALUE = "Unknown";
+
+    private final ClickRollupProperties props;
+    private final UrlClickRollupRepository urlClickRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<BucketKey, Long> pending = new ConcurrentHashMap<>();
+    private final Map<DimensionKey, Long> pendingDimensions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> pendingDuplicates = new ConcurrentHashMap<>();
+
+    private Counter flushedCounter;
+    private Counter failureCounter;
+
+    private record BucketKey(long urlId, ClickGranularity granularity, LocalDateTime bucketStart) {
+    }
+
+    private record DimensionKey(long urlId, VisitDimension dimension, LocalDate day, String value) {
+    }
+
+    /**
+     * Counters of a set of visits, kept apart from the pending counters. Not thread-safe.
+     */
+    public static final class Batch {
+        private final Map<BucketKey, Long> buckets = new HashMap<>();
+        private final Map<DimensionKey, Long> dimensions = new HashMap<>();
+        private final Map<Long, Long> duplicates = new HashMap<>();
+        private final boolean excludeBots;
+
+        private Batch(boolean excludeBots) {
+            this.excludeBots = excludeBots;
+        }
+
+        /**
+         * Count a visit, see {@link ClickRollupService#record}.
+         *
+         * @param urlId the visited URL id, ignored when null
+         * @param userInfo the visitor, the visit time (UTC) is now when missing
+         * @param userAgent the classified user agent of the visitor
+         */
+        public void record(Long urlId, UserInfo userInfo, UserAgentInfo userAgent) {
+            if (urlId != null && !(excludeBots && userAgent.bot())) {
+                count(buckets, dimensions, urlId, userInfo, userAgent, 1);
+            }
+        }
+
+        public boolean isEmpty() {
+            return buckets.isEmpty() && dimensions.isEmpty() && duplicates.isEmpty();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("url_visit.click_rollup.pending", this, s -> s.pending.size() + s.pendingDimensions.size() + s.pendingDuplicates.size())
+             .description("Click buckets waiting to be flushed")
+             .register(meterRegistry);
+        flushedCounter = Counter.builder("url_visit.click_rollup.flushed")
+                                .description("Clicks written to the click rollup")
+                                .register(meterRegistry);
+        failureCounter = Counter.builder("url_visit.click_rollup.failures")
+                                .description("Click rollup flushes that failed")
+                                .register(meterRegistry);
+    }
+
+    /**
+     * Count a visit in the buckets of every granularity and in the daily counters of its country and
+     * user agent family.
+     *
+     * @param urlId the visited URL id, ignored when null
+     * @param userInfo the visitor, the visit time (UTC) is now when missing
+     * @param userAgent the classified user agent of the visitor
+     */
+    public void record(Long urlId, UserInfo userInfo, UserAgentInfo userAgent) {
+        record(urlId, userInfo, userAgent, 1);
+    }
+
+    /**
+     * Count a visit standing for {@code weight} visits, see {@link #record(Long, UserInfo, UserAgentInfo)}.
+     *
+     * @param urlId the visited URL id, ignored when null
+     * @param userInfo the visitor, the visit time (UTC) is now when missing
+     * @param userAgent the classified user agent of the visitor
+     * @param weight the number of visits counted
+     */
+    public void record(Long urlId, UserInfo userInfo, UserAgentInfo userAgent, long weight) {
+        if (!props.isEnabled() || urlId == null || (props.isExcludeBots() && userAgent.bot())) {
+            return;
+        }
+
+        count(pending, pendingDimensions, urlId, userInfo, userAgent, weight);
+    }
+
+    /**
+     * Count a repeat visit collapsed by {@link VisitDeduplicator}, in the duplicates of the link only.
+     *
+     * @param urlId the visited URL id, ignored when null
+     */
+    public void recordDuplicate(Long urlId) {
+        if (props.isEnabled() && urlId != null) {
+            pendingDuplicates.merge(urlId, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Start a batch of counters to write with {@link #write(Batch)}.
+     */
+    public Batch newBatch() {
+        return new Batch(props.isExcludeBots());
+    }
+
+    /**
+     * Write the pending counters to the database.
+     */
+    @Scheduled(fixedDelayString = "${app.url-visit.click-rollup.flush-interval-ms}")
+    public void flush() {
+        try {
+            flushPending();
+        } catch (Exception e) {
+            log.error("Failed to flush click rollup", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Drain the pending counters and write them in one transaction.
+     *
+     * @return number of clicks written
+     */
+    synchronized long flushPending() {
+        Batch drained = new Batch(false);
+        CounterMapUtils.drain(pending, drained.buckets);
+        CounterMapUtils.drain(pendingDimensions, drained.dimensions);
+        CounterMapUtils.drain(pendingDuplicates, drained.duplicates);
+        if (drained.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> upsert(drained));
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            drained.buckets.forEach((key, count) -> pending.merge(key, count, Long::sum));
+            drained.dimensions.forEach((key, count) -> pendingDimensions.merge(key, count, Long::sum));
+            drained.duplicates.forEach((key, count) -> pendingDuplicates.merge(key, count, Long::sum));
+            throw e;
+        }
+
+        long clicks = clicks(drained);
+        flushedCounter.increment(clicks);
+        return clicks;
+    }
+
+    /**
+     * Write the counters of a batch in the current transaction. Does nothing when the rollup is disabled.
+     *
+     * @param batch the counters to add
+     * @return number of clicks written
+     */
+    public long write(Batch batch) {
+        if (!props.isEnabled() || batch.isEmpty()) {
+            return 0;
+        }
+
+        upsert(batch);
+        long clicks = clicks(batch);
+        flushedCounter.increment(clicks);
+        return clicks;
+    }
+
+    private void upsert(Batch batch) {
+        List<BucketDelta> deltas = new ArrayList<>(batch.buckets.size());
+        Map<Long, Long> totals = new TreeMap<>();
+        batch.buckets.forEach((key, count) -> {
+            deltas.add(new BucketDelta(key.urlId(), key.granularity(), key.bucketStart(), count));
+            if (key.granularity() == ClickGranularity.MINUTE) {
+                totals.merge(key.urlId(), count, Long::sum);
+            }
+        });
+
+        List<DimensionDelta> dimensionDeltas = new ArrayList<>(batch.dimensions.size());
+        batch.dimensions.forEach((key, count) -> dimensionDeltas.add(new DimensionDelta(key.urlId(), key.dimension(), key.day(),
+                                                                                         key.value(), count)));
+
+        // Same lock order on every instance, concurrent flushes of the same buckets wait instead of deadlocking
+        deltas.sort(BUCKET_ORDER);
+        dimensionDeltas.sort(DIMENSION_ORDER);
+        urlClickRollupRepository.upsertBuckets(deltas, props.getBatchSize());
+        urlClickRollupRepository.upsertDimensions(dimensionDeltas, props.getBatchSize());
+        urlClickRollupRepository.addTotalClicks(totals, props.getBatchSize());
+        urlClickRollupRepository.addDuplicateClicks(new TreeMap<>(batch.duplicates), props.getBatchSize());
+    }
+
+    private static void count(Map<BucketKey, Long> buckets, Map<DimensionKey, Long> dimensions, long urlId, UserInfo userInfo,
+                              UserAgentInfo userAgent, long weight) {
+        LocalDateTime visitedAt = userInfo == null || userInfo.visitedDatetime() == null
+                                  ? DateUtils.nowTruncatedToSeconds()
+                                  : userInfo.visitedDatetime();
+        for (ClickGranularity granularity : GRANULARITIES) {
+            buckets.merge(new BucketKey(urlId, granularity, granularity.bucketStart(visitedAt)), weight, Long::sum);
+        }
+
+        LocalDate day = visitedAt.toLocalDate();
+        String country = userInfo == null ? null : userInfo.country();
+        dimensions.merge(new DimensionKey(urlId, VisitDimension.COUNTRY, day, dimensionValue(country)), weight, Long::sum);
+        dimensions.merge(new DimensionKey(urlId, VisitDimension.USER_AGENT_FAMILY, day, userAgent.family()), weight, Long::sum);
+    }
+
+    private static long clicks(Batch batch) {
+        long clicks = 0;
+        for (Map.Entry<BucketKey, Long> entry : batch.buckets.entrySet()) {
+            if (entry.getKey().granularity() == ClickGranularity.MINUTE) {
+                clicks += entry.getValue();
+            }
+        }
+
+        return clicks;
+    }
+
+    private static String dimensionValue(String value) {
+        if (StringUtils.isBlank(value)) {
+            return UNKNOWN_VALUE;
+        }
+
+        return StringUtils.truncate(value.trim(), MAX_DIMENSION_VALUE_LENGTH);
+    }
+}
@@ -0,0 +1,111 @@
+package com.diepnn.shortenurl.service.stats;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the hashes added over the last window in constant memory, with false positives but no false negatives.
+ *
+ * <p>Time is cut into slots of {@code window / slotsPerWindow}; each slot adds to its own Bloom filter and the
+ * filters of the last {@code slotsPerWindow + 1} slots are kept in a ring, the oldest one being cleared when its
+ * cell is reused. A hash added less than a window ago is always found; one added up to one slot more than a window
+ * ago may be found too. Each filter is sized for {@code expectedItems / slotsPerWindow} hashes at
+ * {@code falsePositiveRate / (slotsPerWindow + 1)}, so a lookup across every filter stays within the requested
+ * rate as long as the expected load is not exceeded.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+final class TimeBucketedBloomFilter {
+    private static final long NO_SLOT = Long.MIN_VALUE;
+
+    private final long slotMillis;
+    private final int slotsPerWindow;
+    private final int bitCount;
+    private final int hashCount;
+    private final long[][] filters;
+    private final long[] filterSlots;
+
+    /**
+     * @param windowMillis length of the window in milliseconds
+     * @param slotsPerWindow number of slots per window, more slots collapse less beyond the window but cost more lookups
+     * @param expectedItems number of hashes added per window
+     * @param falsePositiveRate probability that a hash never added is found
+     */
+    TimeBucketedBloomFilter(long windowMillis, int slotsPerWindow, long expectedItems, double falsePositiveRate) {
+        if (windowMillis < slotsPerWindow || slotsPerWindow < 1 || expectedItems < 1
+            || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter parameters");
+        }
+
+        this.slotMillis = windowMillis / slotsPerWindow;
+        this.slotsPerWindow = slotsPerWindow;
+
+        double itemsPerSlot = Math.max(1.0, (double) expectedItems / slotsPerWindow);
+        double rate = falsePositiveRate / (slotsPerWindow + 1);
+        double bits = Math.ceil(-itemsPerSlot * Math.log(rate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE / Long.SIZE, Math.ceil(bits / Long.SIZE));
+        this.bitCount = words * Long.SIZE;
+        this.hashCount = (int) Math.max(1, Math.round(bitCount / itemsPerSlot * Math.log(2)));
+        this.filters = new long[slotsPerWindow + 1][words];
+        this.filterSlots = new long[slotsPerWindow + 1];
+        Arrays.fill(filterSlots, NO_SLOT);
+    }
+
+    /**
+     * Whether the hash was added less than a window ago, adding it otherwise.
+     *
+     * @param hash a well-mixed 64-bit hash of the item
+     * @param nowMillis the current time in milliseconds
+     * @return true if the hash was (probably) added within the window, in which case it is not added again
+     */
+    boolean containsOrAdd(long hash, long nowMillis) {
+        long slot = Math.floorDiv(nowMillis, slotMillis);
+        int current = (int) Math.floorMod(slot, (long) filters.length);
+        if (filterSlots[current] != slot) {
+            Arrays.fill(filters[current], 0L);
+            filterSlots[current] = slot;
+        }
+
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < filters.length; i++) {
+            long age = slot - filterSlots[i];
+            if (filterSlots[i] != NO_SLOT && age >= 0 && age <= slotsPerWindow && contains(filters[i], h1, h2)) {
+                return true;
+            }
+        }
+
+        long[] filter = filters[current];
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            filter[bit >>> 6] |= 1L << bit;
+        }
+
+        return false;
+    }
+
+    int getBitCount() {
+        return bitCount;
+    }
+
+    int getHashCount() {
+        return hashCount;
+    }
+
+    private boolean contains(long[] filter, int h1, int h2) {
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            if ((filter[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Map a 32-bit hash onto {@code [0, bitCount)} without a division.
+     */
+    private int index(int hash) {
+        return (int) (((hash & 0xFFFFFFFFL) * bitCount) >>> 32);
+    }
+}
@@ -0,0 +1,190 @@
+package com.diepnn.shortenurl.service.stats;
+
+import com.diepnn.shortenurl.common.properties.UniqueVisitorProperties;
+import com.diepnn.shortenurl.dto.DailyUniqueVisitorsDTO;
+import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.dto.response.UniqueVisitorsResponse;
+import com.diepnn.shortenurl.utils.DateUtils;
+import com.diepnn.shortenurl.utils.UrlHashUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Approximate unique visitor counts per URL, kept as one Redis HyperLogLog per URL and day.
+ *
+ * <p>A sketch takes at most 12 KB whatever the traffic, and merging the daily sketches of a range with
+ * {@code PFCOUNT} counts a visitor seen on several days once. A visitor is identified by the hash of its
+ * IP address and user agent, the same fields stored in {@code url_visit}. Keys share the URL id as hash tag
+ * so a multi-day {@code PFCOUNT} stays on one cluster slot.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UniqueVisitorService {
+    private static final String VISITORS_KEY_FORMAT = "url-visitors::{%d}::%s";
+
+    private final UniqueVisitorProperties props;
+    private final RedisTemplate<String, byte[]> bytesRedisTemplate;
+
+    /**
+     * Add the visitor to the sketch of the visit day. Failures are logged, a visit is never rejected for it.
+     *
+     * @param urlId the visited URL id, ignored when null
+     * @param userInfo the visitor
+     */
+    public void record(Long urlId, UserInfo userInfo) {
+        if (!props.isEnabled() || urlId == null || userInfo == null) {
+            return;
+        }
+
+        byte[] key = key(urlId, visitDay(userInfo));
+        byte[] visitor = visitorId(userInfo);
+        long ttlSeconds = ttlSeconds();
+        try {
+            bytesRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.hyperLogLogCommands().pfAdd(key, visitor);
+                connection.keyCommands().expire(key, ttlSeconds);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to record unique visitor for URL {}", urlId, e);
+        }
+    }
+
+    /**
+     * Add a batch of visitors in one round trip, with one {@code PFADD} per URL and day. Adding a visitor twice
+     * does not change a sketch, so a batch can be replayed. Failures are thrown to the caller.
+     *
+     * @param visitorsByUrl visitors by visited URL id
+     */
+    public void recordAll(Map<Long, List<UserInfo>> visitorsByUrl) {
+        if (!props.isEnabled() || visitorsByUrl.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<byte[]>> visitorsByKey = new LinkedHashMap<>();
+        visitorsByUrl.forEach((urlId, visitors) -> {
+            for (UserInfo userInfo : visitors) {
+                visitorsByKey.computeIfAbsent(String.format(VISITORS_KEY_FORMAT, urlId, visitDay(userInfo)), k -> new ArrayList<>())
+                             .add(visitorId(userInfo));
+            }
+        });
+
+        long ttlSeconds = ttlSeconds();
+        bytesRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            visitorsByKey.forEach((key, visitors) -> {
+                byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                connection.hyperLogLogCommands().pfAdd(rawKey, visitors.toArray(new byte[0][]));
+                connection.keyCommands().expire(rawKey, ttlSeconds);
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Estimate the unique visitors of each day in the range and of the whole range, in one round trip.
+     *
+     * @param urlId the URL id
+     * @param from first day, inclusive (UTC)
+     * @param to last day, inclusive (UTC)
+     * @return the estimates
+     */
+    public UniqueVisitorsResponse count(Long urlId, LocalDate from, LocalDate to) {
+        List<LocalDate> days = from.datesUntil(to.plusDays(1)).toList();
+        byte[][] keys = new byte[days.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(urlId, days.get(i));
+        }
+
+        List<Object> counts = bytesRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] key : keys) {
+                connection.hyperLogLogCommands().pfCount(key);
+            }
+
+            connection.hyperLogLogCommands().pfCount(keys);
+            return null;
+        });
+
+        List<DailyUniqueVisitorsDTO> daily = new ArrayList<>(days.size());
+        for (int i = 0; i < days.size(); i++) {
+            daily.add(new DailyUniqueVisitorsDTO(days.get(i), toLong(counts.get(i))));
+        }
+
+        return new UniqueVisitorsResponse(toLong(counts.get(days.size())), daily);
+    }
+
+    /**
+     * Estimate the unique visitors of each URL on each of its days, in one round trip.
+     *
+     * @param daysByUrl days by URL id
+     * @return the estimates by URL id and day, 0 for a day whose sketch expired or was never recorded; empty when
+     *         unique visitors are disabled
+     */
+    public Map<Long, Map<LocalDate, Long>> countDaily(Map<Long, Set<LocalDate>> daysByUrl) {
+        if (!props.isEnabled() || daysByUrl.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Object> counts = bytesRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            daysByUrl.forEach((urlId, days) -> {
+                for (LocalDate day : days) {
+                    connection.hyperLogLogCommands().pfCount(key(urlId, day));
+                }
+            });
+            return null;
+        });
+
+        Map<Long, Map<LocalDate, Long>> estimates = new HashMap<>();
+        int index = 0;
+        for (Map.Entry<Long, Set<LocalDate>> entry : daysByUrl.entrySet()) {
+            Map<LocalDate, Long> daily = estimates.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
+            for (LocalDate day : entry.getValue()) {
+                daily.put(day, toLong(counts.get(index++)));
+            }
+        }
+
+        return estimates;
+    }
+
+    private static LocalDate visitDay(UserInfo userInfo) {
+        return (userInfo.visitedDatetime() == null ? DateUtils.nowTruncatedToSeconds() : userInfo.visitedDatetime()).toLocalDate();
+    }
+
+    /**
+     * The sketch of a day is complete at its end, keep it for the whole retention from there.
+     */
+    private long ttlSeconds() {
+        return Duration.ofDays(props.getRetentionDays() + 1L).toSeconds();
+    }
+
+    private byte[] key(Long urlId, LocalDate day) {
+        return String.format(VISITORS_KEY_FORMAT, urlId, day).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 8-byte visitor id, keeps the sketch input small and the raw IP address out of Redis.
+     */
+    static byte[] visitorId(UserInfo userInfo) {
+        String ipAddress = userInfo.ipAddress() == null ? "" : userInfo.ipAddress();
+        String userAgent = userInfo.userAgent() == null ? "" : userInfo.userAgent();
+        return ByteBuffer.allocate(Long.BYTES).putLong(UrlHashUtils.hash(ipAddress + '\n' + userAgent)).array();
+    }
+
+    private static long toLong(Object count) {
+        return count == null ? 0 : ((Number) count).longValue();
+    }
+}
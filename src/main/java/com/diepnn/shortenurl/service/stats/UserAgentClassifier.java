@@ -0,0 +1,109 @@
+package com.diepnn.shortenurl.service.stats;
+
+import com.diepnn.shortenurl.common.properties.UserAgentProperties;
+import com.diepnn.shortenurl.dto.UserAgentInfo;
+import com.diepnn.shortenurl.utils.UserAgentUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Classifies visit user agents with {@link UserAgentUtils#classify}, behind a bounded LRU cache keyed by the raw
+ * header.
+ *
+ * <p>Real traffic comes from few distinct user agents, so almost every visit is a cache hit and skips the string
+ * scans. The cache holds at most {@code app.url-visit.user-agent.cache-size} entries and evicts the least recently
+ * used one beyond that. A miss is classified outside the lock; two threads missing the same header both classify it
+ * and the second put wins with an equal value.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.user_agent.cache.hits}: classifications served from the cache</li>
+ *     <li>{@code url_visit.user_agent.cache.misses}: classifications computed</li>
+ *     <li>{@code url_visit.user_agent.cache.hit_ratio}: hits over lookups since startup</li>
+ *     <li>{@code url_visit.user_agent.cache.size}: user agents in the cache</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+public class UserAgentClassifier {
+    private final UserAgentProperties props;
+    private final MeterRegistry meterRegistry;
+
+    private Map<String, UserAgentInfo> cache;
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        int capacity = props.getCacheSize();
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserAgentInfo> eldest) {
+                return size() > capacity;
+            }
+        };
+
+        hitCounter = Counter.builder("url_visit.user_agent.cache.hits")
+                            .description("User agent classifications served from the cache")
+                            .register(meterRegistry);
+        missCounter = Counter.builder("url_visit.user_agent.cache.misses")
+                             .description("User agent classifications computed")
+                             .register(meterRegistry);
+        Gauge.builder("url_visit.user_agent.cache.hit_ratio", this, UserAgentClassifier::hitRatio)
+             .description("Share of user agent classifications served from the cache")
+             .register(meterRegistry);
+        Gauge.builder("url_visit.user_agent.cache.size", this, UserAgentClassifier::size)
+             .description("User agents in the classification cache")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Classify a user agent.
+     *
+     * @param userAgent the raw {@code User-Agent} header
+     * @return the classification, {@link UserAgentUtils#UNKNOWN_INFO} when the header is missing
+     */
+    public UserAgentInfo classify(String userAgent) {
+        if (StringUtils.isBlank(userAgent)) {
+            return UserAgentUtils.UNKNOWN_INFO;
+        }
+
+        UserAgentInfo cached;
+        synchronized (cache) {
+            cached = cache.get(userAgent);
+        }
+
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+
+        missCounter.increment();
+        UserAgentInfo classified = UserAgentUtils.classify(userAgent);
+        synchronized (cache) {
+            cache.put(userAgent, classified);
+        }
+
+        return classified;
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double lookups = hits + missCounter.count();
+        return lookups == 0 ? 0 : hits / lookups;
+    }
+
+    private int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.diepnn.shortenurl.service.stats;
+
+import com.diepnn.shortenurl.common.properties.VisitDedupProperties;
+import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.utils.UrlHashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Collapses the repeat visits of crawlers, link previews and reloads: once a visit of a link by a visitor (IP and user
+ * agent) is recorded, the visits of the same link by the same visitor over the next {@code window-seconds} are
+ * counted as duplicates in {@code url_info.duplicate_clicks} instead of being recorded.
+ *
+ * <p>Recent visitors are remembered in {@link TimeBucketedBloomFilter}s, so memory is fixed by
+ * {@code expected-visits} however many visits arrive. The filters are split in stripes by hash so concurrent
+ * redirects rarely wait on the same lock. A first visit is taken for a repeat with probability
+ * {@code false-positive-rate}, a repeat is never taken for a first visit. Repeats are collapsed per instance: a
+ * visitor balanced over several instances may be recorded once by each of them.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.dedup.duplicates}: repeat visits collapsed</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+public class VisitDeduplicator {
+    private static final int STRIPES = 16;
+    private static final int SLOTS_PER_WINDOW = 4;
+
+    private final VisitDedupProperties props;
+    private final ClickRollupService clickRollupService;
+    private final MeterRegistry meterRegistry;
+
+    private final TimeBucketedBloomFilter[] stripes = new TimeBucketedBloomFilter[STRIPES];
+
+    private Counter duplicateCounter;
+
+    @PostConstruct
+    public void init() {
+        long windowMillis = props.getWindowSeconds() * 1000L;
+        long expectedPerStripe = Math.max(1, props.getExpectedVisits() / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new TimeBucketedBloomFilter(windowMillis, SLOTS_PER_WINDOW, expectedPerStripe,
+                                                     props.getFalsePositiveRate());
+        }
+
+        duplicateCounter = Counter.builder("url_visit.dedup.duplicates")
+                                  .description("Repeat visits collapsed by the dedup window")
+                                  .register(meterRegistry);
+    }
+
+    /**
+     * Whether a visit must be recorded, a repeat within the window is counted as a duplicate instead.
+     *
+     * @param urlId the visited URL id
+     * @param userInfo the visitor
+     * @return false if the visit repeats one recorded within the window
+     */
+    public boolean admit(Long urlId, UserInfo userInfo) {
+        if (!props.isEnabled() || urlId == null || userInfo == null) {
+            return true;
+        }
+
+        boolean duplicate = seen(hash(urlId, userInfo.ipAddress(), userInfo.userAgent()), System.currentTimeMillis());
+        if (duplicate) {
+            duplicateCounter.increment();
+            clickRollupService.recordDuplicate(urlId);
+        }
+
+        return !duplicate;
+    }
+
+    /**
+     * @return whether the visit was seen within the window, remembering it otherwise
+     */
+    boolean seen(long hash, long nowMillis) {
+        // Top bits of a second mix, the filters index with the low and high halves of the hash
+        TimeBucketedBloomFilter stripe = stripes[(int) ((hash * 0x9e3779b97f4a7c15L) >>> 60)];
+        synchronized (stripe) {
+            return stripe.containsOrAdd(hash, nowMillis);
+        }
+    }
+
+    /**
+     * FNV-1a over the link and visitor, finished with the MurmurHash3 mixer so every bit of the hash depends on
+     * every input.
+     */
+    static long hash(long urlId, String ipAddress, String userAgent) {
+        long hash = UrlHashUtils.FNV_OFFSET_BASIS;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = UrlHashUtils.fnv1a(hash, (int) (urlId >>> (i * 8)));
+        }
+
+        hash = UrlHashUtils.fnv1a(hash, ipAddress);
+        // Separator, so ("1.2.3.4", "5x") and ("1.2.3.45", "x") differ. 0xff never occurs in UTF-8
+        hash = UrlHashUtils.fnv1a(hash, 0xff);
+        hash = UrlHashUtils.fnv1a(hash, userAgent);
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,124 @@
+package com.diepnn.shortenurl.service.stats;
+
+import com.diepnn.shortenurl.common.properties.VisitSamplingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which visits are recorded so a spike of visits cannot saturate the database, and through the
+ * caller-runs fallback of the executor, slow the redirects down.
+ *
+ * <p>Every visit is recorded with weight 1 while recording keeps up. Every {@code adjust-interval-ms}, the sampler
+ * looks at the visits sampled in but not recorded yet and at the average time they took to be recorded since the
+ * last adjustment: when either is above its limit the weight doubles, up to {@code max-weight}, and when both are
+ * below half their limit it halves, back to 1. A visit is kept with probability {@code 1 / weight} and recorded with
+ * that weight, so the sum of the weights is an unbiased estimate of the number of visits. Unique visitors are not
+ * weighted, a visitor whose visits were all sampled out is missed.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.sampling.rate}: fraction of visits recorded, {@code 1 / weight}</li>
+ *     <li>{@code url_visit.sampling.backlog}: visits sampled in and not recorded yet</li>
+ *     <li>{@code url_visit.sampling.skipped}: visits sampled out</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VisitSampler {
+    private final VisitSamplingProperties props;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private volatile int weight = 1;
+
+    private Counter skippedCounter;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("url_visit.sampling.rate", this, s -> 1.0 / s.weight)
+             .description("Fraction of visits recorded")
+             .register(meterRegistry);
+        Gauge.builder("url_visit.sampling.backlog", backlog, AtomicInteger::get)
+             .description("Visits waiting to be recorded")
+             .register(meterRegistry);
+        skippedCounter = Counter.builder("url_visit.sampling.skipped")
+                                .description("Visits sampled out under overload")
+                                .register(meterRegistry);
+    }
+
+    /**
+     * Decide whether a visit is recorded. A visit sampled in must be reported with {@link #done(long)}.
+     *
+     * @return the number of visits the visit stands for when it is recorded, 0 when it is sampled out
+     */
+    public int sample() {
+        int current = weight;
+        if (current > 1 && ThreadLocalRandom.current().nextInt(current) != 0) {
+            skippedCounter.increment();
+            return 0;
+        }
+
+        backlog.incrementAndGet();
+        return current;
+    }
+
+    /**
+     * Report a visit sampled in as recorded, or failed.
+     *
+     * @param startNanos {@link System#nanoTime()} when the visit was sampled in
+     */
+    public void done(long startNanos) {
+        backlog.decrementAndGet();
+        recorded.increment();
+        latencyNanos.add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * The number of visits a recorded visit currently stands for.
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Raise or lower the weight from the backlog and the latency since the last adjustment.
+     */
+    @Scheduled(fixedDelayString = "${app.url-visit.sampling.adjust-interval-ms}")
+    public void adjust() {
+        long count = recorded.sumThenReset();
+        long nanos = latencyNanos.sumThenReset();
+        if (!props.isEnabled()) {
+            weight = 1;
+            return;
+        }
+
+        long latencyMs = count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(nanos / count);
+        int pending = backlog.get();
+        int current = weight;
+        int next = current;
+        if (pending > props.getMaxBacklog() || latencyMs > props.getMaxLatencyMs()) {
+            next = Math.min(current * 2, Math.max(props.getMaxWeight(), 1));
+        } else if (pending <= props.getMaxBacklog() / 2 && latencyMs <= props.getMaxLatencyMs() / 2) {
+            next = Math.max(current / 2, 1);
+        }
+
+        if (next != current) {
+            weight = next;
+            log.warn("Visit sampling changed from 1 in {} to 1 in {} (backlog {}, latency {} ms)", current, next, pending, latencyMs);
+        }
+    }
+}
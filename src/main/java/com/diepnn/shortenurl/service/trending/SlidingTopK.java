@@ -0,0 +1,86 @@
+package com.diepnn.shortenurl.service.trending;
+
+import com.diepnn.shortenurl.common.enums.TrendingWindow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Most clicked items of a sliding window, as a ring of {@link SpaceSavingSketch} with one sketch per slot.
+ *
+ * <p>A click is counted in the sketch of the slot it falls into; a sketch is cleared when its slot comes round
+ * again. The window ranks the current slot with the previous ones, so it covers between
+ * {@code length - slot} and {@code length}. Memory is {@code slots * capacity} counters whatever the number of
+ * items. Not thread-safe.</p>
+ */
+final class SlidingTopK {
+    private final long slotMillis;
+    private final SpaceSavingSketch[] sketches;
+    private final long[] slotNumbers;
+
+    /**
+     * An item with its estimated count.
+     *
+     * @param item the item
+     * @param count clicks in the window, over-estimated by at most the number of clicks divided by the capacity
+     */
+    record Entry(long item, long count) {
+    }
+
+    SlidingTopK(TrendingWindow window, int capacity) {
+        slotMillis = window.getSlotMillis();
+        sketches = new SpaceSavingSketch[window.getSlots()];
+        slotNumbers = new long[window.getSlots()];
+        for (int i = 0; i < sketches.length; i++) {
+            sketches[i] = new SpaceSavingSketch(capacity);
+            slotNumbers[i] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Count clicks of an item. Clicks older than the slot their sketch has moved on to are dropped, they already
+     * left the window.
+     *
+     * @param item the clicked item
+     * @param weight number of clicks
+     * @param nowMillis epoch time of the clicks
+     */
+    void offer(long item, long weight, long nowMillis) {
+        long slotNumber = Math.floorDiv(nowMillis, slotMillis);
+        int index = (int) Math.floorMod(slotNumber, (long) sketches.length);
+        if (slotNumbers[index] > slotNumber) {
+            return;
+        }
+
+        if (slotNumbers[index] != slotNumber) {
+            sketches[index].clear();
+            slotNumbers[index] = slotNumber;
+        }
+
+        sketches[index].offer(item, weight);
+    }
+
+    /**
+     * Merge the slots still in the window and rank their items.
+     *
+     * @param limit maximum number of items returned
+     * @param nowMillis epoch time the window ends at
+     * @return the most clicked items, most clicked first
+     */
+    List<Entry> top(int limit, long nowMillis) {
+        long slotNumber = Math.floorDiv(nowMillis, slotMillis);
+        Map<Long, Long> counts = new HashMap<>();
+        for (int i = 0; i < sketches.length; i++) {
+            if (slotNumbers[i] > slotNumber - sketches.length && slotNumbers[i] <= slotNumber) {
+                sketches[i].forEach((item, count, error) -> counts.merge(item, count, Long::sum));
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>(counts.size());
+        counts.forEach((item, count) -> entries.add(new Entry(item, count)));
+        entries.sort((a, b) -> a.count() != b.count() ? Long.compare(b.count(), a.count()) : Long.compare(a.item(), b.item()));
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+}
@@ -0,0 +1,217 @@
+package com.diepnn.shortenurl.service.trending;
+
+import java.util.Arrays;
+
+/**
+ * Space-Saving heavy hitter sketch over {@code long} items with a fixed number of counters.
+ *
+ * <p>An item already tracked has its counter incremented. A new item takes over the smallest counter and inherits
+ * its count as error, so a count is never under-estimated and over-estimated by at most {@code total / capacity}.
+ * Every item more frequent than that is guaranteed to be tracked.</p>
+ *
+ * <p>Counters live in a binary min-heap of parallel arrays, and an open-addressing table maps an item to
+ * its heap position. Memory is fixed at construction and an offer costs {@code O(log capacity)} without
+ * allocating. Not thread-safe.</p>
+ */
+final class SpaceSavingSketch {
+    private static final int EMPTY = -1;
+
+    private final long[] items;
+    private final long[] counts;
+    private final long[] errors;
+    // Index slot of the item at each heap position, so moving an item in the heap does not probe the index
+    private final int[] slots;
+    private int size;
+
+    // Open-addressing index from item to heap position, linear probing, at most half full
+    private final long[] slotItems;
+    private final int[] slotPositions;
+    private final int slotMask;
+
+    /**
+     * Consumer of the tracked items.
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long item, long count, long error);
+    }
+
+    SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        items = new long[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        slots = new int[capacity];
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        slotItems = new long[tableSize];
+        slotPositions = new int[tableSize];
+        slotMask = tableSize - 1;
+        Arrays.fill(slotPositions, EMPTY);
+    }
+
+    /**
+     * Count occurrences of an item.
+     *
+     * @param item the item
+     * @param weight number of occurrences, positive
+     */
+    void offer(long item, long weight) {
+        int position = find(item);
+        if (position != EMPTY) {
+            counts[position] += weight;
+            siftDown(position);
+            return;
+        }
+
+        if (size < items.length) {
+            position = size++;
+            items[position] = item;
+            counts[position] = weight;
+            errors[position] = 0;
+            index(item, position);
+            siftUp(position);
+            return;
+        }
+
+        // Replace the least counted item, the root of the heap
+        unindex(slots[0]);
+        long min = counts[0];
+        items[0] = item;
+        counts[0] = min + weight;
+        errors[0] = min;
+        index(item, 0);
+        siftDown(0);
+    }
+
+    /**
+     * @param item an item
+     * @return its estimated count, 0 if not tracked
+     */
+    long count(long item) {
+        int position = find(item);
+        return position == EMPTY ? 0 : counts[position];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(items[i], counts[i], errors[i]);
+        }
+    }
+
+    void clear() {
+        size = 0;
+        Arrays.fill(slotPositions, EMPTY);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+
+            if (smallest == position) {
+                return;
+            }
+
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long item = items[a];
+        long count = counts[a];
+        long error = errors[a];
+        items[a] = items[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        items[b] = item;
+        counts[b] = count;
+        errors[b] = error;
+        int slot = slots[a];
+        slots[a] = slots[b];
+        slots[b] = slot;
+        slotPositions[slots[a]] = a;
+        slotPositions[slots[b]] = b;
+    }
+
+    private int find(long item) {
+        int slot = slotOf(item);
+        return slot < 0 ? EMPTY : slotPositions[slot];
+    }
+
+    /**
+     * @return the slot holding the item, or -1
+     */
+    private int slotOf(long item) {
+        for (int slot = hash(item); ; slot = (slot + 1) & slotMask) {
+            if (slotPositions[slot] == EMPTY) {
+                return -1;
+            }
+
+            if (slotItems[slot] == item) {
+                return slot;
+            }
+        }
+    }
+
+    private void index(long item, int position) {
+        int slot = hash(item);
+        while (slotPositions[slot] != EMPTY) {
+            slot = (slot + 1) & slotMask;
+        }
+
+        slotItems[slot] = item;
+        slotPositions[slot] = position;
+        slots[position] = slot;
+    }
+
+    /**
+     * Remove an item from the index, shifting back the entries of its probe run so lookups never stop early.
+     */
+    private void unindex(int hole) {
+        for (int slot = (hole + 1) & slotMask; slotPositions[slot] != EMPTY; slot = (slot + 1) & slotMask) {
+            int home = hash(slotItems[slot]);
+            // Move the entry into the hole unless its home lies cyclically in (hole, slot]
+            if (((slot - home) & slotMask) >= ((slot - hole) & slotMask)) {
+                slotItems[hole] = slotItems[slot];
+                slotPositions[hole] = slotPositions[slot];
+                slots[slotPositions[hole]] = hole;
+                hole = slot;
+            }
+        }
+
+        slotPositions[hole] = EMPTY;
+    }
+
+    private int hash(long item) {
+        long h = item * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & slotMask;
+    }
+}
@@ -0,0 +1,234 @@
+package com.diepnn.shortenurl.service.trending;
+
+import com.diepnn.shortenurl.common.enums.TrendingWindow;
+import com.diepnn.shortenurl.common.properties.TrendingProperties;
+import com.diepnn.shortenurl.dto.TrendingLinkDTO;
+import com.diepnn.shortenurl.dto.response.TrendingLinksResponse;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.repository.UrlInfoRepository;
+import com.diepnn.shortenurl.utils.CounterMapUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Links clicked the most over the last minute, hour and day, across all instances.
+ *
+ * <p>Each instance counts the links it resolves in one {@link SlidingTopK} per {@link TrendingWindow}, so memory
+ * stays at {@code capacity} counters per window slot however many links are clicked. A redirect only merges its
+ * click into a concurrent map keyed by link and second, like {@code LiveClicksService}; the publisher drains the
+ * map into the sketches, which no other thread touches, so resolving a link takes no lock. The leaderboards are
+ * published to Redis every {@code publish-interval-ms} as one sorted set per instance and window, replaced
+ * atomically with {@code RENAME}, and the instance is registered in {@code url-trending::nodes} with the
+ * publication time. A query sums the sorted sets of the instances that published recently; sets of stopped
+ * instances expire on their own.</p>
+ *
+ * <p>Counts are Space-Saving estimates: a link is never under-counted, and a link clicked more than
+ * {@code clicks / capacity} times in a slot is always tracked.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.trending.publish.failures}: publications to Redis that failed</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingLinksService {
+    private static final String NODES_KEY = "url-trending::nodes";
+    private static final String LEADERBOARD_KEY_FORMAT = "url-trending::{%s}::%s";
+    private static final String TEMP_SUFFIX = "::tmp";
+
+    /**
+     * Publications an instance can miss before its leaderboards stop counting
+     */
+    private static final int MISSED_PUBLICATIONS = 3;
+
+    private final TrendingProperties props;
+    private final RedisTemplate<String, byte[]> bytesRedisTemplate;
+    private final UrlInfoRepository urlInfoRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<TrendingWindow, SlidingTopK> windows = new EnumMap<>(TrendingWindow.class);
+
+    /**
+     * Clicks recorded since the last publication, folded into the windows by the publisher
+     */
+    private final Map<PendingClick, Long> pending = new ConcurrentHashMap<>();
+
+    private Counter publishFailureCounter;
+
+    @PostConstruct
+    public void init() {
+        for (TrendingWindow window : TrendingWindow.values()) {
+            windows.put(window, new SlidingTopK(window, props.getCapacity()));
+        }
+
+        publishFailureCounter = Counter.builder("url_visit.trending.publish.failures")
+                                       .description("Trending leaderboard publications that failed")
+                                       .register(meterRegistry);
+    }
+
+    /**
+     * Count a click of a link in every window, from the next publication on.
+     *
+     * @param urlId the resolved URL id, ignored when null
+     */
+    public void record(Long urlId) {
+        if (!props.isEnabled() || urlId == null) {
+            return;
+        }
+
+        pending.merge(new PendingClick(urlId, System.currentTimeMillis() / 1000), 1L, Long::sum);
+    }
+
+    /**
+     * Publish the leaderboards of this instance to Redis.
+     */
+    @Scheduled(fixedDelayString = "${app.url-visit.trending.publish-interval-ms}")
+    public void publish() {
+        if (!props.isEnabled()) {
+            return;
+        }
+
+        try {
+            publish(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            publishFailureCounter.increment();
+            log.warn("Failed to publish trending links", e);
+        }
+    }
+
+    synchronized void publish(long now) {
+        Map<PendingClick, Long> clicks = CounterMapUtils.drain(pending);
+        Map<TrendingWindow, List<SlidingTopK.Entry>> snapshots = new EnumMap<>(TrendingWindow.class);
+        windows.forEach((window, topK) -> {
+            clicks.forEach((click, count) -> topK.offer(click.urlId(), count, click.second() * 1000));
+            snapshots.put(window, topK.top(props.getCapacity(), now));
+        });
+
+        byte[] nodesKey = bytes(NODES_KEY);
+        byte[] nodeId = bytes(props.getNodeId());
+        long ttlMillis = staleAfterMillis();
+        bytesRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            snapshots.forEach((window, entries) -> {
+                byte[] key = bytes(leaderboardKey(props.getNodeId(), window));
+                if (entries.isEmpty()) {
+                    connection.keyCommands().del(key);
+                    return;
+                }
+
+                byte[] tempKey = bytes(leaderboardKey(props.getNodeId(), window) + TEMP_SUFFIX);
+                Set<Tuple> tuples = new LinkedHashSet<>();
+                for (SlidingTopK.Entry entry : entries) {
+                    tuples.add(new DefaultTuple(bytes(Long.toString(entry.item())), (double) entry.count()));
+                }
+
+                connection.keyCommands().del(tempKey);
+                connection.zSetCommands().zAdd(tempKey, tuples);
+                connection.keyCommands().rename(tempKey, key);
+                connection.keyCommands().pExpire(key, ttlMillis);
+            });
+
+            connection.zSetCommands().zAdd(nodesKey, now, nodeId);
+            connection.zSetCommands().zRemRangeByScore(nodesKey, Double.NEGATIVE_INFINITY, now - ttlMillis);
+            return null;
+        });
+    }
+
+    /**
+     * Rank the links of a window over the instances that published recently.
+     *
+     * @param window the window
+     * @param limit number of links, between 1 and {@code capacity}
+     * @return the most clicked links, most clicked first
+     */
+    public TrendingLinksResponse findTrending(TrendingWindow window, int limit) {
+        if (limit < 1 || limit > props.getCapacity()) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + props.getCapacity());
+        }
+
+        Set<byte[]> nodes = bytesRedisTemplate.opsForZSet()
+                                              .rangeByScore(NODES_KEY, System.currentTimeMillis() - staleAfterMillis(),
+                                                            Double.POSITIVE_INFINITY);
+        if (nodes == null || nodes.isEmpty()) {
+            return new TrendingLinksResponse(window, List.of());
+        }
+
+        List<Object> leaderboards = bytesRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] node : nodes) {
+                byte[] key = bytes(leaderboardKey(new String(node, StandardCharsets.UTF_8), window));
+                connection.zSetCommands().zRevRangeWithScores(key, 0, -1);
+            }
+
+            return null;
+        });
+
+        Map<Long, Long> clicks = new HashMap<>();
+        for (Object leaderboard : leaderboards) {
+            if (leaderboard == null) {
+                continue;
+            }
+
+            for (Object tuple : (Set<?>) leaderboard) {
+                TypedTuple<?> typed = (TypedTuple<?>) tuple;
+                long urlId = Long.parseLong(new String((byte[]) typed.getValue(), StandardCharsets.UTF_8));
+                clicks.merge(urlId, typed.getScore() == null ? 0 : typed.getScore().longValue(), Long::sum);
+            }
+        }
+
+        List<Map.Entry<Long, Long>> ranked = new ArrayList<>(clicks.entrySet());
+        ranked.sort(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = ranked.stream().limit(limit).map(Map.Entry::getKey).toList();
+
+        Map<Long, UrlInfo> urlInfos = new HashMap<>();
+        urlInfoRepository.findAllById(ids).forEach(urlInfo -> urlInfos.put(urlInfo.getId(), urlInfo));
+        List<TrendingLinkDTO> links = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            UrlInfo urlInfo = urlInfos.get(id);
+            // Deleted since it was clicked
+            if (urlInfo != null) {
+                links.add(new TrendingLinkDTO(id, urlInfo.getShortCode(), urlInfo.getOriginalUrl(), clicks.get(id)));
+            }
+        }
+
+        return new TrendingLinksResponse(window, links);
+    }
+
+    private long staleAfterMillis() {
+        return MISSED_PUBLICATIONS * props.getPublishIntervalMs();
+    }
+
+    /**
+     * Keys of an instance share its id as hash tag so the temporary key can be renamed on a cluster.
+     */
+    private static String leaderboardKey(String nodeId, TrendingWindow window) {
+        return String.format(LEADERBOARD_KEY_FORMAT, nodeId, window);
+    }
+
+    private record PendingClick(long urlId, long second) {
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+package com.diepnn.shortenurl.service.visitlog;
+
+import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.entity.UrlVisit;
+import com.diepnn.shortenurl.mapper.UrlVisitMapper;
+import com.diepnn.shortenurl.service.UrlVisitService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * {@link UrlVisitService} backed by the local {@link VisitLog} instead of one {@code url_visit} insert per visit.
+ * Click counters, unique visitors and, optionally, {@code url_visit} rows are produced from the log by
+ * {@link VisitLogCompactor}. The returned {@link UrlVisit} is never persisted by this service, so its id is null.
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.log.dropped}: visits lost because the log could not take them</li>
+ * </ul>
+ */
+@Service
+@ConditionalOnProperty(name = "app.url-visit.backend", havingValue = "segment-log")
+@RequiredArgsConstructor
+@Slf4j
+public class SegmentLogUrlVisitService implements UrlVisitService {
+    private final VisitLog visitLog;
+    private final UrlVisitMapper urlVisitMapper;
+    private final MeterRegistry meterRegistry;
+
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void init() {
+        droppedCounter = Counter.builder("url_visit.log.dropped")
+                                .description("Visits the segment log failed to take")
+                                .register(meterRegistry);
+    }
+
+    /**
+     * Append the visit and wait for the group commit that makes it durable.
+     *
+     * @param shortUrl the short url is accessed
+     * @param userInfo user information
+     * @return the visit, not persisted
+     * @throws IllegalArgumentException if either argument is null
+     */
+    @Override
+    public UrlVisit create(UrlInfo shortUrl, UserInfo userInfo) {
+        UrlVisit urlVisit = toUrlVisit(shortUrl, userInfo);
+        visitLog.awaitDurable(visitLog.append(VisitRecord.of(shortUrl.getId(), userInfo)));
+        return urlVisit;
+    }
+
+    /**
+     * Append the visit without waiting for durability; an append takes microseconds, so it runs on the
+     * caller thread. A failure is logged and counted, it never fails the redirect.
+     *
+     * @param shortUrl the short url is accessed
+     * @param userInfo user information
+     * @return a completed future with the visit, not persisted
+     * @throws IllegalArgumentException if either argument is null
+     */
+    @Override
+    public Future<UrlVisit> createAsync(UrlInfo shortUrl, UserInfo userInfo) {
+        UrlVisit urlVisit = toUrlVisit(shortUrl, userInfo);
+        try {
+            visitLog.append(VisitRecord.of(shortUrl.getId(), userInfo));
+        } catch (RuntimeException e) {
+            droppedCounter.increment();
+            log.error("Failed to append visit of URL {} to the visit log", shortUrl.getId(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return CompletableFuture.completedFuture(urlVisit);
+    }
+
+    private UrlVisit toUrlVisit(UrlInfo shortUrl, UserInfo userInfo) {
+        if (shortUrl == null) {
+            throw new IllegalArgumentException("URL info cannot be null");
+        }
+
+        if (userInfo == null) {
+            throw new IllegalArgumentException("User info cannot be null");
+        }
+
+        UrlVisit urlVisit = urlVisitMapper.toEntity(userInfo);
+        urlVisit.setShortenUrl(shortUrl);
+        return urlVisit;
+    }
+}
@@ -0,0 +1,351 @@
+package com.diepnn.shortenurl.service.visitlog;
+
+import com.diepnn.shortenurl.common.properties.VisitLogProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only visit log made of size-rolled, memory-mapped segment files on local disk.
+ *
+ * <p>Appending encodes the record outside the lock and copies the frame into the mapped active segment, so the
+ * critical section is a memory copy. A dedicated thread group-commits: every {@code sync-interval-ms} it forces
+ * the bytes appended since its previous pass with one {@code msync}, then wakes the callers waiting in
+ * {@link #awaitDurable}. The active segment is sealed when full or older than {@code roll-interval-ms}; sealed
+ * segments are synced and closed by the same thread, and only then offered to the compactor.</p>
+ *
+ * <p>On startup the log never appends after existing data: the end of the last segment is found by scanning it
+ * and a new segment starts there, so a record torn by a crash stays behind the end of the sequence. The
+ * directory holds a random log id, which names the compaction checkpoint so a wiped disk starts over instead
+ * of skipping offsets.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.log.appended}: records appended</li>
+ *     <li>{@code url_visit.log.bytes}: bytes appended</li>
+ *     <li>{@code url_visit.log.sync}: time spent in a group commit</li>
+ *     <li>{@code url_visit.log.sync.failures}: group commits that failed and will be retried</li>
+ *     <li>{@code url_visit.log.unsynced}: bytes appended but not durable yet</li>
+ * </ul>
+ */
+@Service
+@ConditionalOnProperty(name = "app.url-visit.backend", havingValue = "segment-log")
+@RequiredArgsConstructor
+@Slf4j
+public class VisitLog {
+    private static final String LOG_ID_FILE = "log.id";
+
+    private final VisitLogProperties props;
+    private final MeterRegistry meterRegistry;
+
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+
+    private Path directory;
+    private String logId;
+    private Thread syncer;
+
+    // Guarded by appendLock
+    private VisitSegment active;
+    private long activeCreatedAtMs;
+    private final Deque<VisitSegment> sealing = new ArrayDeque<>();
+
+    private volatile boolean running;
+    private volatile long endOffset;
+    private volatile long syncedOffset;
+    private volatile long compactableBelow;
+
+    private Counter appendedCounter;
+    private Counter bytesCounter;
+    private Timer syncTimer;
+    private Counter syncFailureCounter;
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Path.of(props.getDirectory());
+        Files.createDirectories(directory);
+        logId = readOrCreateLogId();
+
+        long nextOffset = 0;
+        List<Path> segments = listSegments();
+        if (!segments.isEmpty()) {
+            Path last = segments.getLast();
+            int end = VisitSegment.read(last, null);
+            nextOffset = VisitSegment.baseOffset(last) + end;
+            if (end == 0) {
+                // Nothing was written to it, the new segment takes its name
+                Files.delete(last);
+            }
+        }
+
+        active = VisitSegment.create(directory, nextOffset, props.getSegmentSizeBytes());
+        activeCreatedAtMs = System.currentTimeMillis();
+        endOffset = nextOffset;
+        syncedOffset = nextOffset;
+        compactableBelow = nextOffset;
+        log.info("Opened visit log {} in {} at offset {}", logId, directory, nextOffset);
+
+        appendedCounter = Counter.builder("url_visit.log.appended")
+                                 .description("Visits appended to the segment log")
+                                 .register(meterRegistry);
+        bytesCounter = Counter.builder("url_visit.log.bytes")
+                              .description("Bytes appended to the segment log")
+                              .baseUnit("bytes")
+                              .register(meterRegistry);
+        syncTimer = Timer.builder("url_visit.log.sync")
+                         .description("Time spent making appended visits durable")
+                         .register(meterRegistry);
+        syncFailureCounter = Counter.builder("url_visit.log.sync.failures")
+                                    .description("Segment log group commits that failed")
+                                    .register(meterRegistry);
+        Gauge.builder("url_visit.log.unsynced", this, s -> s.endOffset - s.syncedOffset)
+             .description("Bytes appended to the segment log but not durable yet")
+             .baseUnit("bytes")
+             .register(meterRegistry);
+
+        running = true;
+        syncer = Thread.ofPlatform().name("visit-log-sync").daemon().start(this::syncLoop);
+    }
+
+    /**
+     * Seal the active segment and make everything durable.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(syncer);
+        syncer.join();
+
+        synchronized (appendLock) {
+            roll(false);
+        }
+
+        sync();
+        synchronized (syncLock) {
+            syncLock.notifyAll();
+        }
+    }
+
+    /**
+     * Identifier of this log, stable across restarts as long as the directory is kept.
+     */
+    public String getLogId() {
+        return logId;
+    }
+
+    /**
+     * Log offset right after the last sealed segment, where the segment being appended starts.
+     */
+    public long getSealedEndOffset() {
+        return compactableBelow;
+    }
+
+    /**
+     * Append a visit. Returns once the record is in the page cache; use {@link #awaitDurable} to wait for the
+     * group commit that makes it survive a crash.
+     *
+     * @param record the visit
+     * @return log offset right after the record
+     * @throws IllegalStateException if the log is closed
+     */
+    public long append(VisitRecord record) {
+        byte[] frame = record.encode();
+        if (frame.length > props.getSegmentSizeBytes()) {
+            throw new IllegalArgumentException("Visit record of " + frame.length + " bytes exceeds the segment size");
+        }
+
+        long end;
+        synchronized (appendLock) {
+            if (!running) {
+                throw new IllegalStateException("Visit log is closed");
+            }
+
+            if (!active.append(frame)) {
+                roll(true);
+                active.append(frame);
+            }
+
+            end = active.endOffset();
+            endOffset = end;
+        }
+
+        appendedCounter.increment();
+        bytesCounter.increment(frame.length);
+        return end;
+    }
+
+    /**
+     * Wait until the log is durable up to the given offset.
+     *
+     * @param offset an offset returned by {@link #append}
+     * @throws IllegalStateException if the log is closed before or the thread is interrupted
+     */
+    public void awaitDurable(long offset) {
+        synchronized (syncLock) {
+            while (syncedOffset < offset) {
+                if (!running) {
+                    throw new IllegalStateException("Visit log is closed");
+                }
+
+                try {
+                    syncLock.wait(props.getSyncIntervalMs() * 10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the visit log", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sealed segments that are durable and closed, oldest first. These never change anymore.
+     *
+     * @return segment files ready for compaction
+     */
+    public List<Path> sealedSegments() throws IOException {
+        long below = compactableBelow;
+        return listSegments().stream()
+                             .filter(path -> VisitSegment.baseOffset(path) < below)
+                             .toList();
+    }
+
+    /**
+     * Replay the records from the given offset, oldest first, including the part of the active segment
+     * written so far.
+     *
+     * @param fromOffset first offset to replay, records before it are skipped
+     * @param consumer receives each record with its log offset
+     */
+    public void replay(long fromOffset, ObjLongConsumer<VisitRecord> consumer) throws IOException {
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && VisitSegment.baseOffset(segments.get(i + 1)) <= fromOffset) {
+                continue;
+            }
+
+            VisitSegment.read(segments.get(i), (record, offset) -> {
+                if (offset >= fromOffset) {
+                    consumer.accept(record, offset);
+                }
+            });
+        }
+    }
+
+    /**
+     * One group commit: seal the active segment if it is too old, sync the sealed segments and the active one.
+     */
+    synchronized void sync() {
+        long start = System.nanoTime();
+        List<VisitSegment> sealed;
+        VisitSegment current;
+        int end;
+        synchronized (appendLock) {
+            if (running && active.size() > 0 && System.currentTimeMillis() - activeCreatedAtMs >= props.getRollIntervalMs()) {
+                roll(true);
+            }
+
+            sealed = List.copyOf(sealing);
+            current = active;
+            end = active.size();
+        }
+
+        for (VisitSegment segment : sealed) {
+            segment.force(segment.size());
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.warn("Failed to close visit log segment {}", segment.path(), e);
+            }
+
+            synchronized (appendLock) {
+                sealing.removeFirst();
+            }
+        }
+
+        current.force(end);
+        compactableBelow = current.baseOffset();
+        synchronized (syncLock) {
+            syncedOffset = current.baseOffset() + end;
+            syncLock.notifyAll();
+        }
+
+        syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void syncLoop() {
+        while (running) {
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                syncFailureCounter.increment();
+                log.error("Failed to sync visit log", e);
+            }
+
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(props.getSyncIntervalMs()));
+        }
+    }
+
+    /**
+     * Seal the active segment and start the next one at its end. Must hold the append lock.
+     *
+     * @param next whether to open a new active segment
+     */
+    private void roll(boolean next) {
+        sealing.addLast(active);
+        if (!next) {
+            return;
+        }
+
+        try {
+            active = VisitSegment.create(directory, active.endOffset(), props.getSegmentSizeBytes());
+            activeCreatedAtMs = System.currentTimeMillis();
+        } catch (IOException e) {
+            sealing.removeLast();
+            throw new UncheckedIOException("Failed to roll visit log segment", e);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(VisitSegment::isSegment)
+                        .sorted()
+                        .toList();
+        }
+    }
+
+    private String readOrCreateLogId() throws IOException {
+        Path path = directory.resolve(LOG_ID_FILE);
+        if (Files.exists(path)) {
+            return Files.readString(path, StandardCharsets.UTF_8).trim();
+        }
+
+        String id = UUID.randomUUID().toString();
+        Files.writeString(path, id, StandardCharsets.UTF_8);
+        return id;
+    }
+}
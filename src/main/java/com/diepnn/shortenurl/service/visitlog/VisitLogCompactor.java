@@ -0,0 +1,222 @@
+package com.diepnn.shortenurl.service.visitlog;
+
+import com.diepnn.shortenurl.common.properties.VisitLogProperties;
+import com.diepnn.shortenurl.dto.UserAgentInfo;
+import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.entity.UrlVisit;
+import com.diepnn.shortenurl.repository.UrlVisitBatchRepository;
+import com.diepnn.shortenurl.repository.VisitLogCheckpointRepository;
+import com.diepnn.shortenurl.service.geo.GeoIpService;
+import com.diepnn.shortenurl.service.stats.ClickRollupService;
+import com.diepnn.shortenurl.service.stats.UniqueVisitorService;
+import com.diepnn.shortenurl.service.stats.UserAgentClassifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns sealed visit log segments into click counters, unique visitor sketches and, when
+ * {@code app.url-visit.log.bulk-load} is set, {@code url_visit} rows with their user agent classification. Visits
+ * appended without a country are located here, off the redirect thread.
+ *
+ * <p>A segment is compacted in chunks of {@code batch-size} records, each in one transaction that adds its click
+ * counters, bulk-loads its visits and moves the checkpoint of the log past its last record, so each visit is
+ * counted exactly once even if the instance dies mid-way, and a transaction never holds more than a chunk. A
+ * segment interrupted mid-way resumes from the checkpoint. Unique visitors are added to Redis before their chunk
+ * commits; a sketch ignores visitors it already holds, so a chunk retried after a failure does not inflate them.
+ * The rows of visits to URLs still queued by write-behind are skipped, their clicks are counted all the same.
+ * Compacted segments stay on disk for {@code retention-ms} so they can still be replayed.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_visit.log.compacted}: visits compacted</li>
+ *     <li>{@code url_visit.log.skipped}: visit rows not bulk-loaded because their URL is not persisted yet</li>
+ *     <li>{@code url_visit.log.compaction.failures}: compaction runs that failed and will be retried</li>
+ *     <li>{@code url_visit.log.backlog}: sealed segments waiting to be compacted</li>
+ * </ul>
+ */
+@Service
+@ConditionalOnProperty(name = "app.url-visit.backend", havingValue = "segment-log")
+@RequiredArgsConstructor
+@Slf4j
+public class VisitLogCompactor {
+    private final VisitLogProperties props;
+    private final VisitLog visitLog;
+    private final ClickRollupService clickRollupService;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final UserAgentClassifier userAgentClassifier;
+    private final GeoIpService geoIpService;
+    private final UrlVisitBatchRepository urlVisitBatchRepository;
+    private final VisitLogCheckpointRepository visitLogCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    private Counter compactedCounter;
+    private Counter skippedCounter;
+    private Counter failureCounter;
+
+    @PostConstruct
+    public void init() {
+        compactedCounter = Counter.builder("url_visit.log.compacted")
+                                  .description("Visits compacted from the segment log")
+                                  .register(meterRegistry);
+        skippedCounter = Counter.builder("url_visit.log.skipped")
+                                .description("Visit rows not bulk-loaded because their URL is not persisted yet")
+                                .register(meterRegistry);
+        failureCounter = Counter.builder("url_visit.log.compaction.failures")
+                                .description("Segment log compactions that failed")
+                                .register(meterRegistry);
+        Gauge.builder("url_visit.log.backlog", backlog, AtomicLong::get)
+             .description("Sealed visit log segments waiting to be compacted")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Compact the sealed segments not compacted yet, then delete the expired ones.
+     */
+    @Scheduled(fixedDelayString = "${app.url-visit.log.compact-interval-ms}")
+    public void compact() {
+        try {
+            long nextOffset = compactPending();
+            purgeCompacted(nextOffset);
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.error("Failed to compact visit log", e);
+        }
+    }
+
+    /**
+     * Compact the sealed segments from the checkpoint on, oldest first, stopping at the first failure.
+     *
+     * @return the checkpoint after this run
+     */
+    synchronized long compactPending() throws IOException {
+        long nextOffset = visitLogCheckpointRepository.findNextOffset(visitLog.getLogId());
+        List<Path> sealed = visitLog.sealedSegments();
+        long sealedEnd = visitLog.getSealedEndOffset();
+        List<Path> pending = new ArrayList<>();
+        for (int i = 0; i < sealed.size(); i++) {
+            // A segment ends where the next one starts, the one holding the checkpoint is resumed from it
+            long end = i + 1 < sealed.size() ? VisitSegment.baseOffset(sealed.get(i + 1)) : sealedEnd;
+            if (end > nextOffset) {
+                pending.add(sealed.get(i));
+            }
+        }
+
+        backlog.set(pending.size());
+        for (Path segment : pending) {
+            nextOffset = compactSegment(segment, nextOffset);
+            backlog.decrementAndGet();
+        }
+
+        return nextOffset;
+    }
+
+    private long compactSegment(Path segment, long fromOffset) throws IOException {
+        long baseOffset = VisitSegment.baseOffset(segment);
+        SegmentChunk chunk = new SegmentChunk();
+        int end = VisitSegment.read(segment, (record, offset) -> {
+            if (offset < fromOffset) {
+                return;
+            }
+
+            // The chunk ends right before this record
+            if (chunk.size >= props.getBatchSize()) {
+                chunk.commit(offset);
+            }
+
+            chunk.add(record);
+        });
+
+        long nextOffset = Math.max(fromOffset, baseOffset + end);
+        if (chunk.size > 0 || nextOffset > fromOffset) {
+            chunk.commit(nextOffset);
+        }
+
+        log.debug("Compacted {} visits from {}", chunk.records, segment);
+        return nextOffset;
+    }
+
+    /**
+     * Delete the compacted segments older than the retention.
+     */
+    private void purgeCompacted(long nextOffset) throws IOException {
+        long expiredBeforeMs = System.currentTimeMillis() - props.getRetentionMs();
+        for (Path segment : visitLog.sealedSegments()) {
+            if (VisitSegment.baseOffset(segment) >= nextOffset) {
+                break;
+            }
+
+            if (Files.getLastModifiedTime(segment).toMillis() < expiredBeforeMs) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    /**
+     * Accumulates the next chunk of a segment being compacted, up to {@code batch-size} records.
+     */
+    private final class SegmentChunk {
+        private final Map<Long, List<UserInfo>> visitors = new HashMap<>();
+        private final List<UrlVisit> urlVisits = new ArrayList<>();
+        private ClickRollupService.Batch clicks = clickRollupService.newBatch();
+        private int size;
+        private long records;
+
+        void add(VisitRecord record) {
+            VisitRecord located = record.country() == null ? record.withCountry(geoIpService.country(record.ipAddress())) : record;
+            UserInfo userInfo = located.toUserInfo();
+            UserAgentInfo userAgent = userAgentClassifier.classify(located.userAgent());
+            clicks.record(located.urlId(), userInfo, userAgent);
+            visitors.computeIfAbsent(located.urlId(), k -> new ArrayList<>()).add(userInfo);
+            if (props.isBulkLoad()) {
+                urlVisits.add(located.toUrlVisit(userAgent));
+            }
+
+            size++;
+        }
+
+        /**
+         * Write the chunk and move the checkpoint to the given offset in one transaction, then start a new chunk.
+         */
+        void commit(long nextOffset) {
+            uniqueVisitorService.recordAll(visitors);
+            int skipped = transactionTemplate.execute(status -> {
+                clickRollupService.write(clicks);
+                int notPersisted = urlVisitBatchRepository.insert(urlVisits, props.getBatchSize());
+                visitLogCheckpointRepository.saveNextOffset(visitLog.getLogId(), nextOffset);
+                return notPersisted;
+            });
+
+            if (skipped > 0) {
+                skippedCounter.increment(skipped);
+                log.warn("Skipped {} visit rows of URLs not persisted yet", skipped);
+            }
+
+            compactedCounter.increment(size);
+            records += size;
+            clicks = clickRollupService.newBatch();
+            visitors.clear();
+            urlVisits.clear();
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.diepnn.shortenurl.service.visitlog;
+
+import com.diepnn.shortenurl.dto.UserAgentInfo;
+import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.entity.UrlVisit;
+import com.diepnn.shortenurl.utils.DateUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * A visit as stored in the segment log.
+ *
+ * <p>Binary frame, big-endian:</p>
+ * <pre>
+ * int    payload length
+ * int    CRC-32C of the payload
+ * long   URL id
+ * long   visit time, epoch seconds of the stored local date-time
+ * string IP address, user agent, country: unsigned short byte length (0xFFFF for null) then UTF-8 bytes
+ * </pre>
+ *
+ * <p>Strings are cut to the size of their {@code url_visit} column so a frame can always be bulk-loaded.</p>
+ *
+ * @param urlId the visited URL id
+ * @param visitedDatetime visit time, seconds precision
+ * @param ipAddress the visitor IP address
+ * @param userAgent the visitor user agent
+ * @param country the visitor country
+ */
+public record VisitRecord(long urlId, LocalDateTime visitedDatetime, String ipAddress, String userAgent, String country) {
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final int MAX_IP_ADDRESS_LENGTH = 30;
+    private static final int MAX_USER_AGENT_LENGTH = 512;
+    private static final int MAX_COUNTRY_LENGTH = 50;
+
+    public static VisitRecord of(long urlId, UserInfo userInfo) {
+        LocalDateTime visitedDatetime = userInfo.visitedDatetime() == null ? DateUtils.nowTruncatedToSeconds() : userInfo.visitedDatetime();
+        return new VisitRecord(urlId, visitedDatetime,
+                               StringUtils.truncate(userInfo.ipAddress(), MAX_IP_ADDRESS_LENGTH),
+                               StringUtils.truncate(userInfo.userAgent(), MAX_USER_AGENT_LENGTH),
+                               StringUtils.truncate(userInfo.country(), MAX_COUNTRY_LENGTH));
+    }
+
+    public VisitRecord withCountry(String country) {
+        return new VisitRecord(urlId, visitedDatetime, ipAddress, userAgent, country);
+    }
+
+    public UserInfo toUserInfo() {
+        return new UserInfo(ipAddress, userAgent, visitedDatetime, country);
+    }
+
+    public UrlVisit toUrlVisit(UserAgentInfo userAgentInfo) {
+        return UrlVisit.builder()
+                       .visitedDatetime(visitedDatetime)
+                       .userAgent(userAgent)
+                       .ipAddress(ipAddress)
+                       .country(country)
+                       .userAgentFamily(userAgentInfo.family())
+                       .userAgentOs(userAgentInfo.os())
+                       .userAgentDevice(userAgentInfo.device())
+                       .bot(userAgentInfo.bot())
+                       .shortenUrl(UrlInfo.builder().id(urlId).build())
+                       .build();
+    }
+
+    /**
+     * Encode the record into a checksummed frame.
+     *
+     * @return the frame, header included
+     */
+    byte[] encode() {
+        byte[] ip = bytes(ipAddress);
+        byte[] ua = bytes(userAgent);
+        byte[] co = bytes(country);
+        int payloadLength = 2 * Long.BYTES + 3 * Short.BYTES + length(ip) + length(ua) + length(co);
+
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payloadLength);
+        frame.putInt(payloadLength)
+             .putInt(0)
+             .putLong(urlId)
+             .putLong(visitedDatetime.toEpochSecond(ZoneOffset.UTC));
+        putString(frame, ip);
+        putString(frame, ua);
+        putString(frame, co);
+
+        CRC32C crc = new CRC32C();
+        crc.update(frame.array(), HEADER_BYTES, payloadLength);
+        frame.putInt(Integer.BYTES, (int) crc.getValue());
+        return frame.array();
+    }
+
+    /**
+     * Decode a payload written by {@link #encode()}.
+     *
+     * @param payload the payload, header excluded
+     * @return the record
+     */
+    static VisitRecord decode(ByteBuffer payload) {
+        long urlId = payload.getLong();
+        LocalDateTime visitedDatetime = LocalDateTime.ofEpochSecond(payload.getLong(), 0, ZoneOffset.UTC);
+        return new VisitRecord(urlId, visitedDatetime, getString(payload), getString(payload), getString(payload));
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer frame, byte[] value) {
+        if (value == null) {
+            frame.putShort((short) NULL_LENGTH);
+            return;
+        }
+
+        frame.putShort((short) value.length).put(value);
+    }
+
+    private static String getString(ByteBuffer payload) {
+        int length = Short.toUnsignedInt(payload.getShort());
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+
+        String value = StandardCharsets.UTF_8.decode(payload.slice(payload.position(), length)).toString();
+        payload.position(payload.position() + length);
+        return value;
+    }
+}
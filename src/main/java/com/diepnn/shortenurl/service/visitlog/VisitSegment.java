@@ -0,0 +1,161 @@
+package com.diepnn.shortenurl.service.visitlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped segment file of the visit log.
+ *
+ * <p>The file is created at its full size and mapped once; unwritten space reads as zeros, which ends the
+ * record sequence. The file name is the log offset of its first byte, so the offset of any record is the
+ * segment base offset plus its position. Not thread-safe, {@link VisitLog} serializes appends.</p>
+ */
+final class VisitSegment {
+    static final String SUFFIX = ".seg";
+
+    private final Path path;
+    private final long baseOffset;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int syncedPosition;
+
+    private VisitSegment(Path path, long baseOffset, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.baseOffset = baseOffset;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Create and map a new segment file.
+     *
+     * @param directory the log directory
+     * @param baseOffset log offset of the first byte
+     * @param size file size in bytes
+     * @return the segment, open for appends
+     * @throws IOException if the file exists or cannot be mapped
+     */
+    static VisitSegment create(Path directory, long baseOffset, int size) throws IOException {
+        Path path = directory.resolve(fileName(baseOffset));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new VisitSegment(path, baseOffset, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static String fileName(long baseOffset) {
+        return String.format("%020d%s", baseOffset, SUFFIX);
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.length() == 20 + SUFFIX.length() && name.endsWith(SUFFIX);
+    }
+
+    static long baseOffset(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name, 0, name.length() - SUFFIX.length(), 10);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long baseOffset() {
+        return baseOffset;
+    }
+
+    /**
+     * Bytes written so far.
+     */
+    int size() {
+        return buffer.position();
+    }
+
+    long endOffset() {
+        return baseOffset + buffer.position();
+    }
+
+    /**
+     * Copy a frame at the end of the segment.
+     *
+     * @param frame an encoded record
+     * @return false if the frame does not fit, the segment is then left unchanged
+     */
+    boolean append(byte[] frame) {
+        if (buffer.remaining() < frame.length) {
+            return false;
+        }
+
+        buffer.put(frame);
+        return true;
+    }
+
+    /**
+     * Write the bytes appended since the last call, up to {@code end}, to the storage device.
+     * Safe to call concurrently with {@link #append} as long as {@code end} was read under the append lock.
+     *
+     * @param end position to sync up to
+     */
+    void force(int end) {
+        if (end > syncedPosition) {
+            buffer.force(syncedPosition, end - syncedPosition);
+            syncedPosition = end;
+        }
+    }
+
+    /**
+     * Close the file, the mapping stays valid until the segment is garbage collected.
+     */
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Read the records of a segment file in order. Stops at the first empty or corrupt frame, which marks the
+     * end of the data, including a record torn by a crash.
+     *
+     * @param path the segment file
+     * @param consumer receives each record with its log offset, may be null to only find the end
+     * @return position right after the last valid record
+     * @throws IOException if the file cannot be read
+     */
+    static int read(Path path, ObjLongConsumer<VisitRecord> consumer) throws IOException {
+        long baseOffset = baseOffset(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32C crc = new CRC32C();
+            int position = 0;
+            while (position + VisitRecord.HEADER_BYTES <= buffer.limit()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || length > buffer.limit() - position - VisitRecord.HEADER_BYTES) {
+                    break;
+                }
+
+                ByteBuffer payload = buffer.slice(position + VisitRecord.HEADER_BYTES, length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                    break;
+                }
+
+                if (consumer != null) {
+                    consumer.accept(VisitRecord.decode(payload), baseOffset + position);
+                }
+
+                position += VisitRecord.HEADER_BYTES + length;
+            }
+
+            return position;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.diepnn.shortenurl.service.writebehind;
+
+import com.diepnn.shortenurl.common.enums.UrlInfoStatus;
+import com.diepnn.shortenurl.common.properties.UrlInfoProperties;
+import com.diepnn.shortenurl.common.properties.WriteBehindProperties;
+import com.diepnn.shortenurl.dto.cache.PendingUrlInfo;
+import com.diepnn.shortenurl.dto.cache.UrlInfoCache;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository.InsertOutcome;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Crash-safe write-behind queue for URL creation.
+ *
+ * <p>Created URLs are appended to a Redis pending list and acknowledged right away. A scheduled flusher
+ * atomically moves a batch from the pending list to this node's processing list, persists it skipping the
+ * rows whose key already exists and only then deletes the processing list. If the node dies in between, the
+ * batch is still in the processing list and is moved back to the pending list on the next startup;
+ * replaying an already persisted entry is harmless because its row already exists.</p>
+ *
+ * <p>A node that does not come back, or comes back under another node id, would strand its batch, so every
+ * node heartbeats in {@code url-info-write-behind::nodes} before each batch. After each flush, the processing
+ * lists of the nodes whose heartbeat is older than {@code node-timeout-ms} are moved back to the pending list
+ * and the nodes are forgotten. A node only paused past the timeout then gets its batch replayed, which is
+ * harmless for the same reason.</p>
+ *
+ * <p>Until its row is flushed, a queued URL is also kept without expiry in {@code url-info-write-behind::queued}
+ * by short code, so it still resolves when the flush is delayed past the {@code url-access} TTL, and its id in
+ * {@code url-info-write-behind::queued-ids}, so its visits can tell a URL not persisted yet from a missing one.
+ * Both are removed once the batch holding the URL is persisted or dropped.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code url_info.write_behind.queue.size}: entries waiting in the pending list</li>
+ *     <li>{@code url_info.write_behind.queue.lag}: age of the oldest pending entry in milliseconds</li>
+ *     <li>{@code url_info.write_behind.persisted}: entries written to {@code url_info}</li>
+ *     <li>{@code url_info.write_behind.failures}: entries that failed to persist, either requeued
+ *         after a database error or dropped because they could not be read or inserted</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UrlInfoWriteBehindService {
+    private static final String PENDING_KEY = "url-info-write-behind::pending";
+    private static final String PROCESSING_KEY_FORMAT = "url-info-write-behind::processing::%s";
+    private static final String NODES_KEY = "url-info-write-behind::nodes";
+    private static final String QUEUED_KEY = "url-info-write-behind::queued";
+    private static final String QUEUED_IDS_KEY = "url-info-write-behind::queued-ids";
+
+    private final WriteBehindProperties props;
+    private final UrlInfoProperties urlInfoProperties;
+    private final UrlInfoBatchRepository urlInfoBatchRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong queueSize = new AtomicLong();
+    private final AtomicLong queueLagMs = new AtomicLong();
+
+    private DefaultRedisScript<List> claimScript;
+    private DefaultRedisScript<Long> requeueScript;
+    private String processingKey;
+    private Counter persistedCounter;
+    private Counter failureCounter;
+
+    @PostConstruct
+    public void init() {
+        claimScript = new DefaultRedisScript<>();
+        claimScript.setScriptSource(new ResourceScriptSource(resourceLoader.getResource("classpath:redis/scripts/write-behind-claim.lua")));
+        claimScript.setResultType(List.class);
+
+        requeueScript = new DefaultRedisScript<>();
+        requeueScript.setScriptSource(new ResourceScriptSource(resourceLoader.getResource("classpath:redis/scripts/write-behind-requeue.lua")));
+        requeueScript.setResultType(Long.class);
+
+        processingKey = String.format(PROCESSING_KEY_FORMAT, props.getNodeId());
+
+        Gauge.builder("url_info.write_behind.queue.size", queueSize, AtomicLong::get)
+             .description("URL infos waiting to be persisted")
+             .register(meterRegistry);
+        Gauge.builder("url_info.write_behind.queue.lag", queueLagMs, AtomicLong::get)
+             .description("Age of the oldest URL info waiting to be persisted")
+             .baseUnit("milliseconds")
+             .register(meterRegistry);
+        persistedCounter = Counter.builder("url_info.write_behind.persisted")
+                                  .description("URL infos persisted by the write-behind flusher")
+                                  .register(meterRegistry);
+        failureCounter = Counter.builder("url_info.write_behind.failures")
+                                .description("URL infos the write-behind flusher failed to persist")
+                                .register(meterRegistry);
+    }
+
+    /**
+     * Whether new URL infos should be queued instead of persisted synchronously.
+     *
+     * @return true if the write-behind mode is enabled
+     */
+    public boolean isEnabled() {
+        return props.isEnabled();
+    }
+
+    /**
+     * Append the URL info to the pending queue.
+     *
+     * @param urlInfo a URL info with generated id and short code
+     */
+    public void enqueue(UrlInfo urlInfo) {
+        PendingUrlInfo pending = new PendingUrlInfo(urlInfo.getId(),
+                                                    urlInfo.getShortCode(),
+                                                    urlInfo.getOriginalUrl(),
+                                                    urlInfo.getOriginalUrlHash(),
+                                                    urlInfo.getCreatedByIp(),
+                                                    urlInfo.getCreatedByUserAgent(),
+                                                    urlInfo.getCreatedDatetime(),
+                                                    System.currentTimeMillis());
+        redisTemplate.opsForHash().put(QUEUED_KEY, urlInfo.getShortCode(), new UrlInfoCache(urlInfo.getId(), urlInfo.getOriginalUrl()));
+        redisTemplate.opsForSet().add(QUEUED_IDS_KEY, urlInfo.getId());
+        try {
+            redisTemplate.opsForList().rightPush(PENDING_KEY, pending);
+        } catch (RuntimeException e) {
+            // The caller persists it synchronously instead
+            forgetQueued(List.of(urlInfo));
+            throw e;
+        }
+    }
+
+    /**
+     * Find a URL queued but not persisted yet by its short code.
+     *
+     * @param shortCode the short code to look up
+     * @return the URL info cache object, or null if no queued URL has this short code
+     */
+    public UrlInfoCache findQueued(String shortCode) {
+        Object queued = redisTemplate.opsForHash().get(QUEUED_KEY, shortCode);
+        return queued == null ? null : objectMapper.convertValue(queued, UrlInfoCache.class);
+    }
+
+    /**
+     * Whether the URL is queued but not persisted yet.
+     *
+     * @param id the URL id
+     * @return true if the URL waits in the queue
+     */
+    public boolean isQueued(long id) {
+        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(QUEUED_IDS_KEY, id));
+    }
+
+    /**
+     * Persist queued URL infos until the pending list is drained.
+     * Runs even when the mode is disabled so entries queued before switching it off are not stranded.
+     */
+    @Scheduled(fixedDelayString = "${app.url-info.write-behind.flush-interval-ms}")
+    public void flush() {
+        try {
+            int claimed;
+            do {
+                heartbeat();
+                claimed = flushBatch();
+            } while (claimed == props.getBatchSize());
+        } catch (Exception e) {
+            log.error("Failed to flush write-behind queue", e);
+        }
+
+        requeueDeadNodes();
+        refreshQueueMetrics();
+    }
+
+    /**
+     * Move the batch left in this node's processing list by a previous run back to the pending list.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        try {
+            heartbeat();
+            Long moved = redisTemplate.execute(requeueScript, List.of(processingKey, PENDING_KEY));
+            if (moved != null && moved > 0) {
+                log.warn("Requeued {} write-behind entries left in processing by a previous run", moved);
+            }
+        } catch (Exception e) {
+            log.error("Failed to reconcile write-behind queue for node {}", props.getNodeId(), e);
+        }
+    }
+
+    /**
+     * Move the processing lists of the nodes that stopped heartbeating back to the pending list.
+     */
+    void requeueDeadNodes() {
+        try {
+            Set<Object> deadNodes = redisTemplate.opsForZSet()
+                                                 .rangeByScore(NODES_KEY, 0, System.currentTimeMillis() - props.getNodeTimeoutMs());
+            if (deadNodes == null) {
+                return;
+            }
+
+            for (Object node : deadNodes) {
+                // The requeue is atomic, a node requeued by several others at once is only moved once
+                Long moved = redisTemplate.execute(requeueScript, List.of(String.format(PROCESSING_KEY_FORMAT, node), PENDING_KEY));
+                redisTemplate.opsForZSet().remove(NODES_KEY, node);
+                if (moved != null && moved > 0) {
+                    log.warn("Requeued {} write-behind entries left in processing by node {}", moved, node);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to requeue write-behind entries of dead nodes", e);
+        }
+    }
+
+    private void heartbeat() {
+        redisTemplate.opsForZSet().add(NODES_KEY, props.getNodeId(), System.currentTimeMillis());
+    }
+
+    /**
+     * Claim and persist one batch.
+     *
+     * @return number of claimed entries
+     */
+    int flushBatch() {
+        List<?> claimed = redisTemplate.execute(claimScript, List.of(PENDING_KEY, processingKey), props.getBatchSize());
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<UrlInfo> urlInfos = new ArrayList<>(claimed.size());
+        for (Object entry : claimed) {
+            try {
+                urlInfos.add(toUrlInfo(objectMapper.convertValue(entry, PendingUrlInfo.class)));
+            } catch (IllegalArgumentException e) {
+                log.error("Dropping unreadable write-behind entry: {}", entry, e);
+                failureCounter.increment();
+            }
+        }
+
+        InsertOutcome[] outcomes;
+        try {
+            outcomes = urlInfoBatchRepository.insert(urlInfos, urlInfoProperties.getJdbcBatchSize());
+        } catch (RuntimeException e) {
+            failureCounter.increment(urlInfos.size());
+            redisTemplate.execute(requeueScript, List.of(processingKey, PENDING_KEY));
+            throw e;
+        }
+
+        int persisted = reportNotInserted(urlInfos, outcomes);
+        forgetQueued(urlInfos);
+        redisTemplate.delete(processingKey);
+        persistedCounter.increment(persisted);
+        return claimed.size();
+    }
+
+    /**
+     * A replayed entry is reported as inserted since its row is already there; an entry whose id or short code
+     * belongs to another row, or that the database rejected, is lost.
+     *
+     * @return number of entries that are now persisted
+     */
+    private int reportNotInserted(List<UrlInfo> urlInfos, InsertOutcome[] outcomes) {
+        int persisted = 0;
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] == InsertOutcome.INSERTED) {
+                persisted++;
+                continue;
+            }
+
+            log.error("Write-behind entry {} was dropped: {}", urlInfos.get(i).getId(), outcomes[i]);
+            failureCounter.increment();
+        }
+
+        return persisted;
+    }
+
+    /**
+     * Remove the URLs from the queued lookups, they resolve from the database from now on. Failures are logged
+     * only, a leftover entry points to the same URL as its row.
+     */
+    private void forgetQueued(List<UrlInfo> urlInfos) {
+        if (urlInfos.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForHash().delete(QUEUED_KEY, urlInfos.stream().map(UrlInfo::getShortCode).toArray());
+            redisTemplate.opsForSet().remove(QUEUED_IDS_KEY, urlInfos.stream().map(UrlInfo::getId).toArray());
+        } catch (RuntimeException e) {
+            log.warn("Failed to forget {} queued URLs", urlInfos.size(), e);
+        }
+    }
+
+    private void refreshQueueMetrics() {
+        try {
+            Long size = redisTemplate.opsForList().size(PENDING_KEY);
+            queueSize.set(size == null ? 0 : size);
+
+            Object head = redisTemplate.opsForList().index(PENDING_KEY, 0);
+            long lag = 0;
+            if (head != null) {
+                lag = Math.max(0, System.currentTimeMillis() - objectMapper.convertValue(head, PendingUrlInfo.class).enqueuedAt());
+            }
+
+            queueLagMs.set(lag);
+        } catch (Exception e) {
+            log.warn("Failed to refresh write-behind queue metrics", e);
+        }
+    }
+
+    private UrlInfo toUrlInfo(PendingUrlInfo pending) {
+        return UrlInfo.builder()
+                      .id(pending.id())
+                      .shortCode(pending.shortCode())
+                      .originalUrl(pending.originalUrl())
+                      .originalUrlHash(pending.originalUrlHash())
+                      .status(UrlInfoStatus.ACTIVE)
+                      .alias(false)
+                      .createdByIp(pending.createdByIp())
+                      .createdByUserAgent(pending.createdByUserAgent())
+                      .createdDatetime(pending.createdDatetime())
+                      .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.diepnn.shortenurl.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Helpers for the in-memory counter maps that hot paths increment with {@code merge} and a scheduled job drains.
+ */
+public class CounterMapUtils {
+    /**
+     * Move the counters of a concurrent map one by one, a counter incremented concurrently is either moved
+     * now or left for the next drain.
+     *
+     * @param from the concurrent map the counters are removed from
+     * @param to   the map the removed counters are put into
+     */
+    public static <K> void drain(Map<K, Long> from, Map<K, Long> to) {
+        for (K key : from.keySet()) {
+            Long count = from.remove(key);
+            if (count != null) {
+                to.put(key, count);
+            }
+        }
+    }
+
+    /**
+     * Move the counters of a concurrent map into a new map, see {@link #drain(Map, Map)}.
+     *
+     * @param from the concurrent map the counters are removed from
+     * @return the removed counters
+     */
+    public static <K> Map<K, Long> drain(Map<K, Long> from) {
+        Map<K, Long> to = new HashMap<>();
+        drain(from, to);
+        return to;
+    }
+}
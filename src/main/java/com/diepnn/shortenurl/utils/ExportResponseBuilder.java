@@ -0,0 +1,79 @@
+package com.diepnn.shortenurl.utils;
+
+import com.diepnn.shortenurl.service.export.VisitExport;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * The helper class to stream an export as a file download
+ */
+public class ExportResponseBuilder {
+    /**
+     * Whether the client accepts a gzip-encoded body. An explicit {@code gzip} entry decides, otherwise the
+     * {@code *} entry does; an entry with {@code q=0} refuses the coding.
+     *
+     * @param acceptEncoding the {@code Accept-Encoding} request header, may be null
+     * @return true if gzip is listed with a non-zero quality
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        Boolean wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return quality(parts) > 0;
+            }
+
+            if (coding.equals("*")) {
+                wildcard = quality(parts) > 0;
+            }
+        }
+
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    /**
+     * Create a response streaming the export as an attachment.
+     *
+     * @param export the export
+     * @return the response, its body is written asynchronously
+     */
+    public static ResponseEntity<StreamingResponseBody> attachment(VisitExport export) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                                                           .contentType(MediaType.parseMediaType(export.getFormat().getMediaType()))
+                                                           .header(HttpHeaders.CONTENT_DISPOSITION,
+                                                                   ContentDisposition.attachment().filename(export.getFileName()).build().toString());
+        // The body is gzipped or not depending on the request, shared caches must key on it
+        builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (export.isGzip()) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return builder.body(export);
+    }
+
+    /**
+     * The {@code q} parameter of an {@code Accept-Encoding} entry, 1 when absent or malformed.
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.length() > 2 && Character.toLowerCase(param.charAt(0)) == 'q' && param.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 1;
+                }
+            }
+        }
+
+        return 1;
+    }
+}
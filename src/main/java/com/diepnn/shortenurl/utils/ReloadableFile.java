@@ -0,0 +1,102 @@
+package com.diepnn.shortenurl.utils;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * An immutable value loaded from a local file and rebuilt when the file changes.
+ *
+ * <p>{@link #reload(String)} is meant for a scheduler thread: it compares the size and modification time of the
+ * file with the last load, builds a new value only if they differ and publishes it with a single volatile write.
+ * Readers call {@link #get()} and keep using the previous value until then, they never wait for a reload. A file
+ * that fails to load leaves the current value in place and counts a failure.</p>
+ *
+ * @param <T> the loaded value
+ */
+@Slf4j
+public class ReloadableFile<T> {
+    private final String name;
+    private final Loader<T> loader;
+    private final Function<T, String> summary;
+    private final Counter failureCounter;
+
+    private volatile T value;
+    private FileVersion loadedVersion;
+
+    /**
+     * Builds the value from the content of the file.
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load(BufferedReader reader) throws IOException;
+    }
+
+    private record FileVersion(long lastModifiedMs, long size) {
+    }
+
+    /**
+     * @param name what the file holds, for logs
+     * @param empty the value until a file is loaded
+     * @param loader builds the value from the file
+     * @param summary describes a value for logs, such as its size
+     * @param failureCounter counts loads that kept the current value
+     */
+    public ReloadableFile(String name, T empty, Loader<T> loader, Function<T, String> summary, Counter failureCounter) {
+        this.name = name;
+        this.value = empty;
+        this.loader = loader;
+        this.summary = summary;
+        this.failureCounter = failureCounter;
+    }
+
+    /**
+     * @return the last value loaded, or the empty value
+     */
+    public T get() {
+        return value;
+    }
+
+    /**
+     * Rebuild the value if the file changed since the last load. Does nothing when no file is configured.
+     *
+     * @param file path of the file, may be blank
+     */
+    public synchronized void reload(String file) {
+        if (StringUtils.isBlank(file)) {
+            return;
+        }
+
+        Path path = Path.of(file);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            FileVersion version = new FileVersion(attributes.lastModifiedTime().toMillis(), attributes.size());
+            if (version.equals(loadedVersion)) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            T loaded;
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                loaded = loader.load(reader);
+            }
+
+            value = loaded;
+            loadedVersion = version;
+            log.info("Loaded {} {} from {} in {} ms", name, summary.apply(loaded), path,
+                     TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            failureCounter.increment();
+            log.error("Failed to load {} from {}, keeping the current one {}", name, path, summary.apply(value), e);
+        }
+    }
+}
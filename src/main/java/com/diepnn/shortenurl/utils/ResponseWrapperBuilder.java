@@ -2,14 +2,20 @@ package com.diepnn.shortenurl.utils;
 
 import com.diepnn.shortenurl.dto.response.BaseResponseWrapper;
 import com.diepnn.shortenurl.dto.response.ErrorDetail;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
  * The helper class to create the wrapper {@link BaseResponseWrapper}
  */
 public class ResponseWrapperBuilder {
+    private static final byte[] DATA_FIELD = ",\"data\":".getBytes(StandardCharsets.US_ASCII);
+
     /**
      * Create response with no data
      *
@@ -55,4 +61,23 @@ public class ResponseWrapperBuilder {
         response.setErrors(errors);
         return response;
     }
+
+    /**
+     * Write a response whose data is already serialized JSON, without parsing it again
+     *
+     * @param objectMapper mapper used for the wrapper fields
+     * @param response wrapped response without data
+     * @param rawData serialized JSON of the data
+     * @param out stream to write the response body to
+     * @throws IOException if writing to the stream fails
+     */
+    public static void writeWithRawData(ObjectMapper objectMapper, BaseResponseWrapper<?> response, byte[] rawData,
+                                        OutputStream out) throws IOException {
+        // The wrapper always has a timestamp and status, so its JSON is a non-empty object ending with '}'
+        byte[] wrapper = objectMapper.writeValueAsBytes(response);
+        out.write(wrapper, 0, wrapper.length - 1);
+        out.write(DATA_FIELD);
+        out.write(rawData);
+        out.write('}');
+    }
 }
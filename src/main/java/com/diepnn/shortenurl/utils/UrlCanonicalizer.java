@@ -0,0 +1,396 @@
+package com.diepnn.shortenurl.utils;
+
+import java.net.IDN;
+
+/**
+ * Single-pass canonicalizer for original URLs.
+ *
+ * <p>Applies only the normalizations of RFC 3986 section 6 that keep the URL pointing at the same resource,
+ * so near-duplicates share one stored form and one {@link UrlHashUtils#hash(String)} value:
+ * <ul>
+ *   <li>missing scheme defaults to {@code http}, scheme and host are lowercased, IDN hosts become punycode</li>
+ *   <li>default ports ({@code :80} for http, {@code :443} for https) and port leading zeros are dropped</li>
+ *   <li>a lone root path {@code /} is dropped, other trailing slashes are significant and kept</li>
+ *   <li>percent-encoded unreserved characters are decoded, other escapes get uppercase hex digits</li>
+ *   <li>characters not allowed in their component, including non-ASCII, are percent-encoded as UTF-8</li>
+ * </ul>
+ * The canonical form is always ASCII, so the hash is computed on the fly while it is written.
+ * When the input is already canonical the input string itself is returned.</p>
+ */
+public final class UrlCanonicalizer {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final int PATH = 0;
+    private static final int QUERY = 1;
+    private static final int FRAGMENT = 2;
+
+    private final String input;
+    private final StringBuilder out;
+    private long hash = UrlHashUtils.FNV_OFFSET_BASIS;
+    private boolean unchanged = true;
+
+    /**
+     * Canonical form of an original URL.
+     *
+     * @param url the canonical URL
+     * @param host the canonical host, without port
+     * @param hash the {@link UrlHashUtils#hash(String)} of {@code url}
+     */
+    public record CanonicalUrl(String url, String host, long hash) {
+    }
+
+    private UrlCanonicalizer(String input) {
+        this.input = input;
+        this.out = new StringBuilder(input.length() + 16);
+    }
+
+    /**
+     * Canonicalize the given URL.
+     *
+     * @param url the URL as entered, with or without scheme
+     * @return the canonical URL and its hash
+     * @throws IllegalArgumentException if the URL is blank, not http(s), or malformed
+     */
+    public static CanonicalUrl canonicalize(String url) {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("Invalid input: " + url);
+        }
+
+        return new UrlCanonicalizer(url).run();
+    }
+
+    private CanonicalUrl run() {
+        int start = 0;
+        int end = input.length();
+        while (start < end && isWhitespace(input.charAt(start))) {
+            start++;
+        }
+
+        while (end > start && isWhitespace(input.charAt(end - 1))) {
+            end--;
+        }
+
+        if (start > 0 || end < input.length()) {
+            unchanged = false;
+        }
+
+        int pos = scheme(start, end);
+        boolean https = out.length() == "https://".length();
+
+        int authorityEnd = pos;
+        while (authorityEnd < end && !isAuthorityTerminator(input.charAt(authorityEnd))) {
+            authorityEnd++;
+        }
+
+        String host = authority(pos, authorityEnd, https);
+        pos = authorityEnd;
+
+        int pathEnd = pos;
+        while (pathEnd < end && input.charAt(pathEnd) != '?' && input.charAt(pathEnd) != '#') {
+            pathEnd++;
+        }
+
+        if (pathEnd - pos == 1 && input.charAt(pos) == '/') {
+            // "http://host/" and "http://host" are the same resource, keep the shorter form
+            unchanged = false;
+        } else {
+            component(pos, pathEnd, PATH);
+        }
+
+        pos = pathEnd;
+        if (pos < end && input.charAt(pos) == '?') {
+            emit('?');
+            int queryEnd = input.indexOf('#', pos + 1);
+            queryEnd = queryEnd < 0 || queryEnd > end ? end : queryEnd;
+            component(pos + 1, queryEnd, QUERY);
+            pos = queryEnd;
+        }
+
+        if (pos < end) {
+            emit('#');
+            component(pos + 1, end, FRAGMENT);
+        }
+
+        String canonical = unchanged && out.length() == input.length() ? input : out.toString();
+        return new CanonicalUrl(canonical, host, hash);
+    }
+
+    /**
+     * Writes the lowercased scheme and {@code ://}, defaulting to http when the input has no scheme.
+     *
+     * @return position right after {@code ://}, or {@code start} when there is no scheme
+     */
+    private int scheme(int start, int end) {
+        int i = start;
+        while (i < end && isSchemeChar(input.charAt(i))) {
+            i++;
+        }
+
+        if (i == start || !input.startsWith("://", i)) {
+            // "example.com" or "example.com:8080/path", the part before ':' is a host
+            unchanged = false;
+            emitAscii("http://");
+            return start;
+        }
+
+        int length = i - start;
+        if (length == 4 && input.regionMatches(true, start, "http", 0, 4)) {
+            emitLowercase(start, i);
+        } else if (length == 5 && input.regionMatches(true, start, "https", 0, 5)) {
+            emitLowercase(start, i);
+        } else {
+            throw new IllegalArgumentException("Unsupported scheme: " + input.substring(start, i));
+        }
+
+        emitAscii("://");
+        return i + 3;
+    }
+
+    /**
+     * Writes the lowercased host and the port unless it is the scheme default.
+     *
+     * @return the canonical host
+     */
+    private String authority(int start, int end, boolean https) {
+        if (start == end) {
+            throw new IllegalArgumentException("Invalid URL, missing host: " + input);
+        }
+
+        int hostEnd = end;
+        int portStart = -1;
+        if (input.charAt(start) == '[') {
+            int close = input.indexOf(']', start);
+            if (close < 0 || close >= end) {
+                throw new IllegalArgumentException("Invalid host: " + input.substring(start, end));
+            }
+
+            hostEnd = close + 1;
+            if (hostEnd < end) {
+                if (input.charAt(hostEnd) != ':') {
+                    throw new IllegalArgumentException("Invalid host: " + input.substring(start, end));
+                }
+
+                portStart = hostEnd + 1;
+            }
+        } else {
+            for (int i = start; i < end; i++) {
+                char c = input.charAt(i);
+                if (c == '@') {
+                    throw new IllegalArgumentException("User info is not allowed: " + input);
+                }
+
+                if (c == ':' && portStart < 0) {
+                    hostEnd = i;
+                    portStart = i + 1;
+                }
+            }
+        }
+
+        int hostStart = out.length();
+        host(start, hostEnd);
+        String host = out.substring(hostStart);
+        if (portStart >= 0) {
+            port(portStart, end, https);
+        }
+
+        return host;
+    }
+
+    private void host(int start, int end) {
+        if (start == end) {
+            throw new IllegalArgumentException("Invalid URL, missing host: " + input);
+        }
+
+        if (input.charAt(start) == '[') {
+            for (int i = start + 1; i < end - 1; i++) {
+                char c = input.charAt(i);
+                if (!isHex(c) && c != ':' && c != '.') {
+                    throw new IllegalArgumentException("Invalid host: " + input.substring(start, end));
+                }
+            }
+
+            emitLowercase(start, end);
+            return;
+        }
+
+        boolean ascii = true;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c >= 0x80) {
+                ascii = false;
+            } else if (!isHostChar(c)) {
+                throw new IllegalArgumentException("Invalid host: " + input.substring(start, end));
+            }
+        }
+
+        if (ascii) {
+            emitLowercase(start, end);
+            return;
+        }
+
+        unchanged = false;
+        String punycode = IDN.toASCII(input.substring(start, end), IDN.ALLOW_UNASSIGNED);
+        for (int i = 0; i < punycode.length(); i++) {
+            emit(toLowerAscii(punycode.charAt(i)));
+        }
+    }
+
+    private void port(int start, int end, boolean https) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Invalid port: " + input.substring(start, end));
+            }
+
+            value = value * 10 + (c - '0');
+            if (value > 65535) {
+                throw new IllegalArgumentException("Invalid port: " + input.substring(start, end));
+            }
+        }
+
+        // An empty port means the default one
+        if (start == end || value == (https ? 443 : 80)) {
+            unchanged = false;
+            return;
+        }
+
+        emit(':');
+        for (int divisor = 10000; divisor > 0; divisor /= 10) {
+            if (value >= divisor || divisor == 1) {
+                emit((char) ('0' + value / divisor % 10));
+            }
+        }
+    }
+
+    private void component(int start, int end, int component) {
+        int i = start;
+        while (i < end) {
+            char c = input.charAt(i);
+            if (c == '%') {
+                if (i + 2 >= end || !isHex(input.charAt(i + 1)) || !isHex(input.charAt(i + 2))) {
+                    throw new IllegalArgumentException("Invalid percent-encoding: " + input.substring(i, Math.min(i + 3, end)));
+                }
+
+                int decoded = Character.digit(input.charAt(i + 1), 16) << 4 | Character.digit(input.charAt(i + 2), 16);
+                if (isUnreserved((char) decoded)) {
+                    emit((char) decoded);
+                } else {
+                    emitEscaped(decoded);
+                }
+
+                i += 3;
+            } else if (c < 0x80) {
+                if (isAllowed(c, component)) {
+                    emit(c);
+                } else {
+                    emitEscaped(c);
+                }
+
+                i++;
+            } else {
+                int codePoint = input.codePointAt(i);
+                emitUtf8(codePoint);
+                i += Character.charCount(codePoint);
+            }
+        }
+    }
+
+    private void emitUtf8(int codePoint) {
+        if (codePoint < 0x800) {
+            emitEscaped(0xC0 | codePoint >> 6);
+            emitEscaped(0x80 | codePoint & 0x3F);
+        } else if (codePoint < 0x10000) {
+            emitEscaped(0xE0 | codePoint >> 12);
+            emitEscaped(0x80 | codePoint >> 6 & 0x3F);
+            emitEscaped(0x80 | codePoint & 0x3F);
+        } else {
+            emitEscaped(0xF0 | codePoint >> 18);
+            emitEscaped(0x80 | codePoint >> 12 & 0x3F);
+            emitEscaped(0x80 | codePoint >> 6 & 0x3F);
+            emitEscaped(0x80 | codePoint & 0x3F);
+        }
+    }
+
+    private void emitEscaped(int octet) {
+        emit('%');
+        emit(HEX_DIGITS[octet >> 4 & 0xF]);
+        emit(HEX_DIGITS[octet & 0xF]);
+    }
+
+    private void emitLowercase(int start, int end) {
+        for (int i = start; i < end; i++) {
+            emit(toLowerAscii(input.charAt(i)));
+        }
+    }
+
+    private void emitAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            emit(value.charAt(i));
+        }
+    }
+
+    /**
+     * Appends a character, folds it into the hash and tracks whether the output still equals the input.
+     */
+    private void emit(char c) {
+        out.append(c);
+        // Always ASCII here, so the char is its UTF-8 byte
+        hash = UrlHashUtils.fnv1a(hash, c);
+        if (unchanged) {
+            int index = out.length() - 1;
+            unchanged = index < input.length() && input.charAt(index) == c;
+        }
+    }
+
+    private static boolean isAuthorityTerminator(char c) {
+        return c == '/' || c == '?' || c == '#';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c <= ' ';
+    }
+
+    private static boolean isSchemeChar(char c) {
+        return isAlpha(c) || isDigit(c) || c == '+' || c == '-' || c == '.';
+    }
+
+    private static boolean isHostChar(char c) {
+        return isAlpha(c) || isDigit(c) || c == '-' || c == '.' || c == '_';
+    }
+
+    private static boolean isUnreserved(char c) {
+        return isAlpha(c) || isDigit(c) || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    private static boolean isSubDelim(char c) {
+        return switch (c) {
+            case '!', '$', '&', '\'', '(', ')', '*', '+', ',', ';', '=' -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isAllowed(char c, int component) {
+        if (isUnreserved(c) || isSubDelim(c) || c == ':' || c == '@' || c == '/') {
+            return true;
+        }
+
+        return component != PATH && c == '?';
+    }
+
+    private static boolean isAlpha(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHex(char c) {
+        return isDigit(c) || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,83 @@
+package com.diepnn.shortenurl.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Hashing helpers for original URLs.
+ *
+ * <p>{@code url_info.original_url} is too wide to index, so lookups by URL go through the indexed
+ * {@code original_url_hash} column and then compare the full URL to rule out collisions.</p>
+ *
+ * <p>The hash is 64-bit FNV-1a. The seeded variants continue a hash from a previous value, so callers that hash
+ * several fields or fold characters in as they produce them share the same implementation.</p>
+ */
+public class UrlHashUtils {
+    /**
+     * Initial value of an FNV-1a hash, the seed to start from
+     */
+    public static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Computes the 64-bit FNV-1a hash of the UTF-8 bytes of the given URL.
+     *
+     * @param url the normalized URL
+     * @return the hash, or {@code null} if the URL is null
+     */
+    public static Long hash(String url) {
+        if (url == null) {
+            return null;
+        }
+
+        return fnv1a(FNV_OFFSET_BASIS, url);
+    }
+
+    /**
+     * Folds the UTF-8 bytes of a string into an FNV-1a hash.
+     *
+     * @param seed the hash so far, {@link #FNV_OFFSET_BASIS} to start a new one
+     * @param value the string, null leaves the hash unchanged
+     * @return the hash including the string
+     */
+    public static long fnv1a(long seed, String value) {
+        if (value == null) {
+            return seed;
+        }
+
+        long hash = seed;
+        int length = value.length();
+        int i = 0;
+        // Canonical URLs are ASCII, where each char is its own UTF-8 byte, so skip encoding the string
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+
+            hash ^= c;
+            hash *= FNV_PRIME;
+        }
+
+        if (i == length) {
+            return hash;
+        }
+
+        for (byte b : value.substring(i).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Folds one byte into an FNV-1a hash.
+     *
+     * @param seed the hash so far, {@link #FNV_OFFSET_BASIS} to start a new one
+     * @param octet the byte, only its low 8 bits are used
+     * @return the hash including the byte
+     */
+    public static long fnv1a(long seed, int octet) {
+        return (seed ^ (octet & 0xff)) * FNV_PRIME;
+    }
+}
@@ -0,0 +1,135 @@
+package com.diepnn.shortenurl.utils;
+
+import com.diepnn.shortenurl.dto.UserAgentInfo;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Coarse user agent classification for visit analytics.
+ */
+public class UserAgentUtils {
+    public static final String UNKNOWN = "Unknown";
+    public static final String BOT = "Bot";
+    public static final UserAgentInfo UNKNOWN_INFO = new UserAgentInfo(UNKNOWN, UNKNOWN, UNKNOWN, false);
+
+    private static final String[] BOT_MARKERS = {"bot", "spider", "crawl", "slurp", "facebookexternalhit", "preview"};
+
+    /**
+     * Classifies a user agent into its browser family, operating system and device type.
+     *
+     * @param userAgent the raw {@code User-Agent} header
+     * @return the classification, {@link #UNKNOWN_INFO} when the header is missing
+     */
+    public static UserAgentInfo classify(String userAgent) {
+        if (StringUtils.isBlank(userAgent)) {
+            return UNKNOWN_INFO;
+        }
+
+        String os = os(userAgent);
+        String family = family(userAgent);
+        return new UserAgentInfo(family, os, device(userAgent, os), BOT.equals(family));
+    }
+
+    /**
+     * Maps a user agent to a small, stable set of families so they can be counted per day.
+     * Order matters: most browsers also claim to be the ones they derive from, e.g. Edge and Opera send
+     * {@code Chrome/} and Chrome sends {@code Safari/}.
+     *
+     * @param userAgent the raw {@code User-Agent} header
+     * @return the family name, {@value #UNKNOWN} when the header is missing
+     */
+    public static String family(String userAgent) {
+        if (StringUtils.isBlank(userAgent)) {
+            return UNKNOWN;
+        }
+
+        for (String marker : BOT_MARKERS) {
+            if (StringUtils.containsIgnoreCase(userAgent, marker)) {
+                return BOT;
+            }
+        }
+
+        if (userAgent.contains("Edg/") || userAgent.contains("Edge/") || userAgent.contains("EdgiOS/")) {
+            return "Edge";
+        }
+
+        if (userAgent.contains("OPR/") || userAgent.contains("Opera")) {
+            return "Opera";
+        }
+
+        if (userAgent.contains("SamsungBrowser/")) {
+            return "Samsung Internet";
+        }
+
+        if (userAgent.contains("Chrome/") || userAgent.contains("CriOS/") || userAgent.contains("Chromium/")) {
+            return "Chrome";
+        }
+
+        if (userAgent.contains("Firefox/") || userAgent.contains("FxiOS/")) {
+            return "Firefox";
+        }
+
+        if (userAgent.contains("Safari/")) {
+            return "Safari";
+        }
+
+        if (userAgent.contains("MSIE ") || userAgent.contains("Trident/")) {
+            return "Internet Explorer";
+        }
+
+        if (userAgent.startsWith("curl/") || userAgent.startsWith("Wget/")) {
+            return "CLI";
+        }
+
+        return "Other";
+    }
+
+    /**
+     * Operating system of a user agent. Android and iOS are checked first, their headers also mention
+     * {@code Linux} and {@code Mac OS X}.
+     */
+    private static String os(String userAgent) {
+        if (userAgent.contains("Android")) {
+            return "Android";
+        }
+
+        if (userAgent.contains("iPhone") || userAgent.contains("iPad") || userAgent.contains("iPod")) {
+            return "iOS";
+        }
+
+        if (userAgent.contains("Windows")) {
+            return "Windows";
+        }
+
+        if (userAgent.contains("CrOS")) {
+            return "ChromeOS";
+        }
+
+        if (userAgent.contains("Macintosh") || userAgent.contains("Mac OS X")) {
+            return "macOS";
+        }
+
+        if (userAgent.contains("Linux") || userAgent.contains("X11")) {
+            return "Linux";
+        }
+
+        return "Other";
+    }
+
+    /**
+     * Device type of a user agent. Android tablets do not send the {@code Mobile} token.
+     */
+    private static String device(String userAgent, String os) {
+        if (userAgent.contains("iPad") || userAgent.contains("Tablet") || ("Android".equals(os) && !userAgent.contains("Mobile"))) {
+            return "Tablet";
+        }
+
+        if ("Android".equals(os) || "iOS".equals(os) || userAgent.contains("Mobile")) {
+            return "Mobile";
+        }
+
+        return switch (os) {
+            case "Windows", "macOS", "Linux", "ChromeOS" -> "Desktop";
+            default -> "Other";
+        };
+    }
+}
@@ -0,0 +1,11 @@
+-- Bumps the page version of a user's URL list.
+-- A missing version (never set, or lost to a flush or failover) is seeded first, so it never restarts from a
+-- value a client may still hold in an ETag.
+-- KEYS[1]: page version
+-- ARGV[1]: seed used when the version is missing
+-- Returns the new version
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    redis.call('SET', KEYS[1], ARGV[1])
+end
+
+return redis.call('INCR', KEYS[1])
@@ -0,0 +1,20 @@
+-- Stores a user's URL list loaded from the database, unless it was changed while loading.
+-- KEYS[1]: index sorted set, KEYS[2]: DTO hash, KEYS[3]: load lease
+-- ARGV[1]: lease token, ARGV[2]: TTL in ms, then (score, url id, DTO) triples
+-- Returns 1 if stored, 0 if the lease was revoked by a concurrent change
+if redis.call('GET', KEYS[3]) ~= ARGV[1] then
+    return 0
+end
+
+redis.call('DEL', KEYS[1], KEYS[2], KEYS[3])
+for i = 3, #ARGV, 3 do
+    redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1])
+    redis.call('HSET', KEYS[2], ARGV[i + 1], ARGV[i + 2])
+end
+
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+    redis.call('PEXPIRE', KEYS[2], ARGV[2])
+end
+
+return 1
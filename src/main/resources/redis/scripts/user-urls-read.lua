@@ -0,0 +1,23 @@
+-- Reads a user's cached URL list, newest first.
+-- KEYS[1]: index sorted set (member = url id, score = created time), KEYS[2]: hash of url id -> DTO
+-- Returns the DTOs in index order, or an empty list on a miss or if the two keys disagree
+local ids = redis.call('ZREVRANGE', KEYS[1], 0, -1)
+local result = {}
+
+-- HMGET in chunks to stay below the Lua stack limit for users with many URLs
+for i = 1, #ids, 500 do
+    local chunk = {}
+    for j = i, math.min(i + 499, #ids) do
+        chunk[#chunk + 1] = ids[j]
+    end
+
+    local values = redis.call('HMGET', KEYS[2], unpack(chunk))
+    for _, value in ipairs(values) do
+        if not value then
+            return {}
+        end
+        result[#result + 1] = value
+    end
+end
+
+return result
@@ -0,0 +1,14 @@
+-- Removes one entry from a cached URL list in place.
+-- KEYS[1]: index sorted set, KEYS[2]: DTO hash, KEYS[3]: load lease
+-- ARGV[1]: url id
+-- Returns the number of removed index entries
+redis.call('DEL', KEYS[3])
+local removed = redis.call('ZREM', KEYS[1], ARGV[1])
+redis.call('HDEL', KEYS[2], ARGV[1])
+
+-- An empty list is a miss, like an uncached one
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    redis.call('DEL', KEYS[2])
+end
+
+return removed
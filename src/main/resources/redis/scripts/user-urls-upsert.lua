@@ -0,0 +1,19 @@
+-- Adds or replaces entries of a cached URL list in place.
+-- KEYS[1]: index sorted set, KEYS[2]: DTO hash, KEYS[3]: load lease
+-- ARGV[1]: TTL in ms, then (score, url id, DTO) triples
+-- A load in flight may have read the database before this change, so its lease is always revoked.
+-- A list that is not cached stays uncached, a partial list would be served as complete.
+-- Returns 1 if the cached list was patched, 0 if it was not cached
+redis.call('DEL', KEYS[3])
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+
+for i = 2, #ARGV, 3 do
+    redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1])
+    redis.call('HSET', KEYS[2], ARGV[i + 1], ARGV[i + 2])
+end
+
+redis.call('PEXPIRE', KEYS[1], ARGV[1])
+redis.call('PEXPIRE', KEYS[2], ARGV[1])
+return 1
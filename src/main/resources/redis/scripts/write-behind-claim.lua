@@ -0,0 +1,16 @@
+-- Atomically moves up to ARGV[1] entries from the head of the pending list to the tail of the
+-- node's processing list, so a crash between claiming and persisting never loses an entry.
+-- KEYS[1]: pending list, KEYS[2]: processing list
+-- Returns the claimed entries in queue order
+local claimed = {}
+local limit = tonumber(ARGV[1])
+
+for i = 1, limit do
+    local entry = redis.call('LMOVE', KEYS[1], KEYS[2], 'LEFT', 'RIGHT')
+    if not entry then
+        break
+    end
+    claimed[i] = entry
+end
+
+return claimed
@@ -0,0 +1,14 @@
+-- Moves every entry of the processing list back to the head of the pending list, keeping their order.
+-- KEYS[1]: processing list, KEYS[2]: pending list
+-- Returns the number of entries moved
+local moved = 0
+
+while true do
+    local entry = redis.call('LMOVE', KEYS[1], KEYS[2], 'RIGHT', 'LEFT')
+    if not entry then
+        break
+    end
+    moved = moved + 1
+end
+
+return moved
@@ -7,7 +7,12 @@ SET FOREIGN_KEY_CHECKS = 0;
 drop table users;
 drop table auth_provider;
 drop table url_visit;
+drop table url_click_rollup;
+drop table url_dimension_rollup;
+drop table url_visit_compaction_checkpoint;
+drop table url_visit_log_checkpoint;
 drop table url_info;
+drop table url_import_job;
 SET FOREIGN_KEY_CHECKS = 1;
 
 create table users (
@@ -43,6 +48,7 @@ create table url_info (
 	id bigint,
 	short_code varchar(50) not null,
 	original_url varchar(2048),
+	original_url_hash bigint,
 	is_alias bit,
 	status varchar(2),
     created_by bigint,
@@ -51,6 +57,8 @@ create table url_info (
 	created_datetime timestamp,
     updated_datetime timestamp,
 	last_access_datetime timestamp,
+	total_clicks bigint not null default 0,
+	duplicate_clicks bigint not null default 0,
 	deleted_datetime timestamp,
     deactivated_by bigint,
     deactivated_reason varchar(200),
@@ -58,7 +66,9 @@ create table url_info (
 	primary key (id),
     constraint fk_url_info_users foreign key (created_by) references users(id),
     constraint fk_url_info_users_1 foreign key (deactivated_by) references users(id),
-    unique index uidx_url_info_original_url(short_code)
+    unique index uidx_url_info_original_url(short_code),
+    index idx_url_info_created_by_original_url_hash(created_by, original_url_hash),
+    index idx_url_info_created_by_status_created_datetime_id(created_by, status, created_datetime, id)
 );
 
 create table url_visit (
@@ -68,6 +78,63 @@ create table url_visit (
 	user_agent varchar(512),
 	ip_address varchar(30),
 	country varchar(50),
+	user_agent_family varchar(32),
+	user_agent_os varchar(32),
+	user_agent_device varchar(16),
+	is_bot boolean,
+	sample_weight int not null default 1,
 	primary key (id),
-	constraint fk_url_visit_url_info foreign key (shorten_url_id) references url_info(id)
-);
\ No newline at end of file
+	constraint fk_url_visit_url_info foreign key (shorten_url_id) references url_info(id),
+	index idx_url_visit_visited_datetime(visited_datetime)
+);
+
+create table url_click_rollup (
+    url_id bigint not null,
+    granularity varchar(2) not null,
+    bucket_start timestamp not null,
+    clicks bigint not null default 0,
+    unique_visitors bigint not null default 0,
+    primary key (url_id, granularity, bucket_start),
+    index idx_url_click_rollup_granularity_bucket_start(granularity, bucket_start)
+);
+
+create table url_dimension_rollup (
+    url_id bigint not null,
+    dimension varchar(2) not null,
+    bucket_day date not null,
+    dimension_value varchar(64) not null,
+    clicks bigint not null default 0,
+    primary key (url_id, dimension, bucket_day, dimension_value)
+);
+
+create table url_visit_compaction_checkpoint (
+    job varchar(36) not null,
+    next_visit_id bigint not null,
+    updated_datetime timestamp not null,
+    primary key (job)
+);
+
+create table url_visit_log_checkpoint (
+    log_id varchar(36) not null,
+    next_offset bigint not null,
+    updated_datetime timestamp not null,
+    primary key (log_id)
+);
+
+create table url_import_job (
+    id bigint auto_increment,
+    status varchar(2),
+    format varchar(10),
+    source_name varchar(512),
+    source_path varchar(1024),
+    committed_lines bigint not null default 0,
+    imported_count bigint not null default 0,
+    skipped_count bigint not null default 0,
+    error_message varchar(500),
+    created_by bigint,
+    created_datetime timestamp,
+    updated_datetime timestamp,
+    finished_datetime timestamp,
+    primary key (id),
+    constraint fk_url_import_job_users foreign key (created_by) references users(id)
+);
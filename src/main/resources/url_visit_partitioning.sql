@@ -0,0 +1,25 @@
+-- Converts url_visit to monthly range partitions so expired visits are purged by dropping partitions.
+-- VisitRetentionService then creates the monthly partitions ahead of time out of p_future and drops the
+-- expired ones; the first month partition it creates also holds every visit recorded before the conversion.
+--
+-- MySQL does not support foreign keys on partitioned tables, and every unique key must include the
+-- partitioning column:
+--   * fk_url_visit_url_info is dropped, its index is kept for lookups by URL. Visits of a URL not persisted yet
+--     are no longer rejected by the database.
+--   * the primary key becomes (id, visited_datetime); id stays unique through auto_increment.
+--
+-- The conversion copies the table, run it during a maintenance window.
+
+use shorten_url;
+
+alter table url_visit drop foreign key fk_url_visit_url_info;
+
+alter table url_visit
+    modify visited_datetime timestamp not null,
+    drop primary key,
+    add primary key (id, visited_datetime);
+
+alter table url_visit
+    partition by range (unix_timestamp(visited_datetime)) (
+        partition p_future values less than maxvalue
+    );
@@ -0,0 +1,115 @@
+package com.diepnn.shortenurl.common.generator;
+
+import com.diepnn.shortenurl.common.properties.SnowflakeProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention benchmark for {@link SnowflakeGenerator} on platform threads.
+ *
+ * <p>Every benchmark method calls {@link SnowflakeGenerator#generate()} against one shared generator,
+ * so the fair lock, the interrupt retry loop and {@code waitNextMillis} spinning are all on the hot path.
+ * Throughput is reported in ops/ms; {@code SampleTime} reports the latency distribution (p50..p99.99).</p>
+ *
+ * <p>At the end of each iteration the number of sequence overflows (milliseconds in which the whole
+ * sequence space was consumed) is printed next to the elapsed milliseconds. A high ratio means
+ * {@code sequenceBits} is too small for the observed rate; override it with {@code -p sequenceBits=N}
+ * (epoch bits shrink accordingly) to compare layouts.</p>
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.includes=SnowflakeGeneratorBenchmark}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnowflakeGeneratorBenchmark {
+    @State(Scope.Benchmark)
+    public static class GeneratorState {
+        /**
+         * Sequence bits to benchmark, {@code 12} is the layout from {@code application.properties}
+         * (sign 1, epoch 41, datacenter 5, machine 5).
+         */
+        @Param({"12"})
+        public int sequenceBits;
+
+        SnowflakeGenerator generator;
+
+        private long overflowsAtStart;
+        private long iterationStartMs;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            generator = newGenerator(sequenceBits);
+        }
+
+        @Setup(Level.Iteration)
+        public void startIteration() {
+            overflowsAtStart = generator.getSequenceOverflowCount();
+            iterationStartMs = System.currentTimeMillis();
+        }
+
+        @TearDown(Level.Iteration)
+        public void reportOverflows() {
+            long elapsedMs = Math.max(1, System.currentTimeMillis() - iterationStartMs);
+            long overflows = generator.getSequenceOverflowCount() - overflowsAtStart;
+            System.out.printf("%n[snowflake] sequenceBits=%d overflows=%d elapsedMs=%d overflowedMsRatio=%.4f%n",
+                              sequenceBits, overflows, elapsedMs, (double) overflows / elapsedMs);
+        }
+    }
+
+    /**
+     * Creates a generator with the production layout, trading epoch bits for the given sequence bits.
+     */
+    static SnowflakeGenerator newGenerator(int sequenceBits) {
+        int signBits = 1;
+        int dataCenterBits = 5;
+        int machineBits = 5;
+        int epochBits = 64 - signBits - dataCenterBits - machineBits - sequenceBits;
+
+        SnowflakeProperties props = new SnowflakeProperties(1, 1, dataCenterBits, machineBits, epochBits, signBits,
+                                                            Instant.parse("2025-01-01T00:00:00Z"));
+        SnowflakeGenerator generator = new SnowflakeGenerator(props);
+        generator.init();
+        return generator;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long generate_1Thread(GeneratorState state) {
+        return state.generator.generate();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long generate_4Threads(GeneratorState state) {
+        return state.generator.generate();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long generate_16Threads(GeneratorState state) {
+        return state.generator.generate();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long generate_64Threads(GeneratorState state) {
+        return state.generator.generate();
+    }
+}
@@ -0,0 +1,114 @@
+package com.diepnn.shortenurl.common.generator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link SnowflakeGenerator} under platform and virtual threads.
+ *
+ * <p>JMH worker threads are always platform threads, so each invocation fans a fixed batch of
+ * {@value #BATCH_SIZE} IDs out to {@code threads} workers of the selected {@code threadType} and waits
+ * for all of them. Scores are normalized per generated ID; {@code SampleTime} percentiles are per batch
+ * divided by the batch size, so they show how badly a batch can be delayed by lock handoff or
+ * sequence exhaustion rather than single-call latency.</p>
+ *
+ * <p>Virtual threads that block on the fair {@code ReentrantLock} unmount from their carrier, whereas
+ * {@code waitNextMillis} spins while holding it, so the two thread types diverge once the sequence
+ * overflows.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnowflakeGeneratorExecutorBenchmark {
+    private static final int BATCH_SIZE = 4096;
+
+    public enum ThreadType { PLATFORM, VIRTUAL }
+
+    @Param({"1", "4", "16", "64"})
+    public int threads;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadType threadType;
+
+    @Param({"12"})
+    public int sequenceBits;
+
+    private SnowflakeGenerator generator;
+    private ExecutorService executor;
+    private List<Callable<Long>> tasks;
+
+    private long overflowsAtStart;
+    private long iterationStartMs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = SnowflakeGeneratorBenchmark.newGenerator(sequenceBits);
+        executor = threadType == ThreadType.VIRTUAL
+                   ? Executors.newVirtualThreadPerTaskExecutor()
+                   : Executors.newFixedThreadPool(threads);
+
+        int idsPerTask = BATCH_SIZE / threads;
+        tasks = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            tasks.add(() -> {
+                long acc = 0;
+                for (int j = 0; j < idsPerTask; j++) {
+                    acc ^= generator.generate();
+                }
+                return acc;
+            });
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        overflowsAtStart = generator.getSequenceOverflowCount();
+        iterationStartMs = System.currentTimeMillis();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportOverflows() {
+        long elapsedMs = Math.max(1, System.currentTimeMillis() - iterationStartMs);
+        long overflows = generator.getSequenceOverflowCount() - overflowsAtStart;
+        System.out.printf("%n[snowflake] %s x%d sequenceBits=%d overflows=%d elapsedMs=%d overflowedMsRatio=%.4f%n",
+                          threadType, threads, sequenceBits, overflows, elapsedMs, (double) overflows / elapsedMs);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long generateBatch() throws Exception {
+        long acc = 0;
+        for (Future<Long> future : executor.invokeAll(tasks)) {
+            acc ^= future.get();
+        }
+        return acc;
+    }
+}
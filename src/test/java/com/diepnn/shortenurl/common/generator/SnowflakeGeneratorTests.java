@@ -87,6 +87,21 @@ public class SnowflakeGeneratorTests {
         assertEquals(0, seqVal, "first ID in a millisecond should have sequence 0");
     }
 
+    @Test
+    @DisplayName("generate(count): returns strictly increasing IDs spanning sequence overflow")
+    void generateBatch_monotonicIncreasing() throws TooManyRequestException {
+        int n = 10_000; // larger than the 4096 IDs available per millisecond
+        long[] ids = generator.generate(n);
+
+        assertEquals(n, ids.length);
+        for (int i = 1; i < n; i++) {
+            assertTrue(ids[i] > ids[i - 1], "IDs must be strictly increasing");
+        }
+
+        assertEquals(0, generator.generate(0).length);
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(-1));
+    }
+
     @Test
     @DisplayName("generate(): produces strictly increasing IDs across multiple calls")
     void generate_monotonicIncreasing() throws TooManyRequestException {
@@ -148,6 +163,7 @@ public class SnowflakeGeneratorTests {
 
         assertTrue(newTs > fixedTs, "Timestamp should advance to next millisecond after overflow");
         assertEquals(0, seq, "Sequence should reset to 0 after moving to next millisecond");
+        assertEquals(1, generator.getSequenceOverflowCount(), "Overflow should be recorded once");
     }
 
     @Test
@@ -15,14 +15,18 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -185,6 +189,42 @@ public class UrlInfoControllerIT extends BaseControllerIT {
                    .andExpect(jsonPath("$.status", is(HttpStatus.OK.value())))
                    .andExpect(jsonPath("$.data[?(@.short_url == 'xyz789')]").doesNotExist());
         }
+
+        @Test
+        void shouldReturnNotModified_WhenETagMatches() throws Exception {
+            String etag = mockMvc.perform(get(GET_BY_USER_ID_ENDPOINT)
+                                                  .header("Authorization", "Bearer " + validToken))
+                                 .andExpect(status().isOk())
+                                 .andExpect(header().exists(HttpHeaders.ETAG))
+                                 .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get(GET_BY_USER_ID_ENDPOINT)
+                                    .header("Authorization", "Bearer " + validToken)
+                                    .header(HttpHeaders.IF_NONE_MATCH, etag))
+                   .andExpect(status().isNotModified())
+                   .andExpect(content().string(""));
+        }
+
+        @Test
+        void shouldReturnList_WhenUrlsChangedSinceETag() throws Exception {
+            String etag = mockMvc.perform(get(GET_BY_USER_ID_ENDPOINT)
+                                                  .header("Authorization", "Bearer " + validToken))
+                                 .andExpect(status().isOk())
+                                 .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(post(CREATE_ENDPOINT)
+                                    .header("Authorization", "Bearer " + validToken)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(new UrlInfoRequest("https://example.com/new", null))))
+                   .andExpect(status().isCreated());
+
+            mockMvc.perform(get(GET_BY_USER_ID_ENDPOINT)
+                                    .header("Authorization", "Bearer " + validToken)
+                                    .header(HttpHeaders.IF_NONE_MATCH, etag))
+                   .andExpect(status().isOk())
+                   .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                   .andExpect(jsonPath("$.data.length()", is(2)));
+        }
     }
 
     @Nested
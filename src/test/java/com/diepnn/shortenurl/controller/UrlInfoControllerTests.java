@@ -15,6 +15,8 @@ import com.diepnn.shortenurl.mapper.translator.ShortUrlMappings;
 import com.diepnn.shortenurl.security.CustomUserDetails;
 import com.diepnn.shortenurl.service.UrlInfoService;
 import com.diepnn.shortenurl.utils.DateUtils;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer.CanonicalUrl;
 import com.diepnn.shortenurl.utils.UserInfoRequestExtractor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -73,6 +75,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
     @BeforeEach
     void setUp() {
         when(userInfoRequestExtractor.getUserInfo(any())).thenReturn(new UserInfo("127.0.0.1", "Mozilla/5.0", null, null));
+        when(shortUrlMappings.canonicalizeOriginalUrl(any())).thenAnswer(inv -> UrlCanonicalizer.canonicalize(inv.getArgument(0)));
     }
 
     private UrlInfo mockUrlInfo(String shortCode, String originalUrl) {
@@ -99,7 +102,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
             UrlInfo urlInfo = mockUrlInfo("abc123", "https://example.com");
             UrlInfoDTO dto = mockUrlInfoDTO(urlInfo);
 
-            when(urlInfoService.create(any(UrlInfoRequest.class), any(UserInfo.class), nullable(Long.class))).thenReturn(dto);
+            when(urlInfoService.create(any(UrlInfoRequest.class), any(CanonicalUrl.class), any(UserInfo.class), nullable(Long.class))).thenReturn(dto);
             when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(dto);
 
             mockMvc.perform(
@@ -111,7 +114,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
                    .andExpect(jsonPath("$.status", is(HttpStatus.CREATED.value())));
 
             verify(userInfoRequestExtractor).getUserInfo(any());
-            verify(urlInfoService).create(any(UrlInfoRequest.class), any(UserInfo.class), nullable(Long.class));
+            verify(urlInfoService).create(any(UrlInfoRequest.class), any(CanonicalUrl.class), any(UserInfo.class), nullable(Long.class));
         }
 
         @Test
@@ -119,7 +122,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
         void create_duplicateAlias() throws Exception {
             UrlInfoRequest request = new UrlInfoRequest("https://example.com", "abc123");
 
-            when(urlInfoService.create(any(UrlInfoRequest.class), any(UserInfo.class), nullable(Long.class)))
+            when(urlInfoService.create(any(UrlInfoRequest.class), any(CanonicalUrl.class), any(UserInfo.class), nullable(Long.class)))
                     .thenThrow(new AliasAlreadyExistsException("Alias in use"));
 
             mockMvc.perform(
@@ -137,7 +140,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
         void create_tooManyRequests() throws Exception {
             UrlInfoRequest request = new UrlInfoRequest("https://example.com", null);
 
-            when(urlInfoService.create(any(UrlInfoRequest.class), any(UserInfo.class), nullable(Long.class)))
+            when(urlInfoService.create(any(UrlInfoRequest.class), any(CanonicalUrl.class), any(UserInfo.class), nullable(Long.class)))
                     .thenThrow(new TooManyRequestException("Id generation conflict"));
 
             mockMvc.perform(
@@ -186,7 +189,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
                    .andExpect(jsonPath("$.status", is(HttpStatus.BAD_REQUEST.value())))
                    .andExpect(jsonPath("$.message", is("Invalid request")));
 
-            verify(urlInfoService, never()).create(any(), any(), any());
+            verify(urlInfoService, never()).create(any(), any(), any(), any());
         }
 
         @Test
@@ -204,7 +207,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
                    .andExpect(jsonPath("$.errors").exists())
                    .andExpect(jsonPath("$.errors[?(@.field == 'original_url' && @.message == 'Original URL is required')]").exists());
 
-            verify(urlInfoService, never()).create(any(), any(), any());
+            verify(urlInfoService, never()).create(any(), any(), any(), any());
         }
 
         @ParameterizedTest
@@ -223,7 +226,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
                    .andExpect(jsonPath("$.errors").exists())
                    .andExpect(jsonPath("$.errors[?(@.field == 'original_url')]").exists());
 
-            verify(urlInfoService, never()).create(any(), any(), any());
+            verify(urlInfoService, never()).create(any(), any(), any(), any());
         }
 
         @ParameterizedTest
@@ -239,7 +242,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
                    .andExpect(jsonPath("$.status", is(HttpStatus.BAD_REQUEST.value())))
                    .andExpect(jsonPath("$.message", is("Invalid request")));
 
-            verify(urlInfoService, never()).create(any(), any(), any());
+            verify(urlInfoService, never()).create(any(), any(), any(), any());
         }
 
         @Test
@@ -257,7 +260,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
                    .andExpect(jsonPath("$.errors").exists())
                    .andExpect(jsonPath("$.errors[?(@.field == 'alias' && @.message == 'Alias must be 5-30 chars, letters, digits or hyphens')]").exists());
 
-            verify(urlInfoService, never()).create(any(), any(), any());
+            verify(urlInfoService, never()).create(any(), any(), any(), any());
         }
 
         @Test
@@ -275,7 +278,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
                    .andExpect(jsonPath("$.errors").exists())
                    .andExpect(jsonPath("$.errors[?(@.field == 'alias' && @.message == 'Alias must be 5-30 chars, letters, digits or hyphens')]").exists());
 
-            verify(urlInfoService, never()).create(any(), any(), any());
+            verify(urlInfoService, never()).create(any(), any(), any(), any());
         }
 
         @Test
@@ -293,7 +296,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
                    .andExpect(jsonPath("$.errors").exists())
                    .andExpect(jsonPath("$.errors[?(@.field == 'alias' && @.message == 'Alias must be 5-30 chars, letters, digits or hyphens')]").exists());
 
-            verify(urlInfoService, never()).create(any(), any(), any());
+            verify(urlInfoService, never()).create(any(), any(), any(), any());
         }
 
         @Test
@@ -311,7 +314,7 @@ public class UrlInfoControllerTests extends BaseControllerTest {
                    .andExpect(jsonPath("$.errors").exists())
                    .andExpect(jsonPath("$.errors[?(@.field == 'alias' && @.message == 'Alias must be 5-30 chars, letters, digits or hyphens')]").exists());
 
-            verify(urlInfoService, never()).create(any(), any(), any());
+            verify(urlInfoService, never()).create(any(), any(), any(), any());
         }
     }
 
@@ -1,5 +1,8 @@
 package com.diepnn.shortenurl.mapper.translator;
 
+import com.diepnn.shortenurl.service.blocklist.DomainBlocklistService;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer.CanonicalUrl;
+import com.diepnn.shortenurl.utils.UrlHashUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
@@ -8,9 +11,12 @@ import org.junit.jupiter.params.provider.ValueSource;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class ShortUrlMappingsTests {
-    private ShortUrlMappings shortUrlMappings = new ShortUrlMappings("http://localhost:8080");
+    private DomainBlocklistService domainBlocklistService = mock(DomainBlocklistService.class);
+    private ShortUrlMappings shortUrlMappings = new ShortUrlMappings("http://localhost:8080", domainBlocklistService);
 
     @ParameterizedTest
     @NullAndEmptySource
@@ -38,36 +44,39 @@ public class ShortUrlMappingsTests {
         assertEquals("abc123", shortUrl, "Wrong shortUrl");
     }
 
-    @ParameterizedTest
-    @ValueSource(strings = {"http://localhost:8080/abc123", "https://localhost:8080/abc123"})
-    void normalizeUrl_whenUrlStartsWithHttp_returnUrl(String inputUrl) {
-        String url = shortUrlMappings.normalizeUrl(inputUrl);
-        assertEquals(url, inputUrl, "Wrong url");
-    }
-
     @Test
-    void normalizeUrl_whenUrlDoesNotStartWithHttp_returnUrlWithHttp() {
-        String url = shortUrlMappings.normalizeUrl("localhost:8080/abc123");
-        assertEquals("http://localhost:8080/abc123", url, "Wrong url");
+    void canonicalizeOriginalUrl_whenUrlDoesNotStartWithHttp_returnUrlWithHttp() {
+        shortUrlMappings = new ShortUrlMappings("https://sho.rt", domainBlocklistService);
+        CanonicalUrl url = shortUrlMappings.canonicalizeOriginalUrl("example.com:8080/abc123");
+        assertEquals("http://example.com:8080/abc123", url.url(), "Wrong url");
+        assertEquals(UrlHashUtils.hash(url.url()), url.hash(), "Wrong hash");
     }
 
     @Test
-    void validateOriginalUrl_whenOriginalUrlIsNullOrBlank_throwIllegalArgumentException() {
-        assertThrows(IllegalArgumentException.class, () -> shortUrlMappings.validateOriginalUrl(null));
-        assertThrows(IllegalArgumentException.class, () -> shortUrlMappings.validateOriginalUrl(" "));
+    void canonicalizeOriginalUrl_whenOriginalUrlIsNullOrBlank_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> shortUrlMappings.canonicalizeOriginalUrl(null));
+        assertThrows(IllegalArgumentException.class, () -> shortUrlMappings.canonicalizeOriginalUrl(" "));
     }
 
     @ParameterizedTest
-    @ValueSource(strings = {"http://localhost:8080", "https://localhost:8080", "localhost:8080"})
-    void validateOriginalUrl_whenOriginalUrlIsSameHostWithBase_throwIllegalArgumentException(String inputUrl) {
-        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> shortUrlMappings.validateOriginalUrl(inputUrl));
+    @ValueSource(strings = {"http://localhost:8080", "https://localhost:8080", "localhost:8080", "HTTP://LOCALHOST/abc"})
+    void canonicalizeOriginalUrl_whenOriginalUrlIsSameHostWithBase_throwIllegalArgumentException(String inputUrl) {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> shortUrlMappings.canonicalizeOriginalUrl(inputUrl));
         assertEquals("Prohibited domain: localhost", ex.getMessage());
     }
 
     @Test
-    void validateOriginalUrl_whenOriginalUrlIsSameHostWithBase_throwIllegalArgumentException() {
-        shortUrlMappings = new ShortUrlMappings("https://example.com");
-        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> shortUrlMappings.validateOriginalUrl("http://example.com"));
+    void canonicalizeOriginalUrl_whenOriginalUrlIsSameHostWithBase_throwIllegalArgumentException() {
+        shortUrlMappings = new ShortUrlMappings("https://example.com", domainBlocklistService);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> shortUrlMappings.canonicalizeOriginalUrl("http://example.com"));
         assertEquals("Prohibited domain: example.com", ex.getMessage());
     }
+
+    @Test
+    void canonicalizeOriginalUrl_whenHostIsBlocked_throwIllegalArgumentException() {
+        when(domainBlocklistService.isBlocked("www.bad.com")).thenReturn(true);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                                                   () -> shortUrlMappings.canonicalizeOriginalUrl("https://WWW.bad.com/login"));
+        assertEquals("Blocked domain: www.bad.com", ex.getMessage());
+    }
 }
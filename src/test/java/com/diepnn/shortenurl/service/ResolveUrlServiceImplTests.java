@@ -3,6 +3,9 @@ package com.diepnn.shortenurl.service;
 import com.diepnn.shortenurl.dto.UserInfo;
 import com.diepnn.shortenurl.dto.cache.UrlInfoCache;
 import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.service.live.LiveClicksService;
+import com.diepnn.shortenurl.service.stats.VisitDeduplicator;
+import com.diepnn.shortenurl.service.trending.TrendingLinksService;
 import com.diepnn.shortenurl.utils.DateUtils;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +22,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +36,15 @@ public class ResolveUrlServiceImplTests {
     @Mock
     private EntityManager entityManager;
 
+    @Mock
+    private TrendingLinksService trendingLinksService;
+
+    @Mock
+    private LiveClicksService liveClicksService;
+
+    @Mock
+    private VisitDeduplicator visitDeduplicator;
+
     @InjectMocks
     private ResolveUrlServiceImpl resolveUrlServiceImpl;
 
@@ -50,6 +63,7 @@ public class ResolveUrlServiceImplTests {
         UrlInfoCache urlInfoCache = new UrlInfoCache(1L, "https://example.com");
         when(urlInfoService.findByShortCodeCache(shortCode)).thenReturn(urlInfoCache);
         when(entityManager.getReference(eq(UrlInfo.class), any(Long.class))).thenReturn(mock(UrlInfo.class));
+        when(visitDeduplicator.admit(1L, userInfo)).thenReturn(true);
 
         String url = resolveUrlServiceImpl.resolve(shortCode, userInfo);
 
@@ -58,5 +72,21 @@ public class ResolveUrlServiceImplTests {
         verify(entityManager).getReference(eq(UrlInfo.class), any(Long.class));
         verify(urlVisitService).createAsync(any(UrlInfo.class), any(UserInfo.class));
         verify(urlInfoService).updateLastAccessDatetimeByIdAsync(any(Long.class), any(LocalDateTime.class));
+        verify(trendingLinksService).record(1L);
+        verify(liveClicksService).record(1L);
+    }
+
+    @Test
+    public void resolve_whenRepeatVisit_skipRecording() {
+        String shortCode = "abc123";
+        UrlInfoCache urlInfoCache = new UrlInfoCache(1L, "https://example.com");
+        when(urlInfoService.findByShortCodeCache(shortCode)).thenReturn(urlInfoCache);
+        when(visitDeduplicator.admit(1L, userInfo)).thenReturn(false);
+
+        String url = resolveUrlServiceImpl.resolve(shortCode, userInfo);
+
+        assertEquals(urlInfoCache.originalUrl(), url);
+        verify(urlInfoService).updateLastAccessDatetimeByIdAsync(1L, userInfo.visitedDatetime());
+        verifyNoInteractions(urlVisitService, trendingLinksService, liveClicksService, entityManager);
     }
 }
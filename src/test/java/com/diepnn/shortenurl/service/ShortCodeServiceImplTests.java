@@ -6,6 +6,7 @@ import com.diepnn.shortenurl.exception.TooManyRequestException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -81,6 +82,16 @@ class ShortCodeServiceImplTests {
         verify(idGenerator).generate();
     }
 
+    @Test
+    void generateIds_delegatesToIdGenerator() throws TooManyRequestException {
+        when(idGenerator.generate(3)).thenReturn(new long[] {1L, 2L, 3L});
+
+        long[] ids = service.generateIds(3);
+
+        assertArrayEquals(new long[] {1L, 2L, 3L}, ids);
+        verify(idGenerator).generate(3);
+    }
+
     @Test
     void generateShortCode_withProvidedId_propagatesRuntimeFromShortener() {
         long id = 7L;
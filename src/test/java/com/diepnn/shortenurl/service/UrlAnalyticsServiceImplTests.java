@@ -0,0 +1,201 @@
+package com.diepnn.shortenurl.service;
+
+import com.diepnn.shortenurl.common.enums.ClickGranularity;
+import com.diepnn.shortenurl.common.enums.VisitDimension;
+import com.diepnn.shortenurl.common.properties.ClickRollupProperties;
+import com.diepnn.shortenurl.common.properties.UniqueVisitorProperties;
+import com.diepnn.shortenurl.dto.ClickBucketDTO;
+import com.diepnn.shortenurl.dto.DimensionCountDTO;
+import com.diepnn.shortenurl.dto.response.ClickStatsResponse;
+import com.diepnn.shortenurl.dto.response.TopValuesResponse;
+import com.diepnn.shortenurl.dto.response.UniqueVisitorsResponse;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.entity.Users;
+import com.diepnn.shortenurl.exception.NotFoundException;
+import com.diepnn.shortenurl.repository.UrlInfoRepository;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.cache.UrlAnalyticsCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UrlAnalyticsServiceImplTests {
+    @Mock
+    private UrlInfoRepository urlInfoRepository;
+
+    @Mock
+    private UrlAnalyticsCacheService urlAnalyticsCacheService;
+
+    private UrlAnalyticsServiceImpl service;
+    private UrlInfo mockUrlInfo;
+    private CustomUserDetails owner;
+    private CustomUserDetails otherUser;
+    private final long mockId = 12345L;
+
+    @BeforeEach
+    void setUp() {
+        service = new UrlAnalyticsServiceImpl(urlInfoRepository, urlAnalyticsCacheService,
+                                              new ClickRollupProperties(true, 5000, 500, 1440, 366, false),
+                                              new UniqueVisitorProperties(true, 366, 366));
+        mockUrlInfo = UrlInfo.builder().id(mockId).userId(123L).build();
+        owner = CustomUserDetails.create(Users.builder().id(123L).build());
+        otherUser = CustomUserDetails.create(Users.builder().id(2L).build());
+    }
+
+    @Nested
+    @DisplayName("Test findClickStats function")
+    class FindClickStatsTests {
+        private final LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        @Test
+        void findClickStats_whenOwner_returnTotalAndBuckets() {
+            mockUrlInfo.setTotalClicks(42L);
+            mockUrlInfo.setDuplicateClicks(7L);
+            List<ClickBucketDTO> buckets = List.of(new ClickBucketDTO(from, 40), new ClickBucketDTO(from.plusHours(1), 2));
+            when(urlInfoRepository.findById(mockId)).thenReturn(Optional.of(mockUrlInfo));
+            when(urlAnalyticsCacheService.findClickBuckets(mockId, ClickGranularity.HOUR, from, from.plusDays(1))).thenReturn(buckets);
+
+            ClickStatsResponse stats = service.findClickStats(mockId, ClickGranularity.HOUR, from, from.plusDays(1), owner);
+
+            assertEquals(42L, stats.totalClicks());
+            assertEquals(7L, stats.duplicateClicks());
+            assertEquals(buckets, stats.buckets());
+        }
+
+        @Test
+        void findClickStats_whenYearOfDays_servedFromDayBuckets() {
+            when(urlInfoRepository.findById(mockId)).thenReturn(Optional.of(mockUrlInfo));
+            when(urlAnalyticsCacheService.findClickBuckets(mockId, ClickGranularity.DAY, from, from.plusYears(1))).thenReturn(List.of());
+
+            ClickStatsResponse stats = service.findClickStats(mockId, ClickGranularity.DAY, from, from.plusYears(1), owner);
+
+            assertEquals(0L, stats.totalClicks());
+            assertEquals(0L, stats.duplicateClicks());
+        }
+
+        @Test
+        void findClickStats_whenNotOwner_throwAccessDeniedException() {
+            when(urlInfoRepository.findById(mockId)).thenReturn(Optional.of(mockUrlInfo));
+
+            assertThrows(AccessDeniedException.class,
+                         () -> service.findClickStats(mockId, ClickGranularity.DAY, from, from.plusDays(7), otherUser));
+            verifyNoInteractions(urlAnalyticsCacheService);
+        }
+
+        @Test
+        void findClickStats_whenNotFound_throwNotFoundException() {
+            when(urlInfoRepository.findById(mockId)).thenReturn(Optional.empty());
+
+            assertThrows(NotFoundException.class,
+                         () -> service.findClickStats(mockId, ClickGranularity.DAY, from, from.plusDays(7), owner));
+        }
+
+        @Test
+        void findClickStats_whenRangeIsEmpty_throwIllegalArgumentException() {
+            assertThrows(IllegalArgumentException.class,
+                         () -> service.findClickStats(mockId, ClickGranularity.DAY, from, from, owner));
+            verifyNoInteractions(urlInfoRepository, urlAnalyticsCacheService);
+        }
+
+        @Test
+        void findClickStats_whenTooManyBuckets_throwIllegalArgumentException() {
+            // 1441 minute buckets
+            assertThrows(IllegalArgumentException.class,
+                         () -> service.findClickStats(mockId, ClickGranularity.MINUTE, from, from.plusMinutes(1441), owner));
+            verifyNoInteractions(urlInfoRepository, urlAnalyticsCacheService);
+        }
+    }
+
+    @Nested
+    @DisplayName("Test findUniqueVisitors function")
+    class FindUniqueVisitorsTests {
+        private final LocalDate from = LocalDate.of(2026, 1, 1);
+
+        @Test
+        void findUniqueVisitors_whenOwner_returnEstimates() {
+            UniqueVisitorsResponse expected = new UniqueVisitorsResponse(10, List.of());
+            when(urlInfoRepository.findById(mockId)).thenReturn(Optional.of(mockUrlInfo));
+            when(urlAnalyticsCacheService.findUniqueVisitors(mockId, from, from.plusDays(6))).thenReturn(expected);
+
+            assertSame(expected, service.findUniqueVisitors(mockId, from, from.plusDays(6), owner));
+        }
+
+        @Test
+        void findUniqueVisitors_whenNotOwner_throwAccessDeniedException() {
+            when(urlInfoRepository.findById(mockId)).thenReturn(Optional.of(mockUrlInfo));
+
+            assertThrows(AccessDeniedException.class, () -> service.findUniqueVisitors(mockId, from, from, otherUser));
+            verifyNoInteractions(urlAnalyticsCacheService);
+        }
+
+        @Test
+        void findUniqueVisitors_whenRangeInvalid_throwIllegalArgumentException() {
+            assertThrows(IllegalArgumentException.class,
+                         () -> service.findUniqueVisitors(mockId, from, from.plusDays(366), owner));
+            assertThrows(IllegalArgumentException.class,
+                         () -> service.findUniqueVisitors(mockId, from, from.minusDays(1), owner));
+            verifyNoInteractions(urlInfoRepository, urlAnalyticsCacheService);
+        }
+    }
+
+    @Nested
+    @DisplayName("Test findTopValues function")
+    class FindTopValuesTests {
+        private final LocalDate from = LocalDate.of(2026, 1, 1);
+
+        @Test
+        void findTopValues_whenOwner_returnRankedValues() {
+            List<DimensionCountDTO> countries = List.of(new DimensionCountDTO("VN", 30), new DimensionCountDTO("US", 12));
+            when(urlInfoRepository.findById(mockId)).thenReturn(Optional.of(mockUrlInfo));
+            when(urlAnalyticsCacheService.findTopValues(mockId, VisitDimension.COUNTRY, from, from.plusDays(364), 10))
+                    .thenReturn(countries);
+
+            TopValuesResponse top = service.findTopValues(mockId, VisitDimension.COUNTRY, from, from.plusDays(364), 10, owner);
+
+            assertEquals(VisitDimension.COUNTRY, top.dimension());
+            assertEquals(countries, top.values());
+        }
+
+        @Test
+        void findTopValues_whenNotOwner_throwAccessDeniedException() {
+            when(urlInfoRepository.findById(mockId)).thenReturn(Optional.of(mockUrlInfo));
+
+            assertThrows(AccessDeniedException.class,
+                         () -> service.findTopValues(mockId, VisitDimension.USER_AGENT_FAMILY, from, from, 10, otherUser));
+            verifyNoInteractions(urlAnalyticsCacheService);
+        }
+
+        @Test
+        void findTopValues_whenLimitOutOfRange_throwIllegalArgumentException() {
+            assertThrows(IllegalArgumentException.class,
+                         () -> service.findTopValues(mockId, VisitDimension.COUNTRY, from, from, 0, owner));
+            assertThrows(IllegalArgumentException.class,
+                         () -> service.findTopValues(mockId, VisitDimension.COUNTRY, from, from, 101, owner));
+            verifyNoInteractions(urlInfoRepository, urlAnalyticsCacheService);
+        }
+
+        @Test
+        void findTopValues_whenRangeTooLarge_throwIllegalArgumentException() {
+            assertThrows(IllegalArgumentException.class,
+                         () -> service.findTopValues(mockId, VisitDimension.COUNTRY, from, from.plusDays(366), 10, owner));
+            verifyNoInteractions(urlInfoRepository, urlAnalyticsCacheService);
+        }
+    }
+}
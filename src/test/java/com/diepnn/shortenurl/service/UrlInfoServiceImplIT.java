@@ -22,6 +22,7 @@ import com.diepnn.shortenurl.repository.UsersRepository;
 import com.diepnn.shortenurl.security.CustomUserDetails;
 import com.diepnn.shortenurl.service.cache.UrlInfoCacheService;
 import com.diepnn.shortenurl.utils.DateUtils;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -208,7 +209,7 @@ public class UrlInfoServiceImplIT extends BaseIntegrationTest {
             Long userId = 1L;
 
             AliasAlreadyExistsException ex = assertThrows(AliasAlreadyExistsException.class,
-                                                          () -> urlInfoService.create(userRequest, userInfo, userId));
+                                                          () -> urlInfoService.create(userRequest, UrlCanonicalizer.canonicalize(userRequest.getOriginalUrl()), userInfo, userId));
 
             assertEquals(expectedMessage, ex.getMessage());
         }
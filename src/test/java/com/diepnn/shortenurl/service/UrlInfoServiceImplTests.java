@@ -1,30 +1,48 @@
 package com.diepnn.shortenurl.service;
 
 import com.diepnn.shortenurl.common.enums.UrlInfoStatus;
+import com.diepnn.shortenurl.common.properties.RedisCacheProperties;
+import com.diepnn.shortenurl.common.properties.UrlInfoProperties;
 import com.diepnn.shortenurl.dto.UrlInfoDTO;
 import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.dto.cache.UrlInfoCache;
+import com.diepnn.shortenurl.dto.filter.UrlInfoCursor;
 import com.diepnn.shortenurl.dto.filter.UrlInfoFilter;
 import com.diepnn.shortenurl.dto.request.DeactivateUrlInfo;
 import com.diepnn.shortenurl.dto.request.UpdateOriginalUrl;
 import com.diepnn.shortenurl.dto.request.UrlInfoRequest;
+import com.diepnn.shortenurl.dto.response.BatchItemResponse;
+import com.diepnn.shortenurl.dto.response.CursorPageResponse;
 import com.diepnn.shortenurl.entity.UrlInfo;
 import com.diepnn.shortenurl.entity.Users;
 import com.diepnn.shortenurl.exception.AliasAlreadyExistsException;
 import com.diepnn.shortenurl.exception.IdCollisionException;
 import com.diepnn.shortenurl.exception.NotFoundException;
 import com.diepnn.shortenurl.mapper.UrlInfoMapper;
+import com.diepnn.shortenurl.mapper.translator.ShortUrlMappings;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository.InsertOutcome;
 import com.diepnn.shortenurl.repository.UrlInfoRepository;
 import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.blocklist.DomainBlocklistService;
 import com.diepnn.shortenurl.service.cache.UrlInfoCacheService;
+import com.diepnn.shortenurl.service.cache.UserUrlsBodyCache;
+import com.diepnn.shortenurl.service.writebehind.UrlInfoWriteBehindService;
 import com.diepnn.shortenurl.utils.DateUtils;
 import com.diepnn.shortenurl.utils.SqlConstraintUtils;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer;
+import com.diepnn.shortenurl.utils.UrlCanonicalizer.CanonicalUrl;
+import com.diepnn.shortenurl.utils.UrlHashUtils;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.BeanUtils;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -47,12 +65,16 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -71,6 +93,29 @@ public class UrlInfoServiceImplTests {
     @Mock
     private UrlInfoCacheService urlInfoCacheService;
 
+    @Mock
+    private UrlInfoBatchRepository urlInfoBatchRepository;
+
+    @Mock
+    private UrlInfoProperties urlInfoProperties;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private UrlInfoWriteBehindService urlInfoWriteBehindService;
+
+    @Mock
+    private RedisCacheProperties redisCacheProperties;
+
+    @Mock
+    private UserUrlsBodyCache userUrlsBodyCache;
+
+    private final DomainBlocklistService domainBlocklistService = mock(DomainBlocklistService.class);
+
+    @Spy
+    private ShortUrlMappings shortUrlMappings = new ShortUrlMappings("http://localhost:8080", domainBlocklistService);
+
     @InjectMocks
     private UrlInfoServiceImpl urlService;
 
@@ -119,7 +164,7 @@ public class UrlInfoServiceImplTests {
             when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenReturn(mockUrlInfo);
             when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
 
-            UrlInfoDTO result = urlService.create(mockRequest, mockUserInfo, null);
+            UrlInfoDTO result = urlService.create(mockRequest, canonical(mockRequest), mockUserInfo, null);
 
             assertNotNull(result);
             assertEquals(mockId, result.getId());
@@ -163,7 +208,7 @@ public class UrlInfoServiceImplTests {
             when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenReturn(expectedUrlInfo);
             when(urlInfoMapper.toDto(expectedUrlInfo)).thenReturn(expectedDto);
 
-            UrlInfoDTO result = urlService.create(requestWithoutAlias, mockUserInfo, null);
+            UrlInfoDTO result = urlService.create(requestWithoutAlias, canonical(requestWithoutAlias), mockUserInfo, null);
 
             assertNotNull(result);
             assertEquals(mockId, result.getId());
@@ -205,9 +250,8 @@ public class UrlInfoServiceImplTests {
 
             when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenReturn(urlInfo);
             when(urlInfoMapper.toDto(urlInfo)).thenReturn(expectedDto);
-            doNothing().when(urlInfoCacheService).evictUserUrlsCache(userId);
 
-            UrlInfoDTO result = urlService.create(requestWithBlankAlias, mockUserInfo, userId);
+            UrlInfoDTO result = urlService.create(requestWithBlankAlias, canonical(requestWithBlankAlias), mockUserInfo, userId);
 
             assertNotNull(result);
             assertEquals("http://localhost:8080/" + generatedShortCode, result.getShortUrl());
@@ -215,7 +259,8 @@ public class UrlInfoServiceImplTests {
 
             verify(shortCodeService, times(1)).generateShortCode(mockId);
             verify(urlInfoRepository, times(1)).saveAndFlush(any(UrlInfo.class));
-            verify(urlInfoCacheService, times(1)).evictUserUrlsCache(userId);
+            verify(urlInfoCacheService, times(1)).putUserUrls(userId, List.of(expectedDto));
+            verify(urlInfoCacheService, never()).evictUserUrlsCache(any());
         }
 
         @Test
@@ -231,7 +276,7 @@ public class UrlInfoServiceImplTests {
                             .thenReturn(true);
 
                 IdCollisionException exception = assertThrows(IdCollisionException.class, () ->
-                        urlService.create(mockRequest, mockUserInfo, userId));
+                        urlService.create(mockRequest, canonical(mockRequest), mockUserInfo, userId));
 
                 assertEquals("Id collision detected for id: " + mockId, exception.getMessage());
                 verify(urlInfoRepository, times(1)).saveAndFlush(any(UrlInfo.class));
@@ -253,7 +298,7 @@ public class UrlInfoServiceImplTests {
 
                 // When & Then
                 AliasAlreadyExistsException exception = assertThrows(AliasAlreadyExistsException.class, () ->
-                        urlService.create(mockRequest, mockUserInfo, userId));
+                        urlService.create(mockRequest, canonical(mockRequest), mockUserInfo, userId));
 
                 assertEquals("The alias 'customalias' is already in use.", exception.getMessage());
                 verify(urlInfoRepository, times(1)).saveAndFlush(any(UrlInfo.class));
@@ -274,7 +319,7 @@ public class UrlInfoServiceImplTests {
                             .thenReturn(false);
 
                 DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () ->
-                        urlService.create(mockRequest, mockUserInfo, userId));
+                        urlService.create(mockRequest, canonical(mockRequest), mockUserInfo, userId));
 
                 assertEquals("Other DB error", exception.getMessage());
                 assertSame(otherException, exception);
@@ -289,10 +334,22 @@ public class UrlInfoServiceImplTests {
             when(shortCodeService.generateId()).thenReturn(mockId);
             when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenAnswer(invocation -> invocation.<UrlInfo>getArgument(0));
 
-            urlService.create(requestWithUppercaseAlias, mockUserInfo, null);
+            urlService.create(requestWithUppercaseAlias, canonical(requestWithUppercaseAlias), mockUserInfo, null);
 
             verify(urlInfoRepository).saveAndFlush(argThat(urlInfo -> "uppercase".equals(urlInfo.getShortCode())));
-            verify(urlInfoCacheService, times(0)).evictUserUrlsCache(null);
+            verify(urlInfoCacheService, never()).putUserUrls(any(), any());
+        }
+
+        @Test
+        void storesCanonicalUrlAndHashAsGiven() {
+            CanonicalUrl originalUrl = new CanonicalUrl("https://example.com/path", "example.com", 42L);
+            when(shortCodeService.generateId()).thenReturn(mockId);
+            when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenAnswer(invocation -> invocation.<UrlInfo>getArgument(0));
+
+            urlService.create(mockRequest, originalUrl, mockUserInfo, null);
+
+            verify(urlInfoRepository).saveAndFlush(argThat(urlInfo -> "https://example.com/path".equals(urlInfo.getOriginalUrl())
+                                                                      && urlInfo.getOriginalUrlHash() == 42L));
         }
 
         @Test
@@ -300,16 +357,350 @@ public class UrlInfoServiceImplTests {
             LocalDateTime beforeCall = DateUtils.nowTruncatedToSeconds().minusSeconds(1);
             when(shortCodeService.generateId()).thenReturn(mockId);
             when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenAnswer(invocation -> invocation.getArgument(0));
-            doNothing().when(urlInfoCacheService).evictUserUrlsCache(userId);
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
 
-            urlService.create(mockRequest, mockUserInfo, userId);
+            urlService.create(mockRequest, canonical(mockRequest), mockUserInfo, userId);
             LocalDateTime afterCall = DateUtils.nowTruncatedToSeconds().plusSeconds(1);
 
             verify(urlInfoRepository).saveAndFlush(argThat(urlInfo -> {
                 LocalDateTime createdTime = urlInfo.getCreatedDatetime();
                 return createdTime.isAfter(beforeCall) && createdTime.isBefore(afterCall);
             }));
-            verify(urlInfoCacheService, times(1)).evictUserUrlsCache(userId);
+            verify(urlInfoCacheService, times(1)).putUserUrls(userId, List.of(mockDto));
+        }
+    }
+
+    @Nested
+    @DisplayName("Test create function with dedup")
+    class CreateWithDedupTests {
+        private UrlInfoRequest dedupRequest;
+        private long originalUrlHash;
+
+        @BeforeEach
+        void setUp() {
+            dedupRequest = new UrlInfoRequest("https://example.com", null, true);
+            originalUrlHash = UrlHashUtils.hash("https://example.com");
+        }
+
+        @Test
+        void existingUrl_ReturnsExistingWithoutInsert() {
+            when(urlInfoProperties.isDedupEnabled()).thenReturn(true);
+            when(urlInfoCacheService.findDedupCandidate(userId, originalUrlHash, "https://example.com")).thenReturn(mockDto);
+
+            UrlInfoDTO result = urlService.create(dedupRequest, canonical(dedupRequest), mockUserInfo, userId);
+
+            assertSame(mockDto, result);
+            verify(shortCodeService, never()).generateId();
+            verify(urlInfoRepository, never()).saveAndFlush(any(UrlInfo.class));
+        }
+
+        @Test
+        void hashCollision_CreatesNewUrl() {
+            UrlInfoDTO otherUrl = UrlInfoDTO.builder().id(1L).originalUrl("https://other.com").build();
+            when(urlInfoProperties.isDedupEnabled()).thenReturn(true);
+            when(urlInfoCacheService.findDedupCandidate(userId, originalUrlHash, "https://example.com")).thenReturn(otherUrl);
+            when(shortCodeService.generateId()).thenReturn(mockId);
+            when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenReturn(mockUrlInfo);
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            urlService.create(dedupRequest, canonical(dedupRequest), mockUserInfo, userId);
+
+            verify(urlInfoRepository).saveAndFlush(argThat(urlInfo -> urlInfo.getOriginalUrlHash() == originalUrlHash));
+            verify(urlInfoCacheService).putDedupCache(userId, originalUrlHash, mockDto);
+        }
+
+        @Test
+        void dedupDisabled_SkipsLookup() {
+            when(urlInfoProperties.isDedupEnabled()).thenReturn(false);
+            when(shortCodeService.generateId()).thenReturn(mockId);
+            when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenReturn(mockUrlInfo);
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            urlService.create(dedupRequest, canonical(dedupRequest), mockUserInfo, userId);
+
+            verify(urlInfoCacheService, never()).findDedupCandidate(any(), any(), any());
+            verify(urlInfoCacheService, never()).putDedupCache(any(), any(), any());
+        }
+
+        @Test
+        void anonymousRequest_SkipsLookup() {
+            when(shortCodeService.generateId()).thenReturn(mockId);
+            when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenReturn(mockUrlInfo);
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            urlService.create(dedupRequest, canonical(dedupRequest), mockUserInfo, null);
+
+            verify(urlInfoCacheService, never()).findDedupCandidate(any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Test create function with write-behind")
+    class CreateWithWriteBehindTests {
+        private UrlInfoRequest anonymousRequest;
+
+        @BeforeEach
+        void setUp() {
+            anonymousRequest = new UrlInfoRequest("https://example.com", null);
+            when(shortCodeService.generateId()).thenReturn(mockId);
+            when(shortCodeService.generateShortCode(mockId)).thenReturn("abc123");
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+        }
+
+        @Test
+        void enabled_QueuesAndCachesWithoutInsert() {
+            when(urlInfoWriteBehindService.isEnabled()).thenReturn(true);
+
+            UrlInfoDTO result = urlService.create(anonymousRequest, canonical(anonymousRequest), mockUserInfo, null);
+
+            assertSame(mockDto, result);
+            verify(urlInfoWriteBehindService).enqueue(argThat(urlInfo -> urlInfo.getId() == mockId
+                                                                        && "abc123".equals(urlInfo.getShortCode())));
+            verify(urlInfoCacheService).putUrlAccessCache("abc123", new UrlInfoCache(mockId, "https://example.com"));
+            verify(urlInfoRepository, never()).saveAndFlush(any(UrlInfo.class));
+        }
+
+        @Test
+        void queueUnavailable_PersistsSynchronously() {
+            when(urlInfoWriteBehindService.isEnabled()).thenReturn(true);
+            doThrow(new IllegalStateException("redis down")).when(urlInfoWriteBehindService).enqueue(any(UrlInfo.class));
+            when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenReturn(mockUrlInfo);
+
+            urlService.create(anonymousRequest, canonical(anonymousRequest), mockUserInfo, null);
+
+            verify(urlInfoRepository).saveAndFlush(any(UrlInfo.class));
+            verify(urlInfoCacheService, never()).putUrlAccessCache(any(), any());
+        }
+
+        @Test
+        void authenticatedRequest_PersistsSynchronously() {
+            when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenReturn(mockUrlInfo);
+
+            urlService.create(anonymousRequest, canonical(anonymousRequest), mockUserInfo, userId);
+
+            verify(urlInfoWriteBehindService, never()).enqueue(any(UrlInfo.class));
+            verify(urlInfoRepository).saveAndFlush(any(UrlInfo.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Test url-access write-through")
+    class WriteThroughTests {
+        @Test
+        void create_enabled_CachesCreatedUrl() {
+            when(redisCacheProperties.isWriteThrough("url-access")).thenReturn(true);
+            when(shortCodeService.generateId()).thenReturn(mockId);
+            when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenReturn(mockUrlInfo);
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            urlService.create(mockRequest, canonical(mockRequest), mockUserInfo, userId);
+
+            verify(urlInfoCacheService).putUrlAccessCache("customalias", new UrlInfoCache(mockId, "https://example.com"));
+        }
+
+        @Test
+        void create_disabled_DoesNotCache() {
+            when(redisCacheProperties.isWriteThrough("url-access")).thenReturn(false);
+            when(shortCodeService.generateId()).thenReturn(mockId);
+            when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenReturn(mockUrlInfo);
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            urlService.create(mockRequest, canonical(mockRequest), mockUserInfo, userId);
+
+            verify(urlInfoCacheService, never()).putUrlAccessCache(any(), any());
+        }
+
+        @Test
+        void create_cacheUnavailable_StillReturnsCreatedUrl() {
+            when(redisCacheProperties.isWriteThrough("url-access")).thenReturn(true);
+            when(shortCodeService.generateId()).thenReturn(mockId);
+            when(urlInfoRepository.saveAndFlush(any(UrlInfo.class))).thenReturn(mockUrlInfo);
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+            doThrow(new IllegalStateException("redis down")).when(urlInfoCacheService).putUrlAccessCache(any(), any());
+
+            assertSame(mockDto, urlService.create(mockRequest, canonical(mockRequest), mockUserInfo, userId));
+        }
+
+        @Test
+        void updateOriginalUrl_enabled_EvictsThenCachesNewUrl() {
+            CustomUserDetails userDetails = CustomUserDetails.create(Users.builder().id(userId).build());
+            when(redisCacheProperties.isWriteThrough("url-access")).thenReturn(true);
+            when(urlInfoRepository.findById(anyLong())).thenReturn(Optional.of(mockUrlInfo));
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            urlService.updateOriginalUrl(mockId, new UpdateOriginalUrl("https://updated-example.com"), userDetails);
+
+            verify(urlInfoCacheService).evictUrlAccessCache("customalias");
+            verify(urlInfoCacheService).putUrlAccessCache("customalias", new UrlInfoCache(mockId, "https://updated-example.com"));
+        }
+
+        @Test
+        void updateOriginalUrl_inactiveUrl_DoesNotCache() {
+            CustomUserDetails userDetails = CustomUserDetails.create(Users.builder().id(userId).build());
+            mockUrlInfo.setStatus(UrlInfoStatus.DEACTIVATE);
+            when(urlInfoRepository.findById(anyLong())).thenReturn(Optional.of(mockUrlInfo));
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            urlService.updateOriginalUrl(mockId, new UpdateOriginalUrl("https://updated-example.com"), userDetails);
+
+            verify(urlInfoCacheService, never()).putUrlAccessCache(any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Test createBatch function")
+    class CreateBatchTests {
+        @BeforeEach
+        void setUp() {
+            when(urlInfoProperties.getBatchMaxSize()).thenReturn(10);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void validItems_InsertsInOneBatchAndEvictsOnce() {
+            List<UrlInfoRequest> items = List.of(new UrlInfoRequest("example.com", null),
+                                                 new UrlInfoRequest("https://example.org", "MyAlias"));
+            when(urlInfoProperties.getJdbcBatchSize()).thenReturn(500);
+            when(shortCodeService.generateIds(2)).thenReturn(new long[] {1L, 2L});
+            when(shortCodeService.generateShortCode(1L)).thenReturn("b");
+            when(urlInfoBatchRepository.insert(any(), eq(500))).thenReturn(new InsertOutcome[] {InsertOutcome.INSERTED, InsertOutcome.INSERTED});
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            List<BatchItemResponse<UrlInfoDTO>> results = urlService.createBatch(items, mockUserInfo, userId);
+
+            assertEquals(2, results.size());
+            assertEquals(201, results.get(0).status());
+            assertEquals(201, results.get(1).status());
+
+            ArgumentCaptor<List<UrlInfo>> captor = ArgumentCaptor.forClass(List.class);
+            verify(urlInfoBatchRepository, times(1)).insert(captor.capture(), eq(500));
+            List<UrlInfo> inserted = captor.getValue();
+            assertEquals("http://example.com", inserted.get(0).getOriginalUrl());
+            assertEquals(UrlHashUtils.hash("http://example.com"), inserted.get(0).getOriginalUrlHash());
+            assertEquals("b", inserted.get(0).getShortCode());
+            assertFalse(inserted.get(0).getAlias());
+            assertEquals("myalias", inserted.get(1).getShortCode());
+            assertTrue(inserted.get(1).getAlias());
+            assertEquals(userId, inserted.get(1).getUserId());
+
+            verify(urlInfoCacheService, times(1)).putUserUrls(eq(userId), argThat(dtos -> dtos.size() == 2));
+            verify(urlInfoCacheService, never()).evictUserUrlsCache(any());
+        }
+
+        @Test
+        void dedupItems_ReuseExistingAndInsertRepeatedUrlOnce() {
+            UrlInfoDTO existing = UrlInfoDTO.builder().id(7L).originalUrl("https://example.com").build();
+            List<UrlInfoRequest> items = List.of(new UrlInfoRequest("https://example.com", null, true),
+                                                 new UrlInfoRequest("https://example.org", null, true),
+                                                 new UrlInfoRequest("https://example.org", null, true));
+            long orgHash = UrlHashUtils.hash("https://example.org");
+            when(urlInfoProperties.isDedupEnabled()).thenReturn(true);
+            when(urlInfoCacheService.findDedupCandidate(userId, UrlHashUtils.hash("https://example.com"), "https://example.com"))
+                    .thenReturn(existing);
+            when(urlInfoCacheService.findDedupCandidate(userId, orgHash, "https://example.org")).thenReturn(null);
+            when(urlInfoProperties.getJdbcBatchSize()).thenReturn(500);
+            when(shortCodeService.generateIds(1)).thenReturn(new long[] {1L});
+            when(shortCodeService.generateShortCode(1L)).thenReturn("b");
+            when(urlInfoBatchRepository.insert(any(), anyInt())).thenReturn(new InsertOutcome[] {InsertOutcome.INSERTED});
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            List<BatchItemResponse<UrlInfoDTO>> results = urlService.createBatch(items, mockUserInfo, userId);
+
+            assertEquals(new BatchItemResponse<>(0, 200, "Already shortened", existing), results.get(0));
+            assertEquals(new BatchItemResponse<>(1, 201, "Created", mockDto), results.get(1));
+            assertEquals(new BatchItemResponse<>(2, 200, "Already shortened", mockDto), results.get(2));
+            verify(urlInfoBatchRepository).insert(argThat(urlInfos -> urlInfos.size() == 1
+                                                                      && urlInfos.get(0).getOriginalUrlHash() == orgHash), eq(500));
+            verify(urlInfoCacheService, times(1)).findDedupCandidate(userId, orgHash, "https://example.org");
+            verify(urlInfoCacheService).putDedupCache(userId, orgHash, mockDto);
+        }
+
+        @Test
+        void dedupItemsAllExisting_SkipInsert() {
+            UrlInfoDTO existing = UrlInfoDTO.builder().id(7L).originalUrl("https://example.com").build();
+            List<UrlInfoRequest> items = List.of(new UrlInfoRequest("https://example.com", null, true),
+                                                 new UrlInfoRequest("https://example.com", null, true));
+            when(urlInfoProperties.isDedupEnabled()).thenReturn(true);
+            when(urlInfoCacheService.findDedupCandidate(eq(userId), anyLong(), eq("https://example.com"))).thenReturn(existing);
+
+            List<BatchItemResponse<UrlInfoDTO>> results = urlService.createBatch(items, mockUserInfo, userId);
+
+            assertEquals(new BatchItemResponse<>(0, 200, "Already shortened", existing), results.get(0));
+            assertEquals(new BatchItemResponse<>(1, 200, "Already shortened", existing), results.get(1));
+            verifyNoInteractions(shortCodeService, urlInfoBatchRepository);
+        }
+
+        @Test
+        void aliasConflict_ReportedPerItem() {
+            List<UrlInfoRequest> items = List.of(new UrlInfoRequest("https://example.com", "taken"),
+                                                 new UrlInfoRequest("https://example.org", null));
+            when(urlInfoProperties.getJdbcBatchSize()).thenReturn(500);
+            when(shortCodeService.generateIds(2)).thenReturn(new long[] {1L, 2L});
+            when(shortCodeService.generateShortCode(2L)).thenReturn("c");
+            when(urlInfoBatchRepository.insert(any(), anyInt())).thenReturn(new InsertOutcome[] {InsertOutcome.SHORT_CODE_EXISTS, InsertOutcome.INSERTED});
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            List<BatchItemResponse<UrlInfoDTO>> results = urlService.createBatch(items, mockUserInfo, userId);
+
+            assertEquals(409, results.get(0).status());
+            assertEquals("The alias 'taken' is already in use.", results.get(0).message());
+            assertEquals(201, results.get(1).status());
+            assertSame(mockDto, results.get(1).data());
+            verify(urlInfoCacheService, times(1)).putUserUrls(userId, List.of(mockDto));
+        }
+
+        @Test
+        void idCollisionAndRejectedRow_ReportedPerItem() {
+            List<UrlInfoRequest> items = List.of(new UrlInfoRequest("https://example.com", null),
+                                                 new UrlInfoRequest("https://example.org", null));
+            when(urlInfoProperties.getJdbcBatchSize()).thenReturn(500);
+            when(shortCodeService.generateIds(2)).thenReturn(new long[] {1L, 2L});
+            when(shortCodeService.generateShortCode(anyLong())).thenReturn("b", "c");
+            when(urlInfoBatchRepository.insert(any(), anyInt())).thenReturn(new InsertOutcome[] {InsertOutcome.ID_EXISTS, InsertOutcome.FAILED});
+
+            List<BatchItemResponse<UrlInfoDTO>> results = urlService.createBatch(items, mockUserInfo, userId);
+
+            assertEquals(409, results.get(0).status());
+            assertEquals("Id collision detected for id: 1", results.get(0).message());
+            assertEquals(500, results.get(1).status());
+            verify(urlInfoCacheService, never()).putUserUrls(any(), any());
+        }
+
+        @Test
+        void invalidAndDuplicatedItems_SkippedWithoutFailingBatch() {
+            List<UrlInfoRequest> items = List.of(new UrlInfoRequest("http://localhost:8080/abc", null),
+                                                 new UrlInfoRequest("https://example.com", "same-alias"),
+                                                 new UrlInfoRequest("https://example.org", "SAME-alias"));
+            when(urlInfoProperties.getJdbcBatchSize()).thenReturn(500);
+            when(shortCodeService.generateIds(1)).thenReturn(new long[] {1L});
+            when(urlInfoBatchRepository.insert(any(), anyInt())).thenReturn(new InsertOutcome[] {InsertOutcome.INSERTED});
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            List<BatchItemResponse<UrlInfoDTO>> results = urlService.createBatch(items, mockUserInfo, userId);
+
+            assertEquals(400, results.get(0).status());
+            assertEquals(201, results.get(1).status());
+            assertEquals(409, results.get(2).status());
+            verify(shortCodeService, times(1)).generateIds(1);
+        }
+
+        @Test
+        void allItemsInvalid_DoesNotTouchDatabaseOrCache() {
+            List<UrlInfoRequest> items = List.of(new UrlInfoRequest("http://localhost:8080/abc", null));
+
+            List<BatchItemResponse<UrlInfoDTO>> results = urlService.createBatch(items, mockUserInfo, userId);
+
+            assertEquals(400, results.get(0).status());
+            verifyNoInteractions(urlInfoBatchRepository, urlInfoCacheService);
+            verify(shortCodeService, never()).generateIds(anyInt());
+        }
+
+        @Test
+        void batchTooLarge_ThrowsIllegalArgumentException() {
+            List<UrlInfoRequest> items = Collections.nCopies(11, mockRequest);
+
+            assertThrows(IllegalArgumentException.class, () -> urlService.createBatch(items, mockUserInfo, userId));
+            verifyNoInteractions(urlInfoBatchRepository);
         }
     }
 
@@ -338,6 +729,101 @@ public class UrlInfoServiceImplTests {
         }
     }
 
+    @Nested
+    @DisplayName("Test getUserUrlsVersion function")
+    class GetUserUrlsVersionTests {
+        @Test
+        void whenUserIdIsNull_ThrowsIllegalArgumentException() {
+            assertThrows(IllegalArgumentException.class, () -> urlService.getUserUrlsVersion(null));
+            verifyNoInteractions(urlInfoCacheService);
+        }
+
+        @Test
+        void returnsCachedListVersion() {
+            when(urlInfoCacheService.getUserUrlsPageVersion(mockId)).thenReturn(4L);
+
+            assertEquals(4L, urlService.getUserUrlsVersion(mockId));
+        }
+    }
+
+    @Nested
+    @DisplayName("Test findAllByUserIdJson function")
+    class FindAllByUserIdJsonTests {
+        private final byte[] body = "[{\"id\":1}]".getBytes();
+
+        @Test
+        void bodyCacheDisabled_SerializesWithoutCaching() {
+            when(urlInfoProperties.isListBodyCacheEnabled()).thenReturn(false);
+            when(urlInfoCacheService.findAllByUserId(mockId)).thenReturn(List.of(mockDto));
+            when(userUrlsBodyCache.serialize(List.of(mockDto))).thenReturn(body);
+
+            assertSame(body, urlService.findAllByUserIdJson(mockId, 2L));
+            verify(userUrlsBodyCache, never()).put(anyLong(), anyLong(), any());
+        }
+
+        @Test
+        void cachedBody_ReturnedWithoutLoadingList() {
+            when(urlInfoProperties.isListBodyCacheEnabled()).thenReturn(true);
+            when(userUrlsBodyCache.get(mockId, 2L)).thenReturn(body);
+
+            assertSame(body, urlService.findAllByUserIdJson(mockId, 2L));
+            verify(urlInfoCacheService, never()).findAllByUserId(anyLong());
+        }
+
+        @Test
+        void missingBody_CachedUnderGivenVersion() {
+            when(urlInfoProperties.isListBodyCacheEnabled()).thenReturn(true);
+            when(urlInfoCacheService.findAllByUserId(mockId)).thenReturn(List.of(mockDto));
+            when(userUrlsBodyCache.put(mockId, 2L, List.of(mockDto))).thenReturn(body);
+
+            assertSame(body, urlService.findAllByUserIdJson(mockId, 2L));
+        }
+
+        @Test
+        void emptyList_ThrowsNotFoundWithoutCaching() {
+            when(urlInfoProperties.isListBodyCacheEnabled()).thenReturn(true);
+            when(urlInfoCacheService.findAllByUserId(mockId)).thenReturn(List.of());
+
+            assertThrows(NotFoundException.class, () -> urlService.findAllByUserIdJson(mockId, 2L));
+            verify(userUrlsBodyCache, never()).put(anyLong(), anyLong(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Test findPageByUserId function")
+    class FindPageByUserIdTests {
+        @Test
+        void invalidPageSize_ThrowsIllegalArgumentException() {
+            assertThrows(IllegalArgumentException.class, () -> urlService.findPageByUserId(userId, null, 0));
+            assertThrows(IllegalArgumentException.class, () -> urlService.findPageByUserId(userId, null, 101));
+            verifyNoInteractions(urlInfoCacheService);
+        }
+
+        @Test
+        void malformedCursor_ThrowsIllegalArgumentException() {
+            assertThrows(IllegalArgumentException.class, () -> urlService.findPageByUserId(userId, "not-a-cursor", 10));
+            verifyNoInteractions(urlInfoCacheService);
+        }
+
+        @Test
+        void emptyFirstPage_ThrowsNotFoundException() {
+            when(urlInfoCacheService.getUserUrlsPageVersion(userId)).thenReturn(3L);
+            when(urlInfoCacheService.findPageByUserId(userId, 3L, null, 10)).thenReturn(new CursorPageResponse<>(List.of(), null, 10));
+
+            assertThrows(NotFoundException.class, () -> urlService.findPageByUserId(userId, " ", 10));
+        }
+
+        @Test
+        void validCursor_ReadsPageOfCurrentVersion() {
+            String cursor = new UrlInfoCursor(LocalDateTime.of(2025, 1, 1, 0, 0), 5L).encode();
+            CursorPageResponse<UrlInfoDTO> page = new CursorPageResponse<>(List.of(mockDto), null, 10);
+            when(urlInfoCacheService.getUserUrlsPageVersion(userId)).thenReturn(3L);
+            when(urlInfoCacheService.findPageByUserId(userId, 3L, cursor, 10)).thenReturn(page);
+
+            assertSame(page, urlService.findPageByUserId(userId, cursor, 10));
+        }
+    }
+
     @Nested
     @DisplayName("Test updateOriginalUrl function")
     class UpdateOriginalUrlTests {
@@ -372,9 +858,36 @@ public class UrlInfoServiceImplTests {
 
             assertEquals(mockDto, result);
             verify(urlInfoRepository).save(argThat(urlInfo -> urlInfo.getOriginalUrl().equals("https://updated-example.com")));
-            verify(urlInfoCacheService, times(1)).evictUserUrlsCache(userId);
+            verify(urlInfoCacheService, times(1)).putUserUrls(userId, List.of(mockDto));
+            verify(urlInfoCacheService, never()).evictUserUrlsCache(any());
             verify(urlInfoCacheService, times(1)).evictUrlAccessCache(mockUrlInfo.getShortCode());
         }
+
+        @Test
+        void whenFound_StoresCanonicalUrlAndItsHash() {
+            CustomUserDetails userDetails = CustomUserDetails.create(Users.builder().id(userId).build());
+            when(urlInfoRepository.findById(anyLong())).thenReturn(Optional.of(mockUrlInfo));
+            when(urlInfoMapper.toDto(any(UrlInfo.class))).thenReturn(mockDto);
+
+            urlService.updateOriginalUrl(mockUrlInfo.getId(), new UpdateOriginalUrl("HTTPS://Updated-Example.com:443/a?b=1"), userDetails);
+
+            assertEquals("https://updated-example.com/a?b=1", mockUrlInfo.getOriginalUrl());
+            assertEquals(UrlHashUtils.hash("https://updated-example.com/a?b=1"), mockUrlInfo.getOriginalUrlHash());
+        }
+
+        @Test
+        void whenNewUrlOnBlockedDomain_ThrowsIllegalArgumentExceptionAndKeepsUrl() {
+            CustomUserDetails userDetails = CustomUserDetails.create(Users.builder().id(userId).build());
+            when(urlInfoRepository.findById(anyLong())).thenReturn(Optional.of(mockUrlInfo));
+            when(domainBlocklistService.isBlocked("malware.example")).thenReturn(true);
+
+            assertThrows(IllegalArgumentException.class,
+                         () -> urlService.updateOriginalUrl(mockUrlInfo.getId(), new UpdateOriginalUrl("https://malware.example/x"), userDetails));
+
+            assertEquals("https://example.com", mockUrlInfo.getOriginalUrl());
+            verify(urlInfoRepository, never()).save(any());
+            verify(urlInfoCacheService, never()).evictUrlAccessCache(any());
+        }
     }
 
     @Nested
@@ -398,13 +911,12 @@ public class UrlInfoServiceImplTests {
         void whenFound_DeletesUrlInfo() {
             CustomUserDetails userDetails = CustomUserDetails.create(Users.builder().id(userId).build());
             when(urlInfoRepository.findById(anyLong())).thenReturn(Optional.of(mockUrlInfo));
-            doNothing().when(urlInfoCacheService).evictUserUrlsCache(userId);
             doNothing().when(urlInfoCacheService).evictUrlAccessCache(mockUrlInfo.getShortCode());
 
             urlService.delete(mockUrlInfo.getId(), userDetails);
 
             verify(urlInfoRepository).deleteByIdAndUserId(mockUrlInfo.getId(), userId);
-            verify(urlInfoCacheService).evictUserUrlsCache(userId);
+            verify(urlInfoCacheService).removeUserUrl(userId, mockUrlInfo.getId());
             verify(urlInfoCacheService).evictUrlAccessCache(mockUrlInfo.getShortCode());
         }
     }
@@ -465,14 +977,13 @@ public class UrlInfoServiceImplTests {
 
             when(urlInfoRepository.findById(urlId)).thenReturn(Optional.of(mockUrlInfo));
             doNothing().when(urlInfoCacheService).evictUrlAccessCache(mockUrlInfo.getShortCode());
-            doNothing().when(urlInfoCacheService).evictUserUrlsCache(mockUrlInfo.getUserId());
             doNothing().when(urlInfoRepository).deactivateUrlInfo(urlId, request.getDeactivatedReason(), mockUserDetails.getId());
 
             urlService.deactivateUrlInfo(urlId, request, mockUserDetails);
 
             verify(urlInfoRepository).findById(urlId);
             verify(urlInfoCacheService).evictUrlAccessCache(mockUrlInfo.getShortCode());
-            verify(urlInfoCacheService).evictUserUrlsCache(mockUrlInfo.getUserId());
+            verify(urlInfoCacheService).removeUserUrl(mockUrlInfo.getUserId(), urlId);
             verify(urlInfoRepository).deactivateUrlInfo(urlId, request.getDeactivatedReason(), mockUserDetails.getId());
         }
 
@@ -487,7 +998,7 @@ public class UrlInfoServiceImplTests {
             assertEquals("URL not found", ex.getMessage());
             verify(urlInfoRepository).findById(mockId);
             verify(urlInfoCacheService, never()).evictUrlAccessCache(any());
-            verify(urlInfoCacheService, never()).evictUserUrlsCache(any());
+            verify(urlInfoCacheService, never()).removeUserUrl(any(), any());
             verify(urlInfoRepository, never()).deactivateUrlInfo(any(), any(), any());
         }
 
@@ -505,4 +1016,8 @@ public class UrlInfoServiceImplTests {
             );
         }
     }
+
+    private static CanonicalUrl canonical(UrlInfoRequest request) {
+        return UrlCanonicalizer.canonicalize(request.getOriginalUrl());
+    }
 }
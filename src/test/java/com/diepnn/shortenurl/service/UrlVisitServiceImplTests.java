@@ -1,10 +1,17 @@
 package com.diepnn.shortenurl.service;
 
+import com.diepnn.shortenurl.dto.UserAgentInfo;
 import com.diepnn.shortenurl.dto.UserInfo;
 import com.diepnn.shortenurl.entity.UrlInfo;
 import com.diepnn.shortenurl.entity.UrlVisit;
 import com.diepnn.shortenurl.mapper.UrlVisitMapper;
 import com.diepnn.shortenurl.repository.UrlVisitRepository;
+import com.diepnn.shortenurl.service.geo.GeoIpService;
+import com.diepnn.shortenurl.service.stats.ClickRollupService;
+import com.diepnn.shortenurl.service.stats.UniqueVisitorService;
+import com.diepnn.shortenurl.service.stats.UserAgentClassifier;
+import com.diepnn.shortenurl.service.stats.VisitSampler;
+import com.diepnn.shortenurl.service.writebehind.UrlInfoWriteBehindService;
 import com.diepnn.shortenurl.utils.DateUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,21 +19,55 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class UrlVisitServiceImplTests {
+    private static final UserAgentInfo USER_AGENT = new UserAgentInfo("Other", "Other", "Other", false);
+
     @Mock
     private UrlVisitRepository urlVisitRepository;
 
     @Mock
     private UrlVisitMapper urlVisitMapper;
 
+    @Mock
+    private ClickRollupService clickRollupService;
+
+    @Mock
+    private UniqueVisitorService uniqueVisitorService;
+
+    @Mock
+    private UserAgentClassifier userAgentClassifier;
+
+    @Mock
+    private GeoIpService geoIpService;
+
+    @Mock
+    private VisitSampler visitSampler;
+
+    @Mock
+    private Executor taskExecutor;
+
+    @Mock
+    private UrlInfoWriteBehindService urlInfoWriteBehindService;
+
     @InjectMocks
     private UrlVisitServiceImpl urlVisitServiceImpl;
 
@@ -36,7 +77,9 @@ public class UrlVisitServiceImplTests {
         UserInfo userInfo = new UserInfo("127.0.0.1", "Mozilla/5.0", DateUtils.nowTruncatedToSeconds(), null);
         UrlVisit urlVisit = new UrlVisit();
 
-        when(urlVisitMapper.toEntity(userInfo)).thenReturn(urlVisit);
+        when(geoIpService.locate(userInfo)).thenReturn(userInfo);
+        when(userAgentClassifier.classify("Mozilla/5.0")).thenReturn(USER_AGENT);
+        when(urlVisitMapper.toEntity(userInfo, USER_AGENT)).thenReturn(urlVisit);
         ArgumentCaptor<UrlVisit> arg = ArgumentCaptor.forClass(UrlVisit.class);
 
         urlVisitServiceImpl.create(urlInfo, userInfo);
@@ -44,6 +87,88 @@ public class UrlVisitServiceImplTests {
         assertNotNull(arg.getValue().getShortenUrl(), "Shorten URL must not null");
     }
 
+    @Test
+    public void create_whenUrlInfoAndUserInfoAreValid_countClickAndVisitor() {
+        UrlInfo urlInfo = UrlInfo.builder().id(1L).build();
+        UserInfo userInfo = new UserInfo("127.0.0.1", "Mozilla/5.0", DateUtils.nowTruncatedToSeconds(), null);
+        UrlVisit urlVisit = UrlVisit.builder().visitedDatetime(userInfo.visitedDatetime()).build();
+
+        when(geoIpService.locate(userInfo)).thenReturn(userInfo);
+        when(userAgentClassifier.classify("Mozilla/5.0")).thenReturn(USER_AGENT);
+        when(urlVisitMapper.toEntity(userInfo, USER_AGENT)).thenReturn(urlVisit);
+
+        urlVisitServiceImpl.create(urlInfo, userInfo);
+        verify(clickRollupService).record(1L, userInfo, USER_AGENT, 1L);
+        verify(uniqueVisitorService).record(1L, userInfo);
+        assertEquals(1, urlVisit.getSampleWeight());
+    }
+
+    @Test
+    public void create_whenSaveFails_countNothing() {
+        UrlInfo urlInfo = UrlInfo.builder().id(1L).build();
+        UserInfo userInfo = new UserInfo("127.0.0.1", "Mozilla/5.0", DateUtils.nowTruncatedToSeconds(), null);
+        UrlVisit urlVisit = new UrlVisit();
+
+        when(geoIpService.locate(userInfo)).thenReturn(userInfo);
+        when(userAgentClassifier.classify("Mozilla/5.0")).thenReturn(USER_AGENT);
+        when(urlVisitMapper.toEntity(userInfo, USER_AGENT)).thenReturn(urlVisit);
+        when(urlVisitRepository.save(urlVisit)).thenThrow(new DataIntegrityViolationException("fk_url_visit_url_info"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> urlVisitServiceImpl.create(urlInfo, userInfo));
+        verifyNoInteractions(clickRollupService, uniqueVisitorService);
+    }
+
+    @Test
+    public void create_whenUrlStillQueued_skipRowAndCountClick() {
+        UrlInfo urlInfo = UrlInfo.builder().id(1L).build();
+        UserInfo userInfo = new UserInfo("127.0.0.1", "Mozilla/5.0", DateUtils.nowTruncatedToSeconds(), null);
+        UrlVisit urlVisit = new UrlVisit();
+
+        when(geoIpService.locate(userInfo)).thenReturn(userInfo);
+        when(userAgentClassifier.classify("Mozilla/5.0")).thenReturn(USER_AGENT);
+        when(urlVisitMapper.toEntity(userInfo, USER_AGENT)).thenReturn(urlVisit);
+        when(urlVisitRepository.save(urlVisit)).thenThrow(new DataIntegrityViolationException("fk_url_visit_url_info"));
+        when(urlInfoWriteBehindService.isQueued(1L)).thenReturn(true);
+
+        assertNull(urlVisitServiceImpl.create(urlInfo, userInfo));
+        verify(clickRollupService).record(1L, userInfo, USER_AGENT, 1L);
+    }
+
+    @Test
+    public void createAsync_whenSampledIn_recordVisitWithSampleWeight() throws ExecutionException, InterruptedException {
+        UrlInfo urlInfo = UrlInfo.builder().id(1L).build();
+        UserInfo userInfo = new UserInfo("127.0.0.1", "Mozilla/5.0", DateUtils.nowTruncatedToSeconds(), null);
+        UrlVisit urlVisit = new UrlVisit();
+
+        when(visitSampler.sample()).thenReturn(4);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(taskExecutor).execute(any());
+        when(geoIpService.locate(userInfo)).thenReturn(userInfo);
+        when(userAgentClassifier.classify("Mozilla/5.0")).thenReturn(USER_AGENT);
+        when(urlVisitMapper.toEntity(userInfo, USER_AGENT)).thenReturn(urlVisit);
+        when(urlVisitRepository.save(urlVisit)).thenReturn(urlVisit);
+
+        Future<UrlVisit> result = urlVisitServiceImpl.createAsync(urlInfo, userInfo);
+
+        assertEquals(urlVisit, result.get());
+        assertEquals(4, urlVisit.getSampleWeight());
+        verify(clickRollupService).record(1L, userInfo, USER_AGENT, 4L);
+        verify(visitSampler).done(anyLong());
+    }
+
+    @Test
+    public void createAsync_whenSampledOut_recordNothing() throws ExecutionException, InterruptedException {
+        UrlInfo urlInfo = UrlInfo.builder().id(1L).build();
+        UserInfo userInfo = new UserInfo("127.0.0.1", "Mozilla/5.0", DateUtils.nowTruncatedToSeconds(), null);
+
+        when(visitSampler.sample()).thenReturn(0);
+
+        assertNull(urlVisitServiceImpl.createAsync(urlInfo, userInfo).get());
+        verifyNoInteractions(taskExecutor, urlVisitRepository, clickRollupService, uniqueVisitorService);
+    }
+
     @Test
     public void create_whenUrlInfoIsNull_throwException() {
         UserInfo userInfo = mock(UserInfo.class);
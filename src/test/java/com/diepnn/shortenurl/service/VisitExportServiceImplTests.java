@@ -0,0 +1,132 @@
+package com.diepnn.shortenurl.service;
+
+import com.diepnn.shortenurl.common.enums.VisitExportFormat;
+import com.diepnn.shortenurl.common.properties.VisitExportProperties;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.entity.Users;
+import com.diepnn.shortenurl.exception.NotFoundException;
+import com.diepnn.shortenurl.exception.TooManyRequestException;
+import com.diepnn.shortenurl.repository.UrlInfoRepository;
+import com.diepnn.shortenurl.repository.UrlVisitExportRepository;
+import com.diepnn.shortenurl.repository.UrlVisitExportRepository.VisitRow;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import com.diepnn.shortenurl.service.export.VisitExport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VisitExportServiceImplTests {
+    private static final LocalDate FROM = LocalDate.of(2026, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 3, 31);
+
+    @Mock
+    private UrlInfoRepository urlInfoRepository;
+
+    @Mock
+    private UrlVisitExportRepository urlVisitExportRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VisitExportServiceImpl service;
+    private CustomUserDetails owner;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new VisitExportServiceImpl(new VisitExportProperties(1, 31), urlInfoRepository, urlVisitExportRepository,
+                                             new ObjectMapper(), meterRegistry);
+        service.init();
+        owner = user(7L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportUrlVisits_streamsVisitsOfTheRange() throws IOException {
+        when(urlInfoRepository.findById(1L)).thenReturn(Optional.of(urlInfo(7L)));
+        doAnswer(invocation -> {
+            Consumer<VisitRow> consumer = invocation.getArgument(3);
+            consumer.accept(new VisitRow(1L, LocalDateTime.of(2026, 3, 14, 15, 9, 26), "10.0.0.1", "curl/8.5.0", "VN",
+                                         "curl", "Other", "Other", true, 1));
+            return null;
+        }).when(urlVisitExportRepository).stream(eq(1L), eq(FROM.atStartOfDay()), eq(LocalDate.of(2026, 4, 1).atStartOfDay()),
+                                                 any(Consumer.class));
+
+        VisitExport export = service.exportUrlVisits(1L, FROM, TO, VisitExportFormat.CSV, false, owner);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+
+        assertEquals("visits-abc123-2026-03-01-2026-03-31.csv", export.getFileName());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n1,2026-03-14T15:09:26Z,10.0.0.1,curl/8.5.0,VN,curl,Other,Other,true,1\n"));
+        assertEquals(1.0, meterRegistry.get("url_visit.export.rows").counter().count());
+        assertEquals(0.0, meterRegistry.get("url_visit.export.active").gauge().value());
+    }
+
+    @Test
+    void exportUrlVisits_whenNotOwner_throwAccessDeniedException() {
+        when(urlInfoRepository.findById(1L)).thenReturn(Optional.of(urlInfo(8L)));
+
+        assertThrows(AccessDeniedException.class, () -> service.exportUrlVisits(1L, FROM, TO, VisitExportFormat.CSV, false, owner));
+    }
+
+    @Test
+    void exportUrlVisits_whenUrlMissing_throwNotFoundException() {
+        when(urlInfoRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> service.exportUrlVisits(1L, FROM, TO, VisitExportFormat.CSV, false, owner));
+    }
+
+    @Test
+    void exportVisits_whenRangeTooLarge_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> service.exportVisits(null, FROM, TO.plusDays(1), VisitExportFormat.CSV, false, owner));
+        assertThrows(IllegalArgumentException.class, () -> service.exportVisits(null, TO, FROM, VisitExportFormat.CSV, false, owner));
+        verifyNoInteractions(urlVisitExportRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportVisits_limitConcurrentExportsPerUserAndReleaseOnFailure() throws IOException {
+        doThrow(new DataAccessResourceFailureException("db down")).when(urlVisitExportRepository)
+                                                                  .stream(isNull(), any(), any(), any(Consumer.class));
+
+        VisitExport running = service.exportVisits(null, FROM, TO, VisitExportFormat.NDJSON, false, owner);
+        assertThrows(TooManyRequestException.class, () -> service.exportVisits(null, FROM, TO, VisitExportFormat.NDJSON, false, owner));
+        assertDoesNotThrow(() -> service.exportVisits(null, FROM, TO, VisitExportFormat.NDJSON, false, user(8L)));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> running.writeTo(new ByteArrayOutputStream()));
+        assertDoesNotThrow(() -> service.exportVisits(null, FROM, TO, VisitExportFormat.NDJSON, false, owner));
+    }
+
+    private static UrlInfo urlInfo(Long userId) {
+        return UrlInfo.builder().id(1L).shortCode("abc123").userId(userId).build();
+    }
+
+    private static CustomUserDetails user(Long id) {
+        return CustomUserDetails.create(Users.builder().id(id).build());
+    }
+}
@@ -0,0 +1,96 @@
+package com.diepnn.shortenurl.service.blocklist;
+
+import com.diepnn.shortenurl.common.properties.DomainBlocklistProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DomainBlocklistServiceTests {
+    @TempDir
+    private Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void isBlocked_whenFileIsBlank_allowEverything() {
+        DomainBlocklistService service = service("");
+
+        assertFalse(service.isBlocked("bad.com"));
+        assertEquals(0.0, meterRegistry.get("url_info.blocklist.rules").gauge().value());
+    }
+
+    @Test
+    void isBlocked_recordsMatchesAndBlockedHosts() throws IOException {
+        Path file = write("bad.com\n.evil.org\n", Instant.parse("2026-01-01T00:00:00Z"));
+        DomainBlocklistService service = service(file.toString());
+
+        assertTrue(service.isBlocked("bad.com"));
+        assertTrue(service.isBlocked("www.evil.org"));
+        assertFalse(service.isBlocked("good.com"));
+
+        assertEquals(3, meterRegistry.get("url_info.blocklist.match").timer().count());
+        assertEquals(2.0, meterRegistry.get("url_info.blocklist.blocked").counter().count());
+        assertEquals(2.0, meterRegistry.get("url_info.blocklist.rules").gauge().value());
+        assertTrue(meterRegistry.get("url_info.blocklist.memory").gauge().value() > 0);
+    }
+
+    @Test
+    void reload_whenFileChanged_swapRules() throws IOException {
+        Path file = write("bad.com\n", Instant.parse("2026-01-01T00:00:00Z"));
+        DomainBlocklistService service = service(file.toString());
+
+        write("worse.com\n", Instant.parse("2026-01-02T00:00:00Z"));
+        service.reload();
+
+        assertFalse(service.isBlocked("bad.com"));
+        assertTrue(service.isBlocked("worse.com"));
+    }
+
+    @Test
+    void reload_whenFileUnchanged_keepRules() throws IOException {
+        Instant modified = Instant.parse("2026-01-01T00:00:00Z");
+        Path file = write("bad.com\n", modified);
+        DomainBlocklistService service = service(file.toString());
+
+        // Same size and modification time, not reloaded
+        write("bat.com\n", modified);
+        service.reload();
+
+        assertTrue(service.isBlocked("bad.com"));
+    }
+
+    @Test
+    void reload_whenFileMissing_keepRulesAndCountFailure() throws IOException {
+        Path file = write("bad.com\n", Instant.parse("2026-01-01T00:00:00Z"));
+        DomainBlocklistService service = service(file.toString());
+
+        Files.delete(file);
+        service.reload();
+
+        assertTrue(service.isBlocked("bad.com"));
+        assertEquals(1.0, meterRegistry.get("url_info.blocklist.reload.failures").counter().count());
+    }
+
+    private DomainBlocklistService service(String file) {
+        DomainBlocklistService service = new DomainBlocklistService(new DomainBlocklistProperties(file, 60000), meterRegistry);
+        service.init();
+        return service;
+    }
+
+    private Path write(String rules, Instant modified) throws IOException {
+        Path file = tempDir.resolve("blocklist.txt");
+        Files.writeString(file, rules);
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+        return file;
+    }
+}
@@ -0,0 +1,84 @@
+package com.diepnn.shortenurl.service.blocklist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DomainTrieTests {
+    private final DomainTrie trie = DomainTrie.of("bad.com", ".evil.org", "*.phish.co.uk", "exact.example.net");
+
+    @ParameterizedTest
+    @ValueSource(strings = {"bad.com", "bad.com.", "evil.org", "www.evil.org", "a.b.evil.org", "phish.co.uk",
+                            "login.phish.co.uk", "exact.example.net"})
+    void matches_whenHostIsBlocked_returnTrue(String host) {
+        assertTrue(trie.matches(host));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"www.bad.com", "com", "good.com", "notevil.org", "evil.org.example.com", "co.uk",
+                            "example.net", "www.exact.example.net", "bad.co", "bad.comm", "", "."})
+    void matches_whenHostIsNotBlocked_returnFalse(String host) {
+        assertFalse(trie.matches(host));
+    }
+
+    @Test
+    void matches_whenExactAndSubtreeRulesShareDomain_mergeFlags() {
+        DomainTrie merged = DomainTrie.of("bad.com", "bad.com", ".bad.com", "x.bad.com");
+
+        assertTrue(merged.matches("bad.com"));
+        assertTrue(merged.matches("www.bad.com"));
+        assertEquals(2, merged.getRuleCount());
+    }
+
+    @Test
+    void matches_whenLabelIsPrefixOfSibling_keepSiblingsApart() {
+        DomainTrie siblings = DomainTrie.of("example.com", "example-x.com", "example.x.com", "ex.com");
+
+        assertTrue(siblings.matches("example.com"));
+        assertTrue(siblings.matches("example-x.com"));
+        assertTrue(siblings.matches("example.x.com"));
+        assertTrue(siblings.matches("ex.com"));
+        assertFalse(siblings.matches("exampl.com"));
+        assertFalse(siblings.matches("x.com"));
+    }
+
+    @Test
+    void load_skipsCommentsBlankLinesAndInvalidRules() throws IOException {
+        String rules = """
+                # malware
+                
+                Bad.COM   # trailing comment
+                .b\u00fccher.example
+                bad..com
+                -=?.com
+                """;
+
+        DomainTrie loaded = DomainTrie.load(new BufferedReader(new StringReader(rules)));
+
+        assertTrue(loaded.matches("bad.com"));
+        assertTrue(loaded.matches("shop.xn--bcher-kva.example"));
+        assertEquals(2, loaded.getRuleCount());
+        assertEquals(2, loaded.getInvalidRuleCount());
+    }
+
+    @Test
+    void empty_matchesNothing() {
+        assertFalse(DomainTrie.EMPTY.matches("bad.com"));
+        assertFalse(DomainTrie.of().matches("bad.com"));
+        assertEquals(1, DomainTrie.of().getNodeCount());
+    }
+
+    @Test
+    void getNodeCount_sharesParentDomains() {
+        // root, com, bad, evil, www
+        assertEquals(5, DomainTrie.of("bad.com", "evil.com", "www.bad.com").getNodeCount());
+    }
+}
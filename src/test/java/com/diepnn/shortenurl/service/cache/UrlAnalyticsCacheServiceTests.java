@@ -0,0 +1,65 @@
+package com.diepnn.shortenurl.service.cache;
+
+import com.diepnn.shortenurl.dto.DailyUniqueVisitorsDTO;
+import com.diepnn.shortenurl.dto.response.UniqueVisitorsResponse;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository;
+import com.diepnn.shortenurl.service.stats.UniqueVisitorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UrlAnalyticsCacheServiceTests {
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 1, 3);
+
+    @Mock
+    private UrlClickRollupRepository urlClickRollupRepository;
+
+    @Mock
+    private UniqueVisitorService uniqueVisitorService;
+
+    private UrlAnalyticsCacheService urlAnalyticsCacheService;
+
+    @BeforeEach
+    void setUp() {
+        urlAnalyticsCacheService = new UrlAnalyticsCacheService(urlClickRollupRepository, uniqueVisitorService);
+    }
+
+    @Test
+    void findUniqueVisitors_whenEverySketchCounts_doNotReadCompactedDays() {
+        UniqueVisitorsResponse estimates = new UniqueVisitorsResponse(4, List.of(new DailyUniqueVisitorsDTO(FROM, 2),
+                                                                                 new DailyUniqueVisitorsDTO(FROM.plusDays(1), 1),
+                                                                                 new DailyUniqueVisitorsDTO(TO, 3)));
+        when(uniqueVisitorService.count(1L, FROM, TO)).thenReturn(estimates);
+
+        assertEquals(estimates, urlAnalyticsCacheService.findUniqueVisitors(1L, FROM, TO));
+        verifyNoInteractions(urlClickRollupRepository);
+    }
+
+    @Test
+    void findUniqueVisitors_whenSketchExpired_takeTheCompactedDay() {
+        when(uniqueVisitorService.count(1L, FROM, TO))
+                .thenReturn(new UniqueVisitorsResponse(3, List.of(new DailyUniqueVisitorsDTO(FROM, 0),
+                                                                  new DailyUniqueVisitorsDTO(FROM.plusDays(1), 0),
+                                                                  new DailyUniqueVisitorsDTO(TO, 3))));
+        when(urlClickRollupRepository.findUniqueVisitors(1L, FROM, TO.plusDays(1)))
+                .thenReturn(List.of(new DailyUniqueVisitorsDTO(FROM, 5)));
+
+        UniqueVisitorsResponse response = urlAnalyticsCacheService.findUniqueVisitors(1L, FROM, TO);
+
+        assertEquals(new UniqueVisitorsResponse(8, List.of(new DailyUniqueVisitorsDTO(FROM, 5),
+                                                           new DailyUniqueVisitorsDTO(FROM.plusDays(1), 0),
+                                                           new DailyUniqueVisitorsDTO(TO, 3))),
+                     response);
+    }
+}
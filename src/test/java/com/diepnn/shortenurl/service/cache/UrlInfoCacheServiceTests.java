@@ -2,23 +2,34 @@ package com.diepnn.shortenurl.service.cache;
 
 import com.diepnn.shortenurl.dto.UrlInfoDTO;
 import com.diepnn.shortenurl.dto.cache.UrlInfoCache;
+import com.diepnn.shortenurl.dto.filter.UrlInfoCursor;
+import com.diepnn.shortenurl.dto.response.CursorPageResponse;
 import com.diepnn.shortenurl.entity.UrlInfo;
 import com.diepnn.shortenurl.mapper.UrlInfoMapper;
 import com.diepnn.shortenurl.repository.UrlInfoRepository;
+import com.diepnn.shortenurl.service.writebehind.UrlInfoWriteBehindService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +40,12 @@ public class UrlInfoCacheServiceTests {
     @Mock
     private UrlInfoMapper urlInfoMapper;
 
+    @Mock
+    private UserUrlsCache userUrlsCache;
+
+    @Mock
+    private UrlInfoWriteBehindService urlInfoWriteBehindService;
+
     @InjectMocks
     private UrlInfoCacheService urlInfoCacheService;
 
@@ -61,6 +78,15 @@ public class UrlInfoCacheServiceTests {
         verify(urlInfoRepository).findUrlInfoCacheByShortCode("notfound");
     }
 
+    @Test
+    void findByShortCodeCache_whenNotPersistedYet_returnQueuedUrl() {
+        when(urlInfoRepository.findUrlInfoCacheByShortCode("queued")).thenReturn(null);
+        when(urlInfoWriteBehindService.isEnabled()).thenReturn(true);
+        when(urlInfoWriteBehindService.findQueued("queued")).thenReturn(mockCache);
+
+        assertEquals(mockCache, urlInfoCacheService.findByShortCodeCache("queued"));
+    }
+
     @Test
     void findAllByUserId_shouldReturnList_whenRepositoryReturnsData() {
         // Arrange
@@ -77,6 +103,8 @@ public class UrlInfoCacheServiceTests {
                                    .shortUrl("http://abc123")
                                    .build();
 
+        when(userUrlsCache.get(userId)).thenReturn(List.of());
+        when(userUrlsCache.acquireLease(userId)).thenReturn(42L);
         when(urlInfoRepository.findAllByUserIdOrderByCreatedDatetimeDesc(userId)).thenReturn(List.of(urlInfo));
         when(urlInfoMapper.toDtos(List.of(urlInfo))).thenReturn(List.of(dto));
 
@@ -87,11 +115,114 @@ public class UrlInfoCacheServiceTests {
         assertEquals(1, result.size());
         assertEquals("http://abc123", result.getFirst().getShortUrl());
         verify(urlInfoRepository).findAllByUserIdOrderByCreatedDatetimeDesc(userId);
+        verify(userUrlsCache).fill(userId, 42L, List.of(dto));
+    }
+
+    @Test
+    void findAllByUserId_shouldReturnCachedList_withoutRepository() {
+        UrlInfoDTO dto = UrlInfoDTO.builder().id(1L).build();
+        when(userUrlsCache.get(100L)).thenReturn(List.of(dto));
+
+        assertEquals(List.of(dto), urlInfoCacheService.findAllByUserId(100L));
+        verifyNoInteractions(urlInfoRepository);
+        verify(userUrlsCache, never()).acquireLease(any());
+    }
+
+    @Test
+    void findAllByUserId_shouldNotCacheEmptyList() {
+        when(userUrlsCache.get(100L)).thenReturn(List.of());
+        when(urlInfoRepository.findAllByUserIdOrderByCreatedDatetimeDesc(100L)).thenReturn(List.of());
+        when(urlInfoMapper.toDtos(List.of())).thenReturn(List.of());
+
+        assertTrue(urlInfoCacheService.findAllByUserId(100L).isEmpty());
+        verify(userUrlsCache, never()).fill(any(), anyLong(), any());
+    }
+
+    @Test
+    void putUserUrls_shouldPatchCachedList() {
+        UrlInfoDTO dto = UrlInfoDTO.builder().id(1L).build();
+
+        urlInfoCacheService.putUserUrls(100L, List.of(dto));
+
+        verify(userUrlsCache).upsert(100L, List.of(dto));
+    }
+
+    @Test
+    void removeUserUrl_shouldPatchCachedList() {
+        urlInfoCacheService.removeUserUrl(100L, 1L);
+
+        verify(userUrlsCache).remove(100L, 1L);
+    }
+
+    @Test
+    void findPageByUserId_firstPage_returnsNextCursorOfLastItem() {
+        LocalDateTime createdDatetime = LocalDateTime.of(2025, 1, 1, 0, 0);
+        UrlInfo newest = UrlInfo.builder().id(3L).createdDatetime(createdDatetime).build();
+        UrlInfo second = UrlInfo.builder().id(2L).createdDatetime(createdDatetime).build();
+        UrlInfo extra = UrlInfo.builder().id(1L).createdDatetime(createdDatetime).build();
+        List<UrlInfoDTO> dtos = List.of(UrlInfoDTO.builder().id(3L).build(), UrlInfoDTO.builder().id(2L).build());
+        when(urlInfoRepository.findActivePageByUserId(100L, Limit.of(3))).thenReturn(List.of(newest, second, extra));
+        when(urlInfoMapper.toDtos(List.of(newest, second))).thenReturn(dtos);
+
+        CursorPageResponse<UrlInfoDTO> page = urlInfoCacheService.findPageByUserId(100L, 0L, null, 2);
+
+        assertEquals(dtos, page.items());
+        assertEquals(new UrlInfoCursor(createdDatetime, 2L), UrlInfoCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void findPageByUserId_lastPage_seeksAfterCursorWithoutNextCursor() {
+        LocalDateTime createdDatetime = LocalDateTime.of(2025, 1, 1, 0, 0);
+        UrlInfo last = UrlInfo.builder().id(1L).createdDatetime(createdDatetime).build();
+        String cursor = new UrlInfoCursor(createdDatetime, 2L).encode();
+        when(urlInfoRepository.findActivePageByUserIdAfter(100L, createdDatetime, 2L, Limit.of(3))).thenReturn(List.of(last));
+        when(urlInfoMapper.toDtos(List.of(last))).thenReturn(List.of(UrlInfoDTO.builder().id(1L).build()));
+
+        CursorPageResponse<UrlInfoDTO> page = urlInfoCacheService.findPageByUserId(100L, 0L, cursor, 2);
+
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void patches_shouldBumpPageVersion() {
+        urlInfoCacheService.putUserUrls(100L, List.of(UrlInfoDTO.builder().id(1L).build()));
+        urlInfoCacheService.removeUserUrl(100L, 1L);
+        urlInfoCacheService.evictUserUrlsCache(100L);
+
+        verify(userUrlsCache, times(3)).bumpPageVersion(100L);
+    }
+
+    @Test
+    void findDedupCandidate_shouldReturnOldestMatch() {
+        Long userId = 100L;
+        UrlInfo urlInfo = UrlInfo.builder()
+                                 .id(1L)
+                                 .userId(userId)
+                                 .originalUrl("https://example.com")
+                                 .originalUrlHash(42L)
+                                 .build();
+        UrlInfoDTO dto = UrlInfoDTO.builder().id(1L).originalUrl("https://example.com").build();
+
+        when(urlInfoRepository.findDedupCandidates(userId, 42L, "https://example.com")).thenReturn(List.of(urlInfo));
+        when(urlInfoMapper.toDto(urlInfo)).thenReturn(dto);
+
+        UrlInfoDTO result = urlInfoCacheService.findDedupCandidate(userId, 42L, "https://example.com");
+
+        assertEquals(dto, result);
+    }
+
+    @Test
+    void findDedupCandidate_shouldReturnNull_whenNotExists() {
+        when(urlInfoRepository.findDedupCandidates(100L, 42L, "https://example.com")).thenReturn(List.of());
+
+        assertNull(urlInfoCacheService.findDedupCandidate(100L, 42L, "https://example.com"));
     }
 
     @Test
     void evictUserUrlsCache_shouldNotThrowException() {
         // Act & Assert (no exception should occur)
         assertDoesNotThrow(() -> urlInfoCacheService.evictUserUrlsCache(100L));
+        verify(userUrlsCache).evict(100L);
     }
 }
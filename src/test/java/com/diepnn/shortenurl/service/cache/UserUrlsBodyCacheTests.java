@@ -0,0 +1,87 @@
+package com.diepnn.shortenurl.service.cache;
+
+import com.diepnn.shortenurl.common.properties.RedisCacheProperties;
+import com.diepnn.shortenurl.config.JacksonConfig;
+import com.diepnn.shortenurl.dto.UrlInfoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserUrlsBodyCacheTests {
+    private static final long TTL_MS = 300000L;
+
+    @Mock
+    private RedisTemplate<String, byte[]> bytesRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    private UserUrlsBodyCache userUrlsBodyCache;
+
+    @BeforeEach
+    void setUp() {
+        userUrlsBodyCache = new UserUrlsBodyCache(bytesRedisTemplate,
+                                                  new JacksonConfig().objectMapper(),
+                                                  new RedisCacheProperties(Map.of("user-urls-body", TTL_MS), Map.of(), Map.of()));
+    }
+
+    @Test
+    void put_storesSnakeCaseJsonUnderVersionKey() {
+        when(bytesRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        UrlInfoDTO dto = UrlInfoDTO.builder().id(1L).shortUrl("http://localhost:8080/abc").build();
+
+        byte[] body = userUrlsBodyCache.put(7L, 3L, List.of(dto));
+
+        String json = new String(body, StandardCharsets.UTF_8);
+        assertEquals('[', json.charAt(0));
+        assertTrue(json.contains("\"short_url\":\"http://localhost:8080/abc\""));
+        verify(valueOperations).set("user-urls::{7}::body::3", body, Duration.ofMillis(TTL_MS));
+    }
+
+    @Test
+    void put_redisFailure_stillReturnsBody() {
+        when(bytesRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        doThrow(new DataAccessResourceFailureException("down")).when(valueOperations).set(anyString(), any(), any(Duration.class));
+
+        byte[] body = userUrlsBodyCache.put(7L, 3L, List.of());
+
+        assertArrayEquals("[]".getBytes(StandardCharsets.UTF_8), body);
+    }
+
+    @Test
+    void get_readsVersionKey() {
+        byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+        when(bytesRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("user-urls::{7}::body::3")).thenReturn(body);
+
+        assertArrayEquals(body, userUrlsBodyCache.get(7L, 3L));
+    }
+
+    @Test
+    void get_redisFailure_returnsNull() {
+        when(bytesRedisTemplate.opsForValue()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertNull(userUrlsBodyCache.get(7L, 3L));
+    }
+}
@@ -0,0 +1,202 @@
+package com.diepnn.shortenurl.service.cache;
+
+import com.diepnn.shortenurl.common.properties.RedisCacheProperties;
+import com.diepnn.shortenurl.config.JacksonConfig;
+import com.diepnn.shortenurl.dto.UrlInfoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserUrlsCacheTests {
+    private static final List<String> KEYS = List.of("user-urls::{7}::index", "user-urls::{7}::items", "user-urls::{7}::lease");
+    private static final long TTL_MS = 1800000L;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private UserUrlsCache userUrlsCache;
+    private UrlInfoDTO dto;
+    private long score;
+
+    @BeforeEach
+    void setUp() {
+        userUrlsCache = new UserUrlsCache(redisTemplate,
+                                          new DefaultResourceLoader(),
+                                          new JacksonConfig().objectMapper(),
+                                          new RedisCacheProperties(Map.of("user-urls", TTL_MS), Map.of(), Map.of()));
+        userUrlsCache.init();
+
+        LocalDateTime createdDatetime = LocalDateTime.of(2025, 1, 1, 0, 0);
+        dto = UrlInfoDTO.builder().id(1L).shortUrl("http://localhost:8080/abc").createdDatetime(createdDatetime).build();
+        score = createdDatetime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @Test
+    void get_convertsCachedEntriesInOrder() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(KEYS)))
+                .thenReturn(List.of(Map.of("id", 2, "short_url", "http://localhost:8080/new"),
+                                    Map.of("id", 1, "short_url", "http://localhost:8080/old")));
+
+        List<UrlInfoDTO> result = userUrlsCache.get(7L);
+
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals("http://localhost:8080/old", result.get(1).getShortUrl());
+    }
+
+    @Test
+    void get_miss_returnsEmptyList() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(KEYS))).thenReturn(List.of());
+
+        assertTrue(userUrlsCache.get(7L).isEmpty());
+    }
+
+    @Test
+    void acquireLease_storesTokenWithTtl() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        long token = userUrlsCache.acquireLease(7L);
+
+        verify(valueOperations).set("user-urls::{7}::lease", token, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void fill_passesLeaseTokenTtlAndEntries() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(KEYS), eq(42L), eq(TTL_MS), eq(score), eq(1L), eq(dto)))
+                .thenReturn(1L);
+
+        assertTrue(userUrlsCache.fill(7L, 42L, List.of(dto)));
+    }
+
+    @Test
+    void fill_revokedLease_returnsFalse() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(KEYS), eq(42L), eq(TTL_MS), eq(score), eq(1L), eq(dto)))
+                .thenReturn(0L);
+
+        assertFalse(userUrlsCache.fill(7L, 42L, List.of(dto)));
+    }
+
+    @Test
+    void upsert_passesTtlAndEntries() {
+        userUrlsCache.upsert(7L, List.of(dto));
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(KEYS), eq(TTL_MS), eq(score), eq(1L), eq(dto));
+    }
+
+    @Test
+    void upsert_noEntries_skipsRedis() {
+        userUrlsCache.upsert(7L, List.of());
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void upsert_failure_evictsList() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(KEYS), eq(TTL_MS), anyLong(), eq(1L), eq(dto)))
+                .thenThrow(new DataAccessResourceFailureException("redis down"));
+
+        userUrlsCache.upsert(7L, List.of(dto));
+
+        verify(redisTemplate).delete(KEYS);
+    }
+
+    @Test
+    void pageVersion_readsStoredVersion() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("user-urls::{7}::page-version")).thenReturn(4);
+
+        assertEquals(4L, userUrlsCache.pageVersion(7L));
+    }
+
+    @Test
+    void pageVersion_missing_seedsRandomVersion() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("user-urls::{7}::page-version")).thenReturn(null);
+        when(valueOperations.setIfAbsent(eq("user-urls::{7}::page-version"), anyLong())).thenReturn(true);
+
+        long version = userUrlsCache.pageVersion(7L);
+
+        verify(valueOperations).setIfAbsent("user-urls::{7}::page-version", version);
+        assertTrue(version > 0);
+    }
+
+    @Test
+    void pageVersion_seededConcurrently_readsTheOtherSeed() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("user-urls::{7}::page-version")).thenReturn(null, 123456789L);
+        when(valueOperations.setIfAbsent(eq("user-urls::{7}::page-version"), anyLong())).thenReturn(false);
+
+        assertEquals(123456789L, userUrlsCache.pageVersion(7L));
+    }
+
+    @Test
+    void bumpPageVersion_incrementsSeededVersion() {
+        userUrlsCache.bumpPageVersion(7L);
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("user-urls::{7}::page-version")), anyLong());
+    }
+
+    @Test
+    void bumpPageVersion_failure_resetsVersion() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("user-urls::{7}::page-version")), anyLong()))
+                .thenThrow(new DataAccessResourceFailureException("redis down"));
+
+        userUrlsCache.bumpPageVersion(7L);
+
+        verify(redisTemplate).delete("user-urls::{7}::page-version");
+    }
+
+    @Test
+    void bumpPageVersion_resetFailure_propagates() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("user-urls::{7}::page-version")), anyLong()))
+                .thenThrow(new DataAccessResourceFailureException("redis down"));
+        when(redisTemplate.delete("user-urls::{7}::page-version")).thenThrow(new DataAccessResourceFailureException("redis down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> userUrlsCache.bumpPageVersion(7L));
+    }
+
+    @Test
+    void remove_passesUrlId() {
+        userUrlsCache.remove(7L, 5L);
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(KEYS), eq(5L));
+    }
+
+    @Test
+    void remove_failure_evictsList() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(KEYS), eq(5L)))
+                .thenThrow(new DataAccessResourceFailureException("redis down"));
+
+        userUrlsCache.remove(7L, 5L);
+
+        verify(redisTemplate).delete(KEYS);
+    }
+}
@@ -0,0 +1,89 @@
+package com.diepnn.shortenurl.service.export;
+
+import com.diepnn.shortenurl.common.enums.VisitExportFormat;
+import com.diepnn.shortenurl.repository.UrlVisitExportRepository.VisitRow;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VisitExportWriterTests {
+    private static final VisitRow CHROME = new VisitRow(1L, LocalDateTime.of(2026, 3, 14, 15, 9, 26), "10.0.0.1",
+                                                        "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0",
+                                                        "VN", "Chrome", "Linux", "Desktop", false, 1);
+    private static final VisitRow UNKNOWN = new VisitRow(2L, LocalDateTime.of(2026, 3, 15, 0, 0), "::1", "say \"hi\"\nbye",
+                                                         null, "Unknown", "Other", "Other", null, 8);
+
+    @Test
+    void write_csv_writeHeaderAndQuoteFieldsWhenNeeded() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (VisitExportWriter writer = new VisitExportWriter(out, VisitExportFormat.CSV, new JsonFactory())) {
+            writer.write(CHROME);
+            writer.write(UNKNOWN);
+        }
+
+        assertEquals("""
+                     url_id,visited_datetime,ip_address,user_agent,country,user_agent_family,user_agent_os,user_agent_device,is_bot,sample_weight
+                     1,2026-03-14T15:09:26Z,10.0.0.1,"Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0",VN,Chrome,Linux,Desktop,false,1
+                     2,2026-03-15T00:00:00Z,::1,"say ""hi""
+                     bye",,Unknown,Other,Other,,8
+                     """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void write_csv_prefixFormulaLikeFields() throws IOException {
+        VisitRow row = new VisitRow(3L, LocalDateTime.of(2026, 3, 16, 0, 0), "10.0.0.2", "=HYPERLINK(\"http://evil\",\"x\")",
+                                    "-", "+1", "@SUM(A1)", "Other", null, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (VisitExportWriter writer = new VisitExportWriter(out, VisitExportFormat.CSV, new JsonFactory())) {
+            writer.write(row);
+        }
+
+        assertEquals("3,2026-03-16T00:00:00Z,10.0.0.2,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",'-,'+1,'@SUM(A1),Other,,1",
+                     out.toString(StandardCharsets.UTF_8).lines().skip(1).findFirst().orElseThrow());
+    }
+
+    @Test
+    void write_ndjson_writeOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (VisitExportWriter writer = new VisitExportWriter(out, VisitExportFormat.NDJSON, new JsonFactory())) {
+            writer.write(UNKNOWN);
+            writer.write(UNKNOWN);
+            assertEquals(2, writer.getRows());
+        }
+
+        String line = "{\"url_id\":2,\"visited_datetime\":\"2026-03-15T00:00:00Z\",\"ip_address\":\"::1\",\"user_agent\":\"say \\\"hi\\\"\\nbye\","
+                      + "\"country\":null,\"user_agent_family\":\"Unknown\",\"user_agent_os\":\"Other\",\"user_agent_device\":\"Other\","
+                      + "\"is_bot\":null,\"sample_weight\":8}\n";
+        assertEquals(line + line, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeTo_whenGzip_compressAndRunCompletionOnce() throws IOException {
+        int[] completed = {0};
+        VisitExport export = new VisitExport("visits.ndjson", VisitExportFormat.NDJSON, true, new JsonFactory(), writer -> {
+            try {
+                writer.write(CHROME);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, () -> completed[0]++);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        export.writeTo(out);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(1, content.lines().count());
+        }
+        assertEquals(1, completed[0]);
+    }
+}
@@ -0,0 +1,91 @@
+package com.diepnn.shortenurl.service.geo;
+
+import com.diepnn.shortenurl.common.properties.GeoIpProperties;
+import com.diepnn.shortenurl.dto.UserInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GeoIpServiceTests {
+    private static final LocalDateTime VISITED_AT = LocalDateTime.of(2026, 3, 14, 15, 9, 26);
+
+    @TempDir
+    private Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void locate_whenFileIsBlank_keepVisitorAsIs() {
+        GeoIpService service = service("");
+        UserInfo visitor = new UserInfo("1.0.0.1", null, VISITED_AT, null);
+
+        assertSame(visitor, service.locate(visitor));
+        assertEquals(0.0, meterRegistry.get("url_visit.geo_ip.unresolved").counter().count());
+    }
+
+    @Test
+    void locate_fillCountryAndCountLookups() throws IOException {
+        Path file = write("1.0.0.0,1.0.0.255,AU\n2001:db8::/32,VN\n", Instant.parse("2026-01-01T00:00:00Z"));
+        GeoIpService service = service(file.toString());
+
+        assertEquals(new UserInfo("1.0.0.1", "curl/8.5.0", VISITED_AT, "AU"),
+                     service.locate(new UserInfo("1.0.0.1", "curl/8.5.0", VISITED_AT, null)));
+        assertEquals("VN", service.locate(new UserInfo("2001:db8::1", null, VISITED_AT, null)).country());
+        assertNull(service.locate(new UserInfo("8.8.8.8", null, VISITED_AT, null)).country());
+
+        UserInfo located = new UserInfo("1.0.0.1", null, VISITED_AT, "NZ");
+        assertSame(located, service.locate(located));
+
+        assertEquals(2.0, meterRegistry.get("url_visit.geo_ip.resolved").counter().count());
+        assertEquals(1.0, meterRegistry.get("url_visit.geo_ip.unresolved").counter().count());
+        assertEquals(2.0, meterRegistry.get("url_visit.geo_ip.ranges").gauge().value());
+        assertEquals(44.0, meterRegistry.get("url_visit.geo_ip.memory").gauge().value());
+    }
+
+    @Test
+    void reload_whenFileChanged_swapTable() throws IOException {
+        Path file = write("1.0.0.0,1.0.0.255,AU\n", Instant.parse("2026-01-01T00:00:00Z"));
+        GeoIpService service = service(file.toString());
+
+        write("1.0.0.0,1.0.0.255,NZ\n", Instant.parse("2026-01-02T00:00:00Z"));
+        service.reload();
+
+        assertEquals("NZ", service.country("1.0.0.1"));
+    }
+
+    @Test
+    void reload_whenFileMissing_keepTableAndCountFailure() throws IOException {
+        Path file = write("1.0.0.0,1.0.0.255,AU\n", Instant.parse("2026-01-01T00:00:00Z"));
+        GeoIpService service = service(file.toString());
+
+        Files.delete(file);
+        service.reload();
+
+        assertEquals("AU", service.country("1.0.0.1"));
+        assertEquals(1.0, meterRegistry.get("url_visit.geo_ip.reload.failures").counter().count());
+    }
+
+    private GeoIpService service(String file) {
+        GeoIpService service = new GeoIpService(new GeoIpProperties(file, 60000), meterRegistry);
+        service.init();
+        return service;
+    }
+
+    private Path write(String ranges, Instant modified) throws IOException {
+        Path file = tempDir.resolve("ip-country.csv");
+        Files.writeString(file, ranges);
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+        return file;
+    }
+}
@@ -0,0 +1,76 @@
+package com.diepnn.shortenurl.service.geo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IpCountryTableTests {
+    private final IpCountryTable table = IpCountryTable.of("1.0.0.0,1.0.0.255,AU",
+                                                           "1.0.1.0,1.0.3.255,cn",
+                                                           "200.0.0.0/8,BR",
+                                                           "255.255.255.0,255.255.255.255,ZZ",
+                                                           "2001:db8::/32,VN",
+                                                           "2001:db9::,2001:db9::ffff,US",
+                                                           "::,::ff,XX");
+
+    @ParameterizedTest
+    @CsvSource({
+            "1.0.0.0,AU", "1.0.0.255,AU", "1.0.2.7,CN", "200.255.255.255,BR", "255.255.255.255,ZZ", "' 1.0.0.1 ',AU",
+            "2001:db8:ffff:ffff:ffff:ffff:ffff:ffff,VN", "[2001:DB8::1],VN", "2001:db8::1%eth0,VN", "2001:db9::fff0,US",
+            "::1,XX", "::ffff:1.0.0.3,AU", "0:0:0:0:0:ffff:100:4,AU"
+    })
+    void country_whenAddressIsInRange_returnCountry(String ipAddress, String expected) {
+        assertEquals(expected, table.country(ipAddress));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.255.255.255", "1.0.4.0", "2001:db9::1:0", "1.0.0", "1.0.0.256", "1.0.0.0.1", "localhost",
+                            "1::2::3", "1:2:3:4:5:6:7:8:9", "12345::", "1:", ":1", ":::", "", " "})
+    void country_whenAddressIsInvalidOrInNoRange_returnNull(String ipAddress) {
+        assertNull(table.country(ipAddress));
+    }
+
+    @Test
+    void country_whenNull_returnNull() {
+        assertNull(table.country(null));
+    }
+
+    @Test
+    void load_whenLegacyDump_readCountryAfterNumericColumns() throws IOException {
+        String csv = """
+                # GeoIP country dump
+                "1.0.0.0","1.0.0.255","16777216","16777471","AU","Australia"
+                "1.0.1.0","1.0.3.255","16777472","16778239","CN","China"
+                """;
+        IpCountryTable legacy = IpCountryTable.load(new BufferedReader(new StringReader(csv)));
+
+        assertEquals("CN", legacy.country("1.0.2.1"));
+        assertEquals(2, legacy.getRangeCount());
+        assertEquals(0, legacy.getInvalidRangeCount());
+    }
+
+    @Test
+    void of_whenLinesAreInvalidOrOverlap_skipAndCountThem() {
+        IpCountryTable skipped = IpCountryTable.of("network,country", "1.0.0.0,1.0.0.255,AU", "1.0.0.128,1.0.1.255,JP",
+                                                   "garbage,AU", "1.0.0.0/33,AU", "2.0.0.0,1.0.0.0,AU", "3.0.0.0,3.0.0.1");
+
+        assertEquals(1, skipped.getRangeCount());
+        assertEquals(6, skipped.getInvalidRangeCount());
+        assertEquals("AU", skipped.country("1.0.0.200"));
+        assertNull(skipped.country("1.0.1.0"));
+    }
+
+    @Test
+    void getMemoryBytes_countBothFamilies() {
+        assertEquals(7, table.getRangeCount());
+        assertEquals(4 * 10 + 3 * 34, table.getMemoryBytes());
+    }
+}
@@ -0,0 +1,178 @@
+package com.diepnn.shortenurl.service.importer;
+
+import com.diepnn.shortenurl.common.enums.UrlImportFormat;
+import com.diepnn.shortenurl.common.enums.UrlImportStatus;
+import com.diepnn.shortenurl.common.properties.UrlImportProperties;
+import com.diepnn.shortenurl.common.properties.UrlInfoProperties;
+import com.diepnn.shortenurl.config.JacksonConfig;
+import com.diepnn.shortenurl.entity.UrlImportJob;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.mapper.translator.ShortUrlMappings;
+import com.diepnn.shortenurl.repository.UrlImportJobRepository;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository.InsertOutcome;
+import com.diepnn.shortenurl.service.ShortCodeService;
+import com.diepnn.shortenurl.service.blocklist.DomainBlocklistService;
+import com.diepnn.shortenurl.service.cache.UrlInfoCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UrlImportJobRunnerTests {
+    @Mock
+    private UrlImportJobRepository urlImportJobRepository;
+
+    @Mock
+    private UrlInfoBatchRepository urlInfoBatchRepository;
+
+    @Mock
+    private ShortCodeService shortCodeService;
+
+    @Mock
+    private UrlInfoCacheService urlInfoCacheService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    private UrlImportJobRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        runner = new UrlImportJobRunner(urlImportJobRepository,
+                                        urlInfoBatchRepository,
+                                        shortCodeService,
+                                        urlInfoCacheService,
+                                        new ShortUrlMappings("http://localhost:8080", mock(DomainBlocklistService.class)),
+                                        new UrlImportProperties(2, tempDir.resolve("staging").toString(), ""),
+                                        new UrlInfoProperties(1000, 500, true, false),
+                                        transactionTemplate,
+                                        new JacksonConfig().objectMapper());
+
+        lenient().when(transactionTemplate.execute(any()))
+                 .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(shortCodeService.generateIds(anyInt()))
+                 .thenAnswer(invocation -> LongStream.rangeClosed(1, invocation.<Integer>getArgument(0)).toArray());
+    }
+
+    private UrlImportJob job(Path source, long committedLines) {
+        UrlImportJob job = UrlImportJob.builder()
+                                       .id(1L)
+                                       .status(UrlImportStatus.PENDING)
+                                       .format(UrlImportFormat.CSV)
+                                       .sourcePath(source.toString())
+                                       .committedLines(committedLines)
+                                       .build();
+        when(urlImportJobRepository.findById(1L)).thenReturn(Optional.of(job));
+        return job;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_importsInChunksAndSkipsInvalidRows() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("links.csv"), """
+                code,url,owner
+                Legacy1,https://a.com,5
+                bad code!,https://b.com,
+                legacy3,example.com,
+                legacy4,http://localhost:8080/loop,
+                """);
+        UrlImportJob job = job(source, 0);
+        when(urlInfoBatchRepository.insert(anyList(), eq(500)))
+                .thenAnswer(invocation -> {
+                    InsertOutcome[] outcomes = new InsertOutcome[invocation.<List<?>>getArgument(0).size()];
+                    Arrays.fill(outcomes, InsertOutcome.INSERTED);
+                    return outcomes;
+                });
+
+        runner.run(1L);
+
+        ArgumentCaptor<List<UrlInfo>> captor = ArgumentCaptor.forClass(List.class);
+        verify(urlInfoBatchRepository, times(2)).insert(captor.capture(), eq(500));
+        UrlInfo first = captor.getAllValues().get(0).getFirst();
+        assertEquals("Legacy1", first.getShortCode());
+        assertTrue(first.getAlias());
+        assertEquals(5L, first.getUserId());
+        assertEquals("http://example.com", captor.getAllValues().get(1).getFirst().getOriginalUrl());
+
+        verify(urlImportJobRepository).updateProgress(eq(1L), eq(3L), eq(1L), eq(1L), any());
+        verify(urlImportJobRepository).updateProgress(eq(1L), eq(5L), eq(2L), eq(2L), any());
+        verify(urlInfoCacheService).evictUserUrlsCache(5L);
+        assertEquals(UrlImportStatus.COMPLETED, job.getStatus());
+        assertEquals(5L, job.getCommittedLines());
+    }
+
+    @Test
+    void run_resumesAfterCommittedLines() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("links.csv"), """
+                code,url
+                legacy1,https://a.com
+                legacy2,https://b.com
+                legacy3,https://c.com
+                """);
+        UrlImportJob job = job(source, 3);
+        when(urlInfoBatchRepository.insert(anyList(), anyInt())).thenReturn(new InsertOutcome[] {InsertOutcome.INSERTED});
+
+        runner.run(1L);
+
+        verify(urlInfoBatchRepository, times(1)).insert(anyList(), anyInt());
+        verify(shortCodeService).generateIds(1);
+        assertEquals(UrlImportStatus.COMPLETED, job.getStatus());
+        assertEquals(1L, job.getImportedCount());
+    }
+
+    @Test
+    void run_databaseFailure_keepsLastCommittedChunk() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("links.csv"), """
+                legacy1,https://a.com
+                legacy2,https://b.com
+                legacy3,https://c.com
+                """);
+        UrlImportJob job = job(source, 0);
+        when(urlInfoBatchRepository.insert(anyList(), anyInt()))
+                .thenReturn(new InsertOutcome[] {InsertOutcome.INSERTED, InsertOutcome.SHORT_CODE_EXISTS})
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+
+        runner.run(1L);
+
+        assertEquals(UrlImportStatus.FAILED, job.getStatus());
+        assertEquals(2L, job.getCommittedLines());
+        assertEquals(1L, job.getImportedCount());
+        assertEquals(1L, job.getSkippedCount());
+        assertEquals("db down", job.getErrorMessage());
+        verify(urlImportJobRepository, times(1)).updateProgress(anyLong(), anyLong(), anyLong(), anyLong(), any());
+        assertFalse(runner.isActive(1L));
+    }
+}
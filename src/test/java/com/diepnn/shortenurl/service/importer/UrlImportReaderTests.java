@@ -0,0 +1,86 @@
+package com.diepnn.shortenurl.service.importer;
+
+import com.diepnn.shortenurl.common.enums.UrlImportFormat;
+import com.diepnn.shortenurl.config.JacksonConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UrlImportReaderTests {
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    private UrlImportReader reader(String content, UrlImportFormat format) {
+        return new UrlImportReader(new BufferedReader(new StringReader(content)), format, objectMapper);
+    }
+
+    @Test
+    void csv_skipsHeaderAndBlankLinesAndKeepsLineNumbers() throws IOException {
+        try (UrlImportReader reader = reader("code,url,owner\nabc,https://a.com,7\n\n\"q,1\",\"https://b.com/?x=\"\"y\"\"\",\n",
+                                             UrlImportFormat.CSV)) {
+            UrlImportRow first = reader.next();
+            assertEquals(2, first.lineNumber());
+            assertEquals("abc", first.code());
+            assertEquals("https://a.com", first.url());
+            assertEquals(7L, first.owner());
+
+            UrlImportRow second = reader.next();
+            assertEquals(4, second.lineNumber());
+            assertEquals("q,1", second.code());
+            assertEquals("https://b.com/?x=\"y\"", second.url());
+            assertNull(second.owner());
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void csv_invalidRowsAreReportedNotThrown() throws IOException {
+        try (UrlImportReader reader = reader("onlyone\nabc,https://a.com,notanumber\n\"open,https://a.com\n",
+                                             UrlImportFormat.CSV)) {
+            assertFalse(reader.next().isValid());
+            assertEquals("Invalid owner: notanumber", reader.next().error());
+            assertEquals("Unterminated quoted field", reader.next().error());
+        }
+    }
+
+    @Test
+    void ndjson_parsesObjectsPerLine() throws IOException {
+        try (UrlImportReader reader = reader("{\"code\":\"abc\",\"url\":\"https://a.com\",\"owner\":3}\n{broken\n",
+                                             UrlImportFormat.NDJSON)) {
+            UrlImportRow row = reader.next();
+            assertTrue(row.isValid());
+            assertEquals("abc", row.code());
+            assertEquals(3L, row.owner());
+
+            assertEquals("Malformed JSON", reader.next().error());
+        }
+    }
+
+    @Test
+    void skip_resumesAfterCommittedLines() throws IOException {
+        try (UrlImportReader reader = reader("code,url\na1,https://a.com\na2,https://b.com\na3,https://c.com\n",
+                                             UrlImportFormat.CSV)) {
+            reader.skip(3);
+
+            UrlImportRow row = reader.next();
+            assertEquals(4, row.lineNumber());
+            assertEquals("a3", row.code());
+        }
+    }
+
+    @Test
+    void splitCsv_handlesQuotesAndEmptyFields() {
+        assertEquals(List.of("a", "", "c"), UrlImportReader.splitCsv("a,,c"));
+        assertEquals(List.of("a,b", "c"), UrlImportReader.splitCsv("\"a,b\",c"));
+        assertNull(UrlImportReader.splitCsv("\"a,b"));
+    }
+}
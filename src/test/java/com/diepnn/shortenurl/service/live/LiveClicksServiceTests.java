@@ -0,0 +1,232 @@
+package com.diepnn.shortenurl.service.live;
+
+import com.diepnn.shortenurl.common.properties.LiveClicksProperties;
+import com.diepnn.shortenurl.dto.LiveClicksDTO;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.entity.Users;
+import com.diepnn.shortenurl.exception.NotFoundException;
+import com.diepnn.shortenurl.exception.TooManyRequestException;
+import com.diepnn.shortenurl.repository.UrlInfoRepository;
+import com.diepnn.shortenurl.security.CustomUserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LiveClicksServiceTests {
+    private static final long NOW = 1_773_500_966_000L;
+
+    @Mock
+    private RedisTemplate<String, byte[]> bytesRedisTemplate;
+
+    @Mock
+    private ZSetOperations<String, byte[]> zSetOperations;
+
+    @Mock
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Mock
+    private UrlInfoRepository urlInfoRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LiveClicksService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = service(100);
+        lenient().when(bytesRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void record_whenNoInstanceWatchesLink_publishNothing() {
+        service.record(1L);
+        service.tick(NOW);
+
+        verify(bytesRedisTemplate, never()).convertAndSend(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tick_publishesClicksOfLinksWatchedHere() {
+        service.register(1L, mock(SseEmitter.class), 0);
+        service.record(1L);
+        service.record(1L);
+        service.record(2L);
+
+        service.tick(NOW);
+
+        verify(bytesRedisTemplate).convertAndSend(eq(LiveClicksService.CHANNEL), aryEq(bytes("1:2")));
+        verify(bytesRedisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void tick_whenAnotherInstanceWatchesLink_publishItsClicks() {
+        when(zSetOperations.rangeByScore(eq("url-live-clicks::watched"), anyDouble(), anyDouble())).thenReturn(Set.of(bytes("2")));
+        service.tick(NOW);
+
+        service.record(2L);
+        service.tick(NOW + 250);
+
+        verify(bytesRedisTemplate).convertAndSend(eq(LiveClicksService.CHANNEL), aryEq(bytes("2:1")));
+    }
+
+    @Test
+    void dispatch_sendTotalFirstThenCoalescedClicks() throws IOException {
+        SseEmitter emitter = mock(SseEmitter.class);
+        service.register(1L, emitter, 10);
+
+        service.dispatch(NOW, Runnable::run);
+        service.onMessage(message("1:3,2:5,x:y"), null);
+        service.onMessage(message("1:4"), null);
+        service.dispatch(NOW + 250, Runnable::run);
+
+        assertEquals(List.of(new LiveClicksDTO(1L, 0, 10), new LiveClicksDTO(1L, 7, 17)), updates(emitter, 2));
+        assertEquals(2.0, meterRegistry.get("url_visit.live_clicks.sent").counter().count());
+    }
+
+    @Test
+    void dispatch_whenSendInFlight_coalesceClicksIntoIt() throws IOException {
+        SseEmitter emitter = mock(SseEmitter.class);
+        service.register(1L, emitter, 0);
+        List<Runnable> sends = new ArrayList<>();
+
+        service.dispatch(NOW, sends::add);
+        service.onMessage(message("1:1"), null);
+        service.dispatch(NOW + 250, sends::add);
+        service.onMessage(message("1:2"), null);
+        service.dispatch(NOW + 500, sends::add);
+        assertEquals(1, sends.size());
+
+        sends.getFirst().run();
+        service.onMessage(message("1:1"), null);
+        service.dispatch(NOW + 750, Runnable::run);
+
+        assertEquals(List.of(new LiveClicksDTO(1L, 3, 3), new LiveClicksDTO(1L, 1, 4)), updates(emitter, 2));
+    }
+
+    @Test
+    void dispatch_whenNoClicks_sendKeepAliveAfterHeartbeatInterval() throws IOException {
+        SseEmitter emitter = mock(SseEmitter.class);
+        service.register(1L, emitter, 0);
+
+        service.dispatch(NOW, Runnable::run);
+        service.dispatch(NOW + 250, Runnable::run);
+        service.dispatch(NOW + 15_000, Runnable::run);
+
+        assertEquals(List.of(new LiveClicksDTO(1L, 0, 0)), updates(emitter, 2));
+    }
+
+    @Test
+    void dispatch_whenClientGone_unregisterSubscriber() throws IOException {
+        SseEmitter emitter = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEventBuilder.class));
+        service.register(1L, emitter, 0);
+
+        service.dispatch(NOW, Runnable::run);
+        service.onMessage(message("1:1"), null);
+        service.dispatch(NOW + 250, Runnable::run);
+
+        verify(emitter, times(1)).send(any(SseEventBuilder.class));
+        assertEquals(0.0, meterRegistry.get("url_visit.live_clicks.subscribers").gauge().value());
+    }
+
+    @Test
+    void register_whenTooManySubscribers_throwTooManyRequest() {
+        LiveClicksService limited = service(1);
+        limited.register(1L, mock(SseEmitter.class), 0);
+
+        assertThrows(TooManyRequestException.class, () -> limited.register(2L, mock(SseEmitter.class), 0));
+        limited.shutdown();
+    }
+
+    @Test
+    void subscribe_whenUrlBelongsToAnotherUser_throwAccessDenied() {
+        when(urlInfoRepository.findById(1L)).thenReturn(Optional.of(UrlInfo.builder().id(1L).userId(8L).build()));
+
+        assertThrows(AccessDeniedException.class, () -> service.subscribe(1L, user(7L)));
+    }
+
+    @Test
+    void subscribe_whenUrlNotFound_throwNotFound() {
+        when(urlInfoRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> service.subscribe(1L, user(7L)));
+    }
+
+    private static List<LiveClicksDTO> updates(SseEmitter emitter, int sends) throws IOException {
+        ArgumentCaptor<SseEventBuilder> events = ArgumentCaptor.forClass(SseEventBuilder.class);
+        verify(emitter, times(sends)).send(events.capture());
+        return events.getAllValues()
+                     .stream()
+                     .flatMap(event -> event.build().stream())
+                     .map(DataWithMediaType::getData)
+                     .filter(LiveClicksDTO.class::isInstance)
+                     .map(LiveClicksDTO.class::cast)
+                     .toList();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(bytes(LiveClicksService.CHANNEL), bytes(body));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static CustomUserDetails user(Long id) {
+        return CustomUserDetails.create(Users.builder().id(id).build());
+    }
+
+    /**
+     * The dispatcher only runs after an hour, tests tick by hand.
+     */
+    private LiveClicksService service(int maxSubscribers) {
+        LiveClicksService service = new LiveClicksService(new LiveClicksProperties(3_600_000, 15_000, 5_000, 60_000,
+                                                                                   maxSubscribers, 1),
+                                                          bytesRedisTemplate, redisMessageListenerContainer, urlInfoRepository,
+                                                          meterRegistry);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,263 @@
+package com.diepnn.shortenurl.service.retention;
+
+import com.diepnn.shortenurl.common.properties.ClickRollupProperties;
+import com.diepnn.shortenurl.common.properties.VisitCompactionProperties;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository.DailyUniqueVisitors;
+import com.diepnn.shortenurl.repository.UrlVisitCompactionRepository;
+import com.diepnn.shortenurl.repository.UrlVisitCompactionRepository.CompactedVisit;
+import com.diepnn.shortenurl.service.stats.UniqueVisitorService;
+import com.diepnn.shortenurl.service.stats.VisitSampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VisitCompactionServiceTests {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 14, 15, 9, 26);
+    // 30 days before NOW, from the start of the day
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 2, 12, 0, 0);
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 10);
+
+    @Mock
+    private UrlVisitCompactionRepository urlVisitCompactionRepository;
+
+    @Mock
+    private UrlClickRollupRepository urlClickRollupRepository;
+
+    @Mock
+    private UniqueVisitorService uniqueVisitorService;
+
+    @Mock
+    private VisitSampler visitSampler;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void compact_keepUniqueVisitorsOfTheDaysBeforeCutoffThenDeleteTheVisits() throws InterruptedException {
+        VisitCompactionService service = service(10);
+        checkpointAt(0L);
+        when(urlVisitCompactionRepository.findVisitsFrom(0, 10))
+                .thenReturn(List.of(visit(0, 1L, DAY.atTime(10, 0)),
+                                    visit(1, 1L, DAY.atTime(11, 0)),
+                                    visit(2, 2L, DAY.plusDays(1).atTime(23, 59)),
+                                    visit(3, null, DAY.atTime(12, 0)),
+                                    visit(4, 1L, CUTOFF)));
+        when(uniqueVisitorService.countDaily(Map.of(1L, Set.of(DAY), 2L, Set.of(DAY.plusDays(1)))))
+                .thenReturn(Map.of(1L, Map.of(DAY, 2L), 2L, Map.of(DAY.plusDays(1), 0L)));
+        when(urlVisitCompactionRepository.deleteVisitsBetween(0, 4, false, 10)).thenReturn(4);
+
+        service.compact(NOW);
+
+        // The expired sketch of URL 2 is skipped, it would not lower the value kept anyway
+        verify(urlClickRollupRepository).saveUniqueVisitors(List.of(new DailyUniqueVisitors(1L, DAY, 2)), 10);
+        verify(urlVisitCompactionRepository).saveNextVisitId(4);
+        assertEquals(4.0, meterRegistry.get("url_visit.compaction.compacted").counter().count());
+        assertEquals(4.0, meterRegistry.get("url_visit.compaction.deleted").counter().count());
+    }
+
+    @Test
+    void compact_whenChunkFull_continueFromCheckpointUntilCaughtUp() throws InterruptedException {
+        VisitCompactionService service = service(2);
+        when(urlVisitCompactionRepository.findNextVisitId()).thenReturn(0L);
+        when(urlVisitCompactionRepository.lockNextVisitId()).thenReturn(0L, 2L);
+        when(urlVisitCompactionRepository.findRollupWatermark()).thenReturn(0L);
+        when(visitSampler.getWeight()).thenReturn(1);
+        inTransaction();
+        when(urlVisitCompactionRepository.findVisitsFrom(0, 2))
+                .thenReturn(List.of(visit(0, 1L, DAY.atTime(10, 0)), visit(1, 1L, DAY.atTime(11, 0))));
+        when(urlVisitCompactionRepository.findVisitsFrom(2, 2))
+                .thenReturn(List.of(visit(2, 1L, DAY.atTime(12, 0)), visit(3, 1L, NOW)));
+
+        service.compact(NOW);
+
+        verify(urlVisitCompactionRepository).saveNextVisitId(2);
+        verify(urlVisitCompactionRepository).saveNextVisitId(3);
+        verify(urlVisitCompactionRepository).deleteVisitsBetween(0, 2, false, 10);
+        verify(urlVisitCompactionRepository).deleteVisitsBetween(0, 3, false, 10);
+        assertEquals(3.0, meterRegistry.get("url_visit.compaction.compacted").counter().count());
+    }
+
+    @Test
+    void compact_whenNothingOldEnough_onlyDeleteLeftovers() throws InterruptedException {
+        VisitCompactionService service = service(10);
+        checkpointAt(5L);
+        when(urlVisitCompactionRepository.findVisitsFrom(5, 10)).thenReturn(List.of(visit(5, 1L, NOW)));
+
+        service.compact(NOW);
+
+        verify(urlClickRollupRepository, never()).saveUniqueVisitors(any(), anyInt());
+        verify(urlVisitCompactionRepository, never()).saveNextVisitId(anyLong());
+        verify(urlVisitCompactionRepository).deleteVisitsBetween(0, 5, false, 10);
+        verifyNoInteractions(uniqueVisitorService);
+    }
+
+    @Test
+    void compact_whenCheckpointMissingOrHeldByAnotherInstance_createItAndStop() throws InterruptedException {
+        VisitCompactionService service = service(10);
+        when(urlVisitCompactionRepository.findNextVisitId()).thenReturn(null);
+        when(urlVisitCompactionRepository.lockNextVisitId()).thenReturn(null);
+        when(visitSampler.getWeight()).thenReturn(1);
+        inTransaction();
+
+        service.compact(NOW);
+
+        verify(urlVisitCompactionRepository).createCheckpoint();
+        verify(urlVisitCompactionRepository, never()).findVisitsFrom(anyLong(), anyInt());
+        verify(urlVisitCompactionRepository, never()).deleteVisitsBetween(anyLong(), anyLong(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void compact_startFromTheRollupWatermark_keepVisitsBelowIt() throws InterruptedException {
+        VisitCompactionService service = service(10);
+        checkpointAt(0L, 3L);
+        when(urlVisitCompactionRepository.findVisitsFrom(3, 10)).thenReturn(List.of(visit(3, 1L, DAY.atTime(10, 0))));
+        when(uniqueVisitorService.countDaily(Map.of(1L, Set.of(DAY)))).thenReturn(Map.of(1L, Map.of(DAY, 1L)));
+
+        service.compact(NOW);
+
+        verify(urlVisitCompactionRepository).saveNextVisitId(4);
+        verify(urlVisitCompactionRepository).deleteVisitsBetween(3, 4, false, 10);
+    }
+
+    @Test
+    void compact_whenNoRollupWatermark_keepTheVisits() throws InterruptedException {
+        VisitCompactionService service = service(10);
+        checkpointAt(0L, null);
+
+        service.compact(NOW);
+
+        verify(urlVisitCompactionRepository, never()).findVisitsFrom(anyLong(), anyInt());
+        verify(urlVisitCompactionRepository, never()).deleteVisitsBetween(anyLong(), anyLong(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void compact_whenRollupExcludesBots_keepBotVisits() throws InterruptedException {
+        VisitCompactionService service = service(10, new ClickRollupProperties(true, 5000, 500, 1440, 366, true));
+        checkpointAt(0L);
+        when(urlVisitCompactionRepository.findVisitsFrom(0, 10)).thenReturn(List.of(visit(0, 1L, DAY.atTime(10, 0))));
+        when(uniqueVisitorService.countDaily(Map.of(1L, Set.of(DAY)))).thenReturn(Map.of(1L, Map.of(DAY, 1L)));
+
+        service.compact(NOW);
+
+        verify(urlVisitCompactionRepository).deleteVisitsBetween(0, 1, true, 10);
+    }
+
+    @Test
+    void compact_whenRollupDisabled_doNothing() {
+        VisitCompactionService service = service(10, new ClickRollupProperties(false, 5000, 500, 1440, 366, false));
+
+        service.compact();
+
+        verifyNoInteractions(urlVisitCompactionRepository, transactionTemplate);
+    }
+
+    @Test
+    void recordRollupWatermark_createWhenRollupEnabled_dropWhenDisabled() {
+        service(10).recordRollupWatermark();
+        service(10, new ClickRollupProperties(false, 5000, 500, 1440, 366, false)).recordRollupWatermark();
+
+        verify(urlVisitCompactionRepository).createRollupWatermark();
+        verify(urlVisitCompactionRepository).deleteRollupWatermark();
+    }
+
+    @Test
+    void compact_whenVisitsSampled_backOff() throws InterruptedException {
+        VisitCompactionService service = service(10);
+        when(urlVisitCompactionRepository.findNextVisitId()).thenReturn(0L);
+        when(visitSampler.getWeight()).thenReturn(4);
+
+        service.compact(NOW);
+
+        verifyNoInteractions(transactionTemplate);
+        assertEquals(1.0, meterRegistry.get("url_visit.compaction.throttled").counter().count());
+    }
+
+    @Test
+    void compact_whenCompactionFails_countFailure() {
+        VisitCompactionService service = service(10);
+        when(urlVisitCompactionRepository.findNextVisitId()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        service.compact();
+
+        assertEquals(1.0, meterRegistry.get("url_visit.compaction.failures").counter().count());
+    }
+
+    @Test
+    void compact_whenDisabled_doNothing() {
+        VisitCompactionService disabled = new VisitCompactionService(new VisitCompactionProperties(false, 30, 10, 10, 5, 0, 600000),
+                                                                     new ClickRollupProperties(true, 5000, 500, 1440, 366, false),
+                                                                     urlVisitCompactionRepository, urlClickRollupRepository,
+                                                                     uniqueVisitorService, visitSampler,
+                                                                     transactionTemplate, meterRegistry);
+        disabled.init();
+
+        disabled.compact();
+
+        verifyNoInteractions(urlVisitCompactionRepository, urlClickRollupRepository, transactionTemplate);
+    }
+
+    private void checkpointAt(long nextVisitId) {
+        checkpointAt(nextVisitId, 0L);
+    }
+
+    private void checkpointAt(long nextVisitId, Long watermark) {
+        when(urlVisitCompactionRepository.findNextVisitId()).thenReturn(nextVisitId);
+        when(urlVisitCompactionRepository.lockNextVisitId()).thenReturn(nextVisitId);
+        when(urlVisitCompactionRepository.findRollupWatermark()).thenReturn(watermark);
+        when(visitSampler.getWeight()).thenReturn(1);
+        inTransaction();
+    }
+
+    private void inTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0)
+                                                                                    .doInTransaction(null));
+    }
+
+    private static CompactedVisit visit(long id, Long urlId, LocalDateTime visitedAt) {
+        return new CompactedVisit(id, urlId, visitedAt);
+    }
+
+    private VisitCompactionService service(int chunkSize) {
+        return service(chunkSize, new ClickRollupProperties(true, 5000, 500, 1440, 366, false));
+    }
+
+    private VisitCompactionService service(int chunkSize, ClickRollupProperties clickRollupProps) {
+        VisitCompactionService service = new VisitCompactionService(new VisitCompactionProperties(true, 30, chunkSize, 10, 5, 0, 600000),
+                                                                    clickRollupProps, urlVisitCompactionRepository, urlClickRollupRepository,
+                                                                    uniqueVisitorService, visitSampler,
+                                                                    transactionTemplate, meterRegistry);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,161 @@
+package com.diepnn.shortenurl.service.retention;
+
+import com.diepnn.shortenurl.common.enums.ClickGranularity;
+import com.diepnn.shortenurl.common.properties.ClickRollupProperties;
+import com.diepnn.shortenurl.common.properties.VisitRetentionProperties;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository;
+import com.diepnn.shortenurl.repository.UrlVisitBatchRepository;
+import com.diepnn.shortenurl.repository.UrlVisitPartitionRepository;
+import com.diepnn.shortenurl.repository.UrlVisitPartitionRepository.Partition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VisitRetentionServiceTests {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 14, 15, 9, 26);
+
+    @Mock
+    private UrlVisitPartitionRepository urlVisitPartitionRepository;
+
+    @Mock
+    private UrlVisitBatchRepository urlVisitBatchRepository;
+
+    @Mock
+    private UrlClickRollupRepository urlClickRollupRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VisitRetentionService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = service(true);
+    }
+
+    @Test
+    void purge_whenPartitioned_createFutureMonthsAndDropExpiredOnes() {
+        // Retention of 60 days from 2026-03-14 keeps January from the 13th on, so only December is expired
+        List<Partition> partitions = List.of(month(YearMonth.of(2025, 12)), month(YearMonth.of(2026, 1)),
+                                             month(YearMonth.of(2026, 2)), month(YearMonth.of(2026, 3)),
+                                             new Partition(UrlVisitPartitionRepository.FUTURE_PARTITION, null));
+        List<Partition> extended = List.of(partitions.get(0), partitions.get(1), partitions.get(2), partitions.get(3),
+                                           month(YearMonth.of(2026, 4)), month(YearMonth.of(2026, 5)), partitions.get(4));
+        when(urlVisitPartitionRepository.findPartitions()).thenReturn(partitions, extended);
+
+        service.purge(NOW);
+
+        verify(urlVisitPartitionRepository).addMonthlyPartitions(List.of(YearMonth.of(2026, 4), YearMonth.of(2026, 5)), true);
+        verify(urlVisitPartitionRepository).dropPartitions(List.of("p202512"));
+        verifyNoInteractions(urlVisitBatchRepository);
+        assertEquals(1.0, meterRegistry.get("url_visit.retention.partitions.dropped").counter().count());
+    }
+
+    @Test
+    void purge_whenOnlyFuturePartition_startFromCurrentMonth() {
+        List<Partition> partitions = List.of(new Partition(UrlVisitPartitionRepository.FUTURE_PARTITION, null));
+        when(urlVisitPartitionRepository.findPartitions()).thenReturn(partitions);
+
+        service.purge(NOW);
+
+        verify(urlVisitPartitionRepository).addMonthlyPartitions(List.of(YearMonth.of(2026, 3), YearMonth.of(2026, 4),
+                                                                         YearMonth.of(2026, 5)), true);
+    }
+
+    @Test
+    void purge_whenFutureMonthsExistAndNothingExpired_changeNothing() {
+        when(urlVisitPartitionRepository.findPartitions()).thenReturn(List.of(month(YearMonth.of(2026, 2)), month(YearMonth.of(2026, 3)),
+                                                                              month(YearMonth.of(2026, 4)), month(YearMonth.of(2026, 5))));
+
+        service.purge(NOW);
+
+        verify(urlVisitPartitionRepository, never()).addMonthlyPartitions(any(), anyBoolean());
+        verify(urlVisitPartitionRepository, never()).dropPartitions(any());
+    }
+
+    @Test
+    void purge_whenNotPartitioned_deleteInBatchesUntilShortBatch() {
+        when(urlVisitPartitionRepository.findPartitions()).thenReturn(List.of());
+        when(urlVisitBatchRepository.deleteVisitedBefore(NOW.minusDays(60), 100)).thenReturn(100, 100, 42);
+
+        service.purge(NOW);
+
+        verify(urlVisitBatchRepository, times(3)).deleteVisitedBefore(NOW.minusDays(60), 100);
+        assertEquals(242.0, meterRegistry.get("url_visit.retention.deleted").counter().count());
+    }
+
+    @Test
+    void purge_whenNotPartitioned_stopAfterMaxBatches() {
+        when(urlVisitPartitionRepository.findPartitions()).thenReturn(List.of());
+        when(urlVisitBatchRepository.deleteVisitedBefore(any(), anyInt())).thenReturn(100);
+
+        service.purge(NOW);
+
+        verify(urlVisitBatchRepository, times(5)).deleteVisitedBefore(any(), anyInt());
+    }
+
+    @Test
+    void purge_pruneMinuteAndHourBucketsOlderThanMaxBuckets() {
+        when(urlVisitPartitionRepository.findPartitions()).thenReturn(List.of());
+        when(urlClickRollupRepository.deleteBucketsBefore(ClickGranularity.MINUTE, LocalDateTime.of(2026, 3, 13, 15, 9), 100))
+                .thenReturn(100, 7);
+        when(urlClickRollupRepository.deleteBucketsBefore(ClickGranularity.HOUR, LocalDateTime.of(2026, 1, 13, 15, 0), 100))
+                .thenReturn(3);
+
+        service.purge(NOW);
+
+        verify(urlClickRollupRepository, times(2)).deleteBucketsBefore(ClickGranularity.MINUTE, LocalDateTime.of(2026, 3, 13, 15, 9), 100);
+        verify(urlClickRollupRepository, never()).deleteBucketsBefore(eq(ClickGranularity.DAY), any(), anyInt());
+        assertEquals(110.0, meterRegistry.get("url_visit.retention.click_buckets.deleted").counter().count());
+    }
+
+    @Test
+    void purge_whenDatabaseFails_countFailure() {
+        when(urlVisitPartitionRepository.findPartitions()).thenThrow(new DataAccessResourceFailureException("db down"));
+
+        service.purge();
+
+        assertEquals(1.0, meterRegistry.get("url_visit.retention.failures").counter().count());
+    }
+
+    @Test
+    void purge_whenDisabled_skipDatabase() {
+        service = service(false);
+
+        service.purge();
+
+        verifyNoInteractions(urlVisitPartitionRepository, urlVisitBatchRepository, urlClickRollupRepository);
+    }
+
+    private static Partition month(YearMonth month) {
+        return new Partition(UrlVisitPartitionRepository.partitionName(month), UrlVisitPartitionRepository.lessThan(month));
+    }
+
+    private VisitRetentionService service(boolean enabled) {
+        VisitRetentionService service = new VisitRetentionService(new VisitRetentionProperties(enabled, 60, 2, 100, 5, 3_600_000),
+                                                                  urlVisitPartitionRepository, urlVisitBatchRepository,
+                                                                  new ClickRollupProperties(true, 5000, 500, 1440, 366, false),
+                                                                  urlClickRollupRepository, meterRegistry);
+        service.init();
+        return service;
+    }
+}
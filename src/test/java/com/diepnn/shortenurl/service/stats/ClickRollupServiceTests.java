@@ -0,0 +1,206 @@
+package com.diepnn.shortenurl.service.stats;
+
+import com.diepnn.shortenurl.common.enums.ClickGranularity;
+import com.diepnn.shortenurl.common.enums.VisitDimension;
+import com.diepnn.shortenurl.common.properties.ClickRollupProperties;
+import com.diepnn.shortenurl.dto.UserAgentInfo;
+import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository.BucketDelta;
+import com.diepnn.shortenurl.repository.UrlClickRollupRepository.DimensionDelta;
+import com.diepnn.shortenurl.utils.UserAgentUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ClickRollupServiceTests {
+    private static final LocalDateTime VISITED_AT = LocalDateTime.of(2026, 3, 14, 15, 9, 26);
+    private static final String CHROME_UA = "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36";
+    private static final String FIREFOX_UA = "Mozilla/5.0 (X11; Linux x86_64; rv:143.0) Gecko/20100101 Firefox/143.0";
+    private static final UserAgentInfo CHROME = UserAgentUtils.classify(CHROME_UA);
+    private static final UserAgentInfo GOOGLEBOT = UserAgentUtils.classify("Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)");
+
+    @Mock
+    private UrlClickRollupRepository urlClickRollupRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ClickRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = service(true, false);
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushPending_upsertsOneRowPerBucketAndAddsTotals() {
+        service.record(1L, visit(VISITED_AT), CHROME);
+        service.record(1L, visit(VISITED_AT.plusSeconds(10)), CHROME);
+        service.record(1L, visit(VISITED_AT.plusMinutes(1)), CHROME);
+        service.record(2L, visit(VISITED_AT), CHROME);
+
+        assertEquals(4, service.flushPending());
+
+        ArgumentCaptor<List<BucketDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(urlClickRollupRepository).upsertBuckets(deltas.capture(), eq(500));
+        LocalDateTime minute = LocalDateTime.of(2026, 3, 14, 15, 9);
+        LocalDateTime hour = LocalDateTime.of(2026, 3, 14, 15, 0);
+        LocalDateTime day = LocalDateTime.of(2026, 3, 14, 0, 0);
+        assertEquals(List.of(new BucketDelta(1L, ClickGranularity.MINUTE, minute, 2),
+                             new BucketDelta(1L, ClickGranularity.MINUTE, minute.plusMinutes(1), 1),
+                             new BucketDelta(1L, ClickGranularity.HOUR, hour, 3),
+                             new BucketDelta(1L, ClickGranularity.DAY, day, 3),
+                             new BucketDelta(2L, ClickGranularity.MINUTE, minute, 1),
+                             new BucketDelta(2L, ClickGranularity.HOUR, hour, 1),
+                             new BucketDelta(2L, ClickGranularity.DAY, day, 1)),
+                     deltas.getValue());
+        verify(urlClickRollupRepository).addTotalClicks(Map.of(1L, 3L, 2L, 1L), 500);
+        assertEquals(4.0, meterRegistry.get("url_visit.click_rollup.flushed").counter().count());
+        assertEquals(0.0, meterRegistry.get("url_visit.click_rollup.pending").gauge().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushPending_upsertsDailyCountersPerCountryAndUserAgentFamily() {
+        service.record(1L, new UserInfo("10.0.0.1", CHROME_UA, VISITED_AT, "VN"), CHROME);
+        service.record(1L, new UserInfo("10.0.0.2", FIREFOX_UA, VISITED_AT.plusHours(1), " VN "), UserAgentUtils.classify(FIREFOX_UA));
+        service.record(1L, new UserInfo("10.0.0.3", null, VISITED_AT.plusDays(1), null), UserAgentUtils.UNKNOWN_INFO);
+
+        assertEquals(3, service.flushPending());
+
+        ArgumentCaptor<List<DimensionDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(urlClickRollupRepository).upsertDimensions(deltas.capture(), eq(500));
+        LocalDate day = VISITED_AT.toLocalDate();
+        assertEquals(List.of(new DimensionDelta(1L, VisitDimension.COUNTRY, day, "VN", 2),
+                             new DimensionDelta(1L, VisitDimension.COUNTRY, day.plusDays(1), "Unknown", 1),
+                             new DimensionDelta(1L, VisitDimension.USER_AGENT_FAMILY, day, "Chrome", 1),
+                             new DimensionDelta(1L, VisitDimension.USER_AGENT_FAMILY, day, "Firefox", 1),
+                             new DimensionDelta(1L, VisitDimension.USER_AGENT_FAMILY, day.plusDays(1), "Unknown", 1)),
+                     deltas.getValue());
+    }
+
+    @Test
+    void flushPending_whenNothingRecorded_skipDatabase() {
+        assertEquals(0, service.flushPending());
+        verifyNoInteractions(transactionTemplate, urlClickRollupRepository);
+    }
+
+    @Test
+    void flushPending_whenDatabaseFails_keepCountersForNextFlush() {
+        service.record(1L, visit(VISITED_AT), CHROME);
+        doThrow(new DataAccessResourceFailureException("db down")).when(urlClickRollupRepository).upsertBuckets(any(), anyInt());
+
+        assertThrows(DataAccessResourceFailureException.class, () -> service.flushPending());
+        assertEquals(5.0, meterRegistry.get("url_visit.click_rollup.pending").gauge().value());
+        assertEquals(1.0, meterRegistry.get("url_visit.click_rollup.failures").counter().count());
+
+        service.record(1L, visit(VISITED_AT), CHROME);
+        doAnswer(invocation -> null).when(urlClickRollupRepository).upsertBuckets(any(), anyInt());
+
+        assertEquals(2, service.flushPending());
+        verify(urlClickRollupRepository).addTotalClicks(Map.of(1L, 2L), 500);
+    }
+
+    @Test
+    void flushPending_addsDuplicatesWithoutCountingClicks() {
+        service.recordDuplicate(1L);
+        service.recordDuplicate(1L);
+        service.recordDuplicate(2L);
+
+        assertEquals(0, service.flushPending());
+
+        verify(urlClickRollupRepository).addDuplicateClicks(Map.of(1L, 2L, 2L, 1L), 500);
+        verify(urlClickRollupRepository).addTotalClicks(Map.of(), 500);
+        assertEquals(0.0, meterRegistry.get("url_visit.click_rollup.pending").gauge().value());
+    }
+
+    @Test
+    void write_upsertsBatchInCallerTransactionWithoutTouchingPending() {
+        service.record(2L, visit(VISITED_AT), CHROME);
+        ClickRollupService.Batch batch = service.newBatch();
+        batch.record(1L, visit(VISITED_AT), CHROME);
+        batch.record(1L, visit(VISITED_AT.plusMinutes(1)), CHROME);
+
+        assertEquals(2, service.write(batch));
+
+        verify(urlClickRollupRepository).addTotalClicks(Map.of(1L, 2L), 500);
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        assertEquals(5.0, meterRegistry.get("url_visit.click_rollup.pending").gauge().value());
+    }
+
+    @Test
+    void record_whenDisabled_countNothing() {
+        ClickRollupService disabled = service(false, false);
+        disabled.record(1L, visit(VISITED_AT), CHROME);
+
+        assertEquals(0, disabled.flushPending());
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+    }
+
+    @Test
+    void record_whenExcludingBots_skipBotVisits() {
+        ClickRollupService excludingBots = service(true, true);
+        excludingBots.record(1L, visit(VISITED_AT), CHROME);
+        excludingBots.record(1L, visit(VISITED_AT), GOOGLEBOT);
+        ClickRollupService.Batch batch = excludingBots.newBatch();
+        batch.record(2L, visit(VISITED_AT), GOOGLEBOT);
+
+        assertEquals(1, excludingBots.flushPending());
+        assertEquals(0, excludingBots.write(batch));
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    void record_whenCountingBots_countBotFamily() {
+        service.record(1L, visit(VISITED_AT), GOOGLEBOT);
+
+        assertEquals(1, service.flushPending());
+    }
+
+    private static UserInfo visit(LocalDateTime visitedAt) {
+        return new UserInfo("10.0.0.1", CHROME_UA, visitedAt, "VN");
+    }
+
+    private ClickRollupService service(boolean enabled, boolean excludeBots) {
+        ClickRollupService service = new ClickRollupService(new ClickRollupProperties(enabled, 5000, 500, 1440, 366, excludeBots),
+                                                            urlClickRollupRepository, transactionTemplate,
+                                                            meterRegistry);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,65 @@
+package com.diepnn.shortenurl.service.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeBucketedBloomFilterTests {
+    private static final long WINDOW_MS = 10_000;
+
+    @Test
+    void containsOrAdd_whenRepeatedWithinWindow_returnTrue() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(WINDOW_MS, 4, 1000, 0.001);
+
+        assertFalse(filter.containsOrAdd(hash(1), 0));
+        assertTrue(filter.containsOrAdd(hash(1), 1));
+        assertTrue(filter.containsOrAdd(hash(1), WINDOW_MS - 1));
+        assertFalse(filter.containsOrAdd(hash(2), WINDOW_MS - 1));
+    }
+
+    @Test
+    void containsOrAdd_whenRepeatedAfterWindowAndOneSlot_addAgain() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(WINDOW_MS, 4, 1000, 0.001);
+        filter.containsOrAdd(hash(1), 0);
+
+        // A repeat does not extend the window of the first visit
+        assertTrue(filter.containsOrAdd(hash(1), 9_000));
+        assertFalse(filter.containsOrAdd(hash(1), WINDOW_MS + WINDOW_MS / 4));
+        assertTrue(filter.containsOrAdd(hash(1), WINDOW_MS + WINDOW_MS / 4 + 1));
+    }
+
+    @Test
+    void containsOrAdd_whenAtExpectedLoad_keepFalsePositiveRate() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(WINDOW_MS, 4, 10_000, 0.01);
+
+        // 10,000 distinct items per window over 5 windows
+        int falsePositives = 0;
+        for (int i = 0; i < 50_000; i++) {
+            if (filter.containsOrAdd(hash(i), i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 500, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void containsOrAdd_whenClockGoesBack_ignoreFutureSlots() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(WINDOW_MS, 4, 1000, 0.001);
+        filter.containsOrAdd(hash(1), 5_000);
+
+        assertFalse(filter.containsOrAdd(hash(1), 0));
+    }
+
+    @Test
+    void constructor_whenRateOutOfRange_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeBucketedBloomFilter(WINDOW_MS, 4, 1000, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TimeBucketedBloomFilter(WINDOW_MS, 0, 1000, 0.01));
+    }
+
+    private static long hash(long item) {
+        return VisitDeduplicator.hash(item, "10.0.0.1", "curl/8.0");
+    }
+}
@@ -0,0 +1,142 @@
+package com.diepnn.shortenurl.service.stats;
+
+import com.diepnn.shortenurl.common.properties.UniqueVisitorProperties;
+import com.diepnn.shortenurl.dto.DailyUniqueVisitorsDTO;
+import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.dto.response.UniqueVisitorsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHyperLogLogCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UniqueVisitorServiceTests {
+    private static final UserInfo VISITOR = new UserInfo("10.0.0.1", "Mozilla/5.0", LocalDateTime.of(2026, 3, 14, 23, 59), null);
+
+    @Mock
+    private RedisTemplate<String, byte[]> bytesRedisTemplate;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisHyperLogLogCommands hyperLogLogCommands;
+
+    @Mock
+    private RedisKeyCommands keyCommands;
+
+    private UniqueVisitorService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UniqueVisitorService(new UniqueVisitorProperties(true, 90, 90), bytesRedisTemplate);
+        lenient().when(connection.hyperLogLogCommands()).thenReturn(hyperLogLogCommands);
+        lenient().when(connection.keyCommands()).thenReturn(keyCommands);
+    }
+
+    @Test
+    void record_addsVisitorToDailySketchAndRefreshesTtl() {
+        when(bytesRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(this::runPipeline);
+
+        service.record(1L, VISITOR);
+
+        byte[] key = "url-visitors::{1}::2026-03-14".getBytes(StandardCharsets.UTF_8);
+        verify(hyperLogLogCommands).pfAdd(aryEq(key), aryEq(UniqueVisitorService.visitorId(VISITOR)));
+        verify(keyCommands).expire(aryEq(key), eq(91L * 24 * 60 * 60));
+    }
+
+    @Test
+    void recordAll_addsVisitorsWithOnePfAddPerUrlAndDay() {
+        UserInfo nextDay = new UserInfo("10.0.0.2", "Mozilla/5.0", LocalDateTime.of(2026, 3, 15, 0, 1), null);
+        UserInfo sameDay = new UserInfo("10.0.0.3", "Mozilla/5.0", LocalDateTime.of(2026, 3, 14, 8, 0), null);
+        when(bytesRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(this::runPipeline);
+
+        service.recordAll(Map.of(1L, List.of(VISITOR, nextDay, sameDay)));
+
+        byte[] day = "url-visitors::{1}::2026-03-14".getBytes(StandardCharsets.UTF_8);
+        byte[] next = "url-visitors::{1}::2026-03-15".getBytes(StandardCharsets.UTF_8);
+        verify(hyperLogLogCommands).pfAdd(aryEq(day), aryEq(UniqueVisitorService.visitorId(VISITOR)),
+                                          aryEq(UniqueVisitorService.visitorId(sameDay)));
+        verify(hyperLogLogCommands).pfAdd(aryEq(next), aryEq(UniqueVisitorService.visitorId(nextDay)));
+        verify(keyCommands).expire(aryEq(day), eq(91L * 24 * 60 * 60));
+        verify(keyCommands).expire(aryEq(next), eq(91L * 24 * 60 * 60));
+    }
+
+    @Test
+    void record_whenRedisFails_doNotThrow() {
+        when(bytesRedisTemplate.executePipelined(any(RedisCallback.class))).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertDoesNotThrow(() -> service.record(1L, VISITOR));
+    }
+
+    @Test
+    void record_whenDisabled_skipRedis() {
+        service = new UniqueVisitorService(new UniqueVisitorProperties(false, 90, 90), bytesRedisTemplate);
+
+        service.record(1L, VISITOR);
+
+        verifyNoInteractions(bytesRedisTemplate);
+    }
+
+    @Test
+    void count_returnsDailyEstimatesAndUnionOfRange() {
+        when(bytesRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            runPipeline(invocation);
+            return List.of(3L, 5L, 7L);
+        });
+
+        UniqueVisitorsResponse response = service.count(1L, LocalDate.of(2026, 3, 14), LocalDate.of(2026, 3, 15));
+
+        assertEquals(7L, response.uniqueVisitors());
+        assertEquals(List.of(new DailyUniqueVisitorsDTO(LocalDate.of(2026, 3, 14), 3L),
+                             new DailyUniqueVisitorsDTO(LocalDate.of(2026, 3, 15), 5L)),
+                     response.days());
+        byte[] first = "url-visitors::{1}::2026-03-14".getBytes(StandardCharsets.UTF_8);
+        byte[] second = "url-visitors::{1}::2026-03-15".getBytes(StandardCharsets.UTF_8);
+        verify(hyperLogLogCommands).pfCount(aryEq(first));
+        verify(hyperLogLogCommands).pfCount(aryEq(second));
+        verify(hyperLogLogCommands).pfCount(aryEq(first), aryEq(second));
+    }
+
+    @Test
+    void visitorId_dependsOnIpAddressAndUserAgent() {
+        UserInfo sameVisitor = new UserInfo("10.0.0.1", "Mozilla/5.0", LocalDateTime.of(2026, 3, 15, 8, 0), "VN");
+        UserInfo otherAgent = new UserInfo("10.0.0.1", "curl/8.0", VISITOR.visitedDatetime(), null);
+
+        assertEquals(8, UniqueVisitorService.visitorId(VISITOR).length);
+        assertArrayEquals(UniqueVisitorService.visitorId(VISITOR), UniqueVisitorService.visitorId(sameVisitor));
+        assertFalse(Arrays.equals(UniqueVisitorService.visitorId(VISITOR), UniqueVisitorService.visitorId(otherAgent)));
+    }
+
+    private Object runPipeline(InvocationOnMock invocation) {
+        invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+        return List.of();
+    }
+}
@@ -0,0 +1,63 @@
+package com.diepnn.shortenurl.service.stats;
+
+import com.diepnn.shortenurl.common.properties.UserAgentProperties;
+import com.diepnn.shortenurl.dto.UserAgentInfo;
+import com.diepnn.shortenurl.utils.UserAgentUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UserAgentClassifierTests {
+    private static final String CHROME_UA = "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36";
+    private static final String FIREFOX_UA = "Mozilla/5.0 (X11; Linux x86_64; rv:143.0) Gecko/20100101 Firefox/143.0";
+    private static final String SAFARI_UA = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/18.0 Safari/605.1.15";
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserAgentClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        classifier = new UserAgentClassifier(new UserAgentProperties(2), meterRegistry);
+        classifier.init();
+    }
+
+    @Test
+    void classify_whenSeenBefore_serveFromCache() {
+        UserAgentInfo first = classifier.classify(CHROME_UA);
+        UserAgentInfo second = classifier.classify(CHROME_UA);
+
+        assertSame(first, second);
+        assertEquals(new UserAgentInfo("Chrome", "Linux", "Desktop", false), first);
+        assertEquals(1.0, meterRegistry.get("url_visit.user_agent.cache.hits").counter().count());
+        assertEquals(1.0, meterRegistry.get("url_visit.user_agent.cache.misses").counter().count());
+        assertEquals(0.5, meterRegistry.get("url_visit.user_agent.cache.hit_ratio").gauge().value());
+    }
+
+    @Test
+    void classify_whenFull_evictLeastRecentlyUsed() {
+        classifier.classify(CHROME_UA);
+        classifier.classify(FIREFOX_UA);
+        classifier.classify(CHROME_UA);
+        classifier.classify(SAFARI_UA);
+
+        classifier.classify(CHROME_UA);
+        classifier.classify(FIREFOX_UA);
+
+        assertEquals(2.0, meterRegistry.get("url_visit.user_agent.cache.hits").counter().count());
+        assertEquals(4.0, meterRegistry.get("url_visit.user_agent.cache.misses").counter().count());
+        assertEquals(2.0, meterRegistry.get("url_visit.user_agent.cache.size").gauge().value());
+    }
+
+    @Test
+    void classify_whenMissing_returnUnknownWithoutCaching() {
+        assertSame(UserAgentUtils.UNKNOWN_INFO, classifier.classify(null));
+        assertSame(UserAgentUtils.UNKNOWN_INFO, classifier.classify(" "));
+
+        assertEquals(0.0, meterRegistry.get("url_visit.user_agent.cache.misses").counter().count());
+        assertEquals(0.0, meterRegistry.get("url_visit.user_agent.cache.size").gauge().value());
+    }
+}
@@ -0,0 +1,92 @@
+package com.diepnn.shortenurl.service.stats;
+
+import com.diepnn.shortenurl.common.properties.VisitDedupProperties;
+import com.diepnn.shortenurl.dto.UserInfo;
+import com.diepnn.shortenurl.utils.DateUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class VisitDeduplicatorTests {
+    private static final String CHROME_UA = "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36";
+    private static final String PREVIEW_UA = "Slackbot-LinkExpanding 1.0 (+https://api.slack.com/robots)";
+
+    @Mock
+    private ClickRollupService clickRollupService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VisitDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicator = deduplicator(true);
+    }
+
+    @Test
+    void admit_whenRepeatedWithinWindow_countDuplicate() {
+        assertTrue(deduplicator.admit(1L, visit("10.0.0.1", PREVIEW_UA)));
+        assertFalse(deduplicator.admit(1L, visit("10.0.0.1", PREVIEW_UA)));
+        assertFalse(deduplicator.admit(1L, visit("10.0.0.1", PREVIEW_UA)));
+
+        verify(clickRollupService, times(2)).recordDuplicate(1L);
+        assertEquals(2.0, meterRegistry.get("url_visit.dedup.duplicates").counter().count());
+    }
+
+    @Test
+    void admit_whenLinkIpOrUserAgentDiffers_admitVisit() {
+        assertTrue(deduplicator.admit(1L, visit("10.0.0.1", CHROME_UA)));
+        assertTrue(deduplicator.admit(2L, visit("10.0.0.1", CHROME_UA)));
+        assertTrue(deduplicator.admit(1L, visit("10.0.0.2", CHROME_UA)));
+        assertTrue(deduplicator.admit(1L, visit("10.0.0.1", PREVIEW_UA)));
+
+        verifyNoInteractions(clickRollupService);
+    }
+
+    @Test
+    void seen_whenWindowElapsed_admitAgain() {
+        long hash = VisitDeduplicator.hash(1L, "10.0.0.1", CHROME_UA);
+
+        assertFalse(deduplicator.seen(hash, 0));
+        assertTrue(deduplicator.seen(hash, 9_999));
+        assertFalse(deduplicator.seen(hash, 20_000));
+    }
+
+    @Test
+    void admit_whenDisabled_admitEveryVisit() {
+        VisitDeduplicator disabled = deduplicator(false);
+
+        assertTrue(disabled.admit(1L, visit("10.0.0.1", CHROME_UA)));
+        assertTrue(disabled.admit(1L, visit("10.0.0.1", CHROME_UA)));
+
+        verifyNoInteractions(clickRollupService);
+    }
+
+    @Test
+    void hash_whenFieldsShiftAcrossSeparator_differ() {
+        assertNotEquals(VisitDeduplicator.hash(1L, "1.2.3.4", "5x"), VisitDeduplicator.hash(1L, "1.2.3.45", "x"));
+    }
+
+    private static UserInfo visit(String ip, String userAgent) {
+        return new UserInfo(ip, userAgent, DateUtils.nowTruncatedToSeconds(), null);
+    }
+
+    private VisitDeduplicator deduplicator(boolean enabled) {
+        VisitDeduplicator deduplicator = new VisitDeduplicator(new VisitDedupProperties(enabled, 10, 10_000, 0.001),
+                                                               clickRollupService, meterRegistry);
+        deduplicator.init();
+        return deduplicator;
+    }
+}
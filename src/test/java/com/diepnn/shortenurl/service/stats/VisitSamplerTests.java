@@ -0,0 +1,120 @@
+package com.diepnn.shortenurl.service.stats;
+
+import com.diepnn.shortenurl.common.properties.VisitSamplingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VisitSamplerTests {
+    private SimpleMeterRegistry meterRegistry;
+    private VisitSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sampler = sampler(true);
+    }
+
+    @Test
+    void sample_whenNotOverloaded_recordEveryVisit() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, sampler.sample());
+        }
+
+        assertEquals(100.0, meterRegistry.get("url_visit.sampling.backlog").gauge().value());
+        assertEquals(1.0, meterRegistry.get("url_visit.sampling.rate").gauge().value());
+    }
+
+    @Test
+    void adjust_whenBacklogAboveLimit_doubleWeightUpToMax() {
+        fillBacklog(11);
+
+        sampler.adjust();
+        assertEquals(2, sampler.getWeight());
+        sampler.adjust();
+        sampler.adjust();
+        sampler.adjust();
+        assertEquals(8, sampler.getWeight());
+        assertEquals(0.125, meterRegistry.get("url_visit.sampling.rate").gauge().value());
+    }
+
+    @Test
+    void adjust_whenLatencyAboveLimit_doubleWeight() {
+        sampler.sample();
+        sampler.done(System.nanoTime() - 200_000_000L);
+
+        sampler.adjust();
+
+        assertEquals(2, sampler.getWeight());
+    }
+
+    @Test
+    void adjust_whenRecovered_halveWeightBackToFullFidelity() {
+        long start = System.nanoTime();
+        fillBacklog(11);
+        sampler.adjust();
+        sampler.adjust();
+        assertEquals(4, sampler.getWeight());
+
+        // Between half the limit and the limit, the weight holds
+        for (int i = 0; i < 4; i++) {
+            sampler.done(start);
+        }
+        sampler.adjust();
+        assertEquals(4, sampler.getWeight());
+
+        for (int i = 0; i < 7; i++) {
+            sampler.done(start);
+        }
+        sampler.adjust();
+        assertEquals(2, sampler.getWeight());
+        sampler.adjust();
+        sampler.adjust();
+        assertEquals(1, sampler.getWeight());
+    }
+
+    @Test
+    void sample_whenSampling_keepOneInWeightOnAverage() {
+        fillBacklog(11);
+        sampler.adjust();
+        sampler.adjust();
+        sampler.adjust();
+
+        long weights = 0;
+        int visits = 80_000;
+        for (int i = 0; i < visits; i++) {
+            weights += sampler.sample();
+        }
+
+        // Sum of weights estimates the visits, 8 standard deviations of slack
+        assertTrue(Math.abs(weights - visits) < 8 * Math.sqrt(visits * 7.0), "Estimated " + weights + " visits");
+        assertEquals(visits - (weights / 8), meterRegistry.get("url_visit.sampling.skipped").counter().count());
+    }
+
+    @Test
+    void adjust_whenDisabled_recordEveryVisit() {
+        VisitSampler disabled = sampler(false);
+        for (int i = 0; i < 11; i++) {
+            disabled.sample();
+        }
+
+        disabled.adjust();
+
+        assertEquals(1, disabled.getWeight());
+    }
+
+    private void fillBacklog(int visits) {
+        for (int i = 0; i < visits; i++) {
+            sampler.sample();
+        }
+    }
+
+    private VisitSampler sampler(boolean enabled) {
+        VisitSampler sampler = new VisitSampler(new VisitSamplingProperties(enabled, 10, 100, 8, 1000), meterRegistry);
+        sampler.init();
+        return sampler;
+    }
+}
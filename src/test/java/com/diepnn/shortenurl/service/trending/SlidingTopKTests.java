@@ -0,0 +1,55 @@
+package com.diepnn.shortenurl.service.trending;
+
+import com.diepnn.shortenurl.common.enums.TrendingWindow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SlidingTopKTests {
+    // Start of a MINUTE window slot, 10 seconds long
+    private static final long NOW = 1_773_500_000_000L;
+
+    @Test
+    void top_mergesSlotsOfWindowMostClickedFirst() {
+        SlidingTopK topK = new SlidingTopK(TrendingWindow.MINUTE, 16);
+        topK.offer(1L, 1, NOW);
+        topK.offer(2L, 1, NOW + 10_000);
+        topK.offer(2L, 1, NOW + 20_000);
+        topK.offer(3L, 1, NOW + 20_000);
+        topK.offer(1L, 1, NOW + 30_000);
+        topK.offer(1L, 1, NOW + 30_000);
+
+        assertEquals(List.of(new SlidingTopK.Entry(1L, 3), new SlidingTopK.Entry(2L, 2)), topK.top(2, NOW + 30_000));
+    }
+
+    @Test
+    void top_dropsSlotsThatLeftTheWindow() {
+        SlidingTopK topK = new SlidingTopK(TrendingWindow.MINUTE, 16);
+        topK.offer(1L, 1, NOW);
+        topK.offer(1L, 1, NOW);
+        topK.offer(2L, 1, NOW + 50_000);
+
+        assertEquals(List.of(new SlidingTopK.Entry(1L, 2), new SlidingTopK.Entry(2L, 1)), topK.top(10, NOW + 59_999));
+        assertEquals(List.of(new SlidingTopK.Entry(2L, 1)), topK.top(10, NOW + 60_000));
+    }
+
+    @Test
+    void offer_whenSlotComesRoundAgain_clearItFirst() {
+        SlidingTopK topK = new SlidingTopK(TrendingWindow.MINUTE, 16);
+        topK.offer(1L, 1, NOW);
+        topK.offer(2L, 1, NOW + 60_000);
+
+        assertEquals(List.of(new SlidingTopK.Entry(2L, 1)), topK.top(10, NOW + 60_000));
+    }
+
+    @Test
+    void offer_weightsClicksAndDropsClicksOfAnOverwrittenSlot() {
+        SlidingTopK topK = new SlidingTopK(TrendingWindow.MINUTE, 16);
+        topK.offer(1L, 3, NOW + 60_000);
+        topK.offer(2L, 5, NOW);
+
+        assertEquals(List.of(new SlidingTopK.Entry(1L, 3)), topK.top(10, NOW + 60_000));
+    }
+}
@@ -0,0 +1,89 @@
+package com.diepnn.shortenurl.service.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingSketchTests {
+    @Test
+    void offer_whenBelowCapacity_countExactly() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+        sketch.offer(1L, 1);
+        sketch.offer(2L, 3);
+        sketch.offer(1L, 1);
+
+        assertEquals(2, sketch.size());
+        assertEquals(2, sketch.count(1L));
+        assertEquals(3, sketch.count(2L));
+        assertEquals(0, sketch.count(3L));
+    }
+
+    @Test
+    void offer_whenFull_replaceLeastCountedAndInheritItsCount() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.offer(1L, 5);
+        sketch.offer(2L, 2);
+        sketch.offer(3L, 1);
+
+        assertEquals(2, sketch.size());
+        assertEquals(5, sketch.count(1L));
+        assertEquals(0, sketch.count(2L));
+        assertEquals(3, sketch.count(3L));
+        Map<Long, Long> errors = new HashMap<>();
+        sketch.forEach((item, count, error) -> errors.put(item, error));
+        assertEquals(Map.of(1L, 0L, 3L, 2L), errors);
+    }
+
+    @Test
+    void offer_onSkewedStream_trackHeavyHittersWithinErrorBound() {
+        int capacity = 64;
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        int total = 200_000;
+        for (int i = 0; i < total; i++) {
+            // A tenth of the clicks go to 5 hot links, the rest are spread over 100k links
+            long item = random.nextInt(10) == 0 ? random.nextInt(5) : 1_000 + random.nextInt(100_000);
+            sketch.offer(item, 1);
+            exact.merge(item, 1L, Long::sum);
+        }
+
+        assertEquals(capacity, sketch.size());
+        long bound = total / capacity;
+        exact.forEach((item, count) -> {
+            if (count > bound) {
+                assertTrue(sketch.count(item) >= count, "Heavy hitter " + item + " must be tracked");
+            }
+        });
+        sketch.forEach((item, count, error) -> {
+            long actual = exact.get(item);
+            assertTrue(count >= actual && count - error <= actual, "Count of " + item + " must bracket " + actual);
+            assertTrue(error <= bound);
+        });
+    }
+
+    @Test
+    void clear_forgetAllItems() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.offer(1L, 1);
+        sketch.offer(2L, 1);
+
+        sketch.clear();
+        sketch.offer(3L, 1);
+
+        assertEquals(1, sketch.size());
+        assertEquals(0, sketch.count(1L));
+        assertEquals(1, sketch.count(3L));
+    }
+
+    @Test
+    void constructor_whenCapacityIsNotPositive_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSavingSketch(0));
+    }
+}
@@ -0,0 +1,200 @@
+package com.diepnn.shortenurl.service.trending;
+
+import com.diepnn.shortenurl.common.enums.TrendingWindow;
+import com.diepnn.shortenurl.common.properties.TrendingProperties;
+import com.diepnn.shortenurl.dto.TrendingLinkDTO;
+import com.diepnn.shortenurl.dto.response.TrendingLinksResponse;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.repository.UrlInfoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingLinksServiceTests {
+    @Mock
+    private RedisTemplate<String, byte[]> bytesRedisTemplate;
+
+    @Mock
+    private ZSetOperations<String, byte[]> zSetOperations;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisKeyCommands keyCommands;
+
+    @Mock
+    private RedisZSetCommands zSetCommands;
+
+    @Mock
+    private UrlInfoRepository urlInfoRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TrendingLinksService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = service(true);
+        lenient().when(connection.keyCommands()).thenReturn(keyCommands);
+        lenient().when(connection.zSetCommands()).thenReturn(zSetCommands);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publish_replacesLeaderboardOfEachWindowAndRegistersNode() {
+        service.record(1L);
+        service.record(2L);
+        service.record(2L);
+        when(bytesRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+
+        long now = System.currentTimeMillis();
+        service.publish(now);
+
+        for (TrendingWindow window : TrendingWindow.values()) {
+            byte[] key = bytes("url-trending::{node-1}::" + window);
+            byte[] tempKey = bytes("url-trending::{node-1}::" + window + "::tmp");
+            ArgumentCaptor<Set<Tuple>> tuples = ArgumentCaptor.forClass(Set.class);
+            verify(zSetCommands).zAdd(aryEq(tempKey), tuples.capture());
+            assertEquals(Set.of(new DefaultTuple(bytes("2"), 2.0), new DefaultTuple(bytes("1"), 1.0)), tuples.getValue());
+            verify(keyCommands).rename(aryEq(tempKey), aryEq(key));
+            verify(keyCommands).pExpire(aryEq(key), eq(15_000L));
+        }
+
+        verify(zSetCommands).zAdd(aryEq(bytes("url-trending::nodes")), eq((double) now), aryEq(bytes("node-1")));
+        verify(zSetCommands).zRemRangeByScore(aryEq(bytes("url-trending::nodes")), eq(Double.NEGATIVE_INFINITY),
+                                              eq((double) (now - 15_000)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publish_foldsRecordedClicksOnce() {
+        service.record(1L);
+        when(bytesRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+
+        long now = System.currentTimeMillis();
+        service.publish(now);
+        service.publish(now);
+
+        byte[] tempKey = bytes("url-trending::{node-1}::MINUTE::tmp");
+        ArgumentCaptor<Set<Tuple>> tuples = ArgumentCaptor.forClass(Set.class);
+        verify(zSetCommands, times(2)).zAdd(aryEq(tempKey), tuples.capture());
+        assertEquals(Set.of(new DefaultTuple(bytes("1"), 1.0)), tuples.getAllValues().get(1));
+    }
+
+    @Test
+    void publish_whenRedisFails_countFailure() {
+        service.record(1L);
+        when(bytesRedisTemplate.executePipelined(any(RedisCallback.class))).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertDoesNotThrow(() -> service.publish());
+        assertEquals(1.0, meterRegistry.get("url_visit.trending.publish.failures").counter().count());
+    }
+
+    @Test
+    void findTrending_sumsLeaderboardsOfLiveNodesAndSkipsDeletedLinks() {
+        Set<byte[]> nodes = new LinkedHashSet<>(List.of(bytes("node-1"), bytes("node-2")));
+        when(bytesRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeByScore(eq("url-trending::nodes"), anyDouble(), eq(Double.POSITIVE_INFINITY))).thenReturn(nodes);
+        when(bytesRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of(Set.of(tuple(1L, 5), tuple(2L, 4), tuple(3L, 9)),
+                           Set.of(tuple(2L, 3), tuple(4L, 1)));
+        });
+        when(urlInfoRepository.findAllById(List.of(3L, 2L, 1L))).thenReturn(List.of(urlInfo(1L, "aaa"), urlInfo(3L, "ccc")));
+
+        TrendingLinksResponse response = service.findTrending(TrendingWindow.HOUR, 3);
+
+        assertEquals(TrendingWindow.HOUR, response.window());
+        assertEquals(List.of(new TrendingLinkDTO(3L, "ccc", "https://example.com/ccc", 9),
+                             new TrendingLinkDTO(1L, "aaa", "https://example.com/aaa", 5)),
+                     response.links());
+        verify(zSetCommands).zRevRangeWithScores(aryEq(bytes("url-trending::{node-1}::HOUR")), eq(0L), eq(-1L));
+        verify(zSetCommands).zRevRangeWithScores(aryEq(bytes("url-trending::{node-2}::HOUR")), eq(0L), eq(-1L));
+    }
+
+    @Test
+    void findTrending_whenNoNodePublished_returnEmptyLeaderboard() {
+        when(bytesRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeByScore(eq("url-trending::nodes"), anyDouble(), anyDouble())).thenReturn(Set.of());
+
+        assertTrue(service.findTrending(TrendingWindow.DAY, 10).links().isEmpty());
+        verifyNoInteractions(urlInfoRepository);
+    }
+
+    @Test
+    void findTrending_whenLimitOutOfRange_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> service.findTrending(TrendingWindow.MINUTE, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.findTrending(TrendingWindow.MINUTE, 101));
+        verifyNoInteractions(bytesRedisTemplate);
+    }
+
+    @Test
+    void record_whenDisabled_trackNothing() {
+        service = service(false);
+        service.record(1L);
+
+        service.publish();
+
+        verifyNoInteractions(bytesRedisTemplate);
+    }
+
+    private TrendingLinksService service(boolean enabled) {
+        TrendingLinksService service = new TrendingLinksService(new TrendingProperties(enabled, 100, 5000, "node-1"),
+                                                                bytesRedisTemplate, urlInfoRepository, meterRegistry);
+        service.init();
+        return service;
+    }
+
+    private static ZSetOperations.TypedTuple<byte[]> tuple(long urlId, double clicks) {
+        return new DefaultTypedTuple<>(bytes(Long.toString(urlId)), clicks);
+    }
+
+    private static UrlInfo urlInfo(Long id, String shortCode) {
+        return UrlInfo.builder().id(id).shortCode(shortCode).originalUrl("https://example.com/" + shortCode).build();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
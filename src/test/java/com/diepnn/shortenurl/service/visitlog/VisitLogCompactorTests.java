@@ -0,0 +1,209 @@
+package com.diepnn.shortenurl.service.visitlog;
+
+import com.diepnn.shortenurl.common.properties.GeoIpProperties;
+import com.diepnn.shortenurl.common.properties.UserAgentProperties;
+import com.diepnn.shortenurl.common.properties.VisitLogProperties;
+import com.diepnn.shortenurl.repository.UrlVisitBatchRepository;
+import com.diepnn.shortenurl.repository.VisitLogCheckpointRepository;
+import com.diepnn.shortenurl.service.geo.GeoIpService;
+import com.diepnn.shortenurl.service.stats.ClickRollupService;
+import com.diepnn.shortenurl.service.stats.UniqueVisitorService;
+import com.diepnn.shortenurl.service.stats.UserAgentClassifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VisitLogCompactorTests {
+    private static final LocalDateTime VISITED_AT = LocalDateTime.of(2026, 3, 14, 15, 9, 26);
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private ClickRollupService clickRollupService;
+
+    @Mock
+    private UniqueVisitorService uniqueVisitorService;
+
+    @Mock
+    private UrlVisitBatchRepository urlVisitBatchRepository;
+
+    @Mock
+    private VisitLogCheckpointRepository visitLogCheckpointRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VisitLog visitLog;
+    private UserAgentClassifier userAgentClassifier;
+    private GeoIpService geoIpService;
+    private VisitLogCompactor compactor;
+    private List<Path> sealed;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        visitLog = new VisitLog(props(1000), meterRegistry);
+        visitLog.init();
+        userAgentClassifier = new UserAgentClassifier(new UserAgentProperties(100), meterRegistry);
+        userAgentClassifier.init();
+        geoIpService = new GeoIpService(new GeoIpProperties("", 60_000), meterRegistry);
+        geoIpService.init();
+        compactor = newCompactor(1000);
+        lenient().when(clickRollupService.newBatch()).thenAnswer(invocation -> mock(ClickRollupService.Batch.class));
+
+        // About 50 bytes per record, 5 per segment: two sealed segments and two records in the active one
+        long end = 0;
+        for (int i = 0; i < 12; i++) {
+            end = visitLog.append(new VisitRecord(i, VISITED_AT, "10.0.0.1", "curl/8.5.0", "VN"));
+        }
+
+        visitLog.awaitDurable(end);
+        sealed = visitLog.sealedSegments();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        visitLog.shutdown();
+    }
+
+    @Test
+    void compactPending_writesEachSealedSegmentWithItsCheckpoint() throws IOException {
+        inTransaction();
+        when(visitLogCheckpointRepository.findNextOffset(visitLog.getLogId())).thenReturn(0L);
+
+        long secondEnd = VisitSegment.baseOffset(sealed.get(1)) + VisitSegment.read(sealed.get(1), null);
+        assertEquals(secondEnd, compactor.compactPending());
+
+        verify(visitLogCheckpointRepository).saveNextOffset(visitLog.getLogId(), VisitSegment.baseOffset(sealed.get(1)));
+        verify(visitLogCheckpointRepository).saveNextOffset(visitLog.getLogId(), secondEnd);
+        verify(clickRollupService, times(2)).write(any());
+        verify(uniqueVisitorService, times(2)).recordAll(any());
+        verify(urlVisitBatchRepository, times(2)).insert(any(), eq(1000));
+        assertEquals(10, meterRegistry.counter("url_visit.log.compacted").count());
+    }
+
+    @Test
+    void compactPending_skipSegmentsBeforeCheckpoint() throws IOException {
+        inTransaction();
+        long secondBase = VisitSegment.baseOffset(sealed.get(1));
+        when(visitLogCheckpointRepository.findNextOffset(visitLog.getLogId())).thenReturn(secondBase);
+
+        compactor.compactPending();
+
+        verify(clickRollupService).write(any());
+        verify(visitLogCheckpointRepository).saveNextOffset(visitLog.getLogId(), secondBase + VisitSegment.read(sealed.get(1), null));
+    }
+
+    @Test
+    void compactPending_commitEachChunkWithTheOffsetAfterIt() throws IOException {
+        inTransaction();
+        when(visitLogCheckpointRepository.findNextOffset(visitLog.getLogId())).thenReturn(0L);
+        List<Long> offsets = new ArrayList<>();
+        VisitSegment.read(sealed.get(0), (record, offset) -> offsets.add(offset));
+
+        newCompactor(2).compactPending();
+
+        // Chunks of 2, 2 and 1 records per segment
+        verify(visitLogCheckpointRepository).saveNextOffset(visitLog.getLogId(), offsets.get(2));
+        verify(visitLogCheckpointRepository).saveNextOffset(visitLog.getLogId(), offsets.get(4));
+        verify(visitLogCheckpointRepository).saveNextOffset(visitLog.getLogId(), VisitSegment.baseOffset(sealed.get(1)));
+        verify(clickRollupService, times(6)).write(any());
+        verify(urlVisitBatchRepository, times(6)).insert(any(), eq(2));
+        assertEquals(10, meterRegistry.counter("url_visit.log.compacted").count());
+    }
+
+    @Test
+    void compactPending_resumeSegmentFromInSegmentCheckpoint() throws IOException {
+        inTransaction();
+        List<Long> offsets = new ArrayList<>();
+        VisitSegment.read(sealed.get(0), (record, offset) -> offsets.add(offset));
+        when(visitLogCheckpointRepository.findNextOffset(visitLog.getLogId())).thenReturn(offsets.get(2));
+
+        compactor.compactPending();
+
+        verify(visitLogCheckpointRepository).saveNextOffset(visitLog.getLogId(), VisitSegment.baseOffset(sealed.get(1)));
+        verify(clickRollupService, times(2)).write(any());
+        assertEquals(8, meterRegistry.counter("url_visit.log.compacted").count());
+    }
+
+    @Test
+    void compactPending_countVisitRowsOfUnpersistedUrls() throws IOException {
+        inTransaction();
+        when(visitLogCheckpointRepository.findNextOffset(visitLog.getLogId())).thenReturn(0L);
+        when(urlVisitBatchRepository.insert(any(), eq(1000))).thenReturn(2, 0);
+
+        compactor.compactPending();
+
+        assertEquals(2, meterRegistry.counter("url_visit.log.skipped").count());
+        assertEquals(10, meterRegistry.counter("url_visit.log.compacted").count());
+    }
+
+    @Test
+    void compactPending_whenWriteFails_keepCheckpointAndStop() {
+        inTransaction();
+        when(visitLogCheckpointRepository.findNextOffset(visitLog.getLogId())).thenReturn(0L);
+        when(clickRollupService.write(any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> compactor.compactPending());
+
+        verify(clickRollupService).write(any());
+        verify(visitLogCheckpointRepository, never()).saveNextOffset(anyString(), anyLong());
+    }
+
+    @Test
+    void compact_whenCompactionFails_countFailure() {
+        when(visitLogCheckpointRepository.findNextOffset(visitLog.getLogId())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        compactor.compact();
+
+        assertEquals(1, meterRegistry.counter("url_visit.log.compaction.failures").count());
+    }
+
+    private VisitLogProperties props(int batchSize) {
+        return new VisitLogProperties(directory.toString(), 256, 60_000, 1, 5000, true, batchSize, 86_400_000);
+    }
+
+    private VisitLogCompactor newCompactor(int batchSize) {
+        VisitLogCompactor visitLogCompactor = new VisitLogCompactor(props(batchSize), visitLog, clickRollupService,
+                                                                    uniqueVisitorService, userAgentClassifier, geoIpService,
+                                                                    urlVisitBatchRepository, visitLogCheckpointRepository,
+                                                                    transactionTemplate, meterRegistry);
+        visitLogCompactor.init();
+        return visitLogCompactor;
+    }
+
+    private void inTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<Integer>>getArgument(0)
+                                                                                    .doInTransaction(null));
+    }
+}
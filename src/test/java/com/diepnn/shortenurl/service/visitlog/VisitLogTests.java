@@ -0,0 +1,150 @@
+package com.diepnn.shortenurl.service.visitlog;
+
+import com.diepnn.shortenurl.common.properties.VisitLogProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VisitLogTests {
+    private static final LocalDateTime VISITED_AT = LocalDateTime.of(2026, 3, 14, 15, 9, 26);
+
+    @TempDir
+    private Path directory;
+
+    private VisitLog visitLog;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (visitLog != null) {
+            visitLog.shutdown();
+        }
+    }
+
+    @Test
+    void append_recordsAreReplayedInOrderWithTheirOffsets() throws IOException {
+        visitLog = open(1 << 20);
+        VisitRecord first = record(1L, "Mozilla/5.0 (X11; Linux x86_64) Firefox/143.0", "VN");
+        VisitRecord second = record(2L, null, null);
+
+        long firstEnd = visitLog.append(first);
+        long secondEnd = visitLog.append(second);
+
+        List<VisitRecord> records = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        visitLog.replay(0, (record, offset) -> {
+            records.add(record);
+            offsets.add(offset);
+        });
+        assertEquals(List.of(first, second), records);
+        assertEquals(List.of(0L, firstEnd), offsets);
+
+        List<VisitRecord> fromSecond = new ArrayList<>();
+        visitLog.replay(firstEnd, (record, offset) -> fromSecond.add(record));
+        assertEquals(List.of(second), fromSecond);
+        assertTrue(secondEnd > firstEnd);
+    }
+
+    @Test
+    void append_whenSegmentIsFull_rollToNextSegmentAtItsEnd() throws IOException {
+        visitLog = open(256);
+        long end = 0;
+        // About 50 bytes per record, 5 per segment
+        for (int i = 0; i < 12; i++) {
+            end = visitLog.append(record(i, "curl/8.5.0", "VN"));
+        }
+
+        visitLog.awaitDurable(end);
+
+        List<Path> sealed = visitLog.sealedSegments();
+        assertEquals(2, sealed.size());
+        assertEquals(0L, VisitSegment.baseOffset(sealed.getFirst()));
+        assertEquals(VisitSegment.baseOffset(sealed.get(0)) + VisitSegment.read(sealed.get(0), null),
+                     VisitSegment.baseOffset(sealed.get(1)));
+
+        List<VisitRecord> records = new ArrayList<>();
+        visitLog.replay(0, (record, offset) -> records.add(record));
+        assertEquals(12, records.size());
+    }
+
+    @Test
+    void init_afterRestart_continueAfterLastRecordAndKeepLogId() throws IOException, InterruptedException {
+        visitLog = open(1 << 20);
+        String logId = visitLog.getLogId();
+        long end = visitLog.append(record(1L, "curl/8.5.0", "VN"));
+        visitLog.shutdown();
+
+        visitLog = open(1 << 20);
+        VisitRecord next = record(2L, "curl/8.5.0", "VN");
+        visitLog.append(next);
+
+        assertEquals(logId, visitLog.getLogId());
+        assertEquals(List.of(directory.resolve(VisitSegment.fileName(0))), visitLog.sealedSegments());
+        List<Long> offsets = new ArrayList<>();
+        visitLog.replay(end, (record, offset) -> {
+            assertEquals(next, record);
+            offsets.add(offset);
+        });
+        assertEquals(List.of(end), offsets);
+    }
+
+    @Test
+    void init_whenLastRecordIsTorn_startNewSegmentAtLastValidRecord() throws IOException, InterruptedException {
+        visitLog = open(1 << 20);
+        VisitRecord first = record(1L, "curl/8.5.0", "VN");
+        long firstEnd = visitLog.append(first);
+        visitLog.append(record(2L, "curl/8.5.0", "VN"));
+        visitLog.shutdown();
+
+        // Flip a payload byte of the second record, as if the crash happened while writing it
+        try (FileChannel channel = FileChannel.open(directory.resolve(VisitSegment.fileName(0)), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), firstEnd + VisitRecord.HEADER_BYTES + 1);
+        }
+
+        visitLog = open(1 << 20);
+        VisitRecord third = record(3L, null, null);
+        visitLog.append(third);
+
+        List<VisitRecord> records = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        visitLog.replay(0, (record, offset) -> {
+            records.add(record);
+            offsets.add(offset);
+        });
+        assertEquals(List.of(first, third), records);
+        assertEquals(List.of(0L, firstEnd), offsets);
+    }
+
+    @Test
+    void append_whenClosed_throwIllegalStateException() throws InterruptedException {
+        visitLog = open(1 << 20);
+        visitLog.shutdown();
+
+        assertThrows(IllegalStateException.class, () -> visitLog.append(record(1L, null, null)));
+        visitLog = null;
+    }
+
+    private VisitLog open(int segmentSizeBytes) throws IOException {
+        VisitLog log = new VisitLog(new VisitLogProperties(directory.toString(), segmentSizeBytes, 60_000, 1, 5000, true, 1000, 86_400_000),
+                                    new SimpleMeterRegistry());
+        log.init();
+        return log;
+    }
+
+    private static VisitRecord record(long urlId, String userAgent, String country) {
+        return new VisitRecord(urlId, VISITED_AT, "10.0.0.1", userAgent, country);
+    }
+}
@@ -0,0 +1,209 @@
+package com.diepnn.shortenurl.service.writebehind;
+
+import com.diepnn.shortenurl.common.properties.UrlInfoProperties;
+import com.diepnn.shortenurl.common.properties.WriteBehindProperties;
+import com.diepnn.shortenurl.config.JacksonConfig;
+import com.diepnn.shortenurl.dto.cache.PendingUrlInfo;
+import com.diepnn.shortenurl.dto.cache.UrlInfoCache;
+import com.diepnn.shortenurl.entity.UrlInfo;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository;
+import com.diepnn.shortenurl.repository.UrlInfoBatchRepository.InsertOutcome;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UrlInfoWriteBehindServiceTests {
+    private static final String PENDING_KEY = "url-info-write-behind::pending";
+    private static final String PROCESSING_KEY = "url-info-write-behind::processing::node-1";
+    private static final String NODES_KEY = "url-info-write-behind::nodes";
+    private static final String QUEUED_KEY = "url-info-write-behind::queued";
+    private static final String QUEUED_IDS_KEY = "url-info-write-behind::queued-ids";
+
+    @Mock
+    private UrlInfoBatchRepository urlInfoBatchRepository;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, Object> zSetOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private SetOperations<String, Object> setOperations;
+
+    @Mock
+    private ListOperations<String, Object> listOperations;
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private UrlInfoWriteBehindService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new UrlInfoWriteBehindService(new WriteBehindProperties(true, 2, 1000, "node-1", 60000),
+                                                new UrlInfoProperties(1000, 500, true, false),
+                                                urlInfoBatchRepository,
+                                                redisTemplate,
+                                                new DefaultResourceLoader(),
+                                                objectMapper,
+                                                meterRegistry);
+        service.init();
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    }
+
+    @Test
+    void enqueue_keepsTheUrlResolvableUntilFlushed() {
+        when(redisTemplate.opsForList()).thenReturn(listOperations);
+
+        service.enqueue(UrlInfo.builder().id(1L).shortCode("b").originalUrl("https://example.com").build());
+
+        verify(hashOperations).put(QUEUED_KEY, "b", new UrlInfoCache(1L, "https://example.com"));
+        verify(setOperations).add(QUEUED_IDS_KEY, 1L);
+        verify(listOperations).rightPush(eq(PENDING_KEY), any(PendingUrlInfo.class));
+    }
+
+    @Test
+    void enqueue_whenPushFails_forgetTheUrl() {
+        when(redisTemplate.opsForList()).thenReturn(listOperations);
+        when(listOperations.rightPush(eq(PENDING_KEY), any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                     () -> service.enqueue(UrlInfo.builder().id(1L).shortCode("b").originalUrl("https://example.com").build()));
+
+        verify(hashOperations).delete(QUEUED_KEY, "b");
+        verify(setOperations).remove(QUEUED_IDS_KEY, 1L);
+    }
+
+    @Test
+    void findQueued_readsTheQueuedUrl() {
+        when(hashOperations.get(QUEUED_KEY, "b")).thenReturn(new UrlInfoCache(1L, "https://example.com"));
+        when(setOperations.isMember(QUEUED_IDS_KEY, 1L)).thenReturn(true);
+
+        assertEquals(new UrlInfoCache(1L, "https://example.com"), service.findQueued("b"));
+        assertEquals(true, service.isQueued(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushBatch_persistsClaimedEntriesAndDeletesProcessingList() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(PENDING_KEY, PROCESSING_KEY)), eq(2)))
+                .thenReturn(List.of(queued(1L, "b"), queued(2L, "c")));
+        when(urlInfoBatchRepository.insert(any(), eq(500))).thenReturn(new InsertOutcome[] {InsertOutcome.INSERTED, InsertOutcome.INSERTED});
+
+        assertEquals(2, service.flushBatch());
+
+        ArgumentCaptor<List<UrlInfo>> captor = ArgumentCaptor.forClass(List.class);
+        verify(urlInfoBatchRepository).insert(captor.capture(), eq(500));
+        assertEquals("b", captor.getValue().get(0).getShortCode());
+        assertEquals(2L, captor.getValue().get(1).getId());
+        verify(hashOperations).delete(QUEUED_KEY, "b", "c");
+        verify(setOperations).remove(QUEUED_IDS_KEY, 1L, 2L);
+        verify(redisTemplate).delete(PROCESSING_KEY);
+        assertEquals(2.0, meterRegistry.counter("url_info.write_behind.persisted").count());
+    }
+
+    @Test
+    void flushBatch_collidedEntryIsAFailure() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(PENDING_KEY, PROCESSING_KEY)), eq(2)))
+                .thenReturn(List.of(queued(1L, "b"), queued(2L, "c")));
+        when(urlInfoBatchRepository.insert(any(), anyInt())).thenReturn(new InsertOutcome[] {InsertOutcome.INSERTED, InsertOutcome.SHORT_CODE_EXISTS});
+
+        service.flushBatch();
+
+        assertEquals(1.0, meterRegistry.counter("url_info.write_behind.persisted").count());
+        assertEquals(1.0, meterRegistry.counter("url_info.write_behind.failures").count());
+        verify(redisTemplate).delete(PROCESSING_KEY);
+    }
+
+    @Test
+    void flushBatch_databaseFailure_requeuesProcessingList() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(PENDING_KEY, PROCESSING_KEY)), eq(2)))
+                .thenReturn(List.of(queued(1L, "b")));
+        when(urlInfoBatchRepository.insert(any(), anyInt())).thenThrow(new DataAccessResourceFailureException("db down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> service.flushBatch());
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(PROCESSING_KEY, PENDING_KEY)));
+        verify(redisTemplate, never()).delete(PROCESSING_KEY);
+        verifyNoInteractions(hashOperations);
+        assertEquals(1.0, meterRegistry.counter("url_info.write_behind.failures").count());
+    }
+
+    @Test
+    void flushBatch_emptyQueue_doesNothing() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(PENDING_KEY, PROCESSING_KEY)), eq(2)))
+                .thenReturn(List.of());
+
+        assertEquals(0, service.flushBatch());
+        verify(urlInfoBatchRepository, never()).insert(any(), anyInt());
+    }
+
+    @Test
+    void reconcile_movesProcessingListBackToPending() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(PROCESSING_KEY, PENDING_KEY)))).thenReturn(3L);
+
+        service.reconcile();
+
+        verify(zSetOperations).add(eq(NODES_KEY), eq("node-1"), anyDouble());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(PROCESSING_KEY, PENDING_KEY)));
+    }
+
+    @Test
+    void requeueDeadNodes_movesTheirProcessingListsBackToPendingAndForgetsThem() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeByScore(eq(NODES_KEY), eq(0.0), anyDouble())).thenReturn(Set.of("node-2"));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("url-info-write-behind::processing::node-2", PENDING_KEY))))
+                .thenReturn(2L);
+
+        service.requeueDeadNodes();
+
+        verify(zSetOperations).remove(NODES_KEY, "node-2");
+    }
+
+    /**
+     * Queued entries come back from Redis as maps since the value serializer has no type information.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> queued(Long id, String shortCode) {
+        PendingUrlInfo pending = new PendingUrlInfo(id, shortCode, "https://example.com", 1L, "127.0.0.1", "JUnit",
+                                                    LocalDateTime.of(2025, 1, 1, 0, 0), System.currentTimeMillis());
+        return objectMapper.convertValue(pending, Map.class);
+    }
+}
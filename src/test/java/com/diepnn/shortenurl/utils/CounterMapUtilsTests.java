@@ -0,0 +1,33 @@
+package com.diepnn.shortenurl.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CounterMapUtilsTests {
+    @Test
+    void drain_movesCountersAndEmptiesSource() {
+        Map<Long, Long> from = new ConcurrentHashMap<>(Map.of(1L, 3L, 2L, 1L));
+
+        Map<Long, Long> drained = CounterMapUtils.drain(from);
+
+        assertEquals(Map.of(1L, 3L, 2L, 1L), drained);
+        assertTrue(from.isEmpty());
+    }
+
+    @Test
+    void drain_intoExistingMap_replacesCounters() {
+        Map<String, Long> from = new ConcurrentHashMap<>(Map.of("a", 2L));
+        Map<String, Long> to = new HashMap<>(Map.of("b", 5L));
+
+        CounterMapUtils.drain(from, to);
+
+        assertEquals(Map.of("a", 2L, "b", 5L), to);
+        assertTrue(from.isEmpty());
+    }
+}
@@ -0,0 +1,55 @@
+package com.diepnn.shortenurl.utils;
+
+import com.diepnn.shortenurl.common.enums.VisitExportFormat;
+import com.diepnn.shortenurl.service.export.VisitExport;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExportResponseBuilderTests {
+    @Test
+    void acceptsGzip_listedWithoutQuality_returnTrue() {
+        assertTrue(ExportResponseBuilder.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ExportResponseBuilder.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+    }
+
+    @Test
+    void acceptsGzip_zeroQuality_returnFalse() {
+        assertFalse(ExportResponseBuilder.acceptsGzip("gzip;q=0"));
+        assertFalse(ExportResponseBuilder.acceptsGzip("*, gzip; q=0.000"));
+    }
+
+    @Test
+    void acceptsGzip_wildcard_decidesWhenGzipNotListed() {
+        assertTrue(ExportResponseBuilder.acceptsGzip("br, *;q=0.1"));
+        assertFalse(ExportResponseBuilder.acceptsGzip("identity, *;q=0"));
+    }
+
+    @Test
+    void acceptsGzip_missingOrOtherCodings_returnFalse() {
+        assertFalse(ExportResponseBuilder.acceptsGzip(null));
+        assertFalse(ExportResponseBuilder.acceptsGzip("identity"));
+    }
+
+    @Test
+    void attachment_varyOnAcceptEncoding() {
+        ResponseEntity<StreamingResponseBody> plain = ExportResponseBuilder.attachment(export(false));
+        ResponseEntity<StreamingResponseBody> gzip = ExportResponseBuilder.attachment(export(true));
+
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, plain.getHeaders().getFirst(HttpHeaders.VARY));
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, gzip.getHeaders().getFirst(HttpHeaders.VARY));
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private static VisitExport export(boolean gzip) {
+        return new VisitExport("visits.csv", VisitExportFormat.CSV, gzip, new JsonFactory(), writer -> {}, () -> {});
+    }
+}
@@ -0,0 +1,70 @@
+package com.diepnn.shortenurl.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReloadableFileTests {
+    @TempDir
+    private Path tempDir;
+
+    private final Counter failures = Counter.builder("failures").register(new SimpleMeterRegistry());
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ReloadableFile<String> file = new ReloadableFile<>("lines", "", reader -> {
+        loads.incrementAndGet();
+        return reader.readLine();
+    }, value -> value, failures);
+
+    @Test
+    void reload_whenBlank_keepEmptyValue() {
+        file.reload(" ");
+
+        assertEquals("", file.get());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void reload_loadsOnlyWhenSizeOrModificationTimeChanges() throws IOException {
+        Instant modified = Instant.parse("2026-01-01T00:00:00Z");
+        Path path = write("first", modified);
+        file.reload(path.toString());
+
+        write("other", modified);
+        file.reload(path.toString());
+        assertEquals("first", file.get());
+
+        write("second", modified.plusSeconds(1));
+        file.reload(path.toString());
+        assertEquals("second", file.get());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void reload_whenLoadFails_keepValueAndCountFailure() throws IOException {
+        Path path = write("first", Instant.parse("2026-01-01T00:00:00Z"));
+        file.reload(path.toString());
+
+        Files.delete(path);
+        file.reload(path.toString());
+
+        assertEquals("first", file.get());
+        assertEquals(1.0, failures.count());
+    }
+
+    private Path write(String content, Instant modified) throws IOException {
+        Path path = tempDir.resolve("file.txt");
+        Files.writeString(path, content);
+        Files.setLastModifiedTime(path, FileTime.from(modified));
+        return path;
+    }
+}
@@ -0,0 +1,33 @@
+package com.diepnn.shortenurl.utils;
+
+import com.diepnn.shortenurl.config.JacksonConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResponseWrapperBuilderTests {
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    @Test
+    void writeWithRawData_splicesDataIntoWrapper() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] rawData = "[{\"id\":1,\"short_url\":\"http://localhost:8080/abc\"}]".getBytes(StandardCharsets.UTF_8);
+
+        ResponseWrapperBuilder.writeWithRawData(objectMapper, ResponseWrapperBuilder.withNoData(HttpStatus.OK, "Found"),
+                                                rawData, out);
+
+        JsonNode body = objectMapper.readTree(out.toByteArray());
+        assertEquals(200, body.get("status").asInt());
+        assertEquals("Found", body.get("message").asText());
+        assertTrue(body.hasNonNull("timestamp"));
+        assertEquals(1, body.get("data").get(0).get("id").asLong());
+        assertEquals("http://localhost:8080/abc", body.get("data").get(0).get("short_url").asText());
+    }
+}
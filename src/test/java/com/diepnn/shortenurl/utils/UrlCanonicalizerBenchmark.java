@@ -0,0 +1,120 @@
+package com.diepnn.shortenurl.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link UrlCanonicalizer} with the previous create-time path: {@code URI.create} for validation,
+ * the {@code http://} prefix check for normalization and FNV-1a over {@code getBytes(UTF_8)} for the hash.
+ *
+ * <p>The corpus mimics submitted links: mostly canonical https URLs with tracking query strings, plus a share
+ * of inputs without scheme, with uppercase hosts, default ports, lowercase percent-escapes and non-ASCII paths
+ * that the canonicalizer has to rewrite. {@code rewriteRatio} controls that share. Scores are per URL; run with
+ * {@code -prof gc} to compare allocation per URL.</p>
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.includes=UrlCanonicalizerBenchmark}.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlCanonicalizerBenchmark {
+    private static final int CORPUS_SIZE = 1024;
+    private static final String BASE_HOST = "localhost";
+
+    private static final String[] HOSTS = {
+            "www.example.com", "docs.google.com", "github.com", "news.ycombinator.com", "en.wikipedia.org",
+            "shop.example.co.uk", "api.service.io", "blog.medium.com"
+    };
+    private static final String[] PATHS = {
+            "", "/", "/articles/2025/10/how-we-scaled", "/search", "/users/12345/repos", "/wiki/Uniform_Resource_Locator",
+            "/products/item-987654/reviews", "/d/1AbCdEfGhIjKlMnOpQrStUvWxYz/edit"
+    };
+    private static final String[] QUERIES = {
+            "", "?q=java+url+canonicalization", "?utm_source=newsletter&utm_medium=email&utm_campaign=launch",
+            "?id=42&ref=home#section-2", "?page=3&sort=desc"
+    };
+
+    /**
+     * Share of the corpus in a non-canonical form, in percent.
+     */
+    @Param({"10", "50"})
+    public int rewriteRatio;
+
+    private String[] corpus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        corpus = new String[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            String host = HOSTS[random.nextInt(HOSTS.length)];
+            String url = "https://" + host + PATHS[random.nextInt(PATHS.length)] + QUERIES[random.nextInt(QUERIES.length)];
+            corpus[i] = random.nextInt(100) < rewriteRatio ? rewrite(url, host, random) : url;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public long canonicalizer() {
+        long acc = 0;
+        for (String url : corpus) {
+            UrlCanonicalizer.CanonicalUrl canonical = UrlCanonicalizer.canonicalize(url);
+            acc ^= canonical.hash() + canonical.url().length();
+        }
+        return acc;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public long uriCreate() {
+        long acc = 0;
+        for (String url : corpus) {
+            URI uri = URI.create(url);
+            if (BASE_HOST.equals(uri.getHost() == null ? null : uri.getHost().toLowerCase())) {
+                throw new IllegalStateException("Prohibited domain");
+            }
+
+            String normalized = url.startsWith("http://") || url.startsWith("https://") ? url : "http://" + url;
+            acc ^= legacyHash(normalized) + normalized.length();
+        }
+        return acc;
+    }
+
+    private static String rewrite(String url, String host, Random random) {
+        return switch (random.nextInt(5)) {
+            case 0 -> url.substring("https://".length());
+            case 1 -> url.replace(host, host.toUpperCase());
+            case 2 -> url.replace(host, host + ":443");
+            case 3 -> url.replace("/search", "/%7esearch");
+            default -> url.replace("/wiki/", "/wiki/\u00dcber_");
+        };
+    }
+
+    private static long legacyHash(String url) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : url.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
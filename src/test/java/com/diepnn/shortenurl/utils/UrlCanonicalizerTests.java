@@ -0,0 +1,65 @@
+package com.diepnn.shortenurl.utils;
+
+import com.diepnn.shortenurl.utils.UrlCanonicalizer.CanonicalUrl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UrlCanonicalizerTests {
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "example.com                              | http://example.com",
+            "HTTPS://Example.COM                      | https://example.com",
+            "http://example.com/                      | http://example.com",
+            "http://example.com:80/a/                 | http://example.com/a/",
+            "https://example.com:443?q=1              | https://example.com?q=1",
+            "https://example.com:0443/a               | https://example.com/a",
+            "http://example.com:08080/a               | http://example.com:8080/a",
+            "http://example.com:/a                    | http://example.com/a",
+            "localhost:8080/abc                       | http://localhost:8080/abc",
+            "http://example.com/%7euser/%2f%41        | http://example.com/~user/%2FA",
+            "http://example.com/a b?q=a b#x y         | http://example.com/a%20b?q=a%20b#x%20y",
+            "http://example.com/p?a=/b?c#f/g?h#i      | http://example.com/p?a=/b?c#f/g?h%23i",
+            "http://example.com/caf\u00e9           | http://example.com/caf%C3%A9",
+            "http://b\u00fccher.de/                 | http://xn--bcher-kva.de",
+            "http://[::1]:80/x                        | http://[::1]/x",
+            "'  http://example.com/Path  '            | http://example.com/Path"
+    })
+    void canonicalize_appliesSafeNormalizations(String input, String expected) {
+        CanonicalUrl canonical = UrlCanonicalizer.canonicalize(input);
+
+        assertEquals(expected, canonical.url());
+        assertEquals(UrlHashUtils.hash(expected), canonical.hash());
+    }
+
+    @Test
+    void canonicalize_nearDuplicates_shareUrlAndHash() {
+        CanonicalUrl first = UrlCanonicalizer.canonicalize("HTTP://Example.com:80/%7Ea?x=%3d");
+        CanonicalUrl second = UrlCanonicalizer.canonicalize("example.COM/~a?x=%3D");
+
+        assertEquals(first, second);
+        assertEquals("example.com", first.host());
+    }
+
+    @Test
+    void canonicalize_canonicalInput_returnsSameString() {
+        String url = "https://example.com:8443/a/b?q=1#top";
+
+        assertSame(url, UrlCanonicalizer.canonicalize(url).url());
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {" ", "ftp://example.com", "http://", "http://user@example.com", "http://example.com:65536",
+                            "http://example.com:8o", "http://exa mple.com", "http://example.com/%2", "http://example.com/%zz",
+                            "http://[::1"})
+    void canonicalize_invalidUrl_throwsIllegalArgumentException(String input) {
+        assertThrows(IllegalArgumentException.class, () -> UrlCanonicalizer.canonicalize(input));
+    }
+}
@@ -0,0 +1,54 @@
+package com.diepnn.shortenurl.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class UrlHashUtilsTests {
+    @Test
+    void hash_matchesFnv1aReferenceVectors() {
+        assertEquals(0xcbf29ce484222325L, UrlHashUtils.hash(""));
+        assertEquals(0xaf63dc4c8601ec8cL, UrlHashUtils.hash("a"));
+        assertEquals(0x85944171f73967e8L, UrlHashUtils.hash("foobar"));
+    }
+
+    @Test
+    void hash_isStableAndDistinguishesUrls() {
+        assertEquals(UrlHashUtils.hash("https://example.com/a"), UrlHashUtils.hash("https://example.com/a"));
+        assertNotEquals(UrlHashUtils.hash("https://example.com/a"), UrlHashUtils.hash("https://example.com/b"));
+    }
+
+    @Test
+    void hash_nonAsciiUrl_hashesUtf8Bytes() {
+        String url = "https://example.com/b\u00fccher";
+        long expected = 0xcbf29ce484222325L;
+        for (byte b : url.getBytes(StandardCharsets.UTF_8)) {
+            expected ^= (b & 0xff);
+            expected *= 0x100000001b3L;
+        }
+
+        assertEquals(expected, UrlHashUtils.hash(url));
+    }
+
+    @Test
+    void fnv1a_continuesFromSeed() {
+        long seeded = UrlHashUtils.fnv1a(UrlHashUtils.fnv1a(UrlHashUtils.FNV_OFFSET_BASIS, "foo"), "bar");
+        long bytes = UrlHashUtils.FNV_OFFSET_BASIS;
+        for (byte b : "foobar".getBytes(StandardCharsets.UTF_8)) {
+            bytes = UrlHashUtils.fnv1a(bytes, b);
+        }
+
+        assertEquals(UrlHashUtils.hash("foobar"), seeded);
+        assertEquals(UrlHashUtils.hash("foobar"), bytes);
+        assertEquals(42L, UrlHashUtils.fnv1a(42L, (String) null));
+    }
+
+    @Test
+    void hash_nullUrl_returnsNull() {
+        assertNull(UrlHashUtils.hash(null));
+    }
+}
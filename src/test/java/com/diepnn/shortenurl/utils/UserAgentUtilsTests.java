@@ -0,0 +1,57 @@
+package com.diepnn.shortenurl.utils;
+
+import com.diepnn.shortenurl.dto.UserAgentInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UserAgentUtilsTests {
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36|Chrome",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 18_0 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) CriOS/141.0 Mobile/15E148 Safari/604.1|Chrome",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36 Edg/141.0.0.0|Edge",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36 OPR/123.0.0.0|Opera",
+            "Mozilla/5.0 (Linux; Android 14) AppleWebKit/537.36 (KHTML, like Gecko) SamsungBrowser/28.0 Chrome/130.0.0.0 Mobile Safari/537.36|Samsung Internet",
+            "Mozilla/5.0 (X11; Linux x86_64; rv:143.0) Gecko/20100101 Firefox/143.0|Firefox",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/18.0 Safari/605.1.15|Safari",
+            "Mozilla/5.0 (Windows NT 10.0; Trident/7.0; rv:11.0) like Gecko|Internet Explorer",
+            "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)|Bot",
+            "facebookexternalhit/1.1 (+http://www.facebook.com/externalhit_uatext.php)|Bot",
+            "curl/8.5.0|CLI",
+            "Mozilla/5.0|Other"
+    })
+    void family_returnFamilyOfKnownUserAgents(String userAgent, String expected) {
+        assertEquals(expected, UserAgentUtils.family(userAgent));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36|Chrome|Windows|Desktop|false",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 18_0 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) CriOS/141.0 Mobile/15E148 Safari/604.1|Chrome|iOS|Mobile|false",
+            "Mozilla/5.0 (iPad; CPU OS 18_0 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/18.0 Mobile/15E148 Safari/604.1|Safari|iOS|Tablet|false",
+            "Mozilla/5.0 (Linux; Android 14) AppleWebKit/537.36 (KHTML, like Gecko) SamsungBrowser/28.0 Chrome/130.0.0.0 Mobile Safari/537.36|Samsung Internet|Android|Mobile|false",
+            "Mozilla/5.0 (Linux; Android 14; SM-X710) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36|Chrome|Android|Tablet|false",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/18.0 Safari/605.1.15|Safari|macOS|Desktop|false",
+            "Mozilla/5.0 (X11; CrOS x86_64 14541.0.0) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36|Chrome|ChromeOS|Desktop|false",
+            "Mozilla/5.0 (X11; Linux x86_64; rv:143.0) Gecko/20100101 Firefox/143.0|Firefox|Linux|Desktop|false",
+            "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)|Bot|Other|Other|true",
+            "curl/8.5.0|CLI|Other|Other|false"
+    })
+    void classify_returnFamilyOsDeviceAndBotFlag(String userAgent, String family, String os, String device, boolean bot) {
+        assertEquals(new UserAgentInfo(family, os, device, bot), UserAgentUtils.classify(userAgent));
+    }
+
+    @Test
+    void classify_whenMissing_returnUnknown() {
+        assertEquals(UserAgentUtils.UNKNOWN_INFO, UserAgentUtils.classify(null));
+    }
+
+    @Test
+    void family_whenMissing_returnUnknown() {
+        assertEquals(UserAgentUtils.UNKNOWN, UserAgentUtils.family(null));
+        assertEquals(UserAgentUtils.UNKNOWN, UserAgentUtils.family(" "));
+    }
+}